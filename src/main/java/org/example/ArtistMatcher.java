@@ -0,0 +1,251 @@
+package org.example;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether an artist name in a search result belongs to the artist
+ * that was searched for.
+ *
+ * <p>Names are compared by their tokens rather than as whole strings. A
+ * name is folded into lowercase tokens of letters and digits: diacritics
+ * are removed ({@code "Sigur Rós"} becomes {@code sigur ros}), dots and
+ * apostrophes inside a word are dropped ({@code "R.E.M."} becomes
+ * {@code rem}) and every other character separates tokens. A trailing
+ * featuring credit such as {@code "feat. X"} is ignored, and so are the
+ * filler words {@code the} and {@code and} ({@code &} is not a token), so
+ * {@code "The War On Drugs"} matches {@code war+on+drugs}. The remaining
+ * tokens match if their Dice similarity reaches the threshold. With the
+ * default threshold every token must match: a name with one more word,
+ * such as {@code "Viagra Boys Tribute"}, belongs to a different artist.</p>
+ *
+ * <p>A search response usually repeats the same few artist names, so the
+ * tokens of each name are cached and every further result costs a map
+ * lookup and a comparison of a few short tokens.</p>
+ *
+ * <p>Instances are immutable and safe to use from several threads.</p>
+ */
+public final class ArtistMatcher {
+
+    /**
+     * Default minimum similarity of matching names. Any lower value lets a
+     * term of {@code n} tokens match a name with one extra token once
+     * {@code 2n/(2n+1)} reaches it, so the default requires equal tokens.
+     */
+    public static final double DEFAULT_THRESHOLD = 1.0;
+
+    /** Cached names before the cache is cleared, bounding its memory. */
+    private static final int MAX_CACHED_NAMES = 4096;
+
+    private static final Map<String, String[]> TOKENS = new ConcurrentHashMap<>();
+    private static final String[] NO_TOKENS = new String[0];
+
+    private final String[] termTokens;
+    private final double threshold;
+
+    private ArtistMatcher(String[] termTokens, double threshold) {
+        this.termTokens = termTokens;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Creates a matcher for a search term, using {@link #DEFAULT_THRESHOLD}.
+     *
+     * @param term search term; {@code +} separates words as in a query string
+     * @return the matcher
+     */
+    public static ArtistMatcher forTerm(String term) {
+        return forTerm(term, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a matcher for a search term.
+     *
+     * @param term      search term; {@code +} separates words as in a query string
+     * @param threshold minimum similarity, between {@code 0} exclusive and {@code 1} inclusive
+     * @return the matcher
+     * @throws IllegalArgumentException if the threshold is out of range
+     */
+    public static ArtistMatcher forTerm(String term, double threshold) {
+        if (!(threshold > 0 && threshold <= 1)) {
+            throw new IllegalArgumentException("Invalid similarity threshold: " + threshold);
+        }
+        return new ArtistMatcher(comparable(tokens(term)), threshold);
+    }
+
+    /**
+     * Checks whether an artist name matches the term.
+     *
+     * @param artistName artist name of a result
+     * @return {@code true} if the name's similarity to the term reaches the threshold
+     */
+    public boolean matches(String artistName) {
+        if (artistName == null) {
+            return false;
+        }
+        String[] nameTokens = cachedTokens(artistName);
+        if (Arrays.equals(termTokens, nameTokens)) {
+            return true;
+        }
+        return similarity(termTokens, nameTokens) >= threshold;
+    }
+
+    /**
+     * Folds a name into its comparison form: its tokens, joined by single spaces.
+     *
+     * @param s input string
+     * @return normalized string, or an empty string if {@code s} is {@code null}
+     */
+    public static String normalize(String s) {
+        return s == null ? "" : String.join(" ", tokens(s));
+    }
+
+    /**
+     * Dice similarity of two token lists: twice the number of shared tokens
+     * divided by the total number of tokens.
+     */
+    static double similarity(String[] a, String[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return a.length == b.length ? 1 : 0;
+        }
+        boolean[] used = new boolean[b.length];
+        int shared = 0;
+        for (String token : a) {
+            for (int j = 0; j < b.length; j++) {
+                if (!used[j] && token.equals(b[j])) {
+                    used[j] = true;
+                    shared++;
+                    break;
+                }
+            }
+        }
+        return 2.0 * shared / (a.length + b.length);
+    }
+
+    private static String[] cachedTokens(String name) {
+        String[] tokens = TOKENS.get(name);
+        if (tokens == null) {
+            if (TOKENS.size() >= MAX_CACHED_NAMES) {
+                TOKENS.clear();
+            }
+            tokens = comparable(tokens(name));
+            TOKENS.put(name, tokens);
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the tokens names are compared by: without a featuring credit
+     * and without filler words, unless the name consists of nothing else.
+     */
+    private static String[] comparable(String[] tokens) {
+        String[] credited = withoutFeaturing(tokens);
+        int fillers = 0;
+        for (String token : credited) {
+            if (isFiller(token)) {
+                fillers++;
+            }
+        }
+        if (fillers == 0 || fillers == credited.length) {
+            return credited;
+        }
+        String[] significant = new String[credited.length - fillers];
+        int i = 0;
+        for (String token : credited) {
+            if (!isFiller(token)) {
+                significant[i++] = token;
+            }
+        }
+        return significant;
+    }
+
+    private static boolean isFiller(String token) {
+        return token.equals("the") || token.equals("and");
+    }
+
+    /**
+     * Cuts the tokens at a featuring credit, unless the credit is the first token.
+     */
+    private static String[] withoutFeaturing(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            switch (tokens[i]) {
+                case "feat", "ft", "featuring" -> {
+                    return Arrays.copyOf(tokens, i);
+                }
+                default -> {
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Splits a name into folded tokens in a single pass. Only names with
+     * non-ASCII characters are decomposed first.
+     */
+    static String[] tokens(String s) {
+        String text = isAscii(s) ? s : Normalizer.normalize(s, Normalizer.Form.NFKD);
+        List<String> tokens = null;
+        StringBuilder token = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            switch (Character.getType(cp)) {
+                case Character.NON_SPACING_MARK, Character.ENCLOSING_MARK, Character.COMBINING_SPACING_MARK -> {
+                    continue;
+                }
+                default -> {
+                }
+            }
+            if (Character.isLetterOrDigit(cp)) {
+                appendFolded(token, Character.toLowerCase(cp));
+            } else if (cp == '.' || cp == '\'' || cp == '’') {
+                // inside a word, e.g. R.E.M. or Guns N' Roses
+                continue;
+            } else if (!token.isEmpty()) {
+                if (tokens == null) {
+                    tokens = new ArrayList<>(4);
+                }
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (tokens == null) {
+            return token.isEmpty() ? NO_TOKENS : new String[]{token.toString()};
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens.toArray(NO_TOKENS);
+    }
+
+    /**
+     * Appends a lowercase code point, spelling out letters that have no
+     * decomposition into a base letter.
+     */
+    private static void appendFolded(StringBuilder token, int cp) {
+        switch (cp) {
+            case 'ß' -> token.append("ss");
+            case 'æ' -> token.append("ae");
+            case 'œ' -> token.append("oe");
+            case 'ø' -> token.append('o');
+            case 'ł' -> token.append('l');
+            case 'đ' -> token.append('d');
+            case 'ı' -> token.append('i');
+            default -> token.appendCodePoint(cp);
+        }
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -4,10 +4,16 @@ import org.example.entity.Album;
 import org.example.entity.Artist;
 import org.example.entity.Playlist;
 import org.example.entity.Song;
+import org.example.ingest.CatalogSync;
+import org.example.ingest.IngestPipeline;
+import org.example.ingest.LibraryXmlImporter;
 import org.example.repo.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -20,96 +26,151 @@ import java.util.List;
  *   <li>Ensuring required default playlists exist</li>
  * </ul>
  *
- * <p>The initializer is designed to be idempotent: data is only inserted
- * if the database is empty or missing required entities.</p>
+ * <p>The catalog is synchronized incrementally by a {@link CatalogSync}:
+ * only artists whose last sync is older than the allowed age are fetched
+ * again, and only changed rows are written. A warm start whose catalog is
+ * current costs a single primary-key lookup.</p>
+ *
+ * <p>A sync that fails on a populated catalog is logged and the stored
+ * catalog is kept, so the application starts offline with its last
+ * known data. Only an empty catalog makes the failure fatal.</p>
  */
 public class DatabaseInitializer {
-
     private static final Logger logger = LoggerFactory.getLogger(DatabaseInitializer.class);
 
-    private final ItunesApiClient apiClient;
+    /** Default maximum age of an artist's data before it is fetched again. */
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofDays(7);
+
+    /** Artist searches the catalog is built from. Limited artist set due to project scope. */
+    static final List<String> SEARCHES = List.of("the+war+on+drugs",
+        "refused",
+        "thrice",
+        "16+horsepower",
+        "viagra+boys",
+        "geese",
+        "ghost",
+        "run+the+jewels",
+        "rammstein",
+        "salvatore+ganacci",
+        "baroness"
+    );
 
     private final SongRepository songRepo;
     private final AlbumRepository albumRepo;
     private final ArtistRepository artistRepo;
     private final PlaylistRepository playlistRepo;
+    private final CatalogSync catalogSync;
+    private final IngestPipeline deadLetterReplay;
 
     /**
      * Creates a new database initializer.
      *
-     * @param apiClient   client used to fetch data from the iTunes API
-     * @param songRepo    repository for {@link Song} entities
-     * @param albumRepo   repository for {@link Album} entities
-     * @param artistRepo  repository for {@link Artist} entities
-     * @param playlistRepo repository for {@link Playlist} entities
+     * @param apiClient      client used to fetch data from the iTunes API
+     * @param songRepo       repository for {@link Song} entities
+     * @param albumRepo      repository for {@link Album} entities
+     * @param artistRepo     repository for {@link Artist} entities
+     * @param playlistRepo   repository for {@link Playlist} entities
+     * @param syncRepo       repository for catalog sync bookkeeping
+     * @param deadLetterRepo repository storing records that failed to ingest
      */
-    public DatabaseInitializer(ItunesApiClient apiClient, SongRepository songRepo, AlbumRepository albumRepo, ArtistRepository artistRepo, PlaylistRepository playlistRepo) {
-        this.apiClient = apiClient;
+    public DatabaseInitializer(ItunesApiClient apiClient, SongRepository songRepo, AlbumRepository albumRepo, ArtistRepository artistRepo,
+                               PlaylistRepository playlistRepo, CatalogSyncRepository syncRepo, DeadLetterRepository deadLetterRepo) {
         this.songRepo = songRepo;
         this.albumRepo = albumRepo;
         this.artistRepo = artistRepo;
         this.playlistRepo = playlistRepo;
+        this.catalogSync = new CatalogSync(apiClient, artistRepo, albumRepo, songRepo, syncRepo, deadLetterRepo);
+        this.deadLetterReplay = new IngestPipeline(apiClient, artistRepo, albumRepo, songRepo, deadLetterRepo,
+            IngestPipeline.Options.defaults());
     }
 
     /**
-     * Initializes the database with music data and default playlists.
+     * Initializes the database with music data and default playlists,
+     * re-fetching artists older than {@link #DEFAULT_MAX_AGE}.
      *
-     * <p>If the song table is empty, a predefined set of artist searches
-     * is executed against the iTunes API. The resulting artists, albums,
-     * and songs are persisted while avoiding duplicates.</p>
+     * @throws RuntimeException if the catalog is empty and data fetching
+     *                          or persistence fails
+     */
+    public void init() {
+        sync(DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * Synchronizes the catalog and ensures the default playlists exist.
+     *
+     * <p>If the catalog version shows that every artist was synchronized
+     * within {@code maxAge}, the method returns after that one lookup.
+     * Otherwise the stale artists are fetched through an
+     * {@link org.example.ingest.IngestPipeline}, changed rows are written,
+     * and the "Library" and "Favorites" playlists are created if missing.
+     * Songs added by the sync are also added to the Library.</p>
      *
-     * <p>The method also ensures that required default playlists
-     * ("Library" and "Favorites") exist.</p>
+     * <p>If the sync fails while the catalog already holds songs, the
+     * failure is logged and the stored catalog is kept; the default
+     * playlists are still ensured.</p>
      *
-     * @throws RuntimeException if data fetching or persistence fails
+     * @param maxAge maximum age of an artist's data; {@link Duration#ZERO}
+     *               refreshes the whole catalog
+     * @throws RuntimeException if the catalog is empty and data fetching
+     *                          or persistence fails
      */
-    public void init() {
-        // Check if database is populated, populate if empty
-        if (songRepo.count() == 0) { // Limited artist set due to project scope
-            List<String> searches = List.of("the+war+on+drugs",
-                "refused",
-                "thrice",
-                "16+horsepower",
-                "viagra+boys",
-                "geese",
-                "ghost",
-                "run+the+jewels",
-                "rammstein",
-                "salvatore+ganacci",
-                "baroness"
-            );
-            for (String term : searches) {
-                try {
-                    apiClient.searchSongs(term).forEach(dto -> {
-                        Artist ar = Artist.fromDTO(dto);
-                        if (!artistRepo.existsByUniqueId(ar)) {
-                            artistRepo.save(ar);
-                        }
+    public void sync(Duration maxAge) {
+        if (catalogSync.isCurrent(SEARCHES, maxAge)) {
+            return;
+        }
 
-                        Album al = Album.fromDTO(dto, ar);
-                        if (!albumRepo.existsByUniqueId(al)) {
-                            albumRepo.save(al);
-                        }
+        // Warm known-id filters so existence checks for stored rows skip the database
+        artistRepo.warmKnownIds();
+        albumRepo.warmKnownIds();
+        songRepo.warmKnownIds();
 
-                        Song s = Song.fromDTO(dto, al);
-                        if (!songRepo.existsByUniqueId(s)) {
-                            songRepo.save(s);
-                        }
-                    });
-                } catch (Exception e) {
-                    logger.error("init: search or persist failed for term: {}", term, e);
-                    throw new RuntimeException("Failed to fetch or persist data for search term: " + term, e);
-                }
+        CatalogSync.Result result;
+        try {
+            result = catalogSync.sync(SEARCHES, maxAge);
+        } catch (RuntimeException e) {
+            if (songRepo.count() == 0) {
+                throw e;
             }
+            logger.warn("sync: catalog sync failed, keeping the stored catalog", e);
+            result = null;
         }
 
         // Ensure default playlists exist
         if (!playlistRepo.existsByUniqueId(1L)) {
             Playlist library = playlistRepo.createPlaylist("Library");
             playlistRepo.addSongs(library, songRepo.findAll());
+        } else if (result != null && !result.insertedSongIds().isEmpty()) {
+            playlistRepo.addSongsById(1L, result.insertedSongIds());
         }
         if (!playlistRepo.existsByUniqueId(2L)) {
             playlistRepo.createPlaylist("Favorites");
         }
     }
+
+    /**
+     * Re-processes the records that previously failed to ingest and adds
+     * the recovered songs to the Library.
+     *
+     * @return how many dead letters were replayed and how many failed again
+     */
+    public IngestPipeline.ReplayResult replayDeadLetters() {
+        IngestPipeline.ReplayResult result = deadLetterReplay.replayDeadLetters();
+        if (!result.insertedSongIds().isEmpty() && playlistRepo.existsByUniqueId(1L)) {
+            playlistRepo.addSongsById(1L, result.insertedSongIds());
+        }
+        return result;
+    }
+
+    /**
+     * Imports the tracks and playlists of an iTunes or Music app library
+     * export, adding the imported songs to the Library.
+     *
+     * @param xml path of the exported {@code Library.xml}
+     * @return summary of the import
+     * @throws IOException if the export cannot be read
+     */
+    public LibraryXmlImporter.Result importLibrary(Path xml) throws IOException {
+        return new LibraryXmlImporter(artistRepo, albumRepo, songRepo, playlistRepo, LibraryXmlImporter.Options.defaults())
+            .importFile(xml);
+    }
 }
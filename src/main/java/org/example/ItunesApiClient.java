@@ -1,20 +1,49 @@
 package org.example;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URL;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
  * Client for interacting with the iTunes Search API.
@@ -24,22 +53,145 @@ import java.util.List;
  * {@link ItunesDTO} objects.</p>
  *
  * <p>It performs basic response validation and result filtering
- * to ensure that only relevant data is returned.</p>
+ * to ensure that only relevant data is returned. Responses are requested
+ * compressed and parsed as a stream, without buffering the whole body.</p>
+ *
+ * <p>Every request first takes a permit from a {@link RateLimiter}.
+ * Throttling responses ({@code 403}, {@code 429}, {@code 503}) slow the
+ * limiter down and are retried after the server's {@code Retry-After}
+ * period and a jittered exponential backoff, see {@link Retry}.</p>
  */
 
 public class ItunesApiClient {
     private static final Logger logger = LoggerFactory.getLogger(ItunesApiClient.class);
+
+    /** Base address of Apple's public iTunes Search API. */
+    public static final URI DEFAULT_BASE_URI = URI.create("https://itunes.apple.com");
+
+    /** Default time allowed for a single request, including reading the body. */
+    public static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    /** Number of results requested by {@link #searchSongs(String)}. */
+    static final int DEFAULT_LIMIT = 20;
+
+    /** Largest page size accepted by the Search API. */
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /** Most ids sent in one lookup request. */
+    public static final int MAX_LOOKUP_IDS = 200;
+
+    /**
+     * Limiter shared by all clients of {@link #DEFAULT_BASE_URI}, which
+     * allows roughly 20 calls per minute.
+     */
+    private static final RateLimiter PUBLIC_API_LIMITER = RateLimiter.perMinute(20);
+
     private final HttpClient client;
     private final ObjectMapper mapper;
+    private final URI baseUri;
+    private final ItunesResponseCache cache;
+    private final RateLimiter rateLimiter;
+    private final Retry retry;
 
     /**
-     * Creates a new iTunes API client.
+     * Retry policy for throttled and failed requests.
+     *
+     * <p>Retry {@code n} (starting at zero) waits a random duration between
+     * zero and {@code min(maxBackoff, baseBackoff * 2^n)}. The random
+     * "full jitter" spreads out clients that were throttled together.</p>
+     *
+     * @param maxRetries  retries after the first attempt
+     * @param baseBackoff upper bound of the first backoff
+     * @param maxBackoff  upper bound of any backoff; also caps {@code Retry-After}
+     */
+    public record Retry(int maxRetries, Duration baseBackoff, Duration maxBackoff) {
+
+        public Retry {
+            if (maxRetries < 0 || !baseBackoff.isPositive() || maxBackoff.compareTo(baseBackoff) < 0) {
+                throw new IllegalArgumentException("Invalid retry policy");
+            }
+        }
+
+        /**
+         * Returns the default policy: six retries, backing off from half a
+         * second up to one minute.
+         *
+         * @return default retry policy
+         */
+        public static Retry defaults() {
+            return new Retry(6, Duration.ofMillis(500), Duration.ofMinutes(1));
+        }
+
+        /**
+         * Returns a random backoff for the given retry.
+         *
+         * @param retry zero-based retry number
+         * @return duration to wait before the retry
+         */
+        Duration backoff(int retry) {
+            long ceiling = Math.min(maxBackoff.toNanos(), baseBackoff.toNanos() << Math.min(retry, 30));
+            return Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        }
+    }
+
+    /**
+     * Creates a new iTunes API client for Apple's public endpoint.
      *
      * <p>Initializes an {@link HttpClient} and configures a Jackson
      * {@link ObjectMapper} with Java Time support.</p>
      */
     public ItunesApiClient() {
-        this.client = HttpClient.newHttpClient();
+        this(DEFAULT_BASE_URI);
+    }
+
+    /**
+     * Creates a new iTunes API client for the given endpoint.
+     *
+     * <p>The underlying {@link HttpClient} prefers HTTP/2, so concurrent
+     * requests share a single multiplexed connection to the server.</p>
+     *
+     * @param baseUri scheme, host and port of the API, e.g. {@link #DEFAULT_BASE_URI}
+     */
+    public ItunesApiClient(URI baseUri) {
+        this(baseUri, null);
+    }
+
+    /**
+     * Creates a new iTunes API client for the given endpoint, backed by a
+     * persistent response cache.
+     *
+     * <p>The underlying {@link HttpClient} prefers HTTP/2, so concurrent
+     * requests share a single multiplexed connection to the server.</p>
+     *
+     * @param baseUri scheme, host and port of the API, e.g. {@link #DEFAULT_BASE_URI}
+     * @param cache   response cache, or {@code null} to always use the network
+     */
+    public ItunesApiClient(URI baseUri, ItunesResponseCache cache) {
+        this(baseUri, cache, DEFAULT_BASE_URI.equals(baseUri) ? PUBLIC_API_LIMITER : RateLimiter.unlimited(),
+            Retry.defaults());
+    }
+
+    /**
+     * Creates a new iTunes API client with an explicit rate limit and retry policy.
+     *
+     * <p>Clients created with the other constructors share one limiter
+     * for {@link #DEFAULT_BASE_URI}; other endpoints are not limited
+     * unless they answer with throttling responses.</p>
+     *
+     * @param baseUri     scheme, host and port of the API, e.g. {@link #DEFAULT_BASE_URI}
+     * @param cache       response cache, or {@code null} to always use the network
+     * @param rateLimiter limiter every request takes a permit from
+     * @param retry       retry policy for throttled and failed requests
+     */
+    public ItunesApiClient(URI baseUri, ItunesResponseCache cache, RateLimiter rateLimiter, Retry retry) {
+        this.baseUri = baseUri;
+        this.cache = cache;
+        this.rateLimiter = rateLimiter;
+        this.retry = retry;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
         this.mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
     }
@@ -48,78 +200,663 @@ public class ItunesApiClient {
      * Searches for songs by artist name using the iTunes Search API.
      *
      * <p>The search results are filtered so that only songs whose
-     * artist name matches the provided term (after normalization)
-     * are returned.</p>
+     * artist name matches the provided term, as decided by an
+     * {@link ArtistMatcher}, are returned.</p>
+     *
+     * <p>Without a cache the response is decompressed and parsed while it
+     * streams in. With a cache the body is collected first so that it can
+     * be stored; see {@link #searchSongsAsync(String, Duration)}.</p>
      *
      * @param term artist search term
      * @return list of matching {@link ItunesDTO} objects
      * @throws Exception if the HTTP request or JSON parsing fails
      */
     public List<ItunesDTO> searchSongs(String term) throws Exception {
+        if (cache != null) {
+            try {
+                return searchSongsAsync(term).get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+
+        HttpRequest request = searchRequest(term, REQUEST_TIMEOUT);
+        for (int attempt = 0; ; attempt++) {
+            rateLimiter.acquire().join();
+            HttpResponse<InputStream> response;
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException e) {
+                if (!isRetryable(e) || attempt >= retry.maxRetries()) {
+                    throw e;
+                }
+                Thread.sleep(retry.backoff(attempt));
+                continue;
+            }
+
+            Duration delay;
+            try {
+                delay = throttle(response, attempt);
+            } catch (ItunesApiException e) {
+                response.body().close();
+                throw e;
+            }
+            if (delay != null) {
+                response.body().close();
+                Thread.sleep(delay);
+                continue;
+            }
+            try (InputStream raw = response.body()) {
+                checkStatus(response);
+                return parseSongs(decode(raw, contentEncoding(response)), term);
+            }
+        }
+    }
+
+    /**
+     * Searches for songs by artist name without blocking the calling thread.
+     *
+     * @param term artist search term
+     * @return future completing with the matching {@link ItunesDTO} objects
+     * @see #searchSongsAsync(String, Duration)
+     */
+    public CompletableFuture<List<ItunesDTO>> searchSongsAsync(String term) {
+        return searchSongsAsync(term, REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Searches for songs by artist name without blocking the calling thread.
+     *
+     * <p>The request is sent with {@link HttpClient#sendAsync}; the compressed
+     * body is collected and parsed once it has fully arrived. Results are
+     * filtered like {@link #searchSongs(String)}.</p>
+     *
+     * <p>If a response cache is configured, a fresh cached response is
+     * returned without contacting the server, and a stale one is
+     * revalidated with {@code If-None-Match} / {@code If-Modified-Since}.</p>
+     *
+     * <p>The returned future completes exceptionally with a
+     * {@link java.util.concurrent.TimeoutException} if an exchange takes
+     * longer than {@code timeout}, and with an {@link ItunesApiException}
+     * if the server keeps throttling after all retries. Cancelling the
+     * future, or any other exceptional completion, aborts the underlying
+     * HTTP exchange.</p>
+     *
+     * @param term    artist search term
+     * @param timeout maximum duration of the request, including the body
+     * @return future completing with the matching {@link ItunesDTO} objects
+     */
+    public CompletableFuture<List<ItunesDTO>> searchSongsAsync(String term, Duration timeout) {
+        CompletableFuture<EncodedBody> fetch = fetchAsync(searchRequest(term, timeout));
+        CompletableFuture<List<ItunesDTO>> result = fetch.thenApply(body -> {
+            try {
+                return parseSongs(decode(new ByteArrayInputStream(body.bytes()), body.encoding()), term);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        result.whenComplete((songs, e) -> {
+            if (e != null) {
+                fetch.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * One page of search results.
+     *
+     * @param songs       results on this page whose artist matches the search term
+     * @param resultCount number of results on this page before filtering by artist
+     * @param offset      offset of the first result on this page
+     * @param limit       requested page size
+     */
+    public record SearchPage(List<ItunesDTO> songs, int resultCount, int offset, int limit) {
+
+        /**
+         * Returns whether this is the last page of the search.
+         *
+         * @return {@code true} if the API returned fewer results than requested
+         */
+        public boolean isLast() {
+            return resultCount < limit;
+        }
+    }
+
+    /**
+     * Fetches one page of search results without blocking the calling thread.
+     *
+     * <p>Results are filtered like {@link #searchSongs(String)}, but
+     * {@link SearchPage#resultCount()} reports the unfiltered number of
+     * results, so callers can tell when the search is exhausted.</p>
+     *
+     * @param term   artist search term
+     * @param offset index of the first result to return
+     * @param limit  page size, at most {@value #MAX_PAGE_SIZE}
+     * @return future completing with the page
+     * @throws IllegalArgumentException if {@code offset} or {@code limit} is out of range
+     */
+    public CompletableFuture<SearchPage> searchPageAsync(String term, int offset, int limit) {
+        if (offset < 0 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Invalid page: offset " + offset + ", limit " + limit);
+        }
+        CompletableFuture<EncodedBody> fetch = fetchAsync(searchRequest(term, offset, limit, REQUEST_TIMEOUT));
+        CompletableFuture<SearchPage> result = fetch.thenApply(body -> {
+            try {
+                return parsePage(decode(new ByteArrayInputStream(body.bytes()), body.encoding()), term, offset, limit);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        result.whenComplete((page, e) -> {
+            if (e != null) {
+                fetch.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Runs many searches concurrently and hands each result to {@code onResult}
+     * as soon as it arrives.
+     *
+     * <p>Results are delivered in completion order, not in the order of
+     * {@code terms}, so consumers can start processing the first artist while
+     * later searches are still in flight. {@code onResult} may be called
+     * from several threads at once.</p>
+     *
+     * <p>The returned future completes once every search has finished. If any
+     * search failed, it completes exceptionally after the others have been
+     * delivered. Cancelling it cancels all searches still in flight.</p>
+     *
+     * @param terms    artist search terms
+     * @param onResult callback receiving each term together with its songs
+     * @return future completing when all searches are done
+     */
+    public CompletableFuture<Void> searchSongsAsync(Collection<String> terms, BiConsumer<String, List<ItunesDTO>> onResult) {
+        List<CompletableFuture<List<ItunesDTO>>> searches = new ArrayList<>(terms.size());
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            CompletableFuture<List<ItunesDTO>> search = searchSongsAsync(term);
+            searches.add(search);
+            deliveries.add(search.thenAccept(songs -> onResult.accept(term, songs)));
+        }
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new));
+        all.whenComplete((v, e) -> {
+            if (all.isCancelled()) {
+                searches.forEach(search -> search.cancel(true));
+            }
+        });
+        return all;
+    }
+
+    /**
+     * Looks up tracks by iTunes id and hands each one to {@code onResult}
+     * as soon as its batch arrives.
+     *
+     * <p>The ids are deduplicated and sent in batches of up to
+     * {@value #MAX_LOOKUP_IDS} comma-separated ids per request, so
+     * refreshing thousands of known tracks takes only tens of requests.
+     * All batches are requested concurrently, subject to the client's
+     * rate limit. {@code onResult} may be called from several threads at
+     * once.</p>
+     *
+     * <p>Without an entity the ids must be track ids and each found track
+     * is returned. With {@code entity} {@code "song"}, album or artist ids
+     * return the tracks of those albums or artists. Only track results are
+     * delivered; the album and artist records the API adds are skipped.</p>
+     *
+     * <p>The returned future completes once every batch has been delivered.
+     * If any batch failed, it completes exceptionally after the others have
+     * been delivered. Cancelling it cancels all batches still in flight.</p>
+     *
+     * @param ids      iTunes ids to look up
+     * @param entity   entity to return for each id, e.g. {@code "song"}, or
+     *                 {@code null} to return the ids' own records
+     * @param onResult callback receiving each track found
+     * @return future completing when all batches are done
+     */
+    public CompletableFuture<Void> lookup(Collection<Long> ids, String entity, Consumer<ItunesDTO> onResult) {
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        List<CompletableFuture<EncodedBody>> fetches = new ArrayList<>();
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += MAX_LOOKUP_IDS) {
+            List<Long> batch = distinct.subList(from, Math.min(from + MAX_LOOKUP_IDS, distinct.size()));
+            CompletableFuture<EncodedBody> fetch = fetchAsync(lookupRequest(batch, entity, REQUEST_TIMEOUT));
+            fetches.add(fetch);
+            deliveries.add(fetch.thenAccept(body -> {
+                try {
+                    parseResults(decode(new ByteArrayInputStream(body.bytes()), body.encoding()), null, onResult);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        logger.debug("lookup: {} ids in {} requests", distinct.size(), fetches.size());
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new));
+        all.whenComplete((v, e) -> {
+            if (all.isCancelled()) {
+                fetches.forEach(fetch -> fetch.cancel(true));
+            }
+        });
+        return all;
+    }
+
+    /**
+     * A response body together with its {@code Content-Encoding}.
+     */
+    private record EncodedBody(byte[] bytes, String encoding) {
+    }
+
+    /**
+     * Executes a GET request, consulting the response cache if one is configured.
+     *
+     * <p>Each attempt takes a permit from the rate limiter first. Throttled
+     * attempts, and attempts that failed with an I/O error other than a
+     * timeout, are retried according to the {@link Retry} policy.</p>
+     *
+     * <p>The future completes exceptionally with a
+     * {@link java.util.concurrent.TimeoutException} if an attempt exceeds
+     * the request's timeout. Cancelling it, or any other exceptional
+     * completion, aborts the HTTP exchange in flight.</p>
+     */
+    private CompletableFuture<EncodedBody> fetchAsync(HttpRequest request) {
+        URI uri = request.uri();
+
+        ItunesResponseCache.Entry cached = cache == null ? null : cache.get(uri);
+        if (cached != null && cache.isFresh(cached)) {
+            cache.hit(uri);
+            return CompletableFuture.completedFuture(new EncodedBody(cached.body(), "gzip"));
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+        if (cached != null) {
+            if (cached.etag() != null) {
+                builder.header("If-None-Match", cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                builder.header("If-Modified-Since", cached.lastModified());
+            }
+        }
+
+        CompletableFuture<EncodedBody> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<?>> inFlight = new AtomicReference<>();
+        result.whenComplete((body, e) -> {
+            CompletableFuture<?> exchange = inFlight.get();
+            if (e != null && exchange != null) {
+                exchange.cancel(true);
+            }
+        });
+        attemptAsync(builder.build(), cached, 0, result, inFlight);
+        return result;
+    }
+
+    /**
+     * Makes one attempt of a request once a permit is available, completing
+     * {@code result} or scheduling the next attempt.
+     */
+    private void attemptAsync(HttpRequest request, ItunesResponseCache.Entry cached, int attempt,
+                              CompletableFuture<EncodedBody> result, AtomicReference<CompletableFuture<?>> inFlight) {
+        rateLimiter.acquire().thenRun(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            Duration timeout = request.timeout().orElse(REQUEST_TIMEOUT);
+            CompletableFuture<HttpResponse<byte[]>> exchange =
+                client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            inFlight.set(exchange);
+            if (result.isDone()) {
+                exchange.cancel(true);
+                return;
+            }
+
+            // Chain on a plain future: futures derived from the client's own
+            // future cancel the exchange first and then fail to report isCancelled()
+            CompletableFuture<HttpResponse<byte[]>> received = new CompletableFuture<>();
+            exchange.whenComplete((r, e) -> {
+                if (e != null) {
+                    received.completeExceptionally(e);
+                } else {
+                    received.complete(r);
+                }
+            });
+
+            received.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((response, e) -> {
+                try {
+                    Duration delay;
+                    if (e != null) {
+                        exchange.cancel(true);
+                        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                        if (cause instanceof HttpTimeoutException) {
+                            cause = new TimeoutException(cause.getMessage());
+                        }
+                        if (!isRetryable(cause) || attempt >= retry.maxRetries()) {
+                            result.completeExceptionally(cause);
+                            return;
+                        }
+                        delay = retry.backoff(attempt);
+                    } else {
+                        delay = throttle(response, attempt);
+                    }
+                    if (delay != null) {
+                        CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS)
+                            .execute(() -> attemptAsync(request, cached, attempt + 1, result, inFlight));
+                        return;
+                    }
+                    result.complete(toBody(response, request.uri(), cached));
+                } catch (RuntimeException ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        }).exceptionally(e -> {
+            result.completeExceptionally(e);
+            return null;
+        });
+    }
+
+    /**
+     * Turns a successful or not-modified response into its body, updating the cache.
+     */
+    private EncodedBody toBody(HttpResponse<byte[]> response, URI uri, ItunesResponseCache.Entry cached) {
+        if (cached != null && response.statusCode() == 304) {
+            cache.revalidated(uri, cached);
+            return new EncodedBody(cached.body(), "gzip");
+        }
+        checkStatus(response);
+        if (cache == null) {
+            return new EncodedBody(response.body(), contentEncoding(response));
+        }
+        ItunesResponseCache.Entry stored = cache.store(uri, response.body(), contentEncoding(response),
+            response.headers().firstValue("ETag").orElse(null),
+            response.headers().firstValue("Last-Modified").orElse(null));
+        return new EncodedBody(stored.body(), "gzip");
+    }
+
+    /**
+     * Reports a response to the rate limiter and decides whether to retry it.
+     *
+     * @param response response of attempt {@code attempt}
+     * @param attempt  zero-based attempt number
+     * @return how long to wait before retrying, or {@code null} if the
+     * response was not throttled
+     * @throws ItunesApiException if the response was throttled and no retries are left
+     */
+    private Duration throttle(HttpResponse<?> response, int attempt) {
+        if (!ItunesApiException.isThrottled(response.statusCode())) {
+            rateLimiter.succeeded();
+            return null;
+        }
+        Duration retryAfter = retryAfter(response);
+        rateLimiter.throttled(retryAfter == null ? null : min(retryAfter, retry.maxBackoff()));
+        logger.warn("fetch: throttled with status {}, attempt {}, retry after {}",
+            response.statusCode(), attempt + 1, retryAfter);
+        if (attempt >= retry.maxRetries()) {
+            throw new ItunesApiException(response.statusCode(), retryAfter);
+        }
+        return retry.backoff(attempt);
+    }
+
+    /**
+     * Returns whether a failed attempt may succeed when repeated.
+     * Timeouts are not retried, since the caller chose the time limit.
+     */
+    private static boolean isRetryable(Throwable e) {
+        return e instanceof IOException && !(e instanceof HttpTimeoutException);
+    }
+
+    /**
+     * Reads the {@code Retry-After} header, given either in seconds or as an HTTP date.
+     *
+     * @return the requested pause, or {@code null} if the header is missing or invalid
+     */
+    static Duration retryAfter(HttpResponse<?> response) {
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Instant at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                Duration pause = Duration.between(Instant.now(), at);
+                return pause.isNegative() ? Duration.ZERO : pause;
+            } catch (DateTimeException ignored) {
+                logger.debug("fetch: invalid Retry-After {}", value);
+                return null;
+            }
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    /**
+     * Builds the search request for an artist term.
+     */
+    private HttpRequest searchRequest(String term, Duration timeout) {
+        return searchRequest(term, 0, DEFAULT_LIMIT, timeout);
+    }
+
+    /**
+     * Builds the request for one page of an artist search.
+     */
+    private HttpRequest searchRequest(String term, int offset, int limit, Duration timeout) {
         String encodedTerm = URLEncoder.encode(term, StandardCharsets.UTF_8);
-        String url = "https://itunes.apple.com/search?term=" + encodedTerm + "&entity=song&attribute=artistTerm&limit=20";
+        String url = baseUri + "/search?term=" + encodedTerm + "&entity=song&attribute=artistTerm&limit=" + limit
+            + (offset > 0 ? "&offset=" + offset : "");
 
-        HttpRequest request = HttpRequest.newBuilder()
+        return HttpRequest.newBuilder()
             .GET()
             .uri(URI.create(url))
-            .timeout(Duration.ofSeconds(10))
+            .header("Accept-Encoding", "gzip, deflate")
+            .timeout(timeout)
             .build();
+    }
 
-        HttpResponse<String> response =
-            client.send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * Builds the lookup request for one batch of ids.
+     */
+    private HttpRequest lookupRequest(List<Long> ids, String entity, Duration timeout) {
+        String url = baseUri + "/lookup?id=" + ids.stream().map(String::valueOf).collect(Collectors.joining(","))
+            + (entity == null ? "" : "&entity=" + URLEncoder.encode(entity, StandardCharsets.UTF_8));
 
-        // Validate HTTP response
+        return HttpRequest.newBuilder()
+            .GET()
+            .uri(URI.create(url))
+            .header("Accept-Encoding", "gzip, deflate")
+            .timeout(timeout)
+            .build();
+    }
+
+    /**
+     * Validates the HTTP status of a response.
+     *
+     * @throws ItunesApiException if the status is not {@code 200}
+     */
+    private static void checkStatus(HttpResponse<?> response) {
         if (response.statusCode() != 200) {
             logger.error("searchSongs: status code {}", response.statusCode());
-            throw new RuntimeException("API error: " + response.statusCode());
+            throw new ItunesApiException(response.statusCode(), retryAfter(response));
         }
+    }
 
-        // Parse JSON response
-        JsonNode root = mapper.readTree(response.body());
-        JsonNode results = root.get("results");
-        if (results == null || !results.isArray()) {
-            logger.debug("searchSongs: no results");
-            return List.of();
-        }
+    private static String contentEncoding(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Encoding").orElse("");
+    }
+
+    /**
+     * Wraps a response body in the decompressor matching its content encoding.
+     *
+     * @param body     raw response body
+     * @param encoding value of the {@code Content-Encoding} header, possibly empty
+     * @return stream yielding the decoded body
+     * @throws IOException if the gzip header cannot be read
+     */
+    static InputStream decode(InputStream body, String encoding) throws IOException {
+        return switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(body, 8192);
+            case "deflate" -> new InflaterInputStream(body);
+            default -> body;
+        };
+    }
 
-        String normalizedTerm = normalize(term);
+    /**
+     * Parses a search response and returns the songs by the searched artist.
+     *
+     * <p>The body is scanned once with a streaming {@link JsonParser}; no
+     * string copy of the body or JSON tree is built. Each result is read
+     * field by field, and an {@link ItunesDTO} is only created for results
+     * whose artist name matches {@code term}.</p>
+     *
+     * @param body decoded JSON response body
+     * @param term artist search term used for filtering
+     * @return list of matching {@link ItunesDTO} objects
+     * @throws IOException if the body is not valid JSON
+     */
+    List<ItunesDTO> parseSongs(InputStream body, String term) throws IOException {
+        return parsePage(body, term, 0, DEFAULT_LIMIT).songs();
+    }
 
+    /**
+     * Parses a search response like {@link #parseSongs(InputStream, String)},
+     * also counting the results before filtering.
+     */
+    SearchPage parsePage(InputStream body, String term, int offset, int limit) throws IOException {
         List<ItunesDTO> songs = new ArrayList<>();
-        for (JsonNode node : results) {
-            ItunesDTO song = mapper.treeToValue(node, ItunesDTO.class);
+        int resultCount = parseResults(body, ArtistMatcher.forTerm(term), songs::add);
+        return new SearchPage(songs, resultCount, offset, limit);
+    }
 
-            if (song.artistName() == null) {
-                logger.warn("searchSongs: artistName is null");
-                continue;
+    /**
+     * Streams the track results of a search or lookup response to {@code onResult}.
+     *
+     * @param matcher matcher results' artist names must satisfy, or
+     *                {@code null} to accept every track
+     * @return number of results in the response, including skipped ones
+     */
+    private int parseResults(InputStream body, ArtistMatcher matcher, Consumer<ItunesDTO> onResult) throws IOException {
+        int resultCount = 0;
+
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                logger.debug("searchSongs: no results");
+                return 0;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"results".equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    resultCount++;
+                    ItunesDTO song = readSong(parser, matcher);
+                    if (song != null) {
+                        onResult.accept(song);
+                    }
+                }
+            }
+        }
+        return resultCount;
+    }
+
+    /**
+     * Reads one result object, leaving the parser on its closing brace.
+     *
+     * @return the song, or {@code null} if the result is not a track or its
+     * artist does not match
+     */
+    private ItunesDTO readSong(JsonParser parser, ArtistMatcher matcher) throws IOException {
+        Long artistId = null, collectionId = null, trackId = null, trackCount = null, trackTimeMillis = null;
+        String trackName = null, artistName = null, collectionName = null, country = null,
+            primaryGenreName = null, releaseDate = null, artworkUrl100 = null, previewUrl = null, wrapperType = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "artistId" -> artistId = longValue(parser);
+                case "collectionId" -> collectionId = longValue(parser);
+                case "trackId" -> trackId = longValue(parser);
+                case "trackCount" -> trackCount = longValue(parser);
+                case "trackTimeMillis" -> trackTimeMillis = longValue(parser);
+                case "trackName" -> trackName = parser.getValueAsString();
+                case "artistName" -> artistName = parser.getValueAsString();
+                case "collectionName" -> collectionName = parser.getValueAsString();
+                case "country" -> country = parser.getValueAsString();
+                case "primaryGenreName" -> primaryGenreName = parser.getValueAsString();
+                case "releaseDate" -> releaseDate = parser.getValueAsString();
+                case "artworkUrl100" -> artworkUrl100 = parser.getValueAsString();
+                case "previewUrl" -> previewUrl = parser.getValueAsString();
+                case "wrapperType" -> wrapperType = parser.getValueAsString();
+                default -> parser.skipChildren();
             }
+        }
+
+        if (wrapperType != null && !"track".equals(wrapperType)) {
+            return null;
+        }
 
-            String normalizedArtist = normalize(song.artistName());
+        if (artistName == null) {
+            logger.warn("searchSongs: artistName is null");
+            return null;
+        }
+        if (matcher != null && !matcher.matches(artistName)) {
+            return null;
+        }
+        return new ItunesDTO(artistId, collectionId, trackId, trackName, artistName, collectionName, country,
+            primaryGenreName, parseDate(releaseDate), trackCount, trackTimeMillis, parseUrl(artworkUrl100), previewUrl);
+    }
 
-            if (normalizedTerm.equals(normalizedArtist)) {
-                songs.add(song);
+    private static Long longValue(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+    }
+
+    /**
+     * Parses an iTunes release date such as {@code 2004-09-27T07:00:00Z}.
+     * Instants are converted to their UTC date.
+     */
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.length() < 10) {
+            return null;
+        }
+        try {
+            if (value.length() > 10 && value.charAt(10) == 'T' && value.endsWith("Z")) {
+                return LocalDate.ofInstant(Instant.parse(value), ZoneOffset.UTC);
             }
+            return LocalDate.parse(value.substring(0, 10));
+        } catch (DateTimeException e) {
+            logger.debug("searchSongs: unparseable release date {}", value);
+            return null;
         }
+    }
 
-        return songs;
+    private static URL parseUrl(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return URI.create(value).toURL();
+        } catch (IllegalArgumentException | MalformedURLException e) {
+            logger.debug("searchSongs: invalid artwork URL {}", value);
+            return null;
+        }
     }
 
     /**
      * Normalizes a string for comparison purposes.
      *
-     * <p>The normalization process converts the string to lowercase,
-     * collapses whitespace and plus characters, and trims leading
-     * and trailing spaces.</p>
-     *
      * @param s input string
      * @return normalized string, or an empty string if {@code s} is {@code null}
+     * @see ArtistMatcher#normalize(String)
      */
     public String normalize(String s) {
-        if (s == null) {
-            return "";
-        }
-        return s.toLowerCase()
-            .replaceAll("[+\\s]+", " ")
-            .trim();
+        return ArtistMatcher.normalize(s);
     }
 }
 
@@ -0,0 +1,49 @@
+package org.example;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the iTunes API answers a request with an error status.
+ *
+ * <p>Throttling responses are retried by {@link ItunesApiClient}; this
+ * exception reaches the caller only once the retries are exhausted, or
+ * for statuses that are not worth retrying.</p>
+ */
+public class ItunesApiException extends RuntimeException {
+
+    private final int statusCode;
+    private final Duration retryAfter;
+
+    /**
+     * Creates a new exception for an error response.
+     *
+     * @param statusCode HTTP status of the response
+     * @param retryAfter pause requested by the server, or {@code null} if none
+     */
+    public ItunesApiException(int statusCode, Duration retryAfter) {
+        super("API error: " + statusCode);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Returns whether the server rejected the request because of its rate limit.
+     *
+     * @return {@code true} for {@code 403}, {@code 429} and {@code 503}
+     */
+    public boolean isThrottled() {
+        return isThrottled(statusCode);
+    }
+
+    static boolean isThrottled(int statusCode) {
+        return statusCode == 403 || statusCode == 429 || statusCode == 503;
+    }
+}
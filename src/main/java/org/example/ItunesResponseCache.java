@@ -0,0 +1,353 @@
+package org.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent, size-capped cache of iTunes API responses.
+ *
+ * <p>Each response body is stored gzip-compressed in its own file inside
+ * the cache directory, together with its {@code ETag} and
+ * {@code Last-Modified} validators. Entries are keyed by a hash of the
+ * normalized request URL, so equivalent URLs share one entry.</p>
+ *
+ * <p>Entries younger than the configured time-to-live are served without
+ * any network traffic. Older entries are revalidated with a conditional
+ * request by {@link ItunesApiClient}. When the directory grows beyond its
+ * size limit, the least recently used entries are deleted.</p>
+ *
+ * <p>The cache is safe to use from several threads.</p>
+ */
+public class ItunesResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(ItunesResponseCache.class);
+
+    private static final int MAGIC = 0x4D504331; // "MPC1"
+    private static final String SUFFIX = ".entry";
+
+    private final Path directory;
+    private final Duration ttl;
+    private final long maxBytes;
+    private final Clock clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    /**
+     * A cached response.
+     *
+     * @param body         gzip-compressed response body
+     * @param etag         {@code ETag} validator, or {@code null}
+     * @param lastModified {@code Last-Modified} validator, or {@code null}
+     * @param storedAt     when the response was stored or last revalidated
+     */
+    public record Entry(byte[] body, String etag, String lastModified, Instant storedAt) {
+    }
+
+    /**
+     * Snapshot of the cache counters.
+     *
+     * @param hits          responses served from a fresh entry
+     * @param misses        responses that had to be downloaded
+     * @param revalidations stale entries confirmed unchanged by the server
+     */
+    public record Stats(long hits, long misses, long revalidations) {
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + ", misses=" + misses + ", revalidations=" + revalidations;
+        }
+    }
+
+    /**
+     * Creates a cache in the given directory.
+     *
+     * @param directory directory holding the cache files; created if missing
+     * @param ttl       how long an entry is served without revalidation
+     * @param maxBytes  maximum total size of all entries on disk
+     */
+    public ItunesResponseCache(Path directory, Duration ttl, long maxBytes) {
+        this(directory, ttl, maxBytes, Clock.systemUTC());
+    }
+
+    ItunesResponseCache(Path directory, Duration ttl, long maxBytes, Clock clock) {
+        this.directory = directory;
+        this.ttl = ttl;
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create cache directory " + directory, e);
+        }
+    }
+
+    /**
+     * Creates the cache used by the application, stored in
+     * {@code ~/.mypod/itunes-cache} with a one-day TTL and a 32 MB limit.
+     *
+     * @return the default cache
+     */
+    public static ItunesResponseCache defaultCache() {
+        return new ItunesResponseCache(
+            Path.of(System.getProperty("user.home"), ".mypod", "itunes-cache"),
+            Duration.ofDays(1),
+            32L * 1024 * 1024);
+    }
+
+    /**
+     * Looks up the entry for a request URL.
+     *
+     * @param uri request URL
+     * @return the cached entry, or {@code null} if there is none or it is unreadable
+     */
+    public Entry get(URI uri) {
+        Path file = fileFor(uri);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            Instant storedAt = Instant.ofEpochMilli(in.readLong());
+            String etag = emptyToNull(in.readUTF());
+            String lastModified = emptyToNull(in.readUTF());
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new Entry(body, etag, lastModified, storedAt);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("get: discarding unreadable cache entry {}", file, e);
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether an entry may be served without revalidation.
+     *
+     * @param entry cached entry
+     * @return {@code true} if the entry is younger than the TTL
+     */
+    public boolean isFresh(Entry entry) {
+        return entry.storedAt().plus(ttl).isAfter(clock.instant());
+    }
+
+    /**
+     * Records that a fresh entry was served and marks it as recently used.
+     *
+     * @param uri request URL of the entry
+     */
+    public void hit(URI uri) {
+        hits.incrementAndGet();
+        touch(fileFor(uri));
+    }
+
+    /**
+     * Records that the server confirmed a stale entry as unchanged and
+     * restarts its time-to-live.
+     *
+     * @param uri   request URL of the entry
+     * @param entry the entry that was revalidated
+     */
+    public void revalidated(URI uri, Entry entry) {
+        revalidations.incrementAndGet();
+        write(uri, new Entry(entry.body(), entry.etag(), entry.lastModified(), clock.instant()));
+    }
+
+    /**
+     * Stores a freshly downloaded response.
+     *
+     * @param uri          request URL
+     * @param body         response body as received
+     * @param encoding     {@code Content-Encoding} of {@code body}; bodies that are
+     *                     not already gzip-encoded are compressed before storing
+     * @param etag         {@code ETag} header, or {@code null}
+     * @param lastModified {@code Last-Modified} header, or {@code null}
+     * @return the stored entry
+     */
+    public Entry store(URI uri, byte[] body, String encoding, String etag, String lastModified) {
+        misses.incrementAndGet();
+        byte[] gzipped;
+        if ("gzip".equalsIgnoreCase(encoding.trim())) {
+            gzipped = body;
+        } else {
+            try (var decoded = ItunesApiClient.decode(new ByteArrayInputStream(body), encoding)) {
+                gzipped = gzip(decoded.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        Entry entry = new Entry(gzipped, etag, lastModified, clock.instant());
+        write(uri, entry);
+        return entry;
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss and revalidation counters.
+     *
+     * @return current cache statistics
+     */
+    public Stats stats() {
+        return new Stats(hits.get(), misses.get(), revalidations.get());
+    }
+
+    /**
+     * Normalizes a request URL into a cache key.
+     *
+     * <p>Scheme and host are lower-cased, default ports are dropped and
+     * query parameters are sorted, so that equivalent URLs map to the
+     * same entry.</p>
+     *
+     * @param uri request URL
+     * @return normalized URL string
+     */
+    static String normalize(URI uri) {
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+        int port = uri.getPort();
+        boolean defaultPort = port == -1 || ("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443);
+
+        StringBuilder key = new StringBuilder(scheme).append("://").append(host);
+        if (!defaultPort) {
+            key.append(':').append(port);
+        }
+        key.append(uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath());
+
+        String query = uri.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            String[] params = query.split("&");
+            Arrays.sort(params);
+            key.append('?').append(String.join("&", params));
+        }
+        return key.toString();
+    }
+
+    private Path fileFor(URI uri) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(normalize(uri).getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(hash) + SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private synchronized void write(URI uri, Entry entry) {
+        Path file = fileFor(uri);
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(entry.body().length + 128);
+            try (DataOutputStream out = new DataOutputStream(buffer)) {
+                out.writeInt(MAGIC);
+                out.writeLong(entry.storedAt().toEpochMilli());
+                out.writeUTF(entry.etag() == null ? "" : entry.etag());
+                out.writeUTF(entry.lastModified() == null ? "" : entry.lastModified());
+                out.writeInt(entry.body().length);
+                out.write(entry.body());
+            }
+            Path tmp = Files.createTempFile(directory, "entry", ".tmp");
+            Files.write(tmp, buffer.toByteArray());
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            touch(file);
+            evict();
+        } catch (IOException e) {
+            logger.warn("write: could not store cache entry {}", file, e);
+        }
+    }
+
+    /**
+     * Deletes least recently used entries until the cache fits its size limit.
+     */
+    private void evict() throws IOException {
+        record CacheFile(Path path, long size, FileTime lastUsed) {
+        }
+
+        List<CacheFile> files = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : paths.filter(p -> p.toString().endsWith(SUFFIX)).toList()) {
+                try {
+                    CacheFile f = new CacheFile(path, Files.size(path), Files.getLastModifiedTime(path));
+                    files.add(f);
+                    total += f.size();
+                } catch (NoSuchFileException ignored) {
+                    // removed concurrently
+                }
+            }
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+
+        files.sort(Comparator.comparing(CacheFile::lastUsed));
+        for (CacheFile f : files) {
+            if (total <= maxBytes) {
+                break;
+            }
+            deleteQuietly(f.path());
+            total -= f.size();
+            logger.debug("evict: removed {}", f.path().getFileName());
+        }
+    }
+
+    private void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(clock.instant()));
+        } catch (IOException e) {
+            logger.debug("touch: could not update {}", file, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("deleteQuietly: could not delete {}", file, e);
+        }
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String emptyToNull(String s) {
+        return s.isEmpty() ? null : s;
+    }
+}
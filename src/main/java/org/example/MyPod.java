@@ -1,6 +1,7 @@
 package org.example;
 
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
 import javafx.animation.FadeTransition;
 import javafx.animation.PauseTransition;
 import javafx.beans.binding.Bindings;
@@ -27,11 +28,22 @@ import javafx.scene.control.ProgressBar;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
-import org.example.entity.Album;
-import org.example.entity.Artist;
 import org.example.entity.DBObject;
 import org.example.entity.Playlist;
 import org.example.entity.Song;
+import org.example.ingest.AlbumCoverFetcher;
+import org.example.ingest.DiscographyCrawler;
+import org.example.ingest.FolderScanner;
+import org.example.ingest.PlaylistImporter;
+import org.example.repo.CatalogCache;
+import org.example.repo.CatalogSyncRepository;
+import org.example.repo.CatalogSyncRepositoryImpl;
+import org.example.repo.CrawlCheckpointRepositoryImpl;
+import org.example.repo.DeadLetterRepository;
+import org.example.repo.DeadLetterRepositoryImpl;
+import org.example.repo.KnownIdFilter;
+import org.example.repo.LocalFileRepositoryImpl;
+import org.example.repo.MenuEntry;
 import org.example.repo.SongRepository;
 import org.example.repo.AlbumRepository;
 import org.example.repo.ArtistRepository;
@@ -43,6 +55,11 @@ import org.example.repo.SongRepositoryImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -69,22 +86,39 @@ public class MyPod extends Application {
     /**
      * Repositories used for song/artist/album/playlist persistence operations.
      */
-    private final SongRepository songRepo = new SongRepositoryImpl(PersistenceManager.getEntityManagerFactory());
-    private final ArtistRepository artistRepo = new ArtistRepositoryImpl(PersistenceManager.getEntityManagerFactory());
-    private final AlbumRepository albumRepo = new AlbumRepositoryImpl(PersistenceManager.getEntityManagerFactory());
+    private final SongRepository songRepo = new SongRepositoryImpl(PersistenceManager.getEntityManagerFactory(), new KnownIdFilter());
+    private final ArtistRepository artistRepo = new ArtistRepositoryImpl(PersistenceManager.getEntityManagerFactory(), new KnownIdFilter());
+    private final AlbumRepository albumRepo = new AlbumRepositoryImpl(PersistenceManager.getEntityManagerFactory(), new KnownIdFilter());
     private final PlaylistRepository playlistRepo = new PlaylistRepositoryImpl(PersistenceManager.getEntityManagerFactory());
+    private final CatalogSyncRepository syncRepo = new CatalogSyncRepositoryImpl(PersistenceManager.getEntityManagerFactory());
+    private final DeadLetterRepository deadLetterRepo = new DeadLetterRepositoryImpl(PersistenceManager.getEntityManagerFactory());
 
     /**
-     * Client used to fetch preview data from the iTunes API.
+     * On-disk cache of iTunes API responses, so that re-initializing the
+     * database does not download the same search results again.
      */
-    private final ItunesApiClient apiClient = new ItunesApiClient();
+    private final ItunesResponseCache responseCache = ItunesResponseCache.defaultCache();
 
     /**
-     * Cached data loaded from the database.
+     * Client used to fetch preview data from the iTunes API. The endpoint
+     * can be replaced with {@code -Ditunes.baseUri=...}.
      */
-    private List<Song> songs;
-    private List<Artist> artists;
-    private List<Album> albums;
+    private final ItunesApiClient apiClient = new ItunesApiClient(
+        URI.create(System.getProperty("itunes.baseUri", ItunesApiClient.DEFAULT_BASE_URI.toString())), responseCache);
+
+    /**
+     * Watch of the local music folder, or {@code null} if not watching.
+     */
+    private FolderScanner.Watch folderWatch;
+
+    /**
+     * Cached data loaded from the database. Songs, artists and albums are
+     * held as {@link MenuEntry} projections; the full entity is loaded
+     * only for the item the user selects.
+     */
+    private List<MenuEntry> songs;
+    private List<MenuEntry> artists;
+    private List<MenuEntry> albums;
     private List<Playlist> playlists;
 
     // -------------------------------------------------------------------------
@@ -485,14 +519,23 @@ public class MyPod extends Application {
 
     /**
      * Adds a menu entry that represents a domain object.
-     * <p>
-     * The object's name is displayed and the object itself is stored
-     * for later selection handling.
      *
      * @param object the domain object associated with this menu entry
      */
     private void addMenuItem(DBObject object) {
-        ObjectLabel objectLabel = new ObjectLabel(new Label(object.getName()), object);
+        addMenuItem(new MenuEntry(object.getId(), object.getName()));
+    }
+
+    /**
+     * Adds a menu entry that represents a song, album, artist or playlist.
+     * <p>
+     * The entry's name is displayed and its id is stored for later
+     * selection handling.
+     *
+     * @param entry the projection associated with this menu entry
+     */
+    private void addMenuItem(MenuEntry entry) {
+        ObjectLabel objectLabel = new ObjectLabel(new Label(entry.name()), entry);
         objectLabel.label().getStyleClass().add("menu-item");
         objectLabel.label().setMaxWidth(Double.MAX_VALUE);
 
@@ -542,12 +585,12 @@ public class MyPod extends Application {
                 openMusicPlayer();
                 return;
             }
-            if (selection.object() == null) {
+            if (selection.entry() == null) {
                 return;
             }
             Playlist selectedPlaylist = playlists.stream()
                 .filter(p -> p.getId()
-                    .equals(selection.object().getId()))
+                    .equals(selection.entry().id()))
                 .findFirst().orElse(null);
             if (selectedPlaylist != null) {
                 openPlaylist(selectedPlaylist);
@@ -648,14 +691,13 @@ public class MyPod extends Application {
         titleLabel.getStyleClass().add("screen-title");
         screenContent.getChildren().add(titleLabel);
 
-        if (selection.object() == null) {
+        if (selection.entry() == null) {
             addMenuItem("No albums found");
             updateMenu();
             return;
         }
 
-        Artist artist = (Artist) selection.object();
-        List<Album> artistAlbums = albumRepo.findByArtist(artist);
+        List<MenuEntry> artistAlbums = albumRepo.findMenuEntriesByArtist(selection.entry().id());
 
         if (!artistAlbums.isEmpty()) {
             artistAlbums.forEach(this::addMenuItem);
@@ -681,14 +723,13 @@ public class MyPod extends Application {
         titleLabel.getStyleClass().add("screen-title");
         screenContent.getChildren().add(titleLabel);
 
-        if (selection.object() == null) {
+        if (selection.entry() == null) {
             addMenuItem("No songs found");
             updateMenu();
             return;
         }
 
-        Album album = (Album) selection.object();
-        List<Song> albumSongs = songRepo.findByAlbum(album);
+        List<MenuEntry> albumSongs = songRepo.findMenuEntriesByAlbum(selection.entry().id());
 
         if (!albumSongs.isEmpty()) {
             albumSongs.forEach(this::addMenuItem);
@@ -710,11 +751,17 @@ public class MyPod extends Application {
         selectedIndex = 0;
         currentScreenName = "NowPlaying";
 
-        if (selection.object() == null) {
+        if (selection.entry() == null) {
             return;
         }
 
-        Song currentSong = (Song) selection.object();
+        Song currentSong;
+        try {
+            currentSong = songRepo.findById(selection.entry().id());
+        } catch (EntityNotFoundException e) {
+            logger.warn("showNowPlaying: song {} no longer exists", selection.entry().id());
+            return;
+        }
 
         // Header
         Label header = new Label("▶ NOW PLAYING");
@@ -723,7 +770,7 @@ public class MyPod extends Application {
         // Album art
         ImageView albumArtView = new ImageView();
         if (currentSong.getAlbum() != null) {
-            Image cover = currentSong.getAlbum().getCoverImage();
+            Image cover = coverImage(albumRepo.findCover(currentSong.getAlbum().getId()));
             if (cover != null) {
                 albumArtView.setImage(cover);
             }
@@ -851,26 +898,170 @@ public class MyPod extends Application {
      */
     private void initializeData() {
         try {
-            DatabaseInitializer initializer = new DatabaseInitializer(apiClient, songRepo, albumRepo, artistRepo, playlistRepo);
+            // Move covers that earlier versions stored in the album table
+            albumRepo.moveLegacyCovers();
+            DatabaseInitializer initializer = new DatabaseInitializer(apiClient, songRepo, albumRepo, artistRepo, playlistRepo,
+                syncRepo, deadLetterRepo);
             initializer.init();
-
-            this.songs = songRepo.findAll();
-            this.artists = artistRepo.findAll();
-            this.albums = albumRepo.findAll();
-            this.playlists = playlistRepo.findAll();
+            if (getParameters().getRaw().contains("--replay-dead-letters")) {
+                initializer.replayDeadLetters();
+            }
+            if (getParameters().getRaw().contains("--crawl")) {
+                crawlDiscographies();
+            }
+            String libraryXml = getParameters().getNamed().get("import-library");
+            if (libraryXml != null) {
+                initializer.importLibrary(Path.of(libraryXml));
+            }
+            String musicDir = getParameters().getNamed().get("music-dir");
+            if (musicDir != null) {
+                scanMusicFolder(Path.of(musicDir), getParameters().getRaw().contains("--watch"));
+            }
+            String playlistFile = getParameters().getNamed().get("import-playlist");
+            if (playlistFile != null) {
+                importPlaylist(Path.of(playlistFile));
+            }
+            logger.info("initializeData: iTunes response cache {}", responseCache.stats());
         } catch (Exception e) {
             logger.error("initializeData: Failed to load data ", e);
         }
+        // Whatever is stored is shown, even if updating it failed
+        try {
+            this.songs = songRepo.findMenuEntries();
+            this.artists = artistRepo.findMenuEntries();
+            this.albums = albumRepo.findMenuEntries();
+            this.playlists = playlistRepo.findAll();
+        } catch (Exception e) {
+            logger.error("initializeData: Failed to read the catalog ", e);
+        }
+    }
+
+    /**
+     * Crawls the full discography of every seeded artist.
+     * <p>
+     * Enabled with the {@code --crawl} command-line flag. Progress is
+     * checkpointed per artist, so an interrupted crawl resumes on the next start.
+     */
+    private void crawlDiscographies() {
+        var emf = PersistenceManager.getEntityManagerFactory();
+        DiscographyCrawler crawler = new DiscographyCrawler(apiClient, artistRepo, albumRepo, songRepo, playlistRepo,
+            new CrawlCheckpointRepositoryImpl(emf), deadLetterRepo, new AlbumCoverFetcher(), DiscographyCrawler.Options.defaults());
+        try {
+            crawler.crawl(DatabaseInitializer.SEARCHES);
+        } catch (RuntimeException e) {
+            logger.error("crawlDiscographies: crawl incomplete, will resume on next start ", e);
+        }
+    }
+
+    /**
+     * Stops watching the local music folder when the application exits
+     * and logs how well the catalog cache served this session.
+     */
+    @Override
+    public void stop() throws IOException {
+        if (folderWatch != null) {
+            folderWatch.close();
+        }
+        logger.info("stop: catalog cache {}", CatalogCache.stats(PersistenceManager.getEntityManagerFactory()));
+    }
+
+    /**
+     * Imports the audio files of a local music folder and adds new songs to the Library.
+     * <p>
+     * Enabled with {@code --music-dir=<path>}. With {@code --watch}, files
+     * added, moved or deleted later are applied while the app runs.
+     */
+    private void scanMusicFolder(Path dir, boolean watch) {
+        FolderScanner scanner = new FolderScanner(artistRepo, albumRepo, songRepo,
+            new LocalFileRepositoryImpl(PersistenceManager.getEntityManagerFactory()), FolderScanner.Options.defaults());
+        try {
+            addChangesToLibrary(scanner.scan(dir));
+            if (watch) {
+                folderWatch = scanner.watch(dir, result -> {
+                    addChangesToLibrary(result);
+                    List<MenuEntry> updatedSongs = songRepo.findMenuEntries();
+                    List<MenuEntry> updatedArtists = artistRepo.findMenuEntries();
+                    List<MenuEntry> updatedAlbums = albumRepo.findMenuEntries();
+                    Platform.runLater(() -> {
+                        this.songs = updatedSongs;
+                        this.artists = updatedArtists;
+                        this.albums = updatedAlbums;
+                    });
+                });
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("scanMusicFolder: could not scan {} ", dir, e);
+        }
+    }
+
+    /**
+     * Imports an M3U or CSV playlist exported by another player.
+     * <p>
+     * Enabled with {@code --import-playlist=<path>}. Lines that match no
+     * song in the catalog are logged.
+     */
+    private void importPlaylist(Path file) {
+        try {
+            PlaylistImporter.Result result = new PlaylistImporter(songRepo, playlistRepo).importFile(file);
+            result.unmatched().forEach(line ->
+                logger.warn("importPlaylist: no match for line {}: {}", line.number(), line.text()));
+        } catch (IOException | RuntimeException e) {
+            logger.error("importPlaylist: could not import {} ", file, e);
+        }
+    }
+
+    private void addChangesToLibrary(FolderScanner.Result result) {
+        if (!result.songIds().isEmpty() && playlistRepo.existsByUniqueId(1L)) {
+            playlistRepo.addSongsById(1L, result.songIds());
+        }
+    }
+
+    /**
+     * Converts encoded album artwork to a JavaFX {@link Image}.
+     *
+     * <p>If no cover is given or if decoding fails, a default placeholder
+     * image bundled with the application is returned.</p>
+     *
+     * @param bytes encoded cover, as stored in an {@link org.example.entity.AlbumCover}, or {@code null}
+     * @return album cover image or a default image if unavailable
+     */
+    private static Image coverImage(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return loadDefaultImage();
+
+        try (ByteArrayInputStream bais = new ByteArrayInputStream(bytes)) {
+            Image img = new Image(bais);
+            return img.isError() ? loadDefaultImage() : img;
+        } catch (IOException e) {
+            return loadDefaultImage();
+        }
+    }
+
+    /**
+     * Loads the default album artwork bundled with the application.
+     *
+     * @return default {@link Image}, or {@code null} if the resource cannot be loaded
+     */
+    private static Image loadDefaultImage() {
+        try (InputStream is = MyPod.class.getResourceAsStream("/itunescover.jpg")) {
+            if (is == null) {
+                System.err.println("Could not load default image");
+                return null;
+            }
+            return new Image(is);
+
+        } catch (IOException e) {
+            return null;
+        }
     }
 
     /**
-     * Wrapper record binding a UI label to an optional domain object.
+     * Wrapper record binding a UI label to an optional menu entry.
      * <p>
      * Used to distinguish static menu items from selectable entities.
      */
     private record ObjectLabel(
         Label label,
-        DBObject object) { // Object is null for static menu items like "Edit Playlists"
+        MenuEntry entry) { // Entry is null for static menu items like "Edit Playlists"
 
         /**
          * @return the text displayed by this menu item
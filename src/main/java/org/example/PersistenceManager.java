@@ -11,18 +11,31 @@ import java.util.Map;
  * instance using {@link EntityManagerFactoryProvider} and exposes it
  * for use throughout the application.</p>
  *
+ * <p>Artists, albums and songs are kept in a size-bounded second-level
+ * cache, see {@link org.example.repo.CatalogCache}.</p>
+ *
  * <p>The factory is automatically closed when the JVM shuts down.</p>
  */
 public class PersistenceManager {
     private static final EntityManagerFactory emf =
         EntityManagerFactoryProvider.create(
-            "jdbc:mysql://localhost:3306/myPodDB",
+            "jdbc:mysql://localhost:3306/myPodDB?rewriteBatchedStatements=true&useCursorFetch=true",
             "user",
             "pass",
-            Map.of(
-                "hibernate.hbm2ddl.auto", "update",
-                "hibernate.show_sql", "true",
-                "hibernate.format_sql", "true"
+            Map.ofEntries(
+                Map.entry("hibernate.hbm2ddl.auto", "update"),
+                Map.entry("hibernate.show_sql", "true"),
+                Map.entry("hibernate.format_sql", "true"),
+                Map.entry("hibernate.jdbc.batch_size", "50"),
+                Map.entry("hibernate.order_inserts", "true"),
+                Map.entry("hibernate.order_updates", "true"),
+                // Second-level cache for the catalog; regions are sized in application.conf
+                Map.entry("hibernate.cache.use_second_level_cache", "true"),
+                Map.entry("hibernate.cache.use_query_cache", "true"),
+                Map.entry("hibernate.cache.region.factory_class", "jcache"),
+                Map.entry("hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"),
+                Map.entry("hibernate.cache.auto_evict_collection_cache", "true"),
+                Map.entry("hibernate.generate_statistics", "true")
             )
         );
 
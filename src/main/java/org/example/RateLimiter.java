@@ -0,0 +1,171 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Adaptive token-bucket rate limiter for calls to a throttled API.
+ *
+ * <p>The bucket holds up to {@code burst} permits and refills at the
+ * current rate. A caller that finds the bucket empty reserves the next
+ * free time slot and waits until it is due, so waiting callers are spaced
+ * evenly at the current rate instead of retrying all at once. Slots that
+ * are already reserved keep their time when the rate changes. Waiting
+ * never blocks a thread: {@link #acquire()} returns a future that
+ * completes when the permit is due.</p>
+ *
+ * <p>The rate adapts to the server's answers. A throttling response
+ * reported with {@link #throttled(Duration)} halves the rate, down to a
+ * sixteenth of the configured maximum, and pauses all permits for the
+ * server's {@code Retry-After} period. Further throttling responses only
+ * halve the rate again once the slots reserved before the last slow-down
+ * have been used, since those calls were made at the old rate. Every
+ * success reported with {@link #succeeded()} raises the rate again by a
+ * hundredth of the maximum, so sustained traffic settles just below the
+ * server's quota.</p>
+ *
+ * <p>One limiter should be shared by all clients of the same endpoint.
+ * The limiter is safe to use from several threads.</p>
+ */
+public final class RateLimiter {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final double maxRate;
+    private final double minRate;
+    private final int burst;
+    private final LongSupplier nanoTime;
+
+    private double rate;
+    private double storedPermits;
+    private long nextFree;
+    private long holdRateUntil;
+    private long throttledCount;
+
+    /**
+     * Creates a limiter that allows {@code permitsPerSecond} on average.
+     *
+     * @param permitsPerSecond maximum sustained rate
+     * @param burst            permits that may be taken at once after a quiet period
+     * @throws IllegalArgumentException if the rate is not positive or the burst is below one
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    RateLimiter(double permitsPerSecond, int burst, LongSupplier nanoTime) {
+        if (!(permitsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("Invalid rate limit: " + permitsPerSecond + "/s, burst " + burst);
+        }
+        this.maxRate = permitsPerSecond;
+        this.minRate = permitsPerSecond / 16;
+        this.burst = burst;
+        this.nanoTime = nanoTime;
+        this.rate = permitsPerSecond;
+        this.storedPermits = burst;
+        this.nextFree = nanoTime.getAsLong();
+        this.holdRateUntil = nextFree;
+    }
+
+    /**
+     * Creates a limiter allowing {@code permits} calls per minute.
+     *
+     * @param permits calls allowed per minute, all of which may be made at once
+     * @return the limiter
+     */
+    public static RateLimiter perMinute(int permits) {
+        return new RateLimiter(permits / 60.0, permits);
+    }
+
+    /**
+     * Creates a limiter that never delays a call on its own, but still
+     * honours the pauses requested by {@link #throttled(Duration)}.
+     *
+     * @return the limiter
+     */
+    public static RateLimiter unlimited() {
+        return new RateLimiter(Double.POSITIVE_INFINITY, 1);
+    }
+
+    /**
+     * Takes a permit, waiting without blocking until one is available.
+     *
+     * @return future completing when the caller may make its call
+     */
+    public CompletableFuture<Void> acquire() {
+        long wait = reserve();
+        if (wait <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Reserves the next permit.
+     *
+     * @return nanoseconds until the permit is due, zero if it is available now
+     */
+    synchronized long reserve() {
+        long now = nanoTime.getAsLong();
+        if (now > nextFree) {
+            storedPermits = Double.isInfinite(rate)
+                ? burst
+                : Math.min(burst, storedPermits + (now - nextFree) * rate / NANOS_PER_SECOND);
+            nextFree = now;
+        }
+        if (storedPermits >= 1) {
+            storedPermits -= 1;
+        } else {
+            nextFree += (long) Math.ceil(NANOS_PER_SECOND / rate);
+        }
+        return nextFree - now;
+    }
+
+    /**
+     * Reports a throttling response: halves the rate and pauses all permits.
+     *
+     * @param retryAfter pause requested by the server, or {@code null} if none
+     */
+    public synchronized void throttled(Duration retryAfter) {
+        throttledCount++;
+        long now = nanoTime.getAsLong();
+        if (!Double.isInfinite(rate) && now - holdRateUntil >= 0) {
+            rate = Math.max(minRate, rate / 2);
+            holdRateUntil = nextFree;
+        }
+        storedPermits = 0;
+        if (retryAfter != null && retryAfter.isPositive()) {
+            nextFree = Math.max(nextFree, now + retryAfter.toNanos());
+        }
+    }
+
+    /**
+     * Reports a successful call, raising the rate back towards its maximum.
+     */
+    public synchronized void succeeded() {
+        if (rate < maxRate) {
+            rate = Math.min(maxRate, rate + maxRate / 100);
+        }
+    }
+
+    /**
+     * Returns the rate currently enforced.
+     *
+     * @return permits per second
+     */
+    public synchronized double currentRate() {
+        return rate;
+    }
+
+    /**
+     * Returns how many throttling responses have been reported.
+     *
+     * @return number of calls to {@link #throttled(Duration)}
+     */
+    public synchronized long throttledCount() {
+        return throttledCount;
+    }
+}
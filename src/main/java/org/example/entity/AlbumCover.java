@@ -0,0 +1,58 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Mutability;
+import org.hibernate.type.descriptor.java.Immutability;
+
+/**
+ * JPA entity holding the artwork of an {@link Album}.
+ *
+ * <p>Covers are stored apart from their album, sharing its primary key, so
+ * loading albums for menus and song lists never reads image data. The
+ * album does not reference its cover; covers are read by id only when
+ * they are displayed, see
+ * {@link org.example.repo.AlbumRepository#findCover(Long)}.</p>
+ */
+@Entity
+@Table(name = "album_cover")
+public class AlbumCover {
+
+    @Id
+    @Column(name = "album_id")
+    private Long albumId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "album_id")
+    private Album album;
+
+    // Images are replaced, never modified in place, so no snapshot copy or byte-wise comparison is needed
+    @Lob
+    @Mutability(Immutability.class)
+    @Column(nullable = false)
+    private byte[] image;
+
+    protected AlbumCover() {
+    }
+
+    public AlbumCover(Album album, byte[] image) {
+        this.album = album;
+        this.image = image;
+    }
+
+    public Long getAlbumId() {
+        return albumId;
+    }
+
+    public Album getAlbum() {
+        return album;
+    }
+
+    public byte[] getImage() {
+        return image;
+    }
+
+    public void setImage(byte[] image) {
+        this.image = image;
+    }
+}
@@ -2,6 +2,8 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import org.example.ItunesDTO;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.proxy.HibernateProxy;
 
 import java.util.ArrayList;
@@ -16,8 +18,14 @@ import java.util.Objects;
  * from external data sources (e.g. iTunes API) and persisted using JPA.</p>
  *
  * <p>Entity identity is based solely on the database identifier.</p>
+ *
+ * <p>Artists and their album lists are held in the second-level cache,
+ * see {@link org.example.repo.CatalogCache}.</p>
  */
 @Entity
+@Table(indexes = @Index(name = "idx_artist_name_id", columnList = "name, artist_id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "artist")
 public class Artist implements DBObject {
 
     @Id
@@ -29,6 +37,7 @@ public class Artist implements DBObject {
     private String country;
 
     @OneToMany(mappedBy = "artist", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "artist-albums")
     private List<Album> album = new ArrayList<>();
 
     protected Artist() {
@@ -0,0 +1,80 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * JPA entity recording when the catalog data of one artist search was last synchronized.
+ *
+ * <p>Each row is keyed by the iTunes search term used to fetch the artist
+ * and holds a hash of the content returned by the last fetch. A later sync
+ * that receives the same hash knows that nothing changed and skips all
+ * database writes for that artist.</p>
+ */
+@Entity
+public class ArtistSync {
+
+    @Id
+    @Column(name = "search_term")
+    private String term;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    private int trackCount;
+
+    @Column(name = "last_synced")
+    private Instant lastSynced;
+
+    protected ArtistSync() {
+    }
+
+    public ArtistSync(String term, String contentHash, int trackCount, Instant lastSynced) {
+        this.term = term;
+        this.contentHash = contentHash;
+        this.trackCount = trackCount;
+        this.lastSynced = lastSynced;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public int getTrackCount() {
+        return trackCount;
+    }
+
+    public void setTrackCount(int trackCount) {
+        this.trackCount = trackCount;
+    }
+
+    public Instant getLastSynced() {
+        return lastSynced;
+    }
+
+    public void setLastSynced(Instant lastSynced) {
+        this.lastSynced = lastSynced;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ArtistSync other)) return false;
+        return term != null && Objects.equals(term, other.term);
+    }
+
+    @Override
+    public final int hashCode() {
+        return ArtistSync.class.hashCode();
+    }
+}
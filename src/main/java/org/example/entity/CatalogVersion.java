@@ -0,0 +1,73 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * JPA entity holding the single row that describes the state of the whole catalog.
+ *
+ * <p>The row is written after every successful synchronization. On startup
+ * it is read with one primary-key lookup: if it was written for the same
+ * set of search terms and its oldest artist sync is still within the
+ * allowed age, every other population check can be skipped.</p>
+ */
+@Entity
+public class CatalogVersion {
+
+    /** Primary key of the only catalog version row. */
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    @Column(name = "catalog_id")
+    private Long id;
+
+    private long version;
+
+    @Column(name = "seed_hash", length = 64)
+    private String seedHash;
+
+    @Column(name = "synced_at")
+    private Instant syncedAt;
+
+    protected CatalogVersion() {
+    }
+
+    public CatalogVersion(long version, String seedHash, Instant syncedAt) {
+        this.id = SINGLETON_ID;
+        this.version = version;
+        this.seedHash = seedHash;
+        this.syncedAt = syncedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Returns a counter that is incremented whenever a sync changed catalog rows.
+     *
+     * @return catalog version number
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the hash of the search terms the catalog was synchronized with.
+     *
+     * @return seed hash
+     */
+    public String getSeedHash() {
+        return seedHash;
+    }
+
+    /**
+     * Returns the sync time of the least recently synchronized artist.
+     *
+     * @return oldest artist sync time
+     */
+    public Instant getSyncedAt() {
+        return syncedAt;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * JPA entity recording how far the discography crawl of one search term has progressed.
+ *
+ * <p>The checkpoint is advanced only after the pages before
+ * {@link #getNextOffset()} have been written, so an interrupted crawl can
+ * resume at that offset without losing or re-fetching committed pages.</p>
+ */
+@Entity
+public class CrawlCheckpoint {
+
+    @Id
+    @Column(name = "search_term")
+    private String term;
+
+    @Column(name = "next_offset")
+    private int nextOffset;
+
+    @Column(name = "last_success")
+    private Instant lastSuccess;
+
+    private boolean complete;
+
+    protected CrawlCheckpoint() {
+    }
+
+    /**
+     * Creates the checkpoint of a crawl that has not started yet.
+     *
+     * @param term search term being crawled
+     */
+    public CrawlCheckpoint(String term) {
+        this.term = term;
+    }
+
+    /**
+     * Records that every result before {@code nextOffset} has been written.
+     *
+     * @param nextOffset offset of the first result not yet written
+     * @param at         time the pages were written
+     * @param complete   whether the search has no further results
+     */
+    public void advance(int nextOffset, Instant at, boolean complete) {
+        this.nextOffset = nextOffset;
+        this.lastSuccess = at;
+        this.complete = complete;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public int getNextOffset() {
+        return nextOffset;
+    }
+
+    public Instant getLastSuccess() {
+        return lastSuccess;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CrawlCheckpoint other)) return false;
+        return term != null && Objects.equals(term, other.term);
+    }
+
+    @Override
+    public final int hashCode() {
+        return CrawlCheckpoint.class.hashCode();
+    }
+}
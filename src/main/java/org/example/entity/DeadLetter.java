@@ -0,0 +1,140 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * JPA entity holding a catalog record that could not be ingested.
+ *
+ * <p>Instead of aborting an ingestion run, a record that fails validation
+ * or cannot be written is stored here with its raw payload and the reason
+ * it failed. The rest of the run continues. Dead letters can be replayed
+ * once the cause has been fixed; successfully replayed letters are
+ * deleted.</p>
+ */
+@Entity
+@Table(name = "dead_letter")
+public class DeadLetter {
+
+    /**
+     * Ingestion stage at which a record failed.
+     */
+    public enum Stage {
+        /** The record could not be converted into entities. */
+        TRANSFORM,
+        /** The record's entities could not be written to the database. */
+        PERSIST
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "search_term")
+    private String term;
+
+    @Column(name = "record_id")
+    private Long recordId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Stage stage;
+
+    @Column(length = 1000)
+    private String reason;
+
+    @Lob
+    private String payload;
+
+    @Column(name = "failed_at")
+    private Instant failedAt;
+
+    private int attempts;
+
+    protected DeadLetter() {
+    }
+
+    /**
+     * Creates a dead letter for a record that failed for the first time.
+     *
+     * @param term     search term the record was fetched for
+     * @param recordId iTunes track id of the record, or {@code null} if unknown
+     * @param stage    stage at which the record failed
+     * @param reason   description of the failure
+     * @param payload  the record as JSON
+     * @param failedAt time of the failure
+     */
+    public DeadLetter(String term, Long recordId, Stage stage, String reason, String payload, Instant failedAt) {
+        this.term = term;
+        this.recordId = recordId;
+        this.stage = stage;
+        this.reason = truncate(reason);
+        this.payload = payload;
+        this.failedAt = failedAt;
+        this.attempts = 1;
+    }
+
+    /**
+     * Records that a replay of this letter failed again.
+     *
+     * @param stage    stage at which the record failed this time
+     * @param reason   description of the failure
+     * @param failedAt time of the failure
+     */
+    public void failedAgain(Stage stage, String reason, Instant failedAt) {
+        this.stage = stage;
+        this.reason = truncate(reason);
+        this.failedAt = failedAt;
+        this.attempts++;
+    }
+
+    private static String truncate(String reason) {
+        return reason != null && reason.length() > 1000 ? reason.substring(0, 1000) : reason;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public Long getRecordId() {
+        return recordId;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Instant getFailedAt() {
+        return failedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DeadLetter other)) return false;
+        return id != null && Objects.equals(id, other.id);
+    }
+
+    @Override
+    public final int hashCode() {
+        return DeadLetter.class.hashCode();
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+import java.util.Objects;
+
+/**
+ * JPA entity recording an audio file that was imported from a local music folder.
+ *
+ * <p>The file's size and modification time are kept so that a rescan can
+ * skip files that have not changed since they were imported. The song id
+ * links the file to the {@link Song} created from its tags.</p>
+ */
+@Entity
+@Table(name = "local_file")
+public class LocalFile {
+
+    @Id
+    @Column(length = 768)
+    private String path;
+
+    @Column(name = "song_id")
+    private long songId;
+
+    private long size;
+
+    @Column(name = "modified_millis")
+    private long modifiedMillis;
+
+    protected LocalFile() {
+    }
+
+    /**
+     * Creates the index entry of an imported file.
+     *
+     * @param path           absolute path of the file
+     * @param songId         id of the song created from the file
+     * @param size           file size in bytes
+     * @param modifiedMillis last modification time of the file, in epoch milliseconds
+     */
+    public LocalFile(String path, long songId, long size, long modifiedMillis) {
+        this.path = path;
+        this.songId = songId;
+        this.size = size;
+        this.modifiedMillis = modifiedMillis;
+    }
+
+    /**
+     * Checks whether the file has changed since it was indexed.
+     *
+     * @param size           current file size in bytes
+     * @param modifiedMillis current modification time, in epoch milliseconds
+     * @return {@code true} if size or modification time differ
+     */
+    public boolean isChanged(long size, long modifiedMillis) {
+        return this.size != size || this.modifiedMillis != modifiedMillis;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getSongId() {
+        return songId;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getModifiedMillis() {
+        return modifiedMillis;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LocalFile other)) return false;
+        return path != null && Objects.equals(path, other.path);
+    }
+
+    @Override
+    public final int hashCode() {
+        return LocalFile.class.hashCode();
+    }
+}
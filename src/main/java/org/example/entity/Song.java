@@ -2,6 +2,8 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import org.example.ItunesDTO;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.proxy.HibernateProxy;
 
 import java.util.HashSet;
@@ -18,8 +20,13 @@ import java.util.Set;
  * such as the iTunes API.</p>
  *
  * <p>Entity identity is based solely on the song identifier.</p>
+ *
+ * <p>Songs are held in the second-level cache.</p>
  */
 @Entity
+@Table(indexes = @Index(name = "idx_song_title_id", columnList = "title, song_id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "song")
 public class Song implements DBObject {
 
     @Id
@@ -0,0 +1,130 @@
+package org.example.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Downloads album artwork asynchronously, at most once per album.
+ *
+ * <p>Requests are keyed by the iTunes {@code collectionId}: asking for the
+ * cover of an album that is already being fetched returns the same future
+ * instead of starting another download. Finished downloads are forgotten,
+ * so covers are not held in memory and a failed download can be retried.</p>
+ *
+ * <p>Every download runs on its own virtual thread, but at most
+ * {@code maxConcurrent} requests are in flight at once. Each request is
+ * bounded by a connect timeout and an overall request timeout, so a slow
+ * artwork server can never stall ingestion.</p>
+ *
+ * <p>Downloaded images are stored as-is when the UI can display them, see
+ * {@link CoverImage}. Failed downloads complete with {@code null}; the UI
+ * then falls back to the default cover.</p>
+ */
+public class AlbumCoverFetcher {
+    private static final Logger logger = LoggerFactory.getLogger(AlbumCoverFetcher.class);
+
+    private final HttpClient http;
+    private final Duration timeout;
+    private final Semaphore permits;
+    private final Map<Long, CompletableFuture<byte[]>> covers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a fetcher with four concurrent downloads and a ten second timeout.
+     */
+    public AlbumCoverFetcher() {
+        this(4, Duration.ofSeconds(10));
+    }
+
+    /**
+     * Creates a fetcher.
+     *
+     * @param maxConcurrent maximum number of downloads in flight at once
+     * @param timeout       connect and request timeout for every download
+     */
+    public AlbumCoverFetcher(int maxConcurrent, Duration timeout) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        this.timeout = timeout;
+        this.permits = new Semaphore(maxConcurrent);
+        this.http = HttpClient.newBuilder()
+            .connectTimeout(timeout)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+
+    /**
+     * Returns the cover of an album, downloading it on first request.
+     *
+     * @param collectionId iTunes collection id of the album
+     * @param artworkUrl   URL of the album artwork
+     * @return future completing with the encoded cover, or with {@code null}
+     * if it could not be downloaded
+     */
+    public CompletableFuture<byte[]> fetch(long collectionId, URL artworkUrl) {
+        CompletableFuture<byte[]> cover = new CompletableFuture<>();
+        CompletableFuture<byte[]> pending = covers.putIfAbsent(collectionId, cover);
+        if (pending != null) {
+            return pending;
+        }
+        Thread.ofVirtual().name("cover-" + collectionId).start(() -> {
+            byte[] bytes = download(artworkUrl);
+            // Forget the download before completing, so callers that see the result can fetch again
+            covers.remove(collectionId, cover);
+            cover.complete(bytes);
+        });
+        return cover;
+    }
+
+    /**
+     * Returns the number of albums whose cover is being downloaded.
+     *
+     * @return number of downloads in flight or waiting for a permit
+     */
+    public int inFlightCount() {
+        return covers.size();
+    }
+
+    private byte[] download(URL artworkUrl) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder(artworkUrl.toURI())
+                .timeout(timeout)
+                .GET()
+                .build();
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                logger.warn("download: artwork request returned {} for {}", response.statusCode(), artworkUrl);
+                return null;
+            }
+            byte[] cover = CoverImage.toStorable(response.body());
+            if (cover == null) {
+                logger.warn("download: not a valid image: {}", artworkUrl);
+            }
+            return cover;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            logger.warn("download: could not load artwork {}: {}", artworkUrl, e.toString());
+            return null;
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package org.example.ingest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Metadata of a local audio file.
+ *
+ * <p>Tags are read from ID3v2 (versions 2.2 to 2.4) and ID3v1 tags of MP3
+ * files. Only the text frames that are needed are read, so embedded
+ * artwork is skipped without loading it. Values that no tag provides are
+ * taken from the conventional {@code Artist/Album/NN Title.ext} layout of
+ * the file's path.</p>
+ *
+ * @param artist         artist name
+ * @param album          album title
+ * @param title          track title
+ * @param track          track number, or {@code null} if unknown
+ * @param trackCount     number of tracks on the album, or {@code null} if unknown
+ * @param year           release year, or {@code null} if unknown
+ * @param genre          genre, or {@code null} if unknown
+ * @param durationMillis length in milliseconds, or {@code null} if unknown
+ */
+public record AudioTags(String artist, String album, String title, Integer track, Integer trackCount, Integer year,
+                        String genre, Long durationMillis) {
+
+    static final String UNKNOWN_ARTIST = "Unknown Artist";
+    static final String UNKNOWN_ALBUM = "Unknown Album";
+
+    /** Frames larger than this, such as embedded artwork, are skipped. */
+    private static final int MAX_FRAME_SIZE = 64 * 1024;
+
+    /**
+     * Reads the tags of a file, falling back to its path for missing values.
+     *
+     * @param file audio file
+     * @return the file's metadata
+     * @throws IOException if the file cannot be read
+     */
+    public static AudioTags read(Path file) throws IOException {
+        AudioTags tags = null;
+        if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".mp3")) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                tags = readId3v2(channel);
+                if (tags == null) {
+                    tags = readId3v1(channel);
+                }
+            }
+        }
+        return fromPath(file).overriddenBy(tags);
+    }
+
+    /**
+     * Derives metadata from the conventional {@code Artist/Album/NN Title.ext} layout.
+     */
+    static AudioTags fromPath(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String title = dot > 0 ? name.substring(0, dot) : name;
+
+        Integer track = null;
+        int digits = 0;
+        while (digits < title.length() && digits < 3 && Character.isDigit(title.charAt(digits))) {
+            digits++;
+        }
+        if (digits > 0 && digits < title.length() && !Character.isLetterOrDigit(title.charAt(digits))) {
+            track = Integer.parseInt(title.substring(0, digits));
+            title = title.substring(digits).replaceFirst("^[\\s.\\-_]+", "");
+        }
+
+        Path albumDir = file.getParent();
+        Path artistDir = albumDir == null ? null : albumDir.getParent();
+        String album = albumDir == null || albumDir.getFileName() == null ? UNKNOWN_ALBUM : albumDir.getFileName().toString();
+        String artist = artistDir == null || artistDir.getFileName() == null ? UNKNOWN_ARTIST : artistDir.getFileName().toString();
+        return new AudioTags(artist, album, title, track, null, null, null, null);
+    }
+
+    /**
+     * Returns these values, replaced by every value {@code other} provides.
+     */
+    AudioTags overriddenBy(AudioTags other) {
+        if (other == null) {
+            return this;
+        }
+        return new AudioTags(
+            other.artist != null ? other.artist : artist,
+            other.album != null ? other.album : album,
+            other.title != null ? other.title : title,
+            other.track != null ? other.track : track,
+            other.trackCount != null ? other.trackCount : trackCount,
+            other.year != null ? other.year : year,
+            other.genre != null ? other.genre : genre,
+            other.durationMillis != null ? other.durationMillis : durationMillis);
+    }
+
+    /**
+     * Reads the ID3v2 tag at the start of the file.
+     *
+     * @return the tag values, or {@code null} if the file has no ID3v2 tag
+     */
+    private static AudioTags readId3v2(FileChannel channel) throws IOException {
+        ByteBuffer header = readAt(channel, 0, 10);
+        if (header == null || header.get(0) != 'I' || header.get(1) != 'D' || header.get(2) != '3') {
+            return null;
+        }
+        int version = header.get(3);
+        if (version < 2 || version > 4) {
+            return null;
+        }
+        int flags = header.get(5);
+        long end = 10 + synchsafe(header, 6);
+        long position = 10;
+        if (version > 2 && (flags & 0x40) != 0) {
+            ByteBuffer extended = readAt(channel, position, 4);
+            if (extended == null) {
+                return null;
+            }
+            position += version == 4 ? synchsafe(extended, 0) : 4 + extended.getInt(0);
+        }
+
+        int idLength = version == 2 ? 3 : 4;
+        int headerLength = version == 2 ? 6 : 10;
+        String artist = null, album = null, title = null, trackText = null, yearText = null, genre = null, length = null;
+        while (position + headerLength <= end) {
+            ByteBuffer frame = readAt(channel, position, headerLength);
+            if (frame == null || frame.get(0) == 0) {
+                break; // padding
+            }
+            String id = new String(frame.array(), 0, idLength, StandardCharsets.ISO_8859_1);
+            long size = switch (version) {
+                case 2 -> ((frame.get(3) & 0xFF) << 16) | ((frame.get(4) & 0xFF) << 8) | (frame.get(5) & 0xFF);
+                case 3 -> frame.getInt(4) & 0xFFFFFFFFL;
+                default -> synchsafe(frame, 4);
+            };
+            long body = position + headerLength;
+            position = body + size;
+            if (size <= 1 || size > MAX_FRAME_SIZE || position > end) {
+                continue;
+            }
+            switch (id) {
+                case "TPE1", "TP1" -> artist = text(channel, body, (int) size);
+                case "TALB", "TAL" -> album = text(channel, body, (int) size);
+                case "TIT2", "TT2" -> title = text(channel, body, (int) size);
+                case "TRCK", "TRK" -> trackText = text(channel, body, (int) size);
+                case "TYER", "TDRC", "TYE" -> yearText = text(channel, body, (int) size);
+                case "TCON", "TCO" -> genre = text(channel, body, (int) size);
+                case "TLEN", "TLE" -> length = text(channel, body, (int) size);
+                default -> {
+                }
+            }
+        }
+
+        Integer track = null, trackCount = null;
+        if (trackText != null) {
+            int slash = trackText.indexOf('/');
+            track = parseInt(slash < 0 ? trackText : trackText.substring(0, slash));
+            trackCount = slash < 0 ? null : parseInt(trackText.substring(slash + 1));
+        }
+        Long duration = length == null ? null : parseLong(length);
+        return new AudioTags(artist, album, title, track, trackCount, year(yearText), genre(genre), duration);
+    }
+
+    /**
+     * Reads the ID3v1 tag in the last 128 bytes of the file.
+     *
+     * @return the tag values, or {@code null} if the file has no ID3v1 tag
+     */
+    private static AudioTags readId3v1(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer tag = size < 128 ? null : readAt(channel, size - 128, 128);
+        if (tag == null || tag.get(0) != 'T' || tag.get(1) != 'A' || tag.get(2) != 'G') {
+            return null;
+        }
+        byte[] bytes = tag.array();
+        Integer track = bytes[125] == 0 && bytes[126] != 0 ? (int) bytes[126] & 0xFF : null;
+        return new AudioTags(latin1(bytes, 33, 30), latin1(bytes, 63, 30), latin1(bytes, 3, 30), track, null,
+            year(latin1(bytes, 93, 4)), null, null);
+    }
+
+    /**
+     * Decodes a text frame, keeping the first of several null-separated values.
+     */
+    private static String text(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer frame = readAt(channel, position, size);
+        if (frame == null) {
+            return null;
+        }
+        byte[] bytes = frame.array();
+        Charset charset = switch (bytes[0]) {
+            case 1 -> StandardCharsets.UTF_16;
+            case 2 -> StandardCharsets.UTF_16BE;
+            case 3 -> StandardCharsets.UTF_8;
+            default -> StandardCharsets.ISO_8859_1;
+        };
+        String value = new String(bytes, 1, size - 1, charset);
+        int nul = value.indexOf('\0');
+        return blankToNull(nul < 0 ? value : value.substring(0, nul));
+    }
+
+    private static String latin1(byte[] bytes, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && bytes[end] != 0) {
+            end++;
+        }
+        return blankToNull(new String(bytes, offset, end - offset, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Drops numeric ID3v1 genre references such as {@code (17)}, keeping named genres.
+     */
+    private static String genre(String value) {
+        if (value == null) {
+            return null;
+        }
+        String named = value.replaceFirst("^(\\(\\d+\\))+", "");
+        return named.isBlank() || named.chars().allMatch(Character::isDigit) ? null : named.trim();
+    }
+
+    private static Integer year(String value) {
+        return value == null || value.length() < 4 ? null : parseInt(value.substring(0, 4));
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int synchsafe(ByteBuffer buffer, int offset) {
+        return ((buffer.get(offset) & 0x7F) << 21) | ((buffer.get(offset + 1) & 0x7F) << 14)
+            | ((buffer.get(offset + 2) & 0x7F) << 7) | (buffer.get(offset + 3) & 0x7F);
+    }
+
+    private static String blankToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static Integer parseInt(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
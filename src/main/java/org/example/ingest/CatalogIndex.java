@@ -0,0 +1,224 @@
+package org.example.ingest;
+
+import org.example.ArtistMatcher;
+import org.example.repo.CatalogEntry;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory index of the catalog for matching songs described by text,
+ * such as the lines of an external playlist.
+ *
+ * <p>The index is built once from {@link CatalogEntry} projections and
+ * then answers any number of lookups without touching the database.
+ * Songs are found in three steps:</p>
+ * <ol>
+ *     <li>by file location, for playlists that list files of a scanned folder;</li>
+ *     <li>by a hash of the normalized artist and title (see
+ *     {@link ArtistMatcher#normalize(String)}), where the duration chooses
+ *     between several versions of the same song;</li>
+ *     <li>by trigram similarity of artist and title, for spellings that
+ *     differ, accepted only above {@link #FUZZY_THRESHOLD} and, when both
+ *     durations are known, within {@link #DURATION_TOLERANCE_MILLIS}.</li>
+ * </ol>
+ *
+ * <p>The trigram index maps each trigram to the positions of the songs
+ * containing it, so a fuzzy lookup only scores songs that share at least
+ * one trigram with the query. Lookups reuse a scratch array and are
+ * therefore not thread-safe.</p>
+ */
+public final class CatalogIndex {
+
+    /** Minimum Dice similarity of the trigram sets for a fuzzy match. */
+    public static final double FUZZY_THRESHOLD = 0.6;
+
+    /** Maximum difference of two known durations for them to be considered equal. */
+    public static final long DURATION_TOLERANCE_MILLIS = 3_000;
+
+    private static final int[] NONE = new int[0];
+
+    /**
+     * A matched song.
+     *
+     * @param songId identifier of the song
+     * @param fuzzy  whether the song was found by similarity rather than an exact key
+     * @param score  similarity of the match, {@code 1} for exact matches
+     */
+    public record Match(long songId, boolean fuzzy, double score) {
+    }
+
+    private final long[] songIds;
+    private final long[] lengths;
+    private final int[] gramCounts;
+    private final Map<String, int[]> byKey;
+    private final Map<String, Integer> byLocation;
+    private final Map<String, int[]> byGram;
+    private final int[] shared;
+
+    private CatalogIndex(int size) {
+        songIds = new long[size];
+        lengths = new long[size];
+        gramCounts = new int[size];
+        byKey = new HashMap<>(size * 2);
+        byLocation = new HashMap<>(size * 2);
+        byGram = new HashMap<>();
+        shared = new int[size];
+    }
+
+    /**
+     * Builds the index of the given songs.
+     *
+     * @param entries songs to index
+     * @return the index
+     */
+    public static CatalogIndex build(List<CatalogEntry> entries) {
+        CatalogIndex index = new CatalogIndex(entries.size());
+        Map<String, int[]> grams = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            CatalogEntry entry = entries.get(i);
+            index.songIds[i] = entry.songId();
+            index.lengths[i] = entry.lengthMillis() == null ? -1 : entry.lengthMillis();
+            if (entry.location() != null && !entry.location().isBlank()) {
+                index.byLocation.putIfAbsent(entry.location(), i);
+            }
+
+            String artist = ArtistMatcher.normalize(entry.artist());
+            String title = ArtistMatcher.normalize(entry.title());
+            if (title.isEmpty()) {
+                continue;
+            }
+            index.byKey.merge(key(artist, title), new int[]{i}, CatalogIndex::concat);
+            String[] trigrams = trigrams(artist, title);
+            index.gramCounts[i] = trigrams.length;
+            for (String gram : trigrams) {
+                // Postings grow by doubling; slot 0 holds the number of used slots
+                int[] postings = grams.computeIfAbsent(gram, g -> new int[4]);
+                if (postings[0] + 1 == postings.length) {
+                    postings = Arrays.copyOf(postings, postings.length * 2);
+                    grams.put(gram, postings);
+                }
+                postings[++postings[0]] = i;
+            }
+        }
+        grams.forEach((gram, postings) -> index.byGram.put(gram, Arrays.copyOfRange(postings, 1, postings[0] + 1)));
+        return index;
+    }
+
+    /**
+     * Returns the number of indexed songs.
+     *
+     * @return indexed song count
+     */
+    public int size() {
+        return songIds.length;
+    }
+
+    /**
+     * Finds the song stored at the given location.
+     *
+     * @param location file or preview URL
+     * @return the match, or {@code null} if no song has this location
+     */
+    public Match findByLocation(String location) {
+        Integer i = location == null ? null : byLocation.get(location);
+        return i == null ? null : new Match(songIds[i], false, 1);
+    }
+
+    /**
+     * Finds the song with the given artist and title.
+     *
+     * @param artist         artist name, may be {@code null}
+     * @param title          song title
+     * @param durationMillis length in milliseconds, or {@code null} if unknown
+     * @return the best match, or {@code null} if no song is similar enough
+     */
+    public Match find(String artist, String title, Long durationMillis) {
+        String normalizedArtist = ArtistMatcher.normalize(artist);
+        String normalizedTitle = ArtistMatcher.normalize(title);
+        if (normalizedTitle.isEmpty()) {
+            return null;
+        }
+        long duration = durationMillis == null ? -1 : durationMillis;
+
+        int[] candidates = byKey.getOrDefault(key(normalizedArtist, normalizedTitle), NONE);
+        int best = -1;
+        for (int i : candidates) {
+            if (best < 0 || distance(i, duration) < distance(best, duration)) {
+                best = i;
+            }
+        }
+        if (best >= 0) {
+            return new Match(songIds[best], false, 1);
+        }
+        return findSimilar(trigrams(normalizedArtist, normalizedTitle), duration);
+    }
+
+    /**
+     * Scores every song sharing a trigram with the query and returns the most similar one.
+     */
+    private Match findSimilar(String[] query, long duration) {
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (String gram : query) {
+            for (int i : byGram.getOrDefault(gram, NONE)) {
+                if (shared[i]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = i;
+                }
+            }
+        }
+
+        int best = -1;
+        double bestScore = FUZZY_THRESHOLD;
+        for (int t = 0; t < touchedCount; t++) {
+            int i = touched[t];
+            double score = 2.0 * shared[i] / (query.length + gramCounts[i]);
+            shared[i] = 0;
+            if (distance(i, duration) > DURATION_TOLERANCE_MILLIS) {
+                continue;
+            }
+            if (score > bestScore || (score == bestScore && best >= 0 && distance(i, duration) < distance(best, duration))) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        return best < 0 ? null : new Match(songIds[best], true, bestScore);
+    }
+
+    /**
+     * Difference between a song's length and a duration, {@code 0} if either is unknown.
+     */
+    private long distance(int i, long duration) {
+        return duration < 0 || lengths[i] < 0 ? 0 : Math.abs(lengths[i] - duration);
+    }
+
+    private static String key(String artist, String title) {
+        return artist + '\u001F' + title;
+    }
+
+    /**
+     * Returns the distinct trigrams of {@code "artist title"}, padded with a
+     * space on both sides so that short words still contribute.
+     */
+    static String[] trigrams(String artist, String title) {
+        String text = artist.isEmpty() ? " " + title + " " : " " + artist + " " + title + " ";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+        return grams.toArray(String[]::new);
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] both = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, both, a.length, b.length);
+        return both;
+    }
+}
@@ -0,0 +1,221 @@
+package org.example.ingest;
+
+import org.example.ItunesApiClient;
+import org.example.ItunesDTO;
+import org.example.entity.ArtistSync;
+import org.example.entity.CatalogVersion;
+import org.example.repo.AlbumRepository;
+import org.example.repo.ArtistRepository;
+import org.example.repo.CatalogSyncRepository;
+import org.example.repo.DeadLetterRepository;
+import org.example.repo.SongRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incrementally synchronizes the catalog with the iTunes API.
+ *
+ * <p>Every artist search term has an {@link ArtistSync} row holding the
+ * time of its last sync and a hash of the content returned. A sync only
+ * re-fetches terms whose row is missing or older than the allowed age.
+ * If the fetched content hashes to the stored value, nothing is written;
+ * otherwise the results are passed to an {@link IngestPipeline} that
+ * inserts new rows and updates only the rows whose values changed.</p>
+ *
+ * <p>After a successful sync the {@link CatalogVersion} row is updated, so
+ * the next startup can decide with a single primary-key lookup whether
+ * any sync is needed at all, see {@link #isCurrent(List, Duration)}.</p>
+ */
+public class CatalogSync {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSync.class);
+
+    private final ItunesApiClient apiClient;
+    private final ArtistRepository artistRepo;
+    private final AlbumRepository albumRepo;
+    private final SongRepository songRepo;
+    private final CatalogSyncRepository syncRepo;
+    private final DeadLetterRepository deadLetterRepo;
+    private final Clock clock;
+
+    /**
+     * Outcome of a sync.
+     *
+     * @param refreshed       terms that were re-fetched because they were stale
+     * @param changed         terms whose content changed and was written
+     * @param version         the catalog version stored after the sync
+     * @param insertedSongIds ids of the songs the sync inserted
+     */
+    public record Result(List<String> refreshed, List<String> changed, CatalogVersion version, List<Long> insertedSongIds) {
+
+        /**
+         * Returns whether the sync wrote any catalog rows.
+         *
+         * @return {@code true} if at least one term changed
+         */
+        public boolean catalogChanged() {
+            return !changed.isEmpty();
+        }
+    }
+
+    /**
+     * Creates a new catalog sync.
+     *
+     * @param apiClient      client used to fetch data from the iTunes API
+     * @param artistRepo     repository for artists
+     * @param albumRepo      repository for albums
+     * @param songRepo       repository for songs
+     * @param syncRepo       repository for sync bookkeeping
+     * @param deadLetterRepo repository storing records that failed to ingest
+     */
+    public CatalogSync(ItunesApiClient apiClient, ArtistRepository artistRepo, AlbumRepository albumRepo,
+                       SongRepository songRepo, CatalogSyncRepository syncRepo, DeadLetterRepository deadLetterRepo) {
+        this(apiClient, artistRepo, albumRepo, songRepo, syncRepo, deadLetterRepo, Clock.systemUTC());
+    }
+
+    CatalogSync(ItunesApiClient apiClient, ArtistRepository artistRepo, AlbumRepository albumRepo,
+                SongRepository songRepo, CatalogSyncRepository syncRepo, DeadLetterRepository deadLetterRepo, Clock clock) {
+        this.apiClient = apiClient;
+        this.artistRepo = artistRepo;
+        this.albumRepo = albumRepo;
+        this.songRepo = songRepo;
+        this.syncRepo = syncRepo;
+        this.deadLetterRepo = deadLetterRepo;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks with one primary-key lookup whether the catalog is up to date.
+     *
+     * @param terms  search terms the catalog should contain
+     * @param maxAge maximum age of an artist sync before it is considered stale
+     * @return {@code true} if the catalog was synchronized with the same
+     * terms and no artist is older than {@code maxAge}
+     */
+    public boolean isCurrent(List<String> terms, Duration maxAge) {
+        CatalogVersion version = syncRepo.findCatalogVersion();
+        return version != null
+            && seedHash(terms).equals(version.getSeedHash())
+            && version.getSyncedAt() != null
+            && version.getSyncedAt().plus(maxAge).isAfter(clock.instant());
+    }
+
+    /**
+     * Re-fetches stale terms and writes the ones whose content changed.
+     *
+     * @param terms  search terms the catalog should contain
+     * @param maxAge maximum age of an artist sync before it is re-fetched;
+     *               {@link Duration#ZERO} re-fetches every term
+     * @return the outcome of the sync
+     * @throws RuntimeException if fetching or persisting fails; sync records
+     *                          are only updated when every term succeeded
+     */
+    public Result sync(List<String> terms, Duration maxAge) {
+        Instant now = clock.instant();
+        Map<String, ArtistSync> syncs = syncRepo.findArtistSyncs();
+
+        List<String> stale = terms.stream()
+            .filter(term -> {
+                ArtistSync sync = syncs.get(term);
+                return sync == null || sync.getLastSynced() == null || !sync.getLastSynced().plus(maxAge).isAfter(now);
+            })
+            .toList();
+
+        Map<String, ArtistSync> fetched = new ConcurrentHashMap<>();
+        List<String> changed = new ArrayList<>();
+        List<Long> inserted = List.of();
+        if (!stale.isEmpty()) {
+            inserted = new IngestPipeline(apiClient, artistRepo, albumRepo, songRepo, deadLetterRepo, IngestPipeline.Options.defaults())
+                .run(stale, (term, dtos) -> {
+                    String hash = contentHash(dtos);
+                    fetched.put(term, new ArtistSync(term, hash, dtos.size(), now));
+                    ArtistSync previous = syncs.get(term);
+                    return previous == null || !hash.equals(previous.getContentHash());
+                })
+                .insertedSongIds();
+            for (String term : stale) {
+                ArtistSync previous = syncs.get(term);
+                if (previous == null || !fetched.get(term).getContentHash().equals(previous.getContentHash())) {
+                    changed.add(term);
+                }
+            }
+            syncRepo.saveArtistSyncs(fetched.values());
+            syncs.putAll(fetched);
+        }
+
+        Instant oldest = terms.stream()
+            .map(syncs::get)
+            .filter(Objects::nonNull)
+            .map(ArtistSync::getLastSynced)
+            .min(Comparator.naturalOrder())
+            .orElse(now);
+        CatalogVersion previous = syncRepo.findCatalogVersion();
+        long version = (previous == null ? 0 : previous.getVersion()) + (changed.isEmpty() ? 0 : 1);
+        CatalogVersion current = new CatalogVersion(version, seedHash(terms), oldest);
+        syncRepo.saveCatalogVersion(current);
+
+        logger.info("sync: refreshed {} of {} terms, {} changed, catalog version {}",
+            stale.size(), terms.size(), changed.size(), version);
+        return new Result(stale, changed, current, inserted);
+    }
+
+    /**
+     * Hashes the search terms a catalog is built from.
+     *
+     * @param terms search terms
+     * @return hex-encoded SHA-256 of the terms in order
+     */
+    static String seedHash(List<String> terms) {
+        MessageDigest digest = sha256();
+        for (String term : terms) {
+            digest.update(term.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hashes the catalog-relevant content of a search result.
+     *
+     * <p>Results are hashed in track id order, so a reordering of the API
+     * response alone does not count as a change.</p>
+     *
+     * @param dtos search results
+     * @return hex-encoded SHA-256 of the results
+     */
+    public static String contentHash(List<ItunesDTO> dtos) {
+        MessageDigest digest = sha256();
+        dtos.stream()
+            .sorted(Comparator.comparing(ItunesDTO::trackId, Comparator.nullsFirst(Comparator.naturalOrder())))
+            .forEach(dto -> {
+                for (Object field : new Object[]{dto.trackId(), dto.trackName(), dto.trackTimeMillis(), dto.previewUrl(),
+                    dto.collectionId(), dto.collectionName(), dto.primaryGenreName(), dto.releaseDate(), dto.trackCount(),
+                    dto.artworkUrl100(), dto.artistId(), dto.artistName(), dto.country()}) {
+                    digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                }
+            });
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
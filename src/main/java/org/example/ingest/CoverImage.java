@@ -0,0 +1,165 @@
+package org.example.ingest;
+
+import org.example.entity.Album;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Prepares downloaded artwork for storage.
+ *
+ * <p>Images in a format the JavaFX UI can display (JPEG, PNG, GIF and BMP)
+ * are stored exactly as downloaded. Recognising them only requires reading
+ * the magic bytes and the image dimensions from the header, which is far
+ * cheaper than decoding the whole image and avoids the quality loss of
+ * re-encoding an image that is already a JPEG.</p>
+ *
+ * <p>Anything else is decoded with {@link ImageIO} and transcoded to JPEG
+ * with {@link Album#imageToBytes(BufferedImage)}.</p>
+ */
+public final class CoverImage {
+
+    /** Largest width or height accepted from an image header. */
+    static final int MAX_DIMENSION = 10_000;
+
+    /**
+     * Image formats recognised by {@link #sniff(byte[])}.
+     */
+    public enum Format { JPEG, PNG, GIF, BMP }
+
+    /**
+     * Format and dimensions read from an image header.
+     *
+     * @param format image format
+     * @param width  width in pixels
+     * @param height height in pixels
+     */
+    public record Header(Format format, int width, int height) {
+    }
+
+    private CoverImage() {
+    }
+
+    /**
+     * Converts downloaded artwork into the bytes stored on the album.
+     *
+     * @param bytes image as downloaded
+     * @return the original bytes if the UI can display them, a JPEG
+     * transcoding otherwise, or {@code null} if the data is not an image
+     */
+    public static byte[] toStorable(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (sniff(bytes) != null) {
+            return bytes;
+        }
+        return transcode(bytes);
+    }
+
+    /**
+     * Decodes an image and re-encodes it as JPEG.
+     *
+     * @param bytes encoded image in any format supported by {@link ImageIO}
+     * @return JPEG bytes, or {@code null} if the data cannot be decoded
+     */
+    public static byte[] transcode(byte[] bytes) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+            return image == null ? null : Album.imageToBytes(image);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the format and dimensions from an image header without
+     * decoding any pixel data.
+     *
+     * @param bytes encoded image
+     * @return the header, or {@code null} if the format is not one of
+     * {@link Format} or the header is truncated or implausible
+     */
+    public static Header sniff(byte[] bytes) {
+        Header header;
+        if (startsWith(bytes, 0xFF, 0xD8, 0xFF)) {
+            header = jpeg(bytes);
+        } else if (startsWith(bytes, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            header = bytes.length < 24 ? null : new Header(Format.PNG, intBE(bytes, 16), intBE(bytes, 20));
+        } else if (startsWith(bytes, 'G', 'I', 'F', '8') && bytes.length >= 10) {
+            header = new Header(Format.GIF, shortLE(bytes, 6), shortLE(bytes, 8));
+        } else if (startsWith(bytes, 'B', 'M') && bytes.length >= 26) {
+            header = new Header(Format.BMP, intLE(bytes, 18), Math.abs(intLE(bytes, 22)));
+        } else {
+            return null;
+        }
+        if (header == null
+            || header.width() <= 0 || header.width() > MAX_DIMENSION
+            || header.height() <= 0 || header.height() > MAX_DIMENSION) {
+            return null;
+        }
+        return header;
+    }
+
+    /**
+     * Walks the JPEG marker segments up to the first start-of-frame marker,
+     * which holds the image dimensions.
+     */
+    private static Header jpeg(byte[] b) {
+        int pos = 2;
+        while (pos + 4 <= b.length) {
+            if ((b[pos] & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = b[pos + 1] & 0xFF;
+            if (marker == 0xFF) { // fill byte
+                pos++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) { // markers without a length
+                pos += 2;
+                continue;
+            }
+            int length = shortBE(b, pos + 2);
+            boolean startOfFrame = marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+            if (startOfFrame) {
+                return pos + 9 <= b.length ? new Header(Format.JPEG, shortBE(b, pos + 7), shortBE(b, pos + 5)) : null;
+            }
+            if (marker == 0xDA || length < 2) { // start of scan before any frame header
+                return null;
+            }
+            pos += 2 + length;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] b, int... prefix) {
+        if (b.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((b[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int shortBE(byte[] b, int i) {
+        return (b[i] & 0xFF) << 8 | (b[i + 1] & 0xFF);
+    }
+
+    private static int shortLE(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8;
+    }
+
+    private static int intBE(byte[] b, int i) {
+        return (b[i] & 0xFF) << 24 | (b[i + 1] & 0xFF) << 16 | (b[i + 2] & 0xFF) << 8 | (b[i + 3] & 0xFF);
+    }
+
+    private static int intLE(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+}
@@ -0,0 +1,260 @@
+package org.example.ingest;
+
+import org.example.ItunesApiClient;
+import org.example.ItunesDTO;
+import org.example.entity.Album;
+import org.example.entity.CrawlCheckpoint;
+import org.example.entity.Song;
+import org.example.repo.AlbumRepository;
+import org.example.repo.ArtistRepository;
+import org.example.repo.CrawlCheckpointRepository;
+import org.example.repo.DeadLetterRepository;
+import org.example.repo.LongHashSet;
+import org.example.repo.PlaylistRepository;
+import org.example.repo.SongRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Crawls the complete discography of artists by paging through search results.
+ *
+ * <p>A regular search returns only the first twenty tracks per artist. The
+ * crawler instead requests pages of {@link Options#pageSize()} results with
+ * increasing offsets until the API returns a short page. For each term, {@link Options#pagesInFlight()}
+ * consecutive pages are requested at once; once they have all arrived,
+ * their results are written as one batch of upserts.</p>
+ *
+ * <p>After every batch the term's {@link CrawlCheckpoint} is advanced past
+ * the written pages. A crawl that is interrupted, or fails, resumes from
+ * the last checkpoint on the next run. Terms whose crawl has completed are
+ * skipped.</p>
+ *
+ * <p>Tracks that fail validation are stored as dead letters, so they can
+ * be re-processed with {@link IngestPipeline#replayDeadLetters()}.</p>
+ *
+ * <p>Songs the crawl inserted are added to the Library playlist once every
+ * term has been attempted, including when some of them failed.</p>
+ */
+public class DiscographyCrawler {
+    private static final Logger logger = LoggerFactory.getLogger(DiscographyCrawler.class);
+
+    private static final long LIBRARY_PLAYLIST_ID = 1L;
+
+    private final ItunesApiClient apiClient;
+    private final ArtistRepository artistRepo;
+    private final AlbumRepository albumRepo;
+    private final SongRepository songRepo;
+    private final PlaylistRepository playlistRepo;
+    private final CrawlCheckpointRepository checkpointRepo;
+    private final DeadLetterRepository deadLetterRepo;
+    private final AlbumCoverFetcher coverFetcher;
+    private final Options options;
+    private final Clock clock;
+
+    /**
+     * Tuning options for the crawler.
+     *
+     * @param pageSize      results requested per page, at most {@value ItunesApiClient#MAX_PAGE_SIZE}
+     * @param pagesInFlight pages of one term requested concurrently
+     */
+    public record Options(int pageSize, int pagesInFlight) {
+
+        public Options {
+            if (pageSize < 1 || pageSize > ItunesApiClient.MAX_PAGE_SIZE || pagesInFlight < 1) {
+                throw new IllegalArgumentException("Invalid crawler options");
+            }
+        }
+
+        /**
+         * Returns the default options: pages of 200 results, three at a time.
+         *
+         * @return default crawler options
+         */
+        public static Options defaults() {
+            return new Options(ItunesApiClient.MAX_PAGE_SIZE, 3);
+        }
+    }
+
+    /**
+     * Summary of a crawl.
+     *
+     * @param pages     pages fetched
+     * @param tracks    matching tracks written
+     * @param completed terms whose discography is now fully crawled
+     */
+    public record Result(int pages, int tracks, List<String> completed) {
+    }
+
+    /**
+     * Creates a new crawler.
+     *
+     * @param apiClient      client used to fetch search pages
+     * @param artistRepo     repository for artists
+     * @param albumRepo      repository for albums
+     * @param songRepo       repository for songs
+     * @param playlistRepo   repository for the Library playlist
+     * @param checkpointRepo repository storing crawl progress
+     * @param deadLetterRepo repository storing tracks that failed validation
+     * @param coverFetcher   fetcher used to download artwork of new albums
+     * @param options        crawler tuning options
+     */
+    public DiscographyCrawler(ItunesApiClient apiClient, ArtistRepository artistRepo, AlbumRepository albumRepo,
+                              SongRepository songRepo, PlaylistRepository playlistRepo,
+                              CrawlCheckpointRepository checkpointRepo, DeadLetterRepository deadLetterRepo,
+                              AlbumCoverFetcher coverFetcher, Options options) {
+        this.apiClient = apiClient;
+        this.artistRepo = artistRepo;
+        this.albumRepo = albumRepo;
+        this.songRepo = songRepo;
+        this.playlistRepo = playlistRepo;
+        this.checkpointRepo = checkpointRepo;
+        this.deadLetterRepo = deadLetterRepo;
+        this.coverFetcher = coverFetcher;
+        this.options = options;
+        this.clock = Clock.systemUTC();
+    }
+
+    /**
+     * Crawls all given terms, one after another.
+     *
+     * <p>A term that fails does not stop the others; failures are reported
+     * together once every term has been attempted. The method returns after
+     * all pending cover downloads have finished.</p>
+     *
+     * @param terms artist search terms
+     * @return summary of the crawl
+     * @throws RuntimeException if any term failed
+     */
+    public Result crawl(List<String> terms) {
+        int[] totals = new int[2];
+        List<String> completed = new ArrayList<>();
+        List<RuntimeException> failures = new ArrayList<>();
+        List<CompletableFuture<Void>> covers = new ArrayList<>();
+        List<Long> insertedSongs = new ArrayList<>();
+
+        for (String term : terms) {
+            try {
+                if (crawl(term, totals, covers, insertedSongs)) {
+                    completed.add(term);
+                }
+            } catch (RuntimeException e) {
+                logger.error("crawl: failed for term: {}", term, e);
+                failures.add(new RuntimeException("Failed to crawl search term: " + term, e));
+            }
+        }
+        CompletableFuture.allOf(covers.toArray(CompletableFuture[]::new)).join();
+        if (!insertedSongs.isEmpty() && playlistRepo.existsByUniqueId(LIBRARY_PLAYLIST_ID)) {
+            playlistRepo.addSongsById(LIBRARY_PLAYLIST_ID, insertedSongs);
+        }
+
+        Result result = new Result(totals[0], totals[1], completed);
+        logger.info("crawl: {} pages, {} tracks, {} of {} terms complete", result.pages(), result.tracks(), completed.size(), terms.size());
+        if (!failures.isEmpty()) {
+            RuntimeException first = failures.getFirst();
+            failures.stream().skip(1).forEach(first::addSuppressed);
+            throw first;
+        }
+        return result;
+    }
+
+    /**
+     * Crawls one term from its checkpoint until the search is exhausted.
+     *
+     * @return {@code true} if the term's crawl is complete
+     */
+    private boolean crawl(String term, int[] totals, List<CompletableFuture<Void>> covers, List<Long> insertedSongs) {
+        CrawlCheckpoint checkpoint = checkpointRepo.findByTerm(term);
+        if (checkpoint == null) {
+            checkpoint = new CrawlCheckpoint(term);
+        } else if (checkpoint.isComplete()) {
+            logger.debug("crawl: {} already complete", term);
+            return true;
+        }
+
+        int offset = checkpoint.getNextOffset();
+        while (true) {
+            List<CompletableFuture<ItunesApiClient.SearchPage>> window = new ArrayList<>(options.pagesInFlight());
+            for (int i = 0; i < options.pagesInFlight(); i++) {
+                window.add(apiClient.searchPageAsync(term, offset + i * options.pageSize(), options.pageSize()));
+            }
+
+            List<ItunesDTO> dtos = new ArrayList<>();
+            int pages = 0;
+            boolean last = false;
+            try {
+                for (CompletableFuture<ItunesApiClient.SearchPage> future : window) {
+                    ItunesApiClient.SearchPage page = future.join();
+                    pages++;
+                    dtos.addAll(page.songs());
+                    if (page.isLast()) {
+                        last = true;
+                        break;
+                    }
+                }
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            } finally {
+                window.forEach(f -> f.cancel(true));
+            }
+
+            write(term, dtos, covers, insertedSongs);
+            offset += pages * options.pageSize();
+            checkpoint.advance(offset, clock.instant(), last);
+            checkpointRepo.save(checkpoint);
+            totals[0] += pages;
+            totals[1] += dtos.size();
+            logger.debug("crawl: {} at offset {}, {} tracks written", term, offset, dtos.size());
+
+            if (last) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Writes one batch of pages, requests covers for albums that were new
+     * and records the ids of songs that were new.
+     */
+    private void write(String term, List<ItunesDTO> dtos, List<CompletableFuture<Void>> covers, List<Long> insertedSongs) {
+        if (dtos.isEmpty()) {
+            return;
+        }
+        IngestPipeline.CatalogBatch batch = IngestPipeline.transform(term, dtos);
+        if (!batch.rejected().isEmpty()) {
+            deadLetterRepo.saveAll(batch.rejected());
+            logger.warn("crawl: {} invalid tracks of term {} dead-lettered", batch.rejected().size(), term);
+        }
+        LongHashSet existingAlbums = albumRepo.findExistingIds(batch.albums().stream().map(Album::getId).toList());
+        LongHashSet existingSongs = songRepo.findExistingIds(batch.songs().stream().map(Song::getId).toList());
+
+        artistRepo.upsertAll(batch.artists());
+        albumRepo.upsertAll(batch.albums());
+        songRepo.upsertAll(batch.songs());
+        batch.songs().stream()
+            .map(Song::getId)
+            .filter(id -> !existingSongs.contains(id))
+            .forEach(insertedSongs::add);
+
+        for (Album album : batch.albums()) {
+            URL url = batch.artwork().get(album.getId());
+            if (url == null || existingAlbums.contains(album.getId())) {
+                continue;
+            }
+            covers.add(coverFetcher.fetch(album.getId(), url).thenAccept(cover -> {
+                if (cover != null) {
+                    albumRepo.updateCover(album.getId(), cover);
+                }
+            }).exceptionally(e -> {
+                logger.error("crawl: attaching cover failed for album: {}", album.getId(), e);
+                return null;
+            }));
+        }
+    }
+}
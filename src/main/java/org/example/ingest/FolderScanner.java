@@ -0,0 +1,480 @@
+package org.example.ingest;
+
+import org.example.ArtistMatcher;
+import org.example.ItunesDTO;
+import org.example.entity.LocalFile;
+import org.example.repo.AlbumRepository;
+import org.example.repo.ArtistRepository;
+import org.example.repo.LocalFileRepository;
+import org.example.repo.SongRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Imports the audio files of a local music folder into the catalog.
+ *
+ * <p>The folder is walked in parallel on a {@link ForkJoinPool}: every
+ * directory is a task that forks one subtask per subdirectory, so idle
+ * workers steal whole subtrees from busy ones. The tags of each audio file
+ * are read with {@link AudioTags} and mapped onto the existing
+ * {@link org.example.entity.Artist}, {@link org.example.entity.Album} and
+ * {@link org.example.entity.Song} entities, which are written in batches
+ * with native upserts.</p>
+ *
+ * <p>Local entities get negative ids, so they can never collide with
+ * iTunes ids. The ids are derived from the tags rather than the path:
+ * a moved or renamed file keeps its song and the song's playlist
+ * entries. The song's preview URL is the file's URI, so it plays like an
+ * iTunes preview.</p>
+ *
+ * <p>Every imported file is recorded as a {@link LocalFile} with its size
+ * and modification time. A rescan reads the tags of new and changed files
+ * only, and deletes the songs of files that disappeared, unless another
+ * file still provides the same song. {@link #watch(Path, Consumer)} applies
+ * the same updates incrementally as the file system reports them.</p>
+ */
+public class FolderScanner {
+    private static final Logger logger = LoggerFactory.getLogger(FolderScanner.class);
+
+    private static final Set<String> AUDIO_EXTENSIONS = Set.of("mp3", "m4a", "aac", "wav", "aif", "aiff");
+
+    /**
+     * Scanner options.
+     *
+     * @param parallelism    number of threads walking the folder and reading tags
+     * @param writeBatchSize number of files written per batch
+     * @param settleTime     quiet period after a file system event before
+     *                       the collected changes are applied in watch mode
+     */
+    public record Options(int parallelism, int writeBatchSize, Duration settleTime) {
+
+        public Options {
+            if (parallelism < 1 || writeBatchSize < 1 || settleTime.isNegative()) {
+                throw new IllegalArgumentException("Invalid scanner options: " + parallelism + ", " + writeBatchSize
+                    + ", " + settleTime);
+            }
+        }
+
+        /**
+         * Returns the default options: one thread per processor, batches of
+         * 500 files and half a second of settle time.
+         *
+         * @return default options
+         */
+        public static Options defaults() {
+            return new Options(Runtime.getRuntime().availableProcessors(), 500, Duration.ofMillis(500));
+        }
+    }
+
+    /**
+     * Summary of a scan or of one round of watched changes.
+     *
+     * @param scanned audio files visited
+     * @param changed new or changed files whose tags were imported
+     * @param removed files that disappeared from the folder
+     * @param failed  files or directories that could not be read
+     * @param songIds ids of the songs written for new or changed files
+     */
+    public record Result(int scanned, int changed, int removed, int failed, List<Long> songIds) {
+    }
+
+    /**
+     * A file whose tags were read, with the size and modification time they belong to.
+     */
+    private record Scanned(String path, long size, long modifiedMillis, ItunesDTO dto) {
+    }
+
+    /**
+     * Changes collected by a walk, applied afterwards by {@link #apply}.
+     */
+    private static final class Changes {
+        final Queue<Scanned> changed = new ConcurrentLinkedQueue<>();
+        final Set<String> seen = ConcurrentHashMap.newKeySet();
+        final Set<String> unreadable = ConcurrentHashMap.newKeySet();
+        final Set<String> removed = new LinkedHashSet<>();
+        final AtomicInteger scanned = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+
+        /**
+         * Marks every indexed file below {@code dir} as removed unless the
+         * walk saw it or could not read the directory containing it.
+         */
+        void removeUnseenUnder(String dir, Map<String, LocalFile> index) {
+            String prefix = dir.endsWith(File.separator) ? dir : dir + File.separator;
+            for (String path : index.keySet()) {
+                if (path.startsWith(prefix) && !seen.contains(path)
+                    && unreadable.stream().noneMatch(path::startsWith)) {
+                    removed.add(path);
+                }
+            }
+        }
+    }
+
+    private final ArtistRepository artistRepo;
+    private final AlbumRepository albumRepo;
+    private final SongRepository songRepo;
+    private final LocalFileRepository fileRepo;
+    private final Options options;
+
+    /**
+     * Creates a new folder scanner.
+     *
+     * @param artistRepo repository for artists
+     * @param albumRepo  repository for albums
+     * @param songRepo   repository for songs
+     * @param fileRepo   index of imported files
+     * @param options    scanner options
+     */
+    public FolderScanner(ArtistRepository artistRepo, AlbumRepository albumRepo, SongRepository songRepo,
+                         LocalFileRepository fileRepo, Options options) {
+        this.artistRepo = artistRepo;
+        this.albumRepo = albumRepo;
+        this.songRepo = songRepo;
+        this.fileRepo = fileRepo;
+        this.options = options;
+    }
+
+    /**
+     * Scans a folder and brings the catalog in line with its audio files.
+     *
+     * @param root the music folder
+     * @return summary of the scan
+     * @throws IllegalArgumentException if {@code root} is not a directory
+     */
+    public Result scan(Path root) {
+        Path dir = checkedRoot(root);
+        Map<String, LocalFile> index = loadIndex(dir);
+        Changes changes = new Changes();
+        walk(dir, index, changes);
+        changes.removeUnseenUnder(dir.toString(), index);
+
+        Result result = apply(dir, index, changes);
+        logger.info("scan: {} files in {}, {} changed, {} removed, {} failed", result.scanned(), dir, result.changed(),
+            result.removed(), result.failed());
+        return result;
+    }
+
+    /**
+     * Handle of a folder being watched. Closing it stops the watch.
+     */
+    public static final class Watch implements AutoCloseable {
+        private final WatchService service;
+        private final Thread thread;
+
+        private Watch(WatchService service, Thread thread) {
+            this.service = service;
+            this.thread = thread;
+        }
+
+        @Override
+        public void close() throws IOException {
+            service.close();
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Watches a folder and applies added, changed, moved and deleted files
+     * as they happen.
+     *
+     * <p>The folder should have been scanned first; the watch only applies
+     * changes reported after it started. Events are collected until the
+     * folder has been quiet for {@link Options#settleTime()}, so the
+     * delete and create events of a move are applied together and the
+     * moved file keeps its song. The watch runs on a daemon thread.</p>
+     *
+     * @param root     the music folder
+     * @param onChange called with the summary of every applied round of changes
+     * @return handle that stops the watch when closed
+     * @throws IOException              if the folder cannot be watched
+     * @throws IllegalArgumentException if {@code root} is not a directory
+     */
+    public Watch watch(Path root, Consumer<Result> onChange) throws IOException {
+        Path dir = checkedRoot(root);
+        WatchService service = dir.getFileSystem().newWatchService();
+        Map<String, LocalFile> index = loadIndex(dir);
+        register(dir, service);
+
+        Thread thread = Thread.ofPlatform().daemon().name("folder-watch").start(() -> {
+            try {
+                while (true) {
+                    Set<Path> touched = new LinkedHashSet<>();
+                    collect(service.take(), touched);
+                    WatchKey next;
+                    while ((next = service.poll(options.settleTime().toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                        collect(next, touched);
+                    }
+                    try {
+                        Result result = applyEvents(dir, index, touched, service);
+                        logger.debug("watch: {} changed, {} removed", result.changed(), result.removed());
+                        onChange.accept(result);
+                    } catch (RuntimeException e) {
+                        logger.error("watch: applying changes in {} failed", dir, e);
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                logger.debug("watch: stopped watching {}", dir);
+            }
+        });
+        return new Watch(service, thread);
+    }
+
+    private static Path checkedRoot(Path root) {
+        Path dir = root.toAbsolutePath().normalize();
+        if (!Files.isDirectory(dir)) {
+            throw new IllegalArgumentException("Not a directory: " + root);
+        }
+        return dir;
+    }
+
+    private Map<String, LocalFile> loadIndex(Path dir) {
+        Map<String, LocalFile> index = new HashMap<>();
+        for (LocalFile file : fileRepo.findUnder(dir + File.separator)) {
+            index.put(file.getPath(), file);
+        }
+        return index;
+    }
+
+    /**
+     * Walks a directory tree on a work-stealing pool.
+     */
+    private void walk(Path dir, Map<String, LocalFile> index, Changes changes) {
+        ForkJoinPool pool = new ForkJoinPool(options.parallelism());
+        try {
+            pool.invoke(new DirectoryTask(dir, index, changes));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Visits the files of one directory and forks a task per subdirectory.
+     */
+    private final class DirectoryTask extends RecursiveAction {
+        private final Path dir;
+        private final Map<String, LocalFile> index;
+        private final Changes changes;
+
+        DirectoryTask(Path dir, Map<String, LocalFile> index, Changes changes) {
+            this.dir = dir;
+            this.index = index;
+            this.changes = changes;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subdirs = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isDirectory()) {
+                        subdirs.add(new DirectoryTask(entry, index, changes));
+                    } else if (attrs.isRegularFile() && isAudio(entry)) {
+                        visit(entry, attrs, index, changes);
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("scan: cannot read directory {}: {}", dir, e.getMessage());
+                changes.unreadable.add(dir + File.separator);
+                changes.failed.incrementAndGet();
+            }
+            invokeAll(subdirs);
+        }
+    }
+
+    /**
+     * Reads the tags of a file unless the index shows it is unchanged.
+     */
+    private static void visit(Path file, BasicFileAttributes attrs, Map<String, LocalFile> index, Changes changes) {
+        String path = file.toString();
+        changes.seen.add(path);
+        changes.scanned.incrementAndGet();
+        long modified = attrs.lastModifiedTime().toMillis();
+        LocalFile known = index.get(path);
+        if (known != null && !known.isChanged(attrs.size(), modified)) {
+            return;
+        }
+        try {
+            changes.changed.add(new Scanned(path, attrs.size(), modified, toDTO(file.toUri().toString(), AudioTags.read(file))));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("scan: cannot read tags of {}: {}", file, e.getMessage());
+            changes.failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Writes the changed files in batches, then deletes removed files and
+     * the songs no file provides any more.
+     */
+    private Result apply(Path root, Map<String, LocalFile> index, Changes changes) {
+        Set<Long> released = new HashSet<>();
+        List<Long> written = new ArrayList<>();
+        List<Scanned> changed = new ArrayList<>(changes.changed);
+        for (int from = 0; from < changed.size(); from += options.writeBatchSize()) {
+            List<Scanned> chunk = changed.subList(from, Math.min(from + options.writeBatchSize(), changed.size()));
+            IngestPipeline.CatalogBatch batch = IngestPipeline.transform(root.toString(),
+                chunk.stream().map(Scanned::dto).toList());
+            artistRepo.upsertAll(batch.artists());
+            albumRepo.upsertAll(batch.albums());
+            songRepo.upsertAll(batch.songs());
+            batch.songs().forEach(song -> written.add(song.getId()));
+
+            List<LocalFile> files = chunk.stream()
+                .map(s -> new LocalFile(s.path(), s.dto().trackId(), s.size(), s.modifiedMillis()))
+                .toList();
+            fileRepo.saveAll(files);
+            for (LocalFile file : files) {
+                LocalFile previous = index.put(file.getPath(), file);
+                if (previous != null && previous.getSongId() != file.getSongId()) {
+                    released.add(previous.getSongId());
+                }
+            }
+        }
+
+        List<String> removed = new ArrayList<>(changes.removed);
+        for (String path : removed) {
+            LocalFile previous = index.remove(path);
+            if (previous != null) {
+                released.add(previous.getSongId());
+            }
+        }
+        for (int from = 0; from < removed.size(); from += options.writeBatchSize()) {
+            fileRepo.deleteAll(removed.subList(from, Math.min(from + options.writeBatchSize(), removed.size())));
+        }
+
+        // a song stays as long as any file still provides it, e.g. after a move
+        index.values().forEach(file -> released.remove(file.getSongId()));
+        List<Long> orphans = new ArrayList<>(released);
+        for (int from = 0; from < orphans.size(); from += options.writeBatchSize()) {
+            songRepo.deleteAll(orphans.subList(from, Math.min(from + options.writeBatchSize(), orphans.size())));
+        }
+        return new Result(changes.scanned.get(), changed.size(), removed.size(), changes.failed.get(), written);
+    }
+
+    /**
+     * Applies one round of watched events.
+     */
+    private Result applyEvents(Path root, Map<String, LocalFile> index, Set<Path> touched, WatchService service) {
+        Changes changes = new Changes();
+        for (Path path : touched) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (attrs.isDirectory()) {
+                    // created, moved in, or its events overflowed
+                    register(path, service);
+                    walk(path, index, changes);
+                    changes.removeUnseenUnder(path.toString(), index);
+                } else if (attrs.isRegularFile() && isAudio(path)) {
+                    visit(path, attrs, index, changes);
+                }
+            } catch (IOException e) {
+                // gone: a deleted or moved-away file or directory
+                String gone = path.toString();
+                if (index.containsKey(gone)) {
+                    changes.removed.add(gone);
+                }
+                changes.removeUnseenUnder(gone, index);
+            }
+        }
+        return apply(root, index, changes);
+    }
+
+    private static void collect(WatchKey key, Set<Path> touched) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                touched.add(dir);
+            } else {
+                touched.add(dir.resolve((Path) event.context()));
+            }
+        }
+        key.reset();
+    }
+
+    private static void register(Path dir, WatchService service) {
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) throws IOException {
+                    d.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("watch: cannot watch {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static boolean isAudio(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && AUDIO_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Maps the tags of a file onto the record the catalog is built from.
+     *
+     * @param uri  location the song is played from
+     * @param tags the file's metadata
+     */
+    static ItunesDTO toDTO(String uri, AudioTags tags) {
+        String artistKey = key(tags.artist());
+        String albumKey = key(tags.album());
+        long artistId = localId("artist", artistKey);
+        long albumId = localId("album", artistKey, albumKey);
+        long songId = localId("song", artistKey, albumKey, String.valueOf(tags.track()), key(tags.title()));
+        return new ItunesDTO(artistId, albumId, songId, tags.title(), tags.artist(), tags.album(), null, tags.genre(),
+            tags.year() == null ? null : LocalDate.of(tags.year(), 1, 1),
+            tags.trackCount() == null ? null : tags.trackCount().longValue(),
+            tags.durationMillis(), null, uri);
+    }
+
+    private static String key(String name) {
+        String key = ArtistMatcher.normalize(name);
+        return key.isEmpty() ? String.valueOf(name) : key;
+    }
+
+    /**
+     * Derives a stable negative id from the given name parts.
+     */
+    static long localId(String... parts) {
+        UUID uuid = UUID.nameUUIDFromBytes(String.join("\u0000", parts).getBytes(StandardCharsets.UTF_8));
+        return ~(uuid.getMostSignificantBits() & Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,606 @@
+package org.example.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.ItunesApiClient;
+import org.example.ItunesDTO;
+import org.example.entity.Album;
+import org.example.entity.Artist;
+import org.example.entity.DeadLetter;
+import org.example.entity.Song;
+import org.example.repo.AlbumRepository;
+import org.example.repo.ArtistRepository;
+import org.example.repo.DeadLetterRepository;
+import org.example.repo.LongHashSet;
+import org.example.repo.SongRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Staged pipeline that loads catalog data from the iTunes API into the database.
+ *
+ * <p>The pipeline consists of four stages:</p>
+ * <ol>
+ *   <li><b>Fetch</b> – one virtual thread per search term, with at most
+ *   {@link Options#fetchConcurrency()} requests in flight at once</li>
+ *   <li><b>Transform</b> – converts the DTOs of a search term into
+ *   de-duplicated {@link Artist}, {@link Album} and {@link Song} entities</li>
+ *   <li><b>Write</b> – a single writer that drains a bounded queue and
+ *   persists entities in batches</li>
+ *   <li><b>Cover</b> – artwork of newly written albums is downloaded by an
+ *   {@link AlbumCoverFetcher} and attached once it arrives</li>
+ * </ol>
+ *
+ * <p>The bounded queue between transform and write provides backpressure:
+ * when the writer falls behind, fetch workers block instead of buffering
+ * an unbounded amount of data. Network and database work overlap, so the
+ * total run time is governed by the slowest stage rather than by the sum
+ * of all request latencies. Songs are written as soon as their album row
+ * exists; they never wait for artwork.</p>
+ *
+ * <p>Failures are isolated per record. A record that cannot be transformed,
+ * or whose rows cannot be written, is stored as a {@link DeadLetter} with
+ * its raw payload and the reason, and the run continues with the other
+ * records. Dead letters are re-processed by {@link #replayDeadLetters()}.</p>
+ */
+public class IngestPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(IngestPipeline.class);
+
+    /** Marker placed on the queue once every fetch worker has finished. */
+    private static final CatalogBatch END = new CatalogBatch("", List.of(), List.of(), List.of(), Map.of(), Map.of(), List.of());
+
+    /** Serializes records into dead-letter payloads and back. */
+    private static final ObjectMapper PAYLOAD_MAPPER = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ItunesApiClient apiClient;
+    private final ArtistRepository artistRepo;
+    private final AlbumRepository albumRepo;
+    private final SongRepository songRepo;
+    private final AlbumCoverFetcher coverFetcher;
+    private final DeadLetterRepository deadLetterRepo;
+    private final Options options;
+
+    /**
+     * Tuning options for the pipeline.
+     *
+     * @param fetchConcurrency maximum number of concurrent API requests
+     * @param queueCapacity    number of transformed batches that may wait for the writer
+     * @param writeBatchSize   number of songs the writer collects before persisting
+     */
+    public record Options(int fetchConcurrency, int queueCapacity, int writeBatchSize) {
+
+        public Options {
+            if (fetchConcurrency < 1 || queueCapacity < 1 || writeBatchSize < 1) {
+                throw new IllegalArgumentException("Pipeline options must be positive");
+            }
+        }
+
+        /**
+         * Returns the default options used by {@link org.example.DatabaseInitializer}.
+         *
+         * @return default pipeline options
+         */
+        public static Options defaults() {
+            return new Options(4, 8, 100);
+        }
+    }
+
+    /**
+     * Decides after fetching whether the results of a search term need to be written.
+     *
+     * <p>Called concurrently from the fetch workers.</p>
+     */
+    @FunctionalInterface
+    public interface TermFilter {
+
+        /**
+         * @param term search term that was fetched
+         * @param dtos results of the search
+         * @return {@code true} if the results should be transformed and written
+         */
+        boolean accept(String term, List<ItunesDTO> dtos);
+    }
+
+    /**
+     * Entities produced by the transform stage for a single search term,
+     * together with the artwork URL of each album, keyed by album id, the
+     * record each song was created from, keyed by song id, and the records
+     * that could not be transformed.
+     */
+    record CatalogBatch(String term, List<Artist> artists, List<Album> albums, List<Song> songs, Map<Long, URL> artwork,
+                        Map<Long, ItunesDTO> sources, List<DeadLetter> rejected) {
+    }
+
+    /**
+     * Outcome of a dead-letter replay.
+     *
+     * @param replayed        letters whose records were ingested and that were deleted
+     * @param failed          letters that failed again and were kept
+     * @param insertedSongIds ids of the songs the replay inserted
+     */
+    public record ReplayResult(int replayed, int failed, List<Long> insertedSongIds) {
+    }
+
+    /**
+     * Creates a new ingestion pipeline.
+     *
+     * @param apiClient  client used to fetch data from the iTunes API
+     * @param artistRepo repository for {@link Artist} entities
+     * @param albumRepo  repository for {@link Album} entities
+     * @param songRepo   repository for {@link Song} entities
+     * @param options    pipeline tuning options
+     */
+    public IngestPipeline(ItunesApiClient apiClient, ArtistRepository artistRepo, AlbumRepository albumRepo, SongRepository songRepo, Options options) {
+        this(apiClient, artistRepo, albumRepo, songRepo, new AlbumCoverFetcher(), null, options);
+    }
+
+    /**
+     * Creates a new ingestion pipeline that stores failed records as dead letters.
+     *
+     * @param apiClient      client used to fetch data from the iTunes API
+     * @param artistRepo     repository for {@link Artist} entities
+     * @param albumRepo      repository for {@link Album} entities
+     * @param songRepo       repository for {@link Song} entities
+     * @param deadLetterRepo repository storing records that failed
+     * @param options        pipeline tuning options
+     */
+    public IngestPipeline(ItunesApiClient apiClient, ArtistRepository artistRepo, AlbumRepository albumRepo, SongRepository songRepo,
+                          DeadLetterRepository deadLetterRepo, Options options) {
+        this(apiClient, artistRepo, albumRepo, songRepo, new AlbumCoverFetcher(), deadLetterRepo, options);
+    }
+
+    /**
+     * Creates a new ingestion pipeline with a specific cover fetcher.
+     *
+     * @param apiClient    client used to fetch data from the iTunes API
+     * @param artistRepo   repository for {@link Artist} entities
+     * @param albumRepo    repository for {@link Album} entities
+     * @param songRepo     repository for {@link Song} entities
+     * @param coverFetcher fetcher used to download album artwork
+     * @param options      pipeline tuning options
+     */
+    public IngestPipeline(ItunesApiClient apiClient, ArtistRepository artistRepo, AlbumRepository albumRepo, SongRepository songRepo,
+                          AlbumCoverFetcher coverFetcher, Options options) {
+        this(apiClient, artistRepo, albumRepo, songRepo, coverFetcher, null, options);
+    }
+
+    /**
+     * Creates a new ingestion pipeline with a specific cover fetcher and
+     * dead-letter repository.
+     *
+     * @param apiClient      client used to fetch data from the iTunes API
+     * @param artistRepo     repository for {@link Artist} entities
+     * @param albumRepo      repository for {@link Album} entities
+     * @param songRepo       repository for {@link Song} entities
+     * @param coverFetcher   fetcher used to download album artwork
+     * @param deadLetterRepo repository storing records that failed, or
+     *                       {@code null} to only log them
+     * @param options        pipeline tuning options
+     */
+    public IngestPipeline(ItunesApiClient apiClient, ArtistRepository artistRepo, AlbumRepository albumRepo, SongRepository songRepo,
+                          AlbumCoverFetcher coverFetcher, DeadLetterRepository deadLetterRepo, Options options) {
+        this.apiClient = apiClient;
+        this.artistRepo = artistRepo;
+        this.albumRepo = albumRepo;
+        this.songRepo = songRepo;
+        this.coverFetcher = coverFetcher;
+        this.deadLetterRepo = deadLetterRepo;
+        this.options = options;
+    }
+
+    /**
+     * Fetches, transforms and persists all given search terms.
+     *
+     * <p>The calling thread acts as the writer. The method returns once
+     * every term has been fetched, every resulting entity has been
+     * written and every pending cover download has finished. Search terms
+     * that fail to fetch do not stop the others; their failures are
+     * reported together at the end. Records that fail to transform or
+     * persist become dead letters and are not reported as failures.</p>
+     *
+     * @param terms iTunes search terms to ingest
+     * @return per-stage statistics for the run
+     * @throws RuntimeException if any term failed to fetch or if persisting fails
+     */
+    public IngestStats run(List<String> terms) {
+        return run(terms, null);
+    }
+
+    /**
+     * Fetches the given search terms and writes the results of those
+     * accepted by {@code filter}.
+     *
+     * <p>Unlike {@link #run(List)}, rows that already exist are not skipped:
+     * their stored values are reconciled with the fetched data, and only
+     * rows whose values changed are updated.</p>
+     *
+     * @param terms  iTunes search terms to fetch
+     * @param filter decides per term whether its results are written, or
+     *               {@code null} to write all terms and only insert new rows
+     * @return per-stage statistics for the run
+     * @throws RuntimeException if any term failed to fetch or if persisting fails
+     */
+    public IngestStats run(List<String> terms, TermFilter filter) {
+        StageStats fetchStats = new StageStats("fetch");
+        StageStats transformStats = new StageStats("transform");
+        StageStats writeStats = new StageStats("write");
+        StageStats coverStats = new StageStats("cover");
+        List<CompletableFuture<Void>> covers = new ArrayList<>();
+        List<Long> insertedSongs = new ArrayList<>();
+
+        BlockingQueue<CatalogBatch> queue = new ArrayBlockingQueue<>(options.queueCapacity());
+        Semaphore permits = new Semaphore(options.fetchConcurrency());
+        ConcurrentLinkedQueue<RuntimeException> failures = new ConcurrentLinkedQueue<>();
+
+        long start = System.nanoTime();
+        ExecutorService fetchers = Executors.newVirtualThreadPerTaskExecutor();
+        for (String term : terms) {
+            fetchers.submit(() -> fetchAndTransform(term, filter, permits, queue, fetchStats, transformStats, failures));
+        }
+        fetchers.shutdown();
+        Thread.ofVirtual().name("ingest-close").start(() -> {
+            fetchers.close();
+            putQuietly(queue, END);
+        });
+
+        try {
+            write(queue, filter != null, writeStats, coverStats, covers, insertedSongs);
+        } catch (RuntimeException e) {
+            fetchers.shutdownNow();
+            queue.clear();
+            throw e;
+        }
+
+        CompletableFuture.allOf(covers.toArray(CompletableFuture[]::new)).join();
+
+        IngestStats stats = new IngestStats(fetchStats, transformStats, writeStats, coverStats, System.nanoTime() - start,
+            List.copyOf(insertedSongs));
+        logger.info("ingest: {}", stats);
+
+        if (!failures.isEmpty()) {
+            RuntimeException first = failures.poll();
+            failures.forEach(first::addSuppressed);
+            throw first;
+        }
+        return stats;
+    }
+
+    /**
+     * Fetch and transform stages for a single search term.
+     */
+    private void fetchAndTransform(String term, TermFilter filter, Semaphore permits, BlockingQueue<CatalogBatch> queue,
+                                   StageStats fetchStats, StageStats transformStats,
+                                   ConcurrentLinkedQueue<RuntimeException> failures) {
+        try {
+            List<ItunesDTO> dtos;
+            permits.acquire();
+            try {
+                long t0 = System.nanoTime();
+                dtos = apiClient.searchSongs(term);
+                fetchStats.record(dtos.size(), System.nanoTime() - t0);
+            } finally {
+                permits.release();
+            }
+            if (filter != null && !filter.accept(term, dtos)) {
+                return;
+            }
+
+            long t0 = System.nanoTime();
+            CatalogBatch batch = transform(term, dtos);
+            transformStats.record(batch.songs().size(), System.nanoTime() - t0);
+
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("ingest: search or transform failed for term: {}", term, e);
+            failures.add(new RuntimeException("Failed to fetch or persist data for search term: " + term, e));
+        }
+    }
+
+    /**
+     * Converts the DTOs of one search term into entities.
+     *
+     * <p>Artists and albums shared by several tracks are only created once,
+     * so every song in the batch references the same album instance. A DTO
+     * that fails validation contributes no entities; it is returned as a
+     * rejected dead letter instead.</p>
+     */
+    static CatalogBatch transform(String term, List<ItunesDTO> dtos) {
+        Map<Long, Artist> artists = new LinkedHashMap<>();
+        Map<Long, Album> albums = new LinkedHashMap<>();
+        Map<Long, URL> artwork = new HashMap<>();
+        Map<Long, ItunesDTO> sources = new HashMap<>();
+        List<Song> songs = new ArrayList<>(dtos.size());
+        List<DeadLetter> rejected = new ArrayList<>();
+
+        for (ItunesDTO dto : dtos) {
+            try {
+                Artist ar = artists.get(dto.artistId());
+                if (ar == null) {
+                    ar = Artist.fromDTO(dto);
+                }
+                Album al = albums.get(dto.collectionId());
+                if (al == null) {
+                    al = Album.fromDTO(dto, ar);
+                }
+                Song song = Song.fromDTO(dto, al);
+
+                artists.putIfAbsent(ar.getId(), ar);
+                albums.putIfAbsent(al.getId(), al);
+                if (dto.artworkUrl100() != null) {
+                    artwork.putIfAbsent(al.getId(), dto.artworkUrl100());
+                }
+                sources.put(song.getId(), dto);
+                songs.add(song);
+            } catch (RuntimeException e) {
+                logger.warn("ingest: rejected track {} of term {}: {}", dto.trackId(), term, e.getMessage());
+                rejected.add(deadLetter(term, dto, DeadLetter.Stage.TRANSFORM, e));
+            }
+        }
+        return new CatalogBatch(term, new ArrayList<>(artists.values()), new ArrayList<>(albums.values()), songs, artwork,
+            sources, rejected);
+    }
+
+    /**
+     * Creates the dead letter of a record that failed.
+     */
+    static DeadLetter deadLetter(String term, ItunesDTO dto, DeadLetter.Stage stage, Exception cause) {
+        String payload;
+        try {
+            payload = PAYLOAD_MAPPER.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            payload = String.valueOf(dto);
+        }
+        return new DeadLetter(term, dto.trackId(), stage, reason(cause), payload, Instant.now());
+    }
+
+    private static String reason(Exception cause) {
+        Throwable root = cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String reason = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return root == cause ? reason : reason + " (caused by " + root.getClass().getSimpleName() + ": " + root.getMessage() + ")";
+    }
+
+    /**
+     * Writer stage. Drains the queue and persists entities once enough
+     * songs have been collected, or when the queue runs dry.
+     */
+    private void write(BlockingQueue<CatalogBatch> queue, boolean reconcile, StageStats writeStats, StageStats coverStats,
+                       List<CompletableFuture<Void>> covers, List<Long> insertedSongs) {
+        Map<Long, Artist> artists = new LinkedHashMap<>();
+        Map<Long, Album> albums = new LinkedHashMap<>();
+        Map<Long, Song> songs = new LinkedHashMap<>();
+        Map<Long, URL> artwork = new HashMap<>();
+        Map<Long, Source> sources = new HashMap<>();
+        List<DeadLetter> letters = new ArrayList<>();
+
+        while (true) {
+            CatalogBatch batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Ingestion interrupted", e);
+            }
+            if (batch == END) {
+                break;
+            }
+
+            batch.artists().forEach(a -> artists.putIfAbsent(a.getId(), a));
+            batch.albums().forEach(a -> albums.putIfAbsent(a.getId(), a));
+            batch.songs().forEach(s -> songs.putIfAbsent(s.getId(), s));
+            batch.artwork().forEach(artwork::putIfAbsent);
+            batch.sources().forEach((id, dto) -> sources.putIfAbsent(id, new Source(batch.term(), dto)));
+            letters.addAll(batch.rejected());
+
+            if (songs.size() >= options.writeBatchSize() || queue.isEmpty()) {
+                requestCovers(flush(artists, albums, songs, sources, letters, reconcile, writeStats, insertedSongs), artwork, coverStats, covers);
+                storeDeadLetters(letters);
+            }
+        }
+        requestCovers(flush(artists, albums, songs, sources, letters, reconcile, writeStats, insertedSongs), artwork, coverStats, covers);
+        storeDeadLetters(letters);
+    }
+
+    /**
+     * Search term and record a song was created from.
+     */
+    private record Source(String term, ItunesDTO dto) {
+    }
+
+    /**
+     * Stores and clears the collected dead letters.
+     */
+    private void storeDeadLetters(List<DeadLetter> letters) {
+        if (letters.isEmpty()) {
+            return;
+        }
+        if (deadLetterRepo != null) {
+            deadLetterRepo.saveAll(letters);
+        }
+        logger.warn("ingest: {} records dead-lettered", letters.size());
+        letters.clear();
+    }
+
+    /**
+     * Cover stage. Requests artwork for every album inserted by the last
+     * flush and attaches it once it arrives. The URLs of albums that
+     * already existed are dropped with the rest of {@code artwork}.
+     */
+    private void requestCovers(List<Album> inserted, Map<Long, URL> artwork, StageStats coverStats,
+                               List<CompletableFuture<Void>> covers) {
+        for (Album album : inserted) {
+            URL url = artwork.get(album.getId());
+            if (url == null) {
+                continue;
+            }
+            long t0 = System.nanoTime();
+            covers.add(coverFetcher.fetch(album.getId(), url).thenAccept(cover -> {
+                if (cover != null) {
+                    albumRepo.updateCover(album.getId(), cover);
+                    coverStats.record(1, System.nanoTime() - t0);
+                }
+            }).exceptionally(e -> {
+                logger.error("ingest: attaching cover failed for album: {}", album.getId(), e);
+                return null;
+            }));
+        }
+        artwork.clear();
+    }
+
+    /**
+     * Persists the collected entities that do not exist yet and, when
+     * reconciling, applies changed values to those that do.
+     *
+     * <p>New rows are written with native upserts, so another loader that
+     * inserts the same rows concurrently does not cause duplicate key
+     * failures.</p>
+     *
+     * <p>If the batch fails, its songs are written again one at a time,
+     * each together with its album and artist. Songs that still fail are
+     * added to {@code letters}; the others are kept. The ids of inserted
+     * songs are added to {@code insertedSongs}.</p>
+     *
+     * @return the albums that were inserted
+     */
+    private List<Album> flush(Map<Long, Artist> artists, Map<Long, Album> albums, Map<Long, Song> songs,
+                              Map<Long, Source> sources, List<DeadLetter> letters, boolean reconcile, StageStats writeStats,
+                              List<Long> insertedSongs) {
+        if (artists.isEmpty() && albums.isEmpty() && songs.isEmpty()) {
+            return List.of();
+        }
+        long t0 = System.nanoTime();
+        List<Album> newAlbums;
+        try {
+            newAlbums = writeRows(artists.values(), albums.values(), songs.values(), reconcile, insertedSongs);
+        } catch (RuntimeException e) {
+            logger.warn("ingest: batch of {} songs failed, writing them one by one", songs.size(), e);
+            newAlbums = new ArrayList<>();
+            for (Song song : songs.values()) {
+                Album album = song.getAlbum();
+                try {
+                    newAlbums.addAll(writeRows(List.of(album.getArtist()), List.of(album), List.of(song), reconcile, insertedSongs));
+                } catch (RuntimeException failure) {
+                    Source source = sources.get(song.getId());
+                    letters.add(deadLetter(source.term(), source.dto(), DeadLetter.Stage.PERSIST, failure));
+                }
+            }
+        }
+        writeStats.record(songs.size(), System.nanoTime() - t0);
+        logger.debug("ingest: wrote {} artists, {} albums, {} songs", artists.size(), albums.size(), songs.size());
+
+        songs.keySet().forEach(sources::remove);
+        artists.clear();
+        albums.clear();
+        songs.clear();
+        return newAlbums;
+    }
+
+    /**
+     * Inserts the rows that do not exist yet and, when reconciling, updates
+     * those that do. The ids of inserted songs are added to {@code insertedSongs}.
+     *
+     * @return the albums that were inserted
+     */
+    private List<Album> writeRows(Collection<Artist> artists, Collection<Album> albums, Collection<Song> songs,
+                                  boolean reconcile, List<Long> insertedSongs) {
+        LongHashSet existingArtists = artistRepo.findExistingIds(artists.stream().map(Artist::getId).toList());
+        artistRepo.upsertAll(artists.stream().filter(ar -> !existingArtists.contains(ar.getId())).toList());
+        LongHashSet existingAlbums = albumRepo.findExistingIds(albums.stream().map(Album::getId).toList());
+        List<Album> newAlbums = albums.stream().filter(al -> !existingAlbums.contains(al.getId())).toList();
+        albumRepo.upsertAll(newAlbums);
+        LongHashSet existingSongs = songRepo.findExistingIds(songs.stream().map(Song::getId).toList());
+        List<Song> newSongs = songs.stream().filter(s -> !existingSongs.contains(s.getId())).toList();
+        songRepo.upsertAll(newSongs);
+        newSongs.forEach(s -> insertedSongs.add(s.getId()));
+        if (reconcile) {
+            artistRepo.updateAll(artists.stream().filter(ar -> existingArtists.contains(ar.getId())).toList());
+            albumRepo.updateAll(albums.stream().filter(al -> existingAlbums.contains(al.getId())).toList());
+            songRepo.updateAll(songs.stream().filter(s -> existingSongs.contains(s.getId())).toList());
+        }
+        return newAlbums;
+    }
+
+    /**
+     * Re-processes all stored dead letters, e.g. after the cause of their
+     * failure has been fixed.
+     *
+     * <p>Each letter's payload is transformed and written like a freshly
+     * fetched record, reconciling rows that exist by now. Letters whose
+     * record is ingested are deleted; the others are kept with their new
+     * failure reason and an increased attempt count. The method returns
+     * once the covers of newly inserted albums have been attached.</p>
+     *
+     * @return how many letters were replayed and how many failed again
+     * @throws IllegalStateException if the pipeline has no dead-letter repository
+     */
+    public ReplayResult replayDeadLetters() {
+        if (deadLetterRepo == null) {
+            throw new IllegalStateException("No dead-letter repository configured");
+        }
+        List<DeadLetter> replayed = new ArrayList<>();
+        List<DeadLetter> failed = new ArrayList<>();
+        List<CompletableFuture<Void>> covers = new ArrayList<>();
+        List<Long> insertedSongs = new ArrayList<>();
+        StageStats coverStats = new StageStats("cover");
+
+        for (DeadLetter letter : deadLetterRepo.findAll()) {
+            try {
+                ItunesDTO dto = PAYLOAD_MAPPER.readValue(letter.getPayload(), ItunesDTO.class);
+                CatalogBatch batch = transform(letter.getTerm(), List.of(dto));
+                if (!batch.rejected().isEmpty()) {
+                    DeadLetter rejected = batch.rejected().getFirst();
+                    letter.failedAgain(rejected.getStage(), rejected.getReason(), rejected.getFailedAt());
+                    failed.add(letter);
+                    continue;
+                }
+                List<Album> newAlbums = writeRows(batch.artists(), batch.albums(), batch.songs(), true, insertedSongs);
+                requestCovers(newAlbums, new HashMap<>(batch.artwork()), coverStats, covers);
+                replayed.add(letter);
+            } catch (JsonProcessingException e) {
+                letter.failedAgain(letter.getStage(), reason(e), Instant.now());
+                failed.add(letter);
+            } catch (RuntimeException e) {
+                letter.failedAgain(DeadLetter.Stage.PERSIST, reason(e), Instant.now());
+                failed.add(letter);
+            }
+        }
+        deadLetterRepo.deleteAll(replayed);
+        deadLetterRepo.saveAll(failed);
+        CompletableFuture.allOf(covers.toArray(CompletableFuture[]::new)).join();
+
+        logger.info("replay: {} dead letters replayed, {} failed again", replayed.size(), failed.size());
+        return new ReplayResult(replayed.size(), failed.size(), List.copyOf(insertedSongs));
+    }
+
+    private static void putQuietly(BlockingQueue<CatalogBatch> queue, CatalogBatch batch) {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
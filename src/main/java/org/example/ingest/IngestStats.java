@@ -0,0 +1,37 @@
+package org.example.ingest;
+
+import java.util.List;
+
+/**
+ * Summary of a completed ingestion run.
+ *
+ * <p>Holds the per-stage counters of an {@link IngestPipeline} together
+ * with the total wall-clock time of the run and the songs it inserted.
+ * Because fetch workers run concurrently, the sum of the stage busy times
+ * is usually larger than the wall-clock time.</p>
+ *
+ * @param fetch           counters for the API fetch stage (items are tracks)
+ * @param transform       counters for the DTO to entity transform stage
+ * @param write           counters for the database writer stage
+ * @param cover           counters for the album cover stage (items are attached covers)
+ * @param wallNanos       total duration of the run, in nanoseconds
+ * @param insertedSongIds ids of the songs the run inserted
+ */
+public record IngestStats(StageStats fetch, StageStats transform, StageStats write, StageStats cover, long wallNanos,
+                          List<Long> insertedSongIds) {
+
+    /**
+     * Returns the end-to-end throughput of the run.
+     *
+     * @return tracks written per wall-clock second
+     */
+    public double tracksPerSecond() {
+        return wallNanos == 0 ? 0 : write.getItems() * 1_000_000_000d / wallNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d ms total (%.1f tracks/s) [%s] [%s] [%s] [%s]",
+            wallNanos / 1_000_000, tracksPerSecond(), fetch, transform, write, cover);
+    }
+}
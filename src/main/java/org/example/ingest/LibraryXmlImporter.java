@@ -0,0 +1,445 @@
+package org.example.ingest;
+
+import org.example.ItunesDTO;
+import org.example.entity.Song;
+import org.example.repo.AlbumRepository;
+import org.example.repo.ArtistRepository;
+import org.example.repo.PlaylistRepository;
+import org.example.repo.SongRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Imports the tracks and playlists of an iTunes or Music app library
+ * export ({@code Library.xml}) into the catalog.
+ *
+ * <p>The export is a property list that can reach hundreds of megabytes.
+ * It is read with a StAX stream reader, so the document is never held in
+ * memory: a parser thread turns the {@code Tracks} dictionary into chunks
+ * of records and the playlists into lists of track ids, and hands them to
+ * the calling thread over a small bounded queue. The calling thread writes
+ * each chunk with native upserts while the parser reads ahead. Memory use
+ * is bounded by the queue and the size of one playlist, apart from a
+ * mapping of a few bytes per track from the export's track ids to song
+ * ids, which the playlists need.</p>
+ *
+ * <p>Tracks are mapped like the files of a {@link FolderScanner}: ids are
+ * derived from the tags, so a song that is both in the export and in a
+ * scanned folder is stored once. Videos and podcasts are skipped. User
+ * playlists are created, or extended if a playlist of the same name
+ * exists; the built-in playlists of the export are skipped. Every
+ * imported song is added to the "Library" playlist if it exists.</p>
+ */
+public class LibraryXmlImporter {
+    private static final Logger logger = LoggerFactory.getLogger(LibraryXmlImporter.class);
+
+    /** Id of the default "Library" playlist. */
+    private static final long LIBRARY_PLAYLIST_ID = 1L;
+
+    /**
+     * Importer options.
+     *
+     * @param chunkSize     tracks written per batch
+     * @param queueCapacity chunks the parser may read ahead of the writer
+     */
+    public record Options(int chunkSize, int queueCapacity) {
+
+        public Options {
+            if (chunkSize < 1 || queueCapacity < 1) {
+                throw new IllegalArgumentException("Invalid importer options: " + chunkSize + ", " + queueCapacity);
+            }
+        }
+
+        /**
+         * Returns the default options: chunks of 1000 tracks, four chunks read ahead.
+         *
+         * @return default options
+         */
+        public static Options defaults() {
+            return new Options(1000, 4);
+        }
+    }
+
+    /**
+     * Summary of an import.
+     *
+     * @param parse     counters of the parser thread (items are tracks)
+     * @param write     counters of the writer (items are tracks)
+     * @param skipped   tracks that were skipped or rejected
+     * @param playlists playlists that were created or extended
+     * @param wallNanos total duration of the import, in nanoseconds
+     */
+    public record Result(StageStats parse, StageStats write, int skipped, int playlists, long wallNanos) {
+
+        /**
+         * Returns the end-to-end throughput of the import.
+         *
+         * @return tracks written per wall-clock second
+         */
+        public double rowsPerSecond() {
+            return wallNanos == 0 ? 0 : write.getItems() * 1_000_000_000d / wallNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d ms total (%.1f rows/s), %d skipped, %d playlists [%s] [%s]",
+                wallNanos / 1_000_000, rowsPerSecond(), skipped, playlists, parse, write);
+        }
+    }
+
+    /**
+     * Unit of work passed from the parser thread to the writer.
+     */
+    private sealed interface Item {
+    }
+
+    /** Tracks in document order, with their ids in the export. */
+    private record TrackChunk(List<Integer> trackIds, List<ItunesDTO> dtos) implements Item {
+    }
+
+    /** A user playlist and the export ids of its tracks. */
+    private record PlaylistItems(String name, List<Integer> trackIds) implements Item {
+    }
+
+    /** The parser failed; the writer rethrows the cause. */
+    private record Failure(Exception cause) implements Item {
+    }
+
+    /** The parser reached the end of the document. */
+    private record End(int skipped) implements Item {
+    }
+
+    private final ArtistRepository artistRepo;
+    private final AlbumRepository albumRepo;
+    private final SongRepository songRepo;
+    private final PlaylistRepository playlistRepo;
+    private final Options options;
+
+    /**
+     * Creates a new importer.
+     *
+     * @param artistRepo   repository for artists
+     * @param albumRepo    repository for albums
+     * @param songRepo     repository for songs
+     * @param playlistRepo repository for playlists
+     * @param options      importer options
+     */
+    public LibraryXmlImporter(ArtistRepository artistRepo, AlbumRepository albumRepo, SongRepository songRepo,
+                              PlaylistRepository playlistRepo, Options options) {
+        this.artistRepo = artistRepo;
+        this.albumRepo = albumRepo;
+        this.songRepo = songRepo;
+        this.playlistRepo = playlistRepo;
+        this.options = options;
+    }
+
+    /**
+     * Imports a library export.
+     *
+     * @param xml path of the {@code Library.xml} file
+     * @return summary of the import
+     * @throws IOException if the file cannot be read or is not a valid property list
+     */
+    public Result importFile(Path xml) throws IOException {
+        long start = System.nanoTime();
+        StageStats parseStats = new StageStats("parse");
+        StageStats writeStats = new StageStats("write");
+        BlockingQueue<Item> queue = new ArrayBlockingQueue<>(options.queueCapacity());
+        Thread parser = Thread.ofPlatform().name("library-xml-parser").start(() -> {
+            try {
+                parse(xml, queue, parseStats);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Map<Integer, Long> songIds = new HashMap<>();
+        Map<String, Long> playlists = new HashMap<>();
+        playlistRepo.findMenuEntries().forEach(p -> playlists.putIfAbsent(p.name(), p.id()));
+        int skipped = 0;
+        int playlistCount = 0;
+        try {
+            while (true) {
+                Item item = queue.take();
+                if (item instanceof TrackChunk chunk) {
+                    skipped += write(chunk, songIds, writeStats);
+                } else if (item instanceof PlaylistItems items) {
+                    writePlaylist(items, songIds, playlists);
+                    playlistCount++;
+                } else if (item instanceof Failure failure) {
+                    throw failure.cause() instanceof IOException io ? io : new IOException(failure.cause());
+                } else if (item instanceof End end) {
+                    skipped += end.skipped();
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Library import interrupted", e);
+        } finally {
+            parser.interrupt();
+        }
+
+        if (playlistRepo.existsByUniqueId(LIBRARY_PLAYLIST_ID)) {
+            playlistRepo.addSongsById(LIBRARY_PLAYLIST_ID, songIds.values().stream().distinct().toList());
+        }
+        Result result = new Result(parseStats, writeStats, skipped, playlistCount, System.nanoTime() - start);
+        logger.info("importFile: {} imported: {}", xml, result);
+        return result;
+    }
+
+    /**
+     * Writes one chunk of tracks.
+     *
+     * @return number of rejected tracks
+     */
+    private int write(TrackChunk chunk, Map<Integer, Long> songIds, StageStats writeStats) {
+        long t0 = System.nanoTime();
+        IngestPipeline.CatalogBatch batch = IngestPipeline.transform("library", chunk.dtos());
+        artistRepo.upsertAll(batch.artists());
+        albumRepo.upsertAll(batch.albums());
+        songRepo.upsertAll(batch.songs());
+
+        Map<Long, Song> written = new HashMap<>();
+        batch.songs().forEach(s -> written.put(s.getId(), s));
+        for (int i = 0; i < chunk.trackIds().size(); i++) {
+            Long songId = chunk.dtos().get(i).trackId();
+            if (written.containsKey(songId)) {
+                songIds.put(chunk.trackIds().get(i), songId);
+            }
+        }
+        writeStats.record(batch.songs().size(), System.nanoTime() - t0);
+        return batch.rejected().size();
+    }
+
+    private void writePlaylist(PlaylistItems items, Map<Integer, Long> songIds, Map<String, Long> playlists) {
+        Long playlistId = playlists.get(items.name());
+        if (playlistId == null) {
+            playlistId = playlistRepo.createPlaylist(items.name()).getId();
+            playlists.put(items.name(), playlistId);
+        }
+        List<Long> ids = items.trackIds().stream()
+            .map(songIds::get)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        playlistRepo.addSongsById(playlistId, ids);
+        logger.debug("importFile: playlist {} with {} songs", items.name(), ids.size());
+    }
+
+    // -------------------------------------------------------------------------
+    // Parsing, on the parser thread
+    // -------------------------------------------------------------------------
+
+    private void parse(Path xml, BlockingQueue<Item> queue, StageStats parseStats) throws InterruptedException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        int[] skipped = {0};
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(xml), 64 * 1024)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                if (!toFirst(reader, "dict")) {
+                    throw new IOException("Not a property list: " + xml);
+                }
+                while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    String key = reader.getElementText();
+                    reader.nextTag();
+                    switch (key) {
+                        case "Tracks" -> parseTracks(reader, queue, parseStats, skipped);
+                        case "Playlists" -> parsePlaylists(reader, queue);
+                        default -> skip(reader);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            queue.put(new End(skipped[0]));
+        } catch (IOException | XMLStreamException | RuntimeException e) {
+            queue.put(new Failure(e));
+        }
+    }
+
+    /**
+     * Reads the {@code Tracks} dictionary, handing its tracks on in chunks.
+     */
+    private void parseTracks(XMLStreamReader reader, BlockingQueue<Item> queue, StageStats parseStats, int[] skipped)
+        throws XMLStreamException, InterruptedException {
+        List<Integer> trackIds = new ArrayList<>(options.chunkSize());
+        List<ItunesDTO> dtos = new ArrayList<>(options.chunkSize());
+        long t0 = System.nanoTime();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            reader.getElementText(); // the track id, repeated inside the track
+            reader.nextTag();
+            Map<String, String> fields = readScalars(reader);
+            Integer trackId = parseInt(fields.get("Track ID"));
+            ItunesDTO dto = toDTO(fields);
+            if (trackId == null || dto == null) {
+                skipped[0]++;
+                continue;
+            }
+            trackIds.add(trackId);
+            dtos.add(dto);
+            if (dtos.size() == options.chunkSize()) {
+                parseStats.record(dtos.size(), System.nanoTime() - t0);
+                queue.put(new TrackChunk(trackIds, dtos));
+                trackIds = new ArrayList<>(options.chunkSize());
+                dtos = new ArrayList<>(options.chunkSize());
+                t0 = System.nanoTime();
+            }
+        }
+        if (!dtos.isEmpty()) {
+            parseStats.record(dtos.size(), System.nanoTime() - t0);
+            queue.put(new TrackChunk(trackIds, dtos));
+        }
+    }
+
+    /**
+     * Reads the {@code Playlists} array, handing on each user playlist.
+     */
+    private static void parsePlaylists(XMLStreamReader reader, BlockingQueue<Item> queue)
+        throws XMLStreamException, InterruptedException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            Map<String, String> fields = new HashMap<>();
+            List<Integer> trackIds = new ArrayList<>();
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                String key = reader.getElementText();
+                reader.nextTag();
+                if ("Playlist Items".equals(key) && "array".equals(reader.getLocalName())) {
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        Integer trackId = parseInt(readScalars(reader).get("Track ID"));
+                        if (trackId != null) {
+                            trackIds.add(trackId);
+                        }
+                    }
+                } else {
+                    fields.put(key, scalar(reader));
+                }
+            }
+            String name = fields.get("Name");
+            boolean builtIn = fields.containsKey("Master") || fields.containsKey("Distinguished Kind")
+                || "true".equals(fields.get("Folder"));
+            if (name != null && !name.isBlank() && !builtIn) {
+                queue.put(new PlaylistItems(name, trackIds));
+            }
+        }
+    }
+
+    /**
+     * Maps a track dictionary onto a catalog record.
+     *
+     * @return the record, or {@code null} for videos, podcasts and tracks without a name
+     */
+    private static ItunesDTO toDTO(Map<String, String> fields) {
+        String name = fields.get("Name");
+        if (name == null || "true".equals(fields.get("Podcast")) || "true".equals(fields.get("Movie"))
+            || "true".equals(fields.get("TV Show")) || "true".equals(fields.get("Has Video"))) {
+            return null;
+        }
+        String artist = fields.getOrDefault("Artist", fields.getOrDefault("Album Artist", AudioTags.UNKNOWN_ARTIST));
+        AudioTags tags = new AudioTags(artist, fields.getOrDefault("Album", AudioTags.UNKNOWN_ALBUM), name,
+            parseInt(fields.get("Track Number")), parseInt(fields.get("Track Count")), parseInt(fields.get("Year")),
+            fields.get("Genre"), parseLong(fields.get("Total Time")));
+        String location = fields.get("Location");
+        if (location != null && location.startsWith("file://localhost/")) {
+            location = "file:///" + location.substring("file://localhost/".length());
+        }
+        return FolderScanner.toDTO(location, tags);
+    }
+
+    /**
+     * Reads a dictionary of scalar values. Nested values are skipped.
+     * Booleans are returned as {@code "true"} or {@code "false"}.
+     */
+    private static Map<String, String> readScalars(XMLStreamReader reader) throws XMLStreamException {
+        Map<String, String> fields = new HashMap<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String key = reader.getElementText();
+            reader.nextTag();
+            String value = scalar(reader);
+            if (value != null) {
+                fields.put(key, value);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Reads the value element the reader is positioned on, leaving the
+     * reader on its end tag.
+     *
+     * @return the value as text, or {@code null} for dictionaries and arrays
+     */
+    private static String scalar(XMLStreamReader reader) throws XMLStreamException {
+        String element = reader.getLocalName();
+        switch (element) {
+            case "true", "false" -> {
+                reader.nextTag();
+                return element;
+            }
+            case "dict", "array" -> {
+                skip(reader);
+                return null;
+            }
+            default -> {
+                return reader.getElementText();
+            }
+        }
+    }
+
+    /**
+     * Skips the element the reader is positioned on, including its children.
+     */
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+        for (int depth = 1; depth > 0; ) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> depth--;
+                default -> {
+                }
+            }
+        }
+    }
+
+    private static boolean toFirst(XMLStreamReader reader, String element) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT && element.equals(reader.getLocalName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Integer parseInt(String value) {
+        try {
+            return value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return value == null ? null : Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package org.example.ingest;
+
+import org.example.entity.Playlist;
+import org.example.repo.MenuEntry;
+import org.example.repo.PlaylistRepository;
+import org.example.repo.SongRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Imports playlists exported by other players as M3U or CSV files.
+ *
+ * <p>Each line of the file names a song by its location or by artist,
+ * title and duration. The lines are matched against a {@link CatalogIndex}
+ * that is built from the catalog on the first import and reused for every
+ * later one, so matching needs no database access. All matched songs are
+ * then added to the playlist in one batched operation, and the lines that
+ * could not be matched are returned in the {@link Result}.</p>
+ *
+ * <p>Supported formats:</p>
+ * <ul>
+ *     <li>{@code .m3u} and {@code .m3u8}: file paths or URLs, optionally
+ *     preceded by {@code #EXTINF:<seconds>,<artist> - <title>}. Without an
+ *     {@code #EXTINF} line, artist and title are taken from the file name
+ *     or the {@code Artist/Album/NN Title} layout of the path.</li>
+ *     <li>{@code .csv}, {@code .tsv} and {@code .txt}: one song per row,
+ *     separated by commas, semicolons or tabs. A header row naming the
+ *     artist, title and duration columns is recognized; without one, the
+ *     columns are artist, title and, optionally, duration.</li>
+ * </ul>
+ *
+ * <p>The index reflects the catalog at the time of the first import; a
+ * new importer should be created after the catalog has changed.</p>
+ */
+public class PlaylistImporter {
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistImporter.class);
+
+    /**
+     * A line of a playlist file that names a song.
+     *
+     * @param number         line number in the file, starting at 1
+     * @param text           the line as written in the file
+     * @param artist         artist name, or {@code null} if unknown
+     * @param title          song title
+     * @param durationMillis length in milliseconds, or {@code null} if unknown
+     * @param location       file URL, or {@code null} if the line names no file
+     */
+    public record Line(int number, String text, String artist, String title, Long durationMillis, String location) {
+    }
+
+    /**
+     * Outcome of an import.
+     *
+     * @param playlist   id and name of the playlist the songs were added to
+     * @param lines      number of lines naming a song
+     * @param exact      lines matched by location or exact artist and title
+     * @param fuzzy      lines matched by similarity
+     * @param unmatched  lines that matched no song
+     * @param indexNanos time spent building the catalog index, {@code 0} if it was reused
+     * @param matchNanos time spent matching the lines
+     */
+    public record Result(MenuEntry playlist, int lines, int exact, int fuzzy, List<Line> unmatched,
+                         long indexNanos, long matchNanos) {
+
+        /**
+         * Returns the number of matched lines.
+         *
+         * @return exact and fuzzy matches
+         */
+        public int matched() {
+            return exact + fuzzy;
+        }
+    }
+
+    private final SongRepository songRepo;
+    private final PlaylistRepository playlistRepo;
+    private CatalogIndex index;
+
+    /**
+     * Creates a new importer.
+     *
+     * @param songRepo     repository for songs, used to build the catalog index
+     * @param playlistRepo repository for playlists
+     */
+    public PlaylistImporter(SongRepository songRepo, PlaylistRepository playlistRepo) {
+        this.songRepo = songRepo;
+        this.playlistRepo = playlistRepo;
+    }
+
+    /**
+     * Imports a playlist file into a playlist named after the file.
+     *
+     * @param file M3U or CSV file
+     * @return the import result
+     * @throws IOException if the file cannot be read
+     * @see #importFile(Path, String)
+     */
+    public Result importFile(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return importFile(file, dot > 0 ? name.substring(0, dot) : name);
+    }
+
+    /**
+     * Imports a playlist file.
+     *
+     * <p>If a playlist with the given name exists, the matched songs are
+     * added to it; songs it already contains are not added twice.</p>
+     *
+     * @param file         M3U or CSV file
+     * @param playlistName name of the playlist to create or extend
+     * @return the import result
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not an M3U or CSV file
+     */
+    public Result importFile(Path file, String playlistName) throws IOException {
+        List<Line> lines = parse(file);
+        long indexNanos = 0;
+        if (index == null) {
+            long t0 = System.nanoTime();
+            index = CatalogIndex.build(songRepo.findCatalogEntries());
+            indexNanos = System.nanoTime() - t0;
+            logger.info("importFile: indexed {} songs in {} ms", index.size(), indexNanos / 1_000_000);
+        }
+
+        long t0 = System.nanoTime();
+        Set<Long> songIds = new LinkedHashSet<>();
+        List<Line> unmatched = new ArrayList<>();
+        int exact = 0;
+        int fuzzy = 0;
+        for (Line line : lines) {
+            CatalogIndex.Match match = index.findByLocation(line.location());
+            if (match == null) {
+                match = index.find(line.artist(), line.title(), line.durationMillis());
+            }
+            if (match == null) {
+                unmatched.add(line);
+                continue;
+            }
+            if (match.fuzzy()) {
+                fuzzy++;
+            } else {
+                exact++;
+            }
+            songIds.add(match.songId());
+        }
+        long matchNanos = System.nanoTime() - t0;
+
+        MenuEntry playlist = playlistRepo.findMenuEntries().stream()
+            .filter(p -> p.name().equals(playlistName))
+            .findFirst()
+            .orElseGet(() -> {
+                Playlist created = playlistRepo.createPlaylist(playlistName);
+                return new MenuEntry(created.getId(), created.getName());
+            });
+        playlistRepo.addSongsById(playlist.id(), songIds);
+
+        Result result = new Result(playlist, lines.size(), exact, fuzzy, unmatched, indexNanos, matchNanos);
+        logger.info("importFile: {} into '{}': {} of {} lines matched ({} fuzzy) in {} ms",
+            file, playlistName, result.matched(), lines.size(), fuzzy, matchNanos / 1_000_000);
+        unmatched.forEach(line -> logger.debug("importFile: unmatched line {}: {}", line.number(), line.text()));
+        return result;
+    }
+
+    /**
+     * Reads the song lines of a playlist file.
+     *
+     * @param file M3U or CSV file
+     * @return the lines naming a song, in file order
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not an M3U or CSV file
+     */
+    static List<Line> parse(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean m3u = name.endsWith(".m3u") || name.endsWith(".m3u8");
+        if (!m3u && !name.endsWith(".csv") && !name.endsWith(".tsv") && !name.endsWith(".txt")) {
+            throw new IllegalArgumentException("Unsupported playlist format: " + file);
+        }
+        List<String> text = new ArrayList<>();
+        // Malformed input is replaced rather than rejected: .m3u files are often written in a legacy charset
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                text.add(text.isEmpty() && line.startsWith("\uFEFF") ? line.substring(1) : line);
+            }
+        }
+        return m3u ? parseM3u(text, file.toAbsolutePath().getParent()) : parseCsv(text);
+    }
+
+    // -------------------------------------------------------------------------
+    // M3U
+    // -------------------------------------------------------------------------
+
+    private static List<Line> parseM3u(List<String> text, Path dir) {
+        List<Line> lines = new ArrayList<>();
+        String info = null;
+        for (int n = 0; n < text.size(); n++) {
+            String line = text.get(n).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("#")) {
+                if (line.regionMatches(true, 0, "#EXTINF:", 0, 8)) {
+                    info = line.substring(8);
+                }
+                continue;
+            }
+
+            String location = location(line, dir);
+            String artist = null, title = null;
+            Long duration = null;
+            if (info != null) {
+                int comma = info.indexOf(',');
+                duration = seconds(comma < 0 ? info : info.substring(0, comma));
+                String display = comma < 0 ? "" : info.substring(comma + 1).trim();
+                int dash = display.indexOf(" - ");
+                artist = dash < 0 ? null : display.substring(0, dash).trim();
+                title = dash < 0 ? display : display.substring(dash + 3).trim();
+            }
+            if (title == null || title.isEmpty()) {
+                String[] fromName = fromFileName(line);
+                artist = fromName[0];
+                title = fromName[1];
+            }
+            lines.add(new Line(n + 1, info != null ? "#EXTINF:" + info + " " + line : line, artist, title, duration, location));
+            info = null;
+        }
+        return lines;
+    }
+
+    /**
+     * Converts an M3U entry to the file URL form stored for local songs.
+     *
+     * @return the URL, or {@code null} if the entry is neither a file URL nor a path
+     */
+    private static String location(String entry, Path dir) {
+        if (entry.startsWith("file://localhost/")) {
+            return "file:///" + entry.substring("file://localhost/".length());
+        }
+        if (entry.startsWith("file:")) {
+            return entry;
+        }
+        if (entry.contains("://")) {
+            return null;
+        }
+        try {
+            Path path = Path.of(entry.replace('\\', '/'));
+            return (dir == null ? path : dir.resolve(path)).normalize().toUri().toString();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Derives artist and title from an entry's file name, either
+     * {@code Artist - Title.ext} or the {@code Artist/Album/NN Title.ext} layout.
+     */
+    private static String[] fromFileName(String entry) {
+        String path = entry.replace('\\', '/');
+        int slash = path.lastIndexOf('/');
+        String name = path.substring(slash + 1);
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        int dash = stem.indexOf(" - ");
+        if (dash > 0 && !Character.isDigit(stem.charAt(0))) {
+            return new String[]{stem.substring(0, dash).trim(), stem.substring(dash + 3).trim()};
+        }
+        try {
+            AudioTags tags = AudioTags.fromPath(Path.of(path));
+            String artist = AudioTags.UNKNOWN_ARTIST.equals(tags.artist()) ? null : tags.artist();
+            return new String[]{artist, tags.title()};
+        } catch (InvalidPathException e) {
+            return new String[]{null, stem};
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // CSV
+    // -------------------------------------------------------------------------
+
+    private static List<Line> parseCsv(List<String> text) {
+        List<Line> lines = new ArrayList<>();
+        int first = 0;
+        while (first < text.size() && text.get(first).isBlank()) {
+            first++;
+        }
+        if (first == text.size()) {
+            return lines;
+        }
+        char separator = separator(text.get(first));
+
+        int artistColumn = 0, titleColumn = 1, durationColumn = 2;
+        boolean durationInMillis = false;
+        List<String> header = fields(text.get(first), separator);
+        int headerArtist = -1, headerTitle = -1, headerDuration = -1;
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).toLowerCase(Locale.ROOT);
+            if (headerArtist < 0 && column.startsWith("artist")) {
+                headerArtist = i;
+            } else if (headerTitle < 0 && (column.equals("title") || column.equals("name") || column.startsWith("track name")
+                || column.startsWith("song") || column.equals("track"))) {
+                headerTitle = i;
+            } else if (headerDuration < 0 && (column.startsWith("duration") || column.startsWith("time") || column.startsWith("length"))) {
+                headerDuration = i;
+                durationInMillis = column.contains("ms") || column.contains("milli");
+            }
+        }
+        if (headerTitle >= 0) {
+            artistColumn = headerArtist;
+            titleColumn = headerTitle;
+            durationColumn = headerDuration;
+            first++;
+        }
+
+        for (int n = first; n < text.size(); n++) {
+            String line = text.get(n);
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = fields(line, separator);
+            String artist = field(fields, artistColumn);
+            String title = field(fields, titleColumn);
+            String durationText = field(fields, durationColumn);
+            Long duration = durationText == null ? null
+                : durationInMillis ? millis(durationText) : seconds(durationText);
+            lines.add(new Line(n + 1, line, artist, title == null ? "" : title, duration, null));
+        }
+        return lines;
+    }
+
+    /**
+     * Picks the most frequent of comma, semicolon and tab in the first row.
+     */
+    private static char separator(String row) {
+        char best = ',';
+        long bestCount = row.chars().filter(c -> c == ',').count();
+        for (char candidate : new char[]{';', '\t'}) {
+            long count = row.chars().filter(c -> c == candidate).count();
+            if (count > bestCount) {
+                best = candidate;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Splits a row into fields, honoring double-quoted fields with {@code ""} escapes.
+     */
+    static List<String> fields(String row, char separator) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < row.length(); i++) {
+            char c = row.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < row.length() && row.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size() || fields.get(column).isEmpty()) {
+            return null;
+        }
+        return fields.get(column);
+    }
+
+    /**
+     * Parses a duration given as seconds or as {@code [h:]m:ss}.
+     *
+     * @return the duration in milliseconds, or {@code null} if unknown
+     */
+    private static Long seconds(String text) {
+        String value = text.trim();
+        try {
+            long seconds = 0;
+            for (String part : value.split(":")) {
+                seconds = seconds * 60 + Long.parseLong(part.trim());
+            }
+            return seconds > 0 ? seconds * 1000 : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long millis(String text) {
+        try {
+            long millis = Long.parseLong(text.trim());
+            return millis > 0 ? millis : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.ingest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput counters for a single ingestion stage.
+ *
+ * <p>Each stage records how many items it handled and how long it was
+ * busy doing so. Counters are thread-safe so concurrent workers of the
+ * same stage can share one instance.</p>
+ */
+public class StageStats {
+    private final String name;
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    /**
+     * Creates a new, empty set of counters.
+     *
+     * @param name stage name used when reporting
+     */
+    public StageStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a unit of work performed by this stage.
+     *
+     * @param count number of items handled
+     * @param nanos time spent handling them, in nanoseconds
+     */
+    public void record(long count, long nanos) {
+        items.addAndGet(count);
+        busyNanos.addAndGet(nanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getItems() {
+        return items.get();
+    }
+
+    public long getBusyNanos() {
+        return busyNanos.get();
+    }
+
+    /**
+     * Returns the number of items handled per second of busy time.
+     *
+     * @return items per second, or {@code 0} if the stage was never busy
+     */
+    public double itemsPerSecond() {
+        long nanos = busyNanos.get();
+        return nanos == 0 ? 0 : items.get() * 1_000_000_000d / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d items in %d ms (%.1f items/s)",
+            name, getItems(), busyNanos.get() / 1_000_000, itemsPerSecond());
+    }
+}
@@ -3,7 +3,9 @@ package org.example.repo;
 import org.example.entity.Album;
 import org.example.entity.Artist;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Album} entities.
@@ -19,12 +21,36 @@ public interface AlbumRepository {
 
     boolean existsByUniqueId(Album album);
 
+    LongHashSet findExistingIds(Collection<Long> ids);
+
+    void warmKnownIds();
+
     Long count();
 
     void save(Album album);
 
+    void saveAll(Collection<Album> albums);
+
+    void updateAll(Collection<Album> albums);
+
+    void upsertAll(Collection<Album> albums);
+
+    void updateCover(Long albumId, byte[] cover);
+
+    byte[] findCover(Long albumId);
+
+    int moveLegacyCovers();
+
     List<Album> findAll();
 
+    List<MenuEntry> findMenuEntries();
+
+    List<MenuEntry> findMenuEntriesByArtist(Long artistId);
+
+    Slice<Album> findPage(String after, int size);
+
+    Stream<Album> streamAll();
+
     List<Album> findByArtist(Artist artist);
 
 }
@@ -2,9 +2,21 @@ package org.example.repo;
 
 import jakarta.persistence.EntityManagerFactory;
 import org.example.entity.Album;
+import org.example.entity.AlbumCover;
 import org.example.entity.Artist;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * JPA-based implementation of {@link AlbumRepository}.
@@ -20,15 +32,28 @@ import java.util.List;
  * </p>
  */
 public class AlbumRepositoryImpl implements AlbumRepository {
+    private static final Logger logger = LoggerFactory.getLogger(AlbumRepositoryImpl.class);
     private final EntityManagerFactory emf;
+    private final KnownIdFilter knownIds;
 
     /**
-     * Creates a new {@code AlbumRepositoryImpl}.
+     * Creates a new {@code AlbumRepositoryImpl} without a known-id filter.
      *
      * @param emf the {@link EntityManagerFactory} used to create entity managers
      */
     public AlbumRepositoryImpl(EntityManagerFactory emf) {
+        this(emf, KnownIdFilter.disabled());
+    }
+
+    /**
+     * Creates a new {@code AlbumRepositoryImpl}.
+     *
+     * @param emf      the {@link EntityManagerFactory} used to create entity managers
+     * @param knownIds filter of album ids known to exist, consulted before querying
+     */
+    public AlbumRepositoryImpl(EntityManagerFactory emf, KnownIdFilter knownIds) {
         this.emf = emf;
+        this.knownIds = knownIds;
     }
 
     /**
@@ -39,11 +64,35 @@ public class AlbumRepositoryImpl implements AlbumRepository {
      */
     @Override
     public boolean existsByUniqueId(Album album) {
-        return emf.callInTransaction(em ->
-            em.createQuery("select count(a) from Album a where a.id = :albumId", Long.class)
-                .setParameter("albumId", album.getId())
-                .getSingleResult() > 0
-        );
+        return IdLookup.exists(emf, knownIds, Album.class, album.getId());
+    }
+
+    /**
+     * Returns which of the given ids belong to stored albums.
+     *
+     * <p>
+     * Ids known to the filter are answered from memory; the rest are
+     * resolved with one {@code IN} query per chunk.
+     * </p>
+     *
+     * @param ids the identifiers to check
+     * @return the subset of {@code ids} that exist
+     */
+    @Override
+    public LongHashSet findExistingIds(Collection<Long> ids) {
+        return IdLookup.findExisting(emf, knownIds, Album.class, ids);
+    }
+
+    /**
+     * Loads every stored album id into the known-id filter.
+     *
+     * <p>
+     * Does nothing if this repository was created without a filter.
+     * </p>
+     */
+    @Override
+    public void warmKnownIds() {
+        IdLookup.warm(emf, knownIds, Album.class);
     }
 
     /**
@@ -66,6 +115,168 @@ public class AlbumRepositoryImpl implements AlbumRepository {
     @Override
     public void save(Album album) {
         emf.runInTransaction(em -> em.persist(album));
+        knownIds.add(album.getId());
+    }
+
+    /**
+     * Persists many new albums using batched inserts.
+     *
+     * <p>
+     * Entities are written through a stateless session in chunks of
+     * {@code hibernate.jdbc.batch_size}, so each chunk costs one JDBC
+     * batch and one commit instead of one of each per album.
+     * </p>
+     *
+     * @param albums the albums to persist
+     */
+    @Override
+    public void saveAll(Collection<Album> albums) {
+        StatelessBatch.insertAll(emf, albums);
+        IdLookup.remember(knownIds, albums);
+    }
+
+    /**
+     * Applies the values of the given albums to their stored rows.
+     *
+     * <p>
+     * Only rows whose values differ are updated; albums that are not
+     * stored yet are ignored. Stored covers are left untouched.
+     * </p>
+     *
+     * @param albums albums carrying the new values
+     */
+    @Override
+    public void updateAll(Collection<Album> albums) {
+        ManagedUpdate.applyAll(emf, Album.class, albums, (em, source, managed) -> {
+            managed.setName(source.getName());
+            managed.setGenre(source.getGenre());
+            managed.setYear(source.getYear());
+            managed.setTrackCount(source.getTrackCount());
+            managed.setArtist(em.getReference(Artist.class, source.getArtist().getId()));
+        });
+    }
+
+    /**
+     * Inserts the given albums, overwriting any that already exist.
+     *
+     * <p>
+     * Uses one native upsert statement per album, sent in JDBC batches
+     * within a single transaction, so no existence check is needed and
+     * concurrent loaders writing the same albums cannot collide. Covers
+     * are stored separately in {@link AlbumCover} and are not touched by
+     * the upsert, so existing covers are kept.
+     * </p>
+     *
+     * @param albums the albums to write
+     */
+    @Override
+    public void upsertAll(Collection<Album> albums) {
+        NativeUpsert.upsertAll(emf, Album.class, List.of("name", "genre", "year", "trackCount", "artist"),
+            a -> new Object[]{a.getName(), a.getGenre(), a.getYear(), a.getTrackCount(), a.getArtist() == null ? null : a.getArtist().getId()}, albums);
+        IdLookup.remember(knownIds, albums);
+    }
+
+    /**
+     * Replaces the cover of a stored album.
+     *
+     * <p>
+     * An existing cover is overwritten with a bulk update, so neither the
+     * album nor its old image is loaded. If the album has no cover yet,
+     * the album id is checked against the known-id filter, falling back to
+     * a query on a separate entity manager, and a new {@link AlbumCover}
+     * is persisted. Does nothing if no album with the given id exists. A
+     * {@code null} cover deletes the stored one with a bulk delete.
+     * </p>
+     *
+     * @param albumId the id of the album to update
+     * @param cover   the encoded cover image, or {@code null} to remove it
+     */
+    @Override
+    public void updateCover(Long albumId, byte[] cover) {
+        emf.runInTransaction(em -> {
+            if (cover == null) {
+                em.createQuery("delete from AlbumCover c where c.albumId = :id")
+                    .setParameter("id", albumId)
+                    .executeUpdate();
+                return;
+            }
+            int updated = em.createQuery("update AlbumCover c set c.image = :image where c.albumId = :id")
+                .setParameter("image", cover)
+                .setParameter("id", albumId)
+                .executeUpdate();
+            if (updated == 0 && IdLookup.exists(emf, knownIds, Album.class, albumId)) {
+                em.persist(new AlbumCover(em.getReference(Album.class, albumId), cover));
+            }
+        });
+    }
+
+    /**
+     * Retrieves the cover of an album.
+     *
+     * <p>
+     * Only the image column is selected. Covers are never loaded with
+     * their album, so callers that display artwork fetch it here.
+     * </p>
+     *
+     * @param albumId the id of the album
+     * @return the encoded cover image, or {@code null} if none is stored
+     */
+    @Override
+    public byte[] findCover(Long albumId) {
+        if (albumId == null) {
+            return null;
+        }
+        try (var em = emf.createEntityManager()) {
+            return em.createQuery("select c.image from AlbumCover c where c.albumId = :id", byte[].class)
+                .setParameter("id", albumId)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+        }
+    }
+
+    /**
+     * Moves covers stored by earlier versions in the {@code album.cover}
+     * column to the {@code album_cover} table and drops the column.
+     *
+     * <p>
+     * Does nothing if the column does not exist, so it is safe to call on
+     * every start. The column is looked up through the connection's
+     * {@link DatabaseMetaData}, restricted to its own catalog and schema,
+     * so an {@code album} table of another database on the same server is
+     * never mistaken for this one.
+     * </p>
+     *
+     * @return the number of covers moved
+     */
+    @Override
+    public int moveLegacyCovers() {
+        return emf.callInTransaction(em -> {
+            boolean legacy = em.unwrap(Session.class).doReturningWork(AlbumRepositoryImpl::hasLegacyCoverColumn);
+            if (!legacy) {
+                return 0;
+            }
+            int moved = em.createNativeQuery("""
+                    insert into album_cover (album_id, image)
+                    select a.album_id, a.cover
+                    from album a
+                    where a.cover is not null
+                      and not exists (select 1 from album_cover c where c.album_id = a.album_id)
+                    """)
+                .executeUpdate();
+            em.createNativeQuery("alter table album drop column cover").executeUpdate();
+            logger.info("moveLegacyCovers: moved {} covers to album_cover", moved);
+            return moved;
+        });
+    }
+
+    private static boolean hasLegacyCoverColumn(Connection connection) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        boolean upper = meta.storesUpperCaseIdentifiers();
+        try (ResultSet columns = meta.getColumns(connection.getCatalog(), connection.getSchema(),
+            upper ? "ALBUM" : "album", upper ? "COVER" : "cover")) {
+            return columns.next();
+        }
     }
 
     /**
@@ -80,9 +291,106 @@ public class AlbumRepositoryImpl implements AlbumRepository {
                 .getResultList());
     }
 
+    /**
+     * Retrieves the id and name of every album, ordered by name, then id.
+     *
+     * <p>
+     * Only the two columns shown in the album menu are read, and the
+     * artist is not loaded.
+     * </p>
+     *
+     * @return a list of menu entries for all albums
+     */
+    @Override
+    public List<MenuEntry> findMenuEntries() {
+        return emf.callInTransaction(em ->
+            em.createQuery("select new org.example.repo.MenuEntry(a.id, a.name) from Album a order by a.name, a.id",
+                    MenuEntry.class)
+                .getResultList());
+    }
+
+    /**
+     * Retrieves the id and name of every album by the given artist, ordered by name.
+     *
+     * <p>
+     * The artist is matched by its foreign key, so it is not loaded. The
+     * result is cached until albums are written.
+     * </p>
+     *
+     * @param artistId the ID of the artist whose albums should be listed
+     * @return a list of menu entries, or an empty list if {@code artistId} is {@code null}
+     */
+    @Override
+    public List<MenuEntry> findMenuEntriesByArtist(Long artistId) {
+        if (artistId == null) {
+            logger.debug("findMenuEntriesByArtist: artistId is null");
+            return new ArrayList<>();
+        }
+
+        return emf.callInTransaction(em ->
+            em.createQuery(
+                    """
+                        select new org.example.repo.MenuEntry(a.id, a.name)
+                        from Album a
+                        where a.artist.id = :artistId
+                        order by a.name, a.id
+                        """,
+                    MenuEntry.class
+                )
+                .setParameter("artistId", artistId)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList());
+    }
+
+    /**
+     * Retrieves one page of albums ordered by name, then id.
+     *
+     * <p>
+     * Pages are found by keyset rather than offset, so every page costs
+     * the same regardless of its position in the catalog.
+     * The artist association is eagerly fetched.
+     * </p>
+     *
+     * @param after the {@link Slice#next()} token of the previous page, or {@code null} for the first page
+     * @param size  maximum number of albums on the page
+     * @return the page and the token of the next one
+     * @throws IllegalArgumentException if {@code size} is out of range or {@code after} is malformed
+     */
+    @Override
+    public Slice<Album> findPage(String after, int size) {
+        return Keyset.page(emf, Album.class, "left join fetch e.artist", after, size);
+    }
+
+    /**
+     * Streams every album in id order without loading them all at once.
+     *
+     * <p>
+     * Rows are read through a forward-only cursor and the underlying
+     * session is cleared in chunks, so a full traversal runs in constant
+     * memory. Entities are read-only and become detached as the stream
+     * advances.
+     * The artist association is fetched in the same query.
+     * </p>
+     *
+     * <p>
+     * The stream holds a database connection until it is closed, so it
+     * must be used in a try-with-resources block.
+     * </p>
+     *
+     * @return a stream of all albums
+     */
+    @Override
+    public Stream<Album> streamAll() {
+        return ScrollStream.stream(emf, Album.class, "left join fetch e.artist");
+    }
+
     /**
      * Retrieves all albums by the given artist.
      *
+     * <p>
+     * The result is cached until albums or artists are written.
+     * </p>
+     *
      * @param artist the artist whose albums should be retrieved
      * @return a list of albums associated with the given artist
      */
@@ -91,6 +399,7 @@ public class AlbumRepositoryImpl implements AlbumRepository {
         return emf.callInTransaction(em ->
             em.createQuery("select a from Album a where a.artist = :artist", Album.class)
                 .setParameter("artist", artist)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
                 .getResultList()
         );
     }
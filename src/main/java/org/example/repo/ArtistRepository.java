@@ -2,7 +2,9 @@ package org.example.repo;
 
 import org.example.entity.Artist;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Artist} entities.
@@ -18,10 +20,26 @@ public interface ArtistRepository {
 
     boolean existsByUniqueId(Artist artist);
 
+    LongHashSet findExistingIds(Collection<Long> ids);
+
+    void warmKnownIds();
+
     Long count();
 
     void save(Artist artist);
 
+    void saveAll(Collection<Artist> artists);
+
+    void updateAll(Collection<Artist> artists);
+
+    void upsertAll(Collection<Artist> artists);
+
     List<Artist> findAll();
 
+    List<MenuEntry> findMenuEntries();
+
+    Slice<Artist> findPage(String after, int size);
+
+    Stream<Artist> streamAll();
+
 }
@@ -3,7 +3,9 @@ package org.example.repo;
 import jakarta.persistence.EntityManagerFactory;
 import org.example.entity.Artist;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * JPA-based implementation of {@link ArtistRepository}.
@@ -15,14 +17,26 @@ import java.util.List;
  */
 public class ArtistRepositoryImpl implements ArtistRepository {
     private final EntityManagerFactory emf;
+    private final KnownIdFilter knownIds;
 
     /**
-     * Creates a new {@code ArtistRepositoryImpl}.
+     * Creates a new {@code ArtistRepositoryImpl} without a known-id filter.
      *
      * @param emf the {@link EntityManagerFactory} used to create entity managers
      */
     public ArtistRepositoryImpl(EntityManagerFactory emf) {
+        this(emf, KnownIdFilter.disabled());
+    }
+
+    /**
+     * Creates a new {@code ArtistRepositoryImpl}.
+     *
+     * @param emf      the {@link EntityManagerFactory} used to create entity managers
+     * @param knownIds filter of artist ids known to exist, consulted before querying
+     */
+    public ArtistRepositoryImpl(EntityManagerFactory emf, KnownIdFilter knownIds) {
         this.emf = emf;
+        this.knownIds = knownIds;
     }
 
     /**
@@ -33,11 +47,35 @@ public class ArtistRepositoryImpl implements ArtistRepository {
      */
     @Override
     public boolean existsByUniqueId(Artist artist) {
-        return emf.callInTransaction(em ->
-            em.createQuery("select count(a) from Artist a where a.id = :artistId", Long.class)
-                .setParameter("artistId", artist.getId())
-                .getSingleResult() > 0
-        );
+        return IdLookup.exists(emf, knownIds, Artist.class, artist.getId());
+    }
+
+    /**
+     * Returns which of the given ids belong to stored artists.
+     *
+     * <p>
+     * Ids known to the filter are answered from memory; the rest are
+     * resolved with one {@code IN} query per chunk.
+     * </p>
+     *
+     * @param ids the identifiers to check
+     * @return the subset of {@code ids} that exist
+     */
+    @Override
+    public LongHashSet findExistingIds(Collection<Long> ids) {
+        return IdLookup.findExisting(emf, knownIds, Artist.class, ids);
+    }
+
+    /**
+     * Loads every stored artist id into the known-id filter.
+     *
+     * <p>
+     * Does nothing if this repository was created without a filter.
+     * </p>
+     */
+    @Override
+    public void warmKnownIds() {
+        IdLookup.warm(emf, knownIds, Artist.class);
     }
 
     /**
@@ -60,6 +98,60 @@ public class ArtistRepositoryImpl implements ArtistRepository {
     @Override
     public void save(Artist artist) {
         emf.runInTransaction(em -> em.persist(artist));
+        knownIds.add(artist.getId());
+    }
+
+    /**
+     * Persists many new artists using batched inserts.
+     *
+     * <p>
+     * Entities are written through a stateless session in chunks of
+     * {@code hibernate.jdbc.batch_size}, so each chunk costs one JDBC
+     * batch and one commit instead of one of each per artist.
+     * </p>
+     *
+     * @param artists the artists to persist
+     */
+    @Override
+    public void saveAll(Collection<Artist> artists) {
+        StatelessBatch.insertAll(emf, artists);
+        IdLookup.remember(knownIds, artists);
+    }
+
+    /**
+     * Applies the values of the given artists to their stored rows.
+     *
+     * <p>
+     * Only rows whose values differ are updated; artists that are not
+     * stored yet are ignored.
+     * </p>
+     *
+     * @param artists artists carrying the new values
+     */
+    @Override
+    public void updateAll(Collection<Artist> artists) {
+        ManagedUpdate.applyAll(emf, Artist.class, artists, (em, source, managed) -> {
+            managed.setName(source.getName());
+            managed.setCountry(source.getCountry());
+        });
+    }
+
+    /**
+     * Inserts the given artists, overwriting any that already exist.
+     *
+     * <p>
+     * Uses one native upsert statement per artist, sent in JDBC batches
+     * within a single transaction, so no existence check is needed and
+     * concurrent loaders writing the same artists cannot collide.
+     * </p>
+     *
+     * @param artists the artists to write
+     */
+    @Override
+    public void upsertAll(Collection<Artist> artists) {
+        NativeUpsert.upsertAll(emf, Artist.class, List.of("name", "country"),
+            a -> new Object[]{a.getName(), a.getCountry()}, artists);
+        IdLookup.remember(knownIds, artists);
     }
 
     /**
@@ -73,4 +165,57 @@ public class ArtistRepositoryImpl implements ArtistRepository {
             em.createQuery("select a from Artist a", Artist.class)
                 .getResultList());
     }
+
+    /**
+     * Retrieves the id and name of every artist, ordered by name, then id.
+     *
+     * @return a list of menu entries for all artists
+     */
+    @Override
+    public List<MenuEntry> findMenuEntries() {
+        return emf.callInTransaction(em ->
+            em.createQuery("select new org.example.repo.MenuEntry(a.id, a.name) from Artist a order by a.name, a.id",
+                    MenuEntry.class)
+                .getResultList());
+    }
+
+    /**
+     * Retrieves one page of artists ordered by name, then id.
+     *
+     * <p>
+     * Pages are found by keyset rather than offset, so every page costs
+     * the same regardless of its position in the catalog.
+     * </p>
+     *
+     * @param after the {@link Slice#next()} token of the previous page, or {@code null} for the first page
+     * @param size  maximum number of artists on the page
+     * @return the page and the token of the next one
+     * @throws IllegalArgumentException if {@code size} is out of range or {@code after} is malformed
+     */
+    @Override
+    public Slice<Artist> findPage(String after, int size) {
+        return Keyset.page(emf, Artist.class, "", after, size);
+    }
+
+    /**
+     * Streams every artist in id order without loading them all at once.
+     *
+     * <p>
+     * Rows are read through a forward-only cursor and the underlying
+     * session is cleared in chunks, so a full traversal runs in constant
+     * memory. Entities are read-only and become detached as the stream
+     * advances.
+     * </p>
+     *
+     * <p>
+     * The stream holds a database connection until it is closed, so it
+     * must be used in a try-with-resources block.
+     * </p>
+     *
+     * @return a stream of all artists
+     */
+    @Override
+    public Stream<Artist> streamAll() {
+        return ScrollStream.stream(emf, Artist.class, "");
+    }
 }
@@ -0,0 +1,116 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.DBObject;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.hibernate.type.EntityType;
+
+import java.util.Collection;
+
+/**
+ * Access to the second-level cache holding the catalog.
+ *
+ * <p>Artists, albums, songs and the album and song lists of their owners
+ * are cached, as are the results of the navigation finders. Writes made
+ * through a session keep the cache up to date; writes that bypass it,
+ * such as stateless inserts and native upserts, call
+ * {@link #evictWritten(EntityManagerFactory, Class, Collection)}.</p>
+ *
+ * <p>Hit ratios are read from the Hibernate statistics, which must be
+ * enabled with {@code hibernate.generate_statistics}.</p>
+ */
+public final class CatalogCache {
+
+    private CatalogCache() {
+    }
+
+    /**
+     * Snapshot of the second-level cache counters.
+     *
+     * @param hits        entities and collections served from the cache
+     * @param misses      entities and collections that had to be loaded
+     * @param queryHits   finder results served from the cache
+     * @param queryMisses finder results that had to be queried
+     */
+    public record Stats(long hits, long misses, long queryHits, long queryMisses) {
+
+        /**
+         * Returns the share of entity and collection lookups served from the cache.
+         *
+         * @return hit ratio between 0 and 1, or {@code 0} if nothing was looked up
+         */
+        public double hitRatio() {
+            return ratio(hits, misses);
+        }
+
+        /**
+         * Returns the share of cacheable queries answered from the cache.
+         *
+         * @return hit ratio between 0 and 1, or {@code 0} if no query was run
+         */
+        public double queryHitRatio() {
+            return ratio(queryHits, queryMisses);
+        }
+
+        private static double ratio(long hits, long misses) {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d (%.1f%%), queryHits=%d, queryMisses=%d (%.1f%%)",
+                hits, misses, hitRatio() * 100, queryHits, queryMisses, queryHitRatio() * 100);
+        }
+    }
+
+    /**
+     * Returns the current cache counters of the given factory.
+     *
+     * @param emf the factory whose statistics should be read
+     * @return current cache statistics
+     */
+    public static Stats stats(EntityManagerFactory emf) {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        return new Stats(
+            statistics.getSecondLevelCacheHitCount(),
+            statistics.getSecondLevelCacheMissCount(),
+            statistics.getQueryCacheHitCount(),
+            statistics.getQueryCacheMissCount()
+        );
+    }
+
+    /**
+     * Removes everything the given rows may have made stale.
+     *
+     * <p>The cached rows themselves are evicted, together with every cached
+     * collection that can hold this entity type, since a written row may
+     * have been added to or moved between owners. Cached query results are
+     * dropped as well. Does nothing if the second-level cache is disabled.</p>
+     *
+     * @param emf    the factory whose cache should be updated
+     * @param entity entity type that was written
+     * @param rows   the written entities
+     */
+    static void evictWritten(EntityManagerFactory emf, Class<?> entity, Collection<? extends DBObject> rows) {
+        SessionFactoryImplementor sf = emf.unwrap(SessionFactoryImplementor.class);
+        if (!sf.getSessionFactoryOptions().isSecondLevelCacheEnabled() || rows.isEmpty()) {
+            return;
+        }
+        Cache cache = sf.getCache();
+        if (sf.getMappingMetamodel().getEntityDescriptor(entity).canWriteToCache()) {
+            rows.forEach(row -> cache.evictEntityData(entity, row.getId()));
+        }
+        sf.getMappingMetamodel().forEachCollectionDescriptor(collection -> {
+            if (collection.hasCache()
+                && collection.getElementType() instanceof EntityType element
+                && element.getAssociatedEntityName().equals(entity.getName())) {
+                cache.evictCollectionData(collection.getRole());
+            }
+        });
+        cache.evictDefaultQueryRegion();
+    }
+}
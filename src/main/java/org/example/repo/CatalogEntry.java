@@ -0,0 +1,16 @@
+package org.example.repo;
+
+/**
+ * The values of a song needed to recognize it in an external playlist.
+ *
+ * <p>Selected with a constructor expression, so no entities are
+ * instantiated or tracked and album covers are never loaded.</p>
+ *
+ * @param songId       song identifier
+ * @param title        song title
+ * @param artist       name of the album's artist, or {@code null} if unknown
+ * @param lengthMillis length in milliseconds, or {@code null} if unknown
+ * @param location     preview or file URL, or {@code null} if unknown
+ */
+public record CatalogEntry(Long songId, String title, String artist, Long lengthMillis, String location) {
+}
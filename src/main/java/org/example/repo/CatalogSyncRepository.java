@@ -0,0 +1,25 @@
+package org.example.repo;
+
+import org.example.entity.ArtistSync;
+import org.example.entity.CatalogVersion;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Repository interface for catalog synchronization bookkeeping.
+ *
+ * <p>Stores the {@link CatalogVersion} row and one {@link ArtistSync}
+ * row per artist search term.</p>
+ */
+public interface CatalogSyncRepository {
+
+    CatalogVersion findCatalogVersion();
+
+    void saveCatalogVersion(CatalogVersion version);
+
+    Map<String, ArtistSync> findArtistSyncs();
+
+    void saveArtistSyncs(Collection<ArtistSync> syncs);
+
+}
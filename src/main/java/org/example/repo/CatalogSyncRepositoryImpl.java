@@ -0,0 +1,75 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.ArtistSync;
+import org.example.entity.CatalogVersion;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JPA-based implementation of {@link CatalogSyncRepository}.
+ */
+public class CatalogSyncRepositoryImpl implements CatalogSyncRepository {
+    private final EntityManagerFactory emf;
+
+    /**
+     * Creates a new {@code CatalogSyncRepositoryImpl}.
+     *
+     * @param emf the {@link EntityManagerFactory} used to create entity managers
+     */
+    public CatalogSyncRepositoryImpl(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    /**
+     * Loads the catalog version row with a single primary-key lookup.
+     *
+     * @return the catalog version, or {@code null} if the catalog was never synchronized
+     */
+    @Override
+    public CatalogVersion findCatalogVersion() {
+        try (var em = emf.createEntityManager()) {
+            return em.find(CatalogVersion.class, CatalogVersion.SINGLETON_ID);
+        }
+    }
+
+    /**
+     * Inserts or replaces the catalog version row.
+     *
+     * @param version the new catalog version
+     */
+    @Override
+    public void saveCatalogVersion(CatalogVersion version) {
+        emf.runInTransaction(em -> em.merge(version));
+    }
+
+    /**
+     * Retrieves the sync records of all artist search terms.
+     *
+     * @return sync records keyed by search term
+     */
+    @Override
+    public Map<String, ArtistSync> findArtistSyncs() {
+        Map<String, ArtistSync> syncs = new LinkedHashMap<>();
+        emf.runInTransaction(em ->
+            em.createQuery("select s from ArtistSync s", ArtistSync.class)
+                .getResultList()
+                .forEach(s -> syncs.put(s.getTerm(), s)));
+        return syncs;
+    }
+
+    /**
+     * Inserts or replaces the given sync records in one transaction.
+     *
+     * @param syncs the sync records to store
+     */
+    @Override
+    public void saveArtistSyncs(Collection<ArtistSync> syncs) {
+        if (syncs.isEmpty()) {
+            return;
+        }
+        emf.runInTransaction(em -> syncs.forEach(em::merge));
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.repo;
+
+import org.example.entity.CrawlCheckpoint;
+
+/**
+ * Repository interface for {@link CrawlCheckpoint} entities.
+ */
+public interface CrawlCheckpointRepository {
+
+    CrawlCheckpoint findByTerm(String term);
+
+    void save(CrawlCheckpoint checkpoint);
+
+}
@@ -0,0 +1,43 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.CrawlCheckpoint;
+
+/**
+ * JPA-based implementation of {@link CrawlCheckpointRepository}.
+ */
+public class CrawlCheckpointRepositoryImpl implements CrawlCheckpointRepository {
+    private final EntityManagerFactory emf;
+
+    /**
+     * Creates a new {@code CrawlCheckpointRepositoryImpl}.
+     *
+     * @param emf the {@link EntityManagerFactory} used to create entity managers
+     */
+    public CrawlCheckpointRepositoryImpl(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    /**
+     * Loads the checkpoint of a search term.
+     *
+     * @param term the search term
+     * @return the checkpoint, or {@code null} if the term was never crawled
+     */
+    @Override
+    public CrawlCheckpoint findByTerm(String term) {
+        try (var em = emf.createEntityManager()) {
+            return em.find(CrawlCheckpoint.class, term);
+        }
+    }
+
+    /**
+     * Inserts or replaces a checkpoint.
+     *
+     * @param checkpoint the checkpoint to store
+     */
+    @Override
+    public void save(CrawlCheckpoint checkpoint) {
+        emf.runInTransaction(em -> em.merge(checkpoint));
+    }
+}
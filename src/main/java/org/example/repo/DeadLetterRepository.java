@@ -0,0 +1,21 @@
+package org.example.repo;
+
+import org.example.entity.DeadLetter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for {@link DeadLetter} entities.
+ */
+public interface DeadLetterRepository {
+
+    long count();
+
+    List<DeadLetter> findAll();
+
+    void saveAll(Collection<DeadLetter> letters);
+
+    void deleteAll(Collection<DeadLetter> letters);
+
+}
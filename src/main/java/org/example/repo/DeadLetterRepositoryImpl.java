@@ -0,0 +1,83 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.DeadLetter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JPA-based implementation of {@link DeadLetterRepository}.
+ */
+public class DeadLetterRepositoryImpl implements DeadLetterRepository {
+    private final EntityManagerFactory emf;
+
+    /**
+     * Creates a new {@code DeadLetterRepositoryImpl}.
+     *
+     * @param emf the {@link EntityManagerFactory} used to create entity managers
+     */
+    public DeadLetterRepositoryImpl(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    /**
+     * Counts the stored dead letters.
+     *
+     * @return number of dead letters
+     */
+    @Override
+    public long count() {
+        try (var em = emf.createEntityManager()) {
+            return em.createQuery("select count(d) from DeadLetter d", Long.class)
+                .getSingleResult();
+        }
+    }
+
+    /**
+     * Retrieves all dead letters, oldest first.
+     *
+     * @return list of dead letters
+     */
+    @Override
+    public List<DeadLetter> findAll() {
+        return emf.callInTransaction(em ->
+            em.createQuery("select d from DeadLetter d order by d.id", DeadLetter.class).getResultList());
+    }
+
+    /**
+     * Inserts new dead letters and updates replayed ones in one transaction.
+     *
+     * @param letters the dead letters to store
+     */
+    @Override
+    public void saveAll(Collection<DeadLetter> letters) {
+        if (letters.isEmpty()) {
+            return;
+        }
+        emf.runInTransaction(em -> letters.forEach(letter -> {
+            if (letter.getId() == null) {
+                em.persist(letter);
+            } else {
+                em.merge(letter);
+            }
+        }));
+    }
+
+    /**
+     * Deletes the given dead letters in one statement.
+     *
+     * @param letters the dead letters to delete
+     */
+    @Override
+    public void deleteAll(Collection<DeadLetter> letters) {
+        List<Long> ids = letters.stream().map(DeadLetter::getId).toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        emf.runInTransaction(em ->
+            em.createQuery("delete from DeadLetter d where d.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate());
+    }
+}
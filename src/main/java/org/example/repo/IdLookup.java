@@ -0,0 +1,138 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.DBObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Shared identifier existence queries for the catalog repositories.
+ *
+ * <p>All lookups select only the primary key, so the database can answer
+ * them from the primary key index without touching table rows or
+ * computing aggregates. Results are recorded in the repository's
+ * {@link KnownIdFilter}.</p>
+ */
+final class IdLookup {
+
+    /** Maximum number of ids bound into a single {@code IN} list. */
+    static final int IN_CHUNK_SIZE = 500;
+
+    private IdLookup() {
+    }
+
+    /**
+     * Checks whether an entity with the given id exists.
+     *
+     * @param emf    factory used when the filter cannot answer
+     * @param known  filter of ids known to exist
+     * @param entity entity type to check
+     * @param id     identifier to look up
+     * @return {@code true} if the entity exists
+     */
+    static boolean exists(EntityManagerFactory emf, KnownIdFilter known, Class<?> entity, Long id) {
+        if (id == null) {
+            return false;
+        }
+        if (known.contains(id)) {
+            return true;
+        }
+        try (var em = emf.createEntityManager()) {
+            boolean exists = !em.createQuery("select e.id from " + entity.getSimpleName() + " e where e.id = :id", Long.class)
+                .setParameter("id", id)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+            if (exists) {
+                known.add(id);
+            }
+            return exists;
+        }
+    }
+
+    /**
+     * Returns the subset of the given ids that exist.
+     *
+     * <p>Ids already known to the filter are answered from memory. The
+     * remaining ids are queried with one {@code IN} list per
+     * {@value #IN_CHUNK_SIZE} ids, all through a single entity manager.</p>
+     *
+     * @param emf    factory used for the remaining lookups
+     * @param known  filter of ids known to exist
+     * @param entity entity type to check
+     * @param ids    identifiers to look up; {@code null} elements are ignored
+     * @return the ids that exist in the database
+     */
+    static LongHashSet findExisting(EntityManagerFactory emf, KnownIdFilter known, Class<?> entity, Collection<Long> ids) {
+        LongHashSet existing = new LongHashSet(ids.size());
+        List<Long> unknown = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == null) {
+                continue;
+            }
+            if (known.contains(id)) {
+                existing.add(id);
+            } else {
+                unknown.add(id);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return existing;
+        }
+
+        LongHashSet found = new LongHashSet(unknown.size());
+        try (var em = emf.createEntityManager()) {
+            var query = em.createQuery("select e.id from " + entity.getSimpleName() + " e where e.id in :ids", Long.class);
+            for (int from = 0; from < unknown.size(); from += IN_CHUNK_SIZE) {
+                List<Long> chunk = unknown.subList(from, Math.min(from + IN_CHUNK_SIZE, unknown.size()));
+                for (Long id : query.setParameter("ids", chunk).getResultList()) {
+                    found.add(id);
+                }
+            }
+        }
+        known.addAll(found);
+        existing.addAll(found);
+        return existing;
+    }
+
+    /**
+     * Loads every stored id of the given entity type into the filter.
+     *
+     * @param emf    factory used to read the ids
+     * @param known  filter to warm
+     * @param entity entity type whose ids should be loaded
+     */
+    static void warm(EntityManagerFactory emf, KnownIdFilter known, Class<?> entity) {
+        if (!known.isEnabled()) {
+            return;
+        }
+        LongHashSet ids = new LongHashSet();
+        try (var em = emf.createEntityManager();
+             var stream = em.createQuery("select e.id from " + entity.getSimpleName() + " e", Long.class)
+                 .getResultStream()) {
+            stream.forEach(ids::add);
+        }
+        known.addAll(ids);
+    }
+
+    /**
+     * Records the ids of newly written entities in the filter.
+     *
+     * @param known    filter to update
+     * @param entities entities that were just persisted
+     */
+    static void remember(KnownIdFilter known, Collection<? extends DBObject> entities) {
+        if (!known.isEnabled()) {
+            return;
+        }
+        LongHashSet ids = new LongHashSet(entities.size());
+        for (var e : entities) {
+            if (e.getId() != null) {
+                ids.add(e.getId());
+            }
+        }
+        known.addAll(ids);
+    }
+}
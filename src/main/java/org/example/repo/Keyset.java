@@ -0,0 +1,96 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.example.entity.DBObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Shared keyset pagination for the catalog repositories.
+ *
+ * <p>Entities are ordered by name, with the identifier breaking ties, and
+ * each page starts strictly after the last row of the previous one:</p>
+ * <pre>
+ * where e.name &gt;= :name and (e.name &gt; :name or e.id &gt; :id)
+ * order by e.name, e.id
+ * </pre>
+ * <p>With a composite index on {@code (name, id)} the database seeks
+ * directly to the start of the page and reads only the rows it returns,
+ * so a page deep in the catalog costs the same as the first one. An
+ * {@code OFFSET} would instead read and discard every row before it.</p>
+ *
+ * <p>Rows without a name are never returned.</p>
+ */
+final class Keyset {
+
+    /** Largest page size a finder accepts. */
+    static final int MAX_PAGE_SIZE = 1_000;
+
+    private Keyset() {
+    }
+
+    /**
+     * Fetches one page of entities ordered by name and id.
+     *
+     * <p>One row more than requested is read to find out whether another
+     * page follows, without a separate count query.</p>
+     *
+     * @param emf    factory used to run the query
+     * @param entity entity type to page through
+     * @param fetch  join fetch clause for the alias {@code e}, or an empty string
+     * @param after  token returned with the previous page, or {@code null} for the first page
+     * @param size   maximum number of entities on the page
+     * @param <T>    entity type
+     * @return the page and the token of the next one
+     * @throws IllegalArgumentException if {@code size} is out of range or {@code after} is malformed
+     */
+    static <T extends DBObject> Slice<T> page(EntityManagerFactory emf, Class<T> entity, String fetch,
+                                              String after, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + size);
+        }
+        Position position = after == null ? null : decode(after);
+        String where = position == null
+            ? " where e.name is not null"
+            : " where e.name >= :name and (e.name > :name or e.id > :id)";
+        String jpql = "select e from " + entity.getSimpleName() + " e " + fetch + where + " order by e.name, e.id";
+
+        List<T> rows = emf.callInTransaction(em -> {
+            TypedQuery<T> query = em.createQuery(jpql, entity).setMaxResults(size + 1);
+            if (position != null) {
+                query.setParameter("name", position.name()).setParameter("id", position.id());
+            }
+            return query.getResultList();
+        });
+        if (rows.size() <= size) {
+            return new Slice<>(rows, null);
+        }
+        List<T> items = List.copyOf(rows.subList(0, size));
+        T last = items.getLast();
+        return new Slice<>(items, encode(new Position(last.getName(), last.getId())));
+    }
+
+    /**
+     * Sort key and identifier of the last row of a page.
+     */
+    record Position(String name, long id) {
+    }
+
+    static String encode(Position position) {
+        String raw = position.id() + ":" + position.name();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Position decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            return new Position(raw.substring(colon + 1), Long.parseLong(raw.substring(0, colon)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed page token: " + token, e);
+        }
+    }
+}
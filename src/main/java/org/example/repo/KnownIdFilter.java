@@ -0,0 +1,104 @@
+package org.example.repo;
+
+/**
+ * In-memory set of entity identifiers that are known to exist in the database.
+ *
+ * <p>Repositories consult the filter before querying: an id found in the
+ * filter is reported as existing without a database round trip. An id
+ * that is not in the filter is always checked against the database, so a
+ * partially warmed filter only costs performance.</p>
+ *
+ * <p>An id that stays in the filter after its row is deleted is still
+ * reported as existing, and callers such as the ingest pipeline then skip
+ * inserting it. Rows must therefore only be deleted through the owning
+ * repository's delete methods, which remove the ids from the filter.</p>
+ *
+ * <p>Filters are typically warmed once at startup with every stored id and
+ * then kept current by the repository's write methods.</p>
+ *
+ * <p>All methods are thread-safe.</p>
+ */
+public class KnownIdFilter {
+    private static final KnownIdFilter DISABLED = new KnownIdFilter(false);
+
+    private final boolean enabled;
+    private final LongHashSet ids = new LongHashSet(1024);
+
+    /**
+     * Creates a new, empty and enabled filter.
+     */
+    public KnownIdFilter() {
+        this(true);
+    }
+
+    private KnownIdFilter(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns a shared filter that never remembers anything.
+     *
+     * <p>Used by repositories that were created without a filter.</p>
+     *
+     * @return the disabled filter
+     */
+    public static KnownIdFilter disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Checks whether an id is known to exist.
+     *
+     * @param id the identifier to check
+     * @return {@code true} if the id was previously recorded
+     */
+    public synchronized boolean contains(long id) {
+        return enabled && ids.contains(id);
+    }
+
+    /**
+     * Records an id as existing.
+     *
+     * @param id the identifier to record
+     */
+    public synchronized void add(long id) {
+        if (enabled) {
+            ids.add(id);
+        }
+    }
+
+    /**
+     * Forgets an id, e.g. after its row has been deleted.
+     *
+     * @param id the identifier to forget
+     */
+    public synchronized void remove(long id) {
+        if (enabled) {
+            ids.remove(id);
+        }
+    }
+
+    /**
+     * Records every id of the given set as existing.
+     *
+     * @param other identifiers to record
+     */
+    public synchronized void addAll(LongHashSet other) {
+        if (enabled) {
+            ids.addAll(other);
+        }
+    }
+
+    /**
+     * Returns the number of ids currently known.
+     *
+     * @return number of recorded ids
+     */
+    public synchronized int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.repo;
+
+import org.example.entity.LocalFile;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for {@link LocalFile} entities.
+ */
+public interface LocalFileRepository {
+
+    List<LocalFile> findUnder(String directory);
+
+    void saveAll(Collection<LocalFile> files);
+
+    void deleteAll(Collection<String> paths);
+
+}
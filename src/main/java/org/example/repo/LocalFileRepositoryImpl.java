@@ -0,0 +1,67 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.LocalFile;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JPA-based implementation of {@link LocalFileRepository}.
+ */
+public class LocalFileRepositoryImpl implements LocalFileRepository {
+    private final EntityManagerFactory emf;
+
+    /**
+     * Creates a new {@code LocalFileRepositoryImpl}.
+     *
+     * @param emf the {@link EntityManagerFactory} used to create entity managers
+     */
+    public LocalFileRepositoryImpl(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    /**
+     * Retrieves the index entries of all files below a directory.
+     *
+     * @param directory absolute path of the directory, ending with a separator
+     * @return list of index entries
+     */
+    @Override
+    public List<LocalFile> findUnder(String directory) {
+        String pattern = directory.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return emf.callInTransaction(em ->
+            em.createQuery("select f from LocalFile f where f.path like :pattern escape '\\'", LocalFile.class)
+                .setParameter("pattern", pattern)
+                .getResultList());
+    }
+
+    /**
+     * Inserts new index entries and replaces existing ones in one transaction.
+     *
+     * @param files the entries to store
+     */
+    @Override
+    public void saveAll(Collection<LocalFile> files) {
+        if (files.isEmpty()) {
+            return;
+        }
+        emf.runInTransaction(em -> files.forEach(em::merge));
+    }
+
+    /**
+     * Deletes the index entries of the given paths in one statement.
+     *
+     * @param paths absolute paths of the files
+     */
+    @Override
+    public void deleteAll(Collection<String> paths) {
+        if (paths.isEmpty()) {
+            return;
+        }
+        emf.runInTransaction(em ->
+            em.createQuery("delete from LocalFile f where f.path in :paths")
+                .setParameter("paths", paths)
+                .executeUpdate());
+    }
+}
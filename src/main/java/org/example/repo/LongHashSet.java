@@ -0,0 +1,196 @@
+package org.example.repo;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Minimal open-addressing hash set of primitive {@code long} values.
+ *
+ * <p>Used for entity identifier lookups where boxing every id into a
+ * {@link Long} would dominate memory and allocation. The set grows
+ * automatically.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+public class LongHashSet {
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private boolean containsEmpty;
+    private int size;
+
+    /**
+     * Creates an empty set.
+     */
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty set sized for the expected number of values.
+     *
+     * @param expectedSize number of values the set should hold without resizing
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value the value to add
+     * @return {@code true} if the value was not already present
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(value) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Adds every value of another set to this set.
+     *
+     * @param other the set whose values should be added
+     */
+    public void addAll(LongHashSet other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * Checks whether the set contains a value.
+     *
+     * @param value the value to look for
+     * @return {@code true} if the value is present
+     */
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(value) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a value from the set.
+     *
+     * <p>Entries displaced past the freed slot are shifted back, so
+     * lookups never need tombstones.</p>
+     *
+     * @param value the value to remove
+     * @return {@code true} if the value was present
+     */
+    public boolean remove(long value) {
+        if (value == EMPTY) {
+            if (!containsEmpty) {
+                return false;
+            }
+            containsEmpty = false;
+            size--;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(value) & mask;
+        while (keys[slot] != value) {
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            // the entry may move back if the gap lies between its home slot and its current slot
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Passes every value in the set to the given consumer, in no particular order.
+     *
+     * @param action the action to perform for each value
+     */
+    public void forEach(LongConsumer action) {
+        if (containsEmpty) {
+            action.accept(EMPTY);
+        }
+        for (long key : keys) {
+            if (key != EMPTY) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the values of this set as a sorted array.
+     *
+     * @return sorted copy of all values
+     */
+    public long[] toSortedArray() {
+        long[] values = new long[size];
+        int[] i = {0};
+        forEach(v -> values[i[0]++] = v);
+        Arrays.sort(values);
+        return values;
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = new long[old.length << 1];
+        size = containsEmpty ? 1 : 0;
+        for (long key : old) {
+            if (key != EMPTY) {
+                add(key);
+            }
+        }
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toSortedArray());
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.DBObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helper that applies new field values to already stored entities.
+ *
+ * <p>The stored rows are loaded into one persistence context with one
+ * {@code IN} query per {@value IdLookup#IN_CHUNK_SIZE} ids, and the new
+ * values are copied onto the managed instances. Hibernate's dirty checking
+ * then issues an {@code UPDATE} only for rows whose values actually
+ * changed; unchanged rows cost nothing beyond the initial select.</p>
+ */
+final class ManagedUpdate {
+
+    /**
+     * Copies the updatable fields of a detached entity onto its managed counterpart.
+     *
+     * @param <T> entity type
+     */
+    @FunctionalInterface
+    interface Copier<T> {
+        void copy(EntityManager em, T source, T managed);
+    }
+
+    private ManagedUpdate() {
+    }
+
+    /**
+     * Applies the values of {@code sources} to the stored rows with the same ids.
+     *
+     * <p>Sources without a stored row are ignored.</p>
+     *
+     * @param emf     factory used to open the transaction
+     * @param entity  entity type to update
+     * @param sources entities carrying the new values
+     * @param copier  copies the updatable fields from a source onto a managed entity
+     * @param <T>     entity type
+     */
+    static <T extends DBObject> void applyAll(EntityManagerFactory emf, Class<T> entity, Collection<T> sources, Copier<T> copier) {
+        if (sources.isEmpty()) {
+            return;
+        }
+        Map<Long, T> byId = new LinkedHashMap<>();
+        sources.forEach(s -> byId.put(s.getId(), s));
+        List<Long> ids = new ArrayList<>(byId.keySet());
+
+        emf.runInTransaction(em -> {
+            var query = em.createQuery("select e from " + entity.getSimpleName() + " e where e.id in :ids", entity);
+            for (int from = 0; from < ids.size(); from += IdLookup.IN_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + IdLookup.IN_CHUNK_SIZE, ids.size()));
+                for (T managed : query.setParameter("ids", chunk).getResultList()) {
+                    copier.copy(em, byId.get(managed.getId()), managed);
+                }
+            }
+        });
+    }
+}
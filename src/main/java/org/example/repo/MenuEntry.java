@@ -0,0 +1,14 @@
+package org.example.repo;
+
+/**
+ * The values of a song, album, artist or playlist needed to list it in a menu.
+ *
+ * <p>Selected with a constructor expression, so no entities are
+ * instantiated or tracked and no associations are loaded. The full
+ * entity is looked up by {@link #id()} only once an entry is chosen.</p>
+ *
+ * @param id   identifier of the listed entity
+ * @param name song title, album, artist or playlist name
+ */
+public record MenuEntry(Long id, String name) {
+}
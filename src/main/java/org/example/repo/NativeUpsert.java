@@ -0,0 +1,145 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.DBObject;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MariaDBDialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helper for idempotent bulk writes with native upsert statements.
+ *
+ * <p>Each row is written with a single statement that inserts it or, if
+ * the primary key already exists, overwrites the given columns:</p>
+ * <ul>
+ *   <li>MySQL: {@code INSERT ... AS new ON DUPLICATE KEY UPDATE c = new.c}, the
+ *       row-alias form that replaced the deprecated {@code VALUES(c)}</li>
+ *   <li>MariaDB: {@code INSERT ... ON DUPLICATE KEY UPDATE c = VALUES(c)}, as
+ *       MariaDB has no row alias</li>
+ *   <li>H2: {@code MERGE INTO ... KEY (id)}</li>
+ * </ul>
+ *
+ * <p>Statements are sent as JDBC batches of {@code hibernate.jdbc.batch_size}
+ * rows inside one transaction. Because no existence check precedes the
+ * write, two loaders writing overlapping rows at the same time cannot
+ * fail with duplicate keys. Rows are written in primary key order so that
+ * concurrent upserts acquire row locks in the same order.</p>
+ *
+ * <p>Table and column names are taken from the Hibernate mapping, so the
+ * statements follow the entity definitions.</p>
+ *
+ * <p>The rows are written past the persistence context, so their cached
+ * copies are evicted afterwards.</p>
+ */
+final class NativeUpsert {
+
+    private NativeUpsert() {
+    }
+
+    /**
+     * Inserts or overwrites all given entities.
+     *
+     * @param emf        the factory whose connection and dialect are used
+     * @param entity     entity type to write
+     * @param properties mapped properties to write besides the identifier;
+     *                   associations are written as their foreign key
+     * @param values     extracts the JDBC values of {@code properties} from an
+     *                   entity, in the same order
+     * @param rows       entities to write
+     * @param <T>        entity type
+     */
+    static <T extends DBObject> void upsertAll(EntityManagerFactory emf, Class<T> entity, List<String> properties,
+                                               Function<T, Object[]> values, Collection<T> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        SessionFactoryImplementor sf = emf.unwrap(SessionFactoryImplementor.class);
+        String sql = sql(sf, entity, properties);
+        int chunkSize = StatelessBatch.batchSize(emf);
+
+        List<T> ordered = new ArrayList<>(rows);
+        ordered.sort(Comparator.comparing(DBObject::getId));
+
+        sf.unwrap(SessionFactory.class).inTransaction(session -> session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                int pending = 0;
+                for (T row : ordered) {
+                    ps.setObject(1, row.getId());
+                    Object[] columns = values.apply(row);
+                    for (int i = 0; i < columns.length; i++) {
+                        ps.setObject(i + 2, columns[i]);
+                    }
+                    ps.addBatch();
+                    if (++pending == chunkSize) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                }
+            }
+        }));
+        CatalogCache.evictWritten(emf, entity, rows);
+    }
+
+    /**
+     * Builds the upsert statement for the dialect of the given factory.
+     */
+    static String sql(SessionFactoryImplementor sf, Class<?> entity, List<String> properties) {
+        var persister = (AbstractEntityPersister) sf.getMappingMetamodel().getEntityDescriptor(entity);
+        String table = persister.getTableName();
+        String id = persister.getIdentifierColumnNames()[0];
+        List<String> columns = new ArrayList<>();
+        columns.add(id);
+        for (String property : properties) {
+            columns.add(persister.getPropertyColumnNames(property)[0]);
+        }
+        return sql(sf.getJdbcServices().getDialect(), table, columns);
+    }
+
+    /**
+     * Builds the upsert statement for the given dialect.
+     *
+     * @param dialect dialect of the target database
+     * @param table   table to write
+     * @param columns columns to write, the primary key column first
+     */
+    static String sql(Dialect dialect, String table, List<String> columns) {
+        String id = columns.getFirst();
+        String columnList = String.join(", ", columns);
+        String placeholders = columns.stream().map(c -> "?").collect(Collectors.joining(", "));
+
+        if (dialect instanceof MariaDBDialect) {
+            return "insert into " + table + " (" + columnList + ") values (" + placeholders + ")"
+                + " on duplicate key update " + updates(columns, c -> "values(" + c + ")");
+        }
+        if (dialect instanceof MySQLDialect) {
+            return "insert into " + table + " (" + columnList + ") values (" + placeholders + ") as new"
+                + " on duplicate key update " + updates(columns, c -> "new." + c);
+        }
+        if (dialect instanceof H2Dialect) {
+            return "merge into " + table + " (" + columnList + ") key (" + id + ") values (" + placeholders + ")";
+        }
+        throw new UnsupportedOperationException("Upsert is not supported for " + dialect.getClass().getSimpleName());
+    }
+
+    private static String updates(List<String> columns, Function<String, String> value) {
+        return columns.stream()
+            .skip(1)
+            .map(c -> c + " = " + value.apply(c))
+            .collect(Collectors.joining(", "));
+    }
+}
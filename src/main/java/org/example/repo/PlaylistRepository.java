@@ -24,6 +24,8 @@ public interface PlaylistRepository {
 
     List<Playlist> findAll();
 
+    List<MenuEntry> findMenuEntries();
+
     Playlist findById(Long id);
 
     boolean isSongInPlaylist(Playlist playlist, Song song);
@@ -38,6 +40,8 @@ public interface PlaylistRepository {
 
     void addSongs(Playlist playlist, Collection<Song> songs);
 
+    void addSongsById(Long playlistId, Collection<Long> songIds);
+
     void removeSong(Playlist playlist, Song song);
 
 }
@@ -81,6 +81,25 @@ public class PlaylistRepositoryImpl implements PlaylistRepository {
         }
     }
 
+    /**
+     * Retrieves the id and name of every playlist, ordered by name, then id.
+     *
+     * <p>
+     * No songs are loaded, so the cost does not depend on the size of the
+     * playlists. Used to look playlists up by name.
+     * </p>
+     *
+     * @return a list of menu entries for all playlists
+     */
+    @Override
+    public List<MenuEntry> findMenuEntries() {
+        try (var em = emf.createEntityManager()) {
+            return em.createQuery("select new org.example.repo.MenuEntry(p.id, p.name) from Playlist p order by p.name, p.id",
+                    MenuEntry.class)
+                .getResultList();
+        }
+    }
+
     /**
      * Retrieves a playlist by its identifier, including all associated songs,
      * albums, and artists.
@@ -259,6 +278,38 @@ public class PlaylistRepositoryImpl implements PlaylistRepository {
         });
     }
 
+    /**
+     * Adds songs to a playlist by id, without loading them.
+     *
+     * <p>
+     * The join rows are inserted with native statements, so neither the
+     * songs nor the playlist's current contents are loaded. Songs already
+     * in the playlist and ids without a stored song are skipped.
+     * </p>
+     *
+     * @param playlistId id of the target playlist
+     * @param songIds ids of the songs to add
+     * @throws IllegalArgumentException if the playlist does not exist
+     */
+    @Override
+    public void addSongsById(Long playlistId, Collection<Long> songIds) {
+        if (playlistId == null || songIds == null) {
+            logger.error("addSongsById: playlistId or songIds is null");
+            throw new IllegalArgumentException("Playlist id and song ids cannot be null");
+        }
+        if (songIds.isEmpty()) {
+            return;
+        }
+        emf.runInTransaction(em -> {
+            if (em.find(Playlist.class, playlistId) == null) {
+                logger.error("addSongsById: playlist not found with id: {}", playlistId);
+                throw new IllegalArgumentException("Playlist not found with id: " + playlistId);
+            }
+            int added = PlaylistSongs.addMissing(em, playlistId, songIds);
+            logger.debug("addSongsById: added {} songs to playlist {}", added, playlistId);
+        });
+    }
+
     /**
      * Removes a song from a playlist.
      *
@@ -0,0 +1,110 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManager;
+import org.example.entity.Playlist;
+import org.example.entity.Song;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.query.NativeQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Native statements on the join table behind {@link Playlist#getSongs()}.
+ *
+ * <p>Rows are inserted and deleted without loading any playlist or song,
+ * so the cost does not grow with the size of the playlists involved. Ids
+ * are bound in {@code IN} lists of at most {@value IdLookup#IN_CHUNK_SIZE}
+ * ids.</p>
+ *
+ * <p>Table and column names are taken from the Hibernate mapping, so the
+ * statements follow the entity definitions. Each statement is synchronized
+ * on the join table only, so Hibernate invalidates no other cache region
+ * when it runs.</p>
+ */
+final class PlaylistSongs {
+
+    private static final String ROLE = Playlist.class.getName() + ".songs";
+
+    private PlaylistSongs() {
+    }
+
+    /**
+     * Adds the given songs to a playlist unless they are already in it.
+     *
+     * <p>Ids without a stored song are ignored.</p>
+     *
+     * @param em         entity manager with an active transaction
+     * @param playlistId id of the playlist to add to
+     * @param songIds    ids of the songs to add
+     * @return the number of join rows inserted
+     */
+    static int addMissing(EntityManager em, Long playlistId, Collection<Long> songIds) {
+        AbstractCollectionPersister songs = persister(em);
+        String table = songs.getTableName();
+        String owner = songs.getKeyColumnNames()[0];
+        String element = songs.getElementColumnNames()[0];
+        var song = (AbstractEntityPersister) factory(em).getMappingMetamodel().getEntityDescriptor(Song.class);
+        String id = song.getIdentifierColumnNames()[0];
+        String sql = "insert into " + table + " (" + owner + ", " + element + ")"
+            + " select :playlist, s." + id + " from " + song.getTableName() + " s"
+            + " where s." + id + " in (:ids)"
+            + " and not exists (select 1 from " + table + " j"
+            + " where j." + owner + " = :playlist and j." + element + " = s." + id + ")";
+        int inserted = 0;
+        for (List<Long> chunk : chunks(songIds)) {
+            inserted += statement(em, sql, table)
+                .setParameter("playlist", playlistId)
+                .setParameter("ids", chunk)
+                .executeUpdate();
+        }
+        return inserted;
+    }
+
+    /**
+     * Removes the given songs from every playlist.
+     *
+     * @param em      entity manager with an active transaction
+     * @param songIds ids of the songs to remove
+     * @return the number of join rows deleted
+     */
+    static int removeFromAll(EntityManager em, Collection<Long> songIds) {
+        AbstractCollectionPersister songs = persister(em);
+        String table = songs.getTableName();
+        String sql = "delete from " + table + " where " + songs.getElementColumnNames()[0] + " in (:ids)";
+        int deleted = 0;
+        for (List<Long> chunk : chunks(songIds)) {
+            deleted += statement(em, sql, table)
+                .setParameter("ids", chunk)
+                .executeUpdate();
+        }
+        return deleted;
+    }
+
+    private static NativeQuery<?> statement(EntityManager em, String sql, String table) {
+        return em.createNativeQuery(sql)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace(table);
+    }
+
+    private static AbstractCollectionPersister persister(EntityManager em) {
+        return (AbstractCollectionPersister) factory(em).getMappingMetamodel().getCollectionDescriptor(ROLE);
+    }
+
+    private static SessionFactoryImplementor factory(EntityManager em) {
+        return em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += IdLookup.IN_CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + IdLookup.IN_CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+}
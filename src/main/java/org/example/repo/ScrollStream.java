@@ -0,0 +1,93 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Helper for traversing a whole table in constant memory.
+ *
+ * <p>Rows are read through a forward-only cursor in batches of
+ * {@value #FETCH_SIZE}, so neither the JDBC driver nor Hibernate holds the
+ * full result. The session is read-only, so no snapshots are kept, and is
+ * cleared after every {@value #FETCH_SIZE} entities; entities handed out
+ * before that point are detached. The second-level cache is bypassed so a
+ * traversal does not evict the entries used for browsing.</p>
+ *
+ * <p>MySQL only streams with a fetch size when the connection uses
+ * {@code useCursorFetch=true}; otherwise the driver reads the whole result
+ * before returning the first row.</p>
+ */
+final class ScrollStream {
+
+    /** Rows fetched per round trip and entities kept before the session is cleared. */
+    static final int FETCH_SIZE = 500;
+
+    private ScrollStream() {
+    }
+
+    /**
+     * Opens a stream over every entity of the given type, in id order.
+     *
+     * <p>The stream holds a session, a transaction and an open cursor until
+     * it is closed, so it must be used in a try-with-resources block.</p>
+     *
+     * @param emf    factory used to open the session
+     * @param entity entity type to traverse
+     * @param fetch  join fetch clause for the alias {@code e}, or an empty string
+     * @param <T>    entity type
+     * @return a sequential stream of detached or read-only entities
+     */
+    static <T> Stream<T> stream(EntityManagerFactory emf, Class<T> entity, String fetch) {
+        Session session = emf.unwrap(SessionFactory.class).openSession();
+        try {
+            session.setDefaultReadOnly(true);
+            session.setCacheMode(CacheMode.IGNORE);
+            Transaction tx = session.beginTransaction();
+            ScrollableResults<T> results = session
+                .createSelectionQuery("select e from " + entity.getSimpleName() + " e " + fetch + " order by e.id", entity)
+                .setFetchSize(FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                private long count;
+
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    if (count > 0 && count % FETCH_SIZE == 0) {
+                        session.clear();
+                    }
+                    if (!results.next()) {
+                        return false;
+                    }
+                    count++;
+                    action.accept(results.get());
+                    return true;
+                }
+            };
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                try {
+                    results.close();
+                    if (tx.isActive()) {
+                        tx.commit();
+                    }
+                } finally {
+                    session.close();
+                }
+            });
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+}
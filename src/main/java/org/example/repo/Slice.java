@@ -0,0 +1,27 @@
+package org.example.repo;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated finder.
+ *
+ * <p>The next page is requested by passing {@link #next()} back to the
+ * same finder. The token is opaque to callers; it records where this page
+ * ended, so fetching the next page does not depend on how many rows came
+ * before it.</p>
+ *
+ * @param items the entities on this page, in finder order
+ * @param next  token of the following page, or {@code null} if this is the last page
+ * @param <T>   entity type
+ */
+public record Slice<T>(List<T> items, String next) {
+
+    /**
+     * Returns whether another page follows this one.
+     *
+     * @return {@code true} if {@link #next()} can be used to fetch more
+     */
+    public boolean hasNext() {
+        return next != null;
+    }
+}
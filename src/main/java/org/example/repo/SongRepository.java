@@ -4,7 +4,9 @@ import org.example.entity.Album;
 import org.example.entity.Artist;
 import org.example.entity.Song;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Song} entities.
@@ -20,12 +22,36 @@ public interface SongRepository {
 
     boolean existsByUniqueId(Song song);
 
+    LongHashSet findExistingIds(Collection<Long> ids);
+
+    void warmKnownIds();
+
     Long count();
 
     void save(Song song);
 
+    void saveAll(Collection<Song> songs);
+
+    void updateAll(Collection<Song> songs);
+
+    void upsertAll(Collection<Song> songs);
+
+    void deleteAll(Collection<Long> ids);
+
+    Song findById(Long id);
+
     List<Song> findAll();
 
+    List<MenuEntry> findMenuEntries();
+
+    List<MenuEntry> findMenuEntriesByAlbum(Long albumId);
+
+    Slice<Song> findPage(String after, int size);
+
+    Stream<Song> streamAll();
+
+    List<CatalogEntry> findCatalogEntries();
+
     List<Song> findByArtist(Artist artist);
 
     List<Song> findByAlbum(Album album);
@@ -1,14 +1,20 @@
 package org.example.repo;
 
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
 import org.example.entity.Album;
 import org.example.entity.Artist;
 import org.example.entity.Song;
+import org.hibernate.jpa.HibernateHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * JPA-based implementation of {@link SongRepository}.
@@ -26,14 +32,26 @@ import java.util.List;
 public class SongRepositoryImpl implements SongRepository {
     private static final Logger logger = LoggerFactory.getLogger(SongRepositoryImpl.class);
     private final EntityManagerFactory emf;
+    private final KnownIdFilter knownIds;
 
     /**
-     * Creates a new {@code SongRepositoryImpl}.
+     * Creates a new {@code SongRepositoryImpl} without a known-id filter.
      *
      * @param emf the {@link EntityManagerFactory} used to create entity managers
      */
     public SongRepositoryImpl(EntityManagerFactory emf) {
+        this(emf, KnownIdFilter.disabled());
+    }
+
+    /**
+     * Creates a new {@code SongRepositoryImpl}.
+     *
+     * @param emf      the {@link EntityManagerFactory} used to create entity managers
+     * @param knownIds filter of song ids known to exist, consulted before querying
+     */
+    public SongRepositoryImpl(EntityManagerFactory emf, KnownIdFilter knownIds) {
         this.emf = emf;
+        this.knownIds = knownIds;
     }
 
     /**
@@ -57,11 +75,35 @@ public class SongRepositoryImpl implements SongRepository {
      */
     @Override
     public boolean existsByUniqueId(Song song) {
-        try (var em = emf.createEntityManager()) {
-            return em.createQuery("select count(s) from Song s where s.id = :songId", Long.class)
-                .setParameter("songId", song.getId())
-                .getSingleResult() > 0;
-        }
+        return IdLookup.exists(emf, knownIds, Song.class, song.getId());
+    }
+
+    /**
+     * Returns which of the given ids belong to stored songs.
+     *
+     * <p>
+     * Ids known to the filter are answered from memory; the rest are
+     * resolved with one {@code IN} query per chunk.
+     * </p>
+     *
+     * @param ids the identifiers to check
+     * @return the subset of {@code ids} that exist
+     */
+    @Override
+    public LongHashSet findExistingIds(Collection<Long> ids) {
+        return IdLookup.findExisting(emf, knownIds, Song.class, ids);
+    }
+
+    /**
+     * Loads every stored song id into the known-id filter.
+     *
+     * <p>
+     * Does nothing if this repository was created without a filter.
+     * </p>
+     */
+    @Override
+    public void warmKnownIds() {
+        IdLookup.warm(emf, knownIds, Song.class);
     }
 
     /**
@@ -72,6 +114,115 @@ public class SongRepositoryImpl implements SongRepository {
     @Override
     public void save(Song song) {
         emf.runInTransaction(em -> em.persist(song));
+        knownIds.add(song.getId());
+    }
+
+    /**
+     * Persists many new songs using batched inserts.
+     *
+     * <p>
+     * Entities are written through a stateless session in chunks of
+     * {@code hibernate.jdbc.batch_size}, so each chunk costs one JDBC
+     * batch and one commit instead of one of each per song.
+     * </p>
+     *
+     * @param songs the songs to persist
+     */
+    @Override
+    public void saveAll(Collection<Song> songs) {
+        StatelessBatch.insertAll(emf, songs);
+        IdLookup.remember(knownIds, songs);
+    }
+
+    /**
+     * Applies the values of the given songs to their stored rows.
+     *
+     * <p>
+     * Only rows whose values differ are updated; songs that are not
+     * stored yet are ignored.
+     * </p>
+     *
+     * @param songs songs carrying the new values
+     */
+    @Override
+    public void updateAll(Collection<Song> songs) {
+        ManagedUpdate.applyAll(emf, Song.class, songs, (em, source, managed) -> {
+            managed.setName(source.getName());
+            managed.setLength(source.getLength());
+            managed.setPreviewUrl(source.getPreviewUrl());
+            managed.setAlbum(em.getReference(Album.class, source.getAlbum().getId()));
+        });
+    }
+
+    /**
+     * Inserts the given songs, overwriting any that already exist.
+     *
+     * <p>
+     * Uses one native upsert statement per song, sent in JDBC batches
+     * within a single transaction, so no existence check is needed and
+     * concurrent loaders writing the same songs cannot collide.
+     * </p>
+     *
+     * @param songs the songs to write
+     */
+    @Override
+    public void upsertAll(Collection<Song> songs) {
+        NativeUpsert.upsertAll(emf, Song.class, List.of("name", "length", "previewUrl", "album"),
+            s -> new Object[]{s.getName(), s.getLength(), s.getPreviewUrl(), s.getAlbum() == null ? null : s.getAlbum().getId()}, songs);
+        IdLookup.remember(knownIds, songs);
+    }
+
+    /**
+     * Deletes the songs with the given ids and removes them from every playlist.
+     *
+     * <p>
+     * The playlist entries are deleted in bulk before the songs, so no
+     * playlist or playlist contents are loaded. Ids without a stored song
+     * are ignored.
+     * </p>
+     *
+     * @param ids identifiers of the songs to delete
+     */
+    @Override
+    public void deleteAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<Long> distinct = new HashSet<>(ids);
+        emf.runInTransaction(em -> {
+            PlaylistSongs.removeFromAll(em, distinct);
+            em.createQuery("delete from Song s where s.id in :ids")
+                .setParameter("ids", distinct)
+                .executeUpdate();
+        });
+        distinct.forEach(knownIds::remove);
+    }
+
+    /**
+     * Retrieves a song by its identifier, including its album and artist.
+     *
+     * <p>
+     * Used to load the one song chosen from a menu of {@link MenuEntry}
+     * projections.
+     * </p>
+     *
+     * @param id the song ID
+     * @return the matching {@link Song}
+     * @throws IllegalArgumentException if {@code id} is {@code null}
+     * @throws EntityNotFoundException if no song with the given ID exists
+     */
+    @Override
+    public Song findById(Long id) {
+        if (id == null) {
+            logger.error("findById: id is null");
+            throw new IllegalArgumentException("Song id can not be null");
+        }
+        Song song = emf.callInTransaction(em -> em.find(Song.class, id));
+        if (song == null) {
+            logger.error("findById: Song not found with id: {}", id);
+            throw new EntityNotFoundException("Song with id " + id + " not found");
+        }
+        return song;
     }
 
     /**
@@ -87,12 +238,131 @@ public class SongRepositoryImpl implements SongRepository {
     }
 
     /**
-     * Retrieves all songs by the given artist.
+     * Retrieves the id and title of every song, ordered by title, then id.
      *
      * <p>
+     * Only the two columns shown in the song menu are read, and neither
+     * the album nor the artist is loaded.
+     * </p>
+     *
+     * @return a list of menu entries for all songs
+     */
+    @Override
+    public List<MenuEntry> findMenuEntries() {
+        return emf.callInTransaction(em ->
+            em.createQuery("select new org.example.repo.MenuEntry(s.id, s.name) from Song s order by s.name, s.id",
+                    MenuEntry.class)
+                .getResultList());
+    }
+
+    /**
+     * Retrieves the id and title of every song on the given album, in id order.
+     *
+     * <p>
+     * The album is matched by its foreign key, so it is not loaded. The
+     * result is cached until songs are written.
+     * </p>
+     *
+     * @param albumId the ID of the album whose songs should be listed
+     * @return a list of menu entries, or an empty list if {@code albumId} is {@code null}
+     */
+    @Override
+    public List<MenuEntry> findMenuEntriesByAlbum(Long albumId) {
+        if (albumId == null) {
+            logger.debug("findMenuEntriesByAlbum: albumId is null");
+            return new ArrayList<>();
+        }
+
+        return emf.callInTransaction(em ->
+            em.createQuery(
+                    """
+                        select new org.example.repo.MenuEntry(s.id, s.name)
+                        from Song s
+                        where s.album.id = :albumId
+                        order by s.id
+                        """,
+                    MenuEntry.class
+                )
+                .setParameter("albumId", albumId)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList());
+    }
+
+    /**
+     * Retrieves one page of songs ordered by title, then id.
+     *
+     * <p>
+     * Pages are found by keyset rather than offset, so every page costs
+     * the same regardless of its position in the catalog.
      * Album and artist associations are eagerly fetched.
      * </p>
      *
+     * @param after the {@link Slice#next()} token of the previous page, or {@code null} for the first page
+     * @param size  maximum number of songs on the page
+     * @return the page and the token of the next one
+     * @throws IllegalArgumentException if {@code size} is out of range or {@code after} is malformed
+     */
+    @Override
+    public Slice<Song> findPage(String after, int size) {
+        return Keyset.page(emf, Song.class, "left join fetch e.album a left join fetch a.artist", after, size);
+    }
+
+    /**
+     * Streams every song in id order without loading them all at once.
+     *
+     * <p>
+     * Rows are read through a forward-only cursor and the underlying
+     * session is cleared in chunks, so a full traversal runs in constant
+     * memory. Entities are read-only and become detached as the stream
+     * advances.
+     * Album and artist associations are fetched in the same query.
+     * </p>
+     *
+     * <p>
+     * The stream holds a database connection until it is closed, so it
+     * must be used in a try-with-resources block.
+     * </p>
+     *
+     * @return a stream of all songs
+     */
+    @Override
+    public Stream<Song> streamAll() {
+        return ScrollStream.stream(emf, Song.class, "left join fetch e.album a left join fetch a.artist");
+    }
+
+    /**
+     * Retrieves the title, artist, length and location of every song.
+     *
+     * <p>
+     * Only the needed columns are selected, so the whole catalog can be
+     * read without instantiating any entity.
+     * </p>
+     *
+     * @return one entry per song
+     */
+    @Override
+    public List<CatalogEntry> findCatalogEntries() {
+        return emf.callInTransaction(em ->
+            em.createQuery(
+                    """
+                        select new org.example.repo.CatalogEntry(s.id, s.name, art.name, s.length, s.previewUrl)
+                        from Song s
+                        left join s.album a
+                        left join a.artist art
+                        """,
+                    CatalogEntry.class
+                )
+                .getResultList());
+    }
+
+    /**
+     * Retrieves all songs by the given artist.
+     *
+     * <p>
+     * Album and artist associations are eagerly fetched. The result is
+     * cached until songs, albums or artists are written.
+     * </p>
+     *
      * @param artist the artist whose songs should be retrieved
      * @return a list of songs, or an empty list if {@code artist} is {@code null}
      */
@@ -115,12 +385,17 @@ public class SongRepositoryImpl implements SongRepository {
                     Song.class
                 )
                 .setParameter("artist", artist)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
                 .getResultList());
     }
 
     /**
      * Retrieves all songs from the given album.
      *
+     * <p>
+     * The result is cached until songs, albums or artists are written.
+     * </p>
+     *
      * @param album the album whose songs should be retrieved
      * @return a list of songs, or an empty list if {@code album} is {@code null}
      */
@@ -143,6 +418,7 @@ public class SongRepositoryImpl implements SongRepository {
                     Song.class
                 )
                 .setParameter("album", album)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
                 .getResultList());
     }
 }
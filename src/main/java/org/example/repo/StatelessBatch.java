@@ -0,0 +1,87 @@
+package org.example.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.DBObject;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Helper for bulk writes through a Hibernate {@link StatelessSession}.
+ *
+ * <p>A stateless session has no persistence context, so inserted entities
+ * are neither tracked nor dirty-checked. Combined with JDBC batching this
+ * turns a bulk insert into one batched statement per chunk instead of one
+ * statement and one commit per entity.</p>
+ *
+ * <p>The chunk size is taken from {@code hibernate.jdbc.batch_size} of the
+ * given {@link EntityManagerFactory}, falling back to {@value #DEFAULT_BATCH_SIZE}.</p>
+ */
+final class StatelessBatch {
+
+    static final int DEFAULT_BATCH_SIZE = 50;
+
+    private StatelessBatch() {
+    }
+
+    /**
+     * Returns the configured JDBC batch size of the given factory.
+     *
+     * @param emf the factory whose configuration should be read
+     * @return the configured batch size, or {@value #DEFAULT_BATCH_SIZE} if unset
+     */
+    static int batchSize(EntityManagerFactory emf) {
+        Object value = emf.getProperties().get(AvailableSettings.STATEMENT_BATCH_SIZE);
+        if (value == null) {
+            return DEFAULT_BATCH_SIZE;
+        }
+        int size = Integer.parseInt(value.toString());
+        return size > 0 ? size : DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Inserts all entities in chunks of {@link #batchSize(EntityManagerFactory)}.
+     *
+     * <p>Each chunk is written as one JDBC batch and committed in its own
+     * transaction. If a chunk fails, it is rolled back and the exception
+     * is rethrown; chunks committed before it remain in place.</p>
+     *
+     * <p>Cached data the new rows make stale, such as the collections and
+     * query results they belong to, is evicted once all chunks are written,
+     * or after the failed chunk.</p>
+     *
+     * @param emf      the factory used to open the stateless session
+     * @param entities entities to insert, all of the same type
+     */
+    static void insertAll(EntityManagerFactory emf, Collection<? extends DBObject> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        int chunkSize = batchSize(emf);
+        Iterator<? extends DBObject> it = entities.iterator();
+
+        try (StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession()) {
+            session.setJdbcBatchSize(chunkSize);
+            while (it.hasNext()) {
+                Transaction tx = session.beginTransaction();
+                try {
+                    for (int i = 0; i < chunkSize && it.hasNext(); i++) {
+                        session.insert(it.next());
+                    }
+                    tx.commit();
+                } catch (RuntimeException e) {
+                    if (tx.isActive()) {
+                        tx.rollback();
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            CatalogCache.evictWritten(emf, entities.iterator().next().getClass(), entities);
+        }
+    }
+}
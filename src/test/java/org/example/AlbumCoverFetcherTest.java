@@ -0,0 +1,153 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpServer;
+import org.example.ingest.AlbumCoverFetcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AlbumCoverFetcher}, downloading artwork from a local HTTP server.
+ */
+@DisplayName("Album Cover Fetcher Tests")
+public class AlbumCoverFetcherTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /**
+     * Starts a local artwork server. Every path returns the same PNG after a
+     * short delay; paths starting with {@code /slow} take two seconds.
+     */
+    @BeforeEach
+    void startServer() throws IOException {
+        byte[] png = png();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(exchange.getRequestURI().getPath().startsWith("/slow") ? 2000 : 50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            exchange.sendResponseHeaders(200, png.length);
+            try (var out = exchange.getResponseBody()) {
+                out.write(png);
+            } catch (IOException ignored) {
+                // client went away
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private URL url(String path) throws Exception {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path).toURL();
+    }
+
+    private static byte[] png() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    @DisplayName("Should download the cover of an album only once")
+    void fetch_shouldDeduplicateByCollectionId() throws Exception {
+        // Given
+        AlbumCoverFetcher fetcher = new AlbumCoverFetcher();
+        URL art = url("/art/1.png");
+
+        // When
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            futures.add(fetcher.fetch(1L, art));
+        }
+        byte[] cover = futures.getFirst().join();
+
+        // Then
+        assertThat(cover).isNotEmpty();
+        assertThat(futures).allMatch(f -> f == futures.getFirst());
+        assertThat(requests).hasValue(1);
+        assertThat(fetcher.inFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should forget a finished download, so the cover can be fetched again")
+    void fetch_shouldNotRetainFinishedDownloads() throws Exception {
+        // Given
+        AlbumCoverFetcher fetcher = new AlbumCoverFetcher(1, Duration.ofMillis(200));
+        byte[] failed = fetcher.fetch(1L, url("/slow/1.png")).join();
+
+        // When
+        byte[] retried = fetcher.fetch(1L, url("/art/1.png")).join();
+
+        // Then
+        assertThat(failed).isNull();
+        assertThat(retried).isNotEmpty();
+        assertThat(requests).hasValue(2);
+        assertThat(fetcher.inFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should limit the number of concurrent downloads")
+    void fetch_shouldBoundConcurrentDownloads() throws Exception {
+        // Given
+        AlbumCoverFetcher fetcher = new AlbumCoverFetcher(2, Duration.ofSeconds(5));
+
+        // When
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+        for (long id = 1; id <= 8; id++) {
+            futures.add(fetcher.fetch(id, url("/art/" + id + ".png")));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        assertThat(requests).hasValue(8);
+        assertThat(maxInFlight.get()).isBetween(1, 2);
+        assertThat(futures).allMatch(f -> f.join() != null);
+    }
+
+    @Test
+    @DisplayName("Should give up on a slow download after the timeout")
+    void fetch_shouldCompleteWithNullOnTimeout() throws Exception {
+        // Given
+        AlbumCoverFetcher fetcher = new AlbumCoverFetcher(1, Duration.ofMillis(200));
+
+        // When
+        long start = System.nanoTime();
+        byte[] cover = fetcher.fetch(1L, url("/slow/1.png")).join();
+
+        // Then
+        assertThat(cover).isNull();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+}
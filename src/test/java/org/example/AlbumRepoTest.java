@@ -3,9 +3,14 @@ package org.example;
 import org.example.entity.Album;
 import org.example.entity.Artist;
 import org.example.repo.AlbumRepositoryImpl;
+import org.example.repo.LongHashSet;
+import org.example.repo.MenuEntry;
+import org.example.repo.Slice;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -26,6 +31,16 @@ public class AlbumRepoTest extends RepoTest {
         assertThat(albumExists).isTrue();
     }
 
+    @Test
+    @DisplayName("Should return only the ids of stored albums")
+    void findExistingIds_shouldReturnStoredSubset() {
+        // Given, When
+        LongHashSet existing = albumRepo.findExistingIds(List.of(11L, 33L, 22L));
+
+        // Then
+        assertThat(existing.toSortedArray()).containsExactly(11L, 22L);
+    }
+
     @Test
     @DisplayName("Should return correct count of albums in database")
     void count_shouldReturnNumberOfAlbums() {
@@ -40,7 +55,7 @@ public class AlbumRepoTest extends RepoTest {
     @DisplayName("Should save new album and make it findable")
     void save_shouldSaveNewAlbum() {
         // Given
-        Album newAlbum = new Album(33L, "To Test A Butterfly", "Hiphop", 2015, 16L, null, testArtist1);
+        Album newAlbum = new Album(33L, "To Test A Butterfly", "Hiphop", 2015, 16L, testArtist1);
 
         // When
         albumRepo.save(newAlbum);
@@ -50,6 +65,142 @@ public class AlbumRepoTest extends RepoTest {
         assertThat(albums).contains(newAlbum);
     }
 
+    @Test
+    @DisplayName("Should save multiple new albums at once")
+    void saveAll_shouldSaveAllAlbums() {
+        // Given
+        Album album1 = new Album(33L, "To Test A Butterfly", "Hiphop", 2015, 16L, testArtist1);
+        Album album2 = new Album(44L, "Good Test, m.A.A.d City", "Hiphop", 2012, 12L, testArtist1);
+
+        // When
+        albumRepo.saveAll(List.of(album1, album2));
+
+        // Then
+        assertThat(albumRepo.findAll()).contains(album1, album2);
+    }
+
+    @Test
+    @DisplayName("Should overwrite album data but keep the stored cover on upsert")
+    void upsertAll_shouldKeepStoredCover() {
+        // Given
+        byte[] cover = {1, 2, 3};
+        albumRepo.updateCover(testAlbum1.getId(), cover);
+        Album renamed = new Album(testAlbum1.getId(), "Best of Test (Deluxe)", "Test Rock", 1993, 4L, testArtist1);
+
+        // When
+        albumRepo.upsertAll(List.of(renamed));
+
+        // Then
+        Album stored = albumRepo.findAll().stream().filter(a -> a.getId().equals(testAlbum1.getId())).findFirst().orElseThrow();
+        assertThat(stored.getName()).isEqualTo("Best of Test (Deluxe)");
+        assertThat(stored.getTrackCount()).isEqualTo(4L);
+        assertThat(albumRepo.findCover(stored.getId())).containsExactly(cover);
+    }
+
+    @Test
+    @DisplayName("Should store, replace and remove covers apart from their album")
+    void updateCover_shouldReplaceAndRemoveCover() {
+        // Given
+        albumRepo.updateCover(testAlbum1.getId(), new byte[]{1});
+
+        // When
+        albumRepo.updateCover(testAlbum1.getId(), new byte[]{2, 2});
+        albumRepo.updateCover(testAlbum2.getId(), new byte[]{3});
+        albumRepo.updateCover(testAlbum2.getId(), null);
+        albumRepo.updateCover(99L, new byte[]{4});
+
+        // Then
+        assertThat(albumRepo.findCover(testAlbum1.getId())).containsExactly(2, 2);
+        assertThat(albumRepo.findCover(testAlbum2.getId())).isNull();
+        assertThat(albumRepo.findCover(99L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should move covers from the legacy album column to their own table once")
+    void moveLegacyCovers_shouldMoveCoversAndDropColumn() {
+        // Given
+        var emf = TestPersistenceManager.get();
+        emf.runInTransaction(em -> {
+            em.createNativeQuery("alter table album add column cover blob").executeUpdate();
+            em.createNativeQuery("update album set cover = X'0A0B' where album_id = 11").executeUpdate();
+        });
+
+        // When
+        int moved = albumRepo.moveLegacyCovers();
+        int movedAgain = albumRepo.moveLegacyCovers();
+
+        // Then
+        assertThat(moved).isEqualTo(1);
+        assertThat(movedAgain).isZero();
+        assertThat(albumRepo.findCover(11L)).containsExactly(0x0A, 0x0B);
+        assertThat(albumRepo.findCover(22L)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should ignore a cover column of an album table in another schema")
+    void moveLegacyCovers_shouldIgnoreOtherSchemas() {
+        // Given
+        var emf = TestPersistenceManager.get();
+        emf.runInTransaction(em -> {
+            em.createNativeQuery("create schema legacy").executeUpdate();
+            em.createNativeQuery("create table legacy.album (album_id bigint primary key, cover blob)").executeUpdate();
+        });
+
+        try {
+            // When
+            int moved = albumRepo.moveLegacyCovers();
+
+            // Then
+            assertThat(moved).isZero();
+            assertThat(albumRepo.findAll()).hasSize(2);
+        } finally {
+            emf.runInTransaction(em -> em.createNativeQuery("drop schema legacy cascade").executeUpdate());
+        }
+    }
+
+    @Test
+    @DisplayName("Should list a large catalog without reading any cover data")
+    void findAll_shouldNotReadCovers() {
+        // Given
+        int count = 1_000;
+        byte[] cover = new byte[16 * 1024];
+        List<Album> albums = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            albums.add(new Album(1_000L + i, "Synthetic Album " + i, "Test Rock", 2000, 10L, testArtist1));
+        }
+        albumRepo.saveAll(albums);
+        albums.forEach(a -> albumRepo.updateCover(a.getId(), cover));
+        // warm up both queries
+        eagerCoverFindAll();
+        albumRepo.findAll();
+
+        // When
+        long eagerBytes = allocatedBytes(this::eagerCoverFindAll);
+        long listBytes = allocatedBytes(() -> albumRepo.findAll());
+
+        // Then
+        assertThat(albumRepo.findAll()).hasSize(count + 2);
+        assertThat(eagerBytes).isGreaterThan((long) count * cover.length);
+        assertThat(listBytes).isLessThan(eagerBytes / 10);
+    }
+
+    /**
+     * Previous list query: every album together with its cover, as loaded
+     * while the cover was an eager column of the album.
+     */
+    private void eagerCoverFindAll() {
+        TestPersistenceManager.get().runInTransaction(em ->
+            em.createQuery("select a, c.image from Album a left join AlbumCover c on c.album = a", Object[].class)
+                .getResultList());
+    }
+
+    private static long allocatedBytes(Runnable work) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        work.run();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+
     @Test
     @DisplayName("Should retrieve all albums from database")
     void findAll_shouldFindAllAlbums() {
@@ -83,4 +234,35 @@ public class AlbumRepoTest extends RepoTest {
         // Then
         assertThat(albums).isEmpty();
     }
+
+    @Test
+    @DisplayName("Should page through albums in name order with their artists loaded")
+    void findPage_shouldWalkAlbumsInNameOrder() {
+        // Given
+        albumRepo.save(new Album(33L, "Another Test", "Test Rock", 2001, 1L, testArtist2));
+
+        // When
+        Slice<Album> first = albumRepo.findPage(null, 1);
+        Slice<Album> rest = albumRepo.findPage(first.next(), 10);
+
+        // Then
+        assertThat(first.items()).extracting(Album::getName).containsExactly("Another Test");
+        assertThat(first.items().getFirst().getArtist().getName()).isEqualTo("T.E.S.T");
+        assertThat(rest.items()).extracting(Album::getName).containsExactly("Best of Test", "Test volume 2");
+        assertThat(rest.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should list only the albums of the given artist as menu entries")
+    void findMenuEntriesByArtist_shouldListAlbumsOfArtist() {
+        // Given
+        albumRepo.save(new Album(33L, "Another Test", "Test Rock", 2001, 1L, testArtist1));
+
+        // When
+        List<MenuEntry> entries = albumRepo.findMenuEntriesByArtist(testArtist1.getId());
+
+        // Then
+        assertThat(entries).containsExactly(new MenuEntry(33L, "Another Test"), new MenuEntry(11L, "Best of Test"));
+        assertThat(albumRepo.findMenuEntriesByArtist(null)).isEmpty();
+    }
 }
@@ -0,0 +1,131 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link ArtistMatcher}.
+ */
+@DisplayName("Artist Matcher Tests")
+public class ArtistMatcherTest {
+
+    @Test
+    @DisplayName("Should match names that differ in case, diacritics and punctuation")
+    void matches_shouldFoldCaseDiacriticsAndPunctuation() {
+        assertThat(ArtistMatcher.forTerm("sigur+ros").matches("Sigur Rós")).isTrue();
+        assertThat(ArtistMatcher.forTerm("motorhead").matches("Motörhead")).isTrue();
+        assertThat(ArtistMatcher.forTerm("rem").matches("R.E.M.")).isTrue();
+        assertThat(ArtistMatcher.forTerm("guns+n+roses").matches("Guns N' Roses")).isTrue();
+        assertThat(ArtistMatcher.forTerm("16+horsepower").matches("16  Horsepower")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should ignore featuring credits and a missing article")
+    void matches_shouldIgnoreFeaturingAndArticles() {
+        assertThat(ArtistMatcher.forTerm("run+the+jewels").matches("Run the Jewels feat. Zack de la Rocha")).isTrue();
+        assertThat(ArtistMatcher.forTerm("run+the+jewels").matches("Run The Jewels (ft. Danger Mouse)")).isTrue();
+        assertThat(ArtistMatcher.forTerm("the+war+on+drugs").matches("War On Drugs")).isTrue();
+        assertThat(ArtistMatcher.forTerm("simon+garfunkel").matches("Simon & Garfunkel")).isTrue();
+        assertThat(ArtistMatcher.forTerm("the+the").matches("The The")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject other artists that share a word or a prefix")
+    void matches_shouldRejectOtherArtists() {
+        ArtistMatcher ghost = ArtistMatcher.forTerm("ghost");
+        assertThat(ghost.matches("Ghostface Killah")).isFalse();
+        assertThat(ghost.matches("Ghost Town DJ's")).isFalse();
+        assertThat(ArtistMatcher.forTerm("rammstein").matches("Rammstein & Richard Z. Kruspe")).isFalse();
+        assertThat(ArtistMatcher.forTerm("rammstein").matches(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject tribute, cover and duo names that add a word to a multi-word term")
+    void matches_shouldRejectExtraTokensOnMultiWordTerms() {
+        assertThat(ArtistMatcher.forTerm("viagra+boys").matches("Viagra Boys Tribute")).isFalse();
+        assertThat(ArtistMatcher.forTerm("viagra+boys").matches("Viagra Boys & Friends")).isFalse();
+        assertThat(ArtistMatcher.forTerm("run+the+jewels").matches("Run the Jewels Tribute Band")).isFalse();
+        assertThat(ArtistMatcher.forTerm("run+the+jewels").matches("Run the Jewels Covers")).isFalse();
+        assertThat(ArtistMatcher.forTerm("the+war+on+drugs").matches("The War On Drugs Experience")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject thresholds outside (0, 1]")
+    void forTerm_shouldRejectInvalidThreshold() {
+        assertThatThrownBy(() -> ArtistMatcher.forTerm("geese", 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ArtistMatcher.forTerm("geese", 1.5))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should filter the fixture with fewer allocations than per-result regex normalization")
+    void matches_shouldAllocateLessThanRegexNormalization() throws Exception {
+        // Given
+        List<String> names = new ArrayList<>();
+        try (InputStream in = getClass().getResourceAsStream("/fixtures/search-rammstein.json")) {
+            for (JsonNode result : new ObjectMapper().readTree(in).get("results")) {
+                names.add(result.get("artistName").asText());
+            }
+        }
+        ArtistMatcher matcher = ArtistMatcher.forTerm("rammstein");
+        int rounds = 1_000;
+        // warm up both paths and the name cache
+        regexMatches(names, 10);
+        matcherMatches(matcher, names, 10);
+
+        // When
+        long[] regexCount = new long[1];
+        long[] matcherCount = new long[1];
+        long regexBytes = allocatedBytes(() -> regexCount[0] = regexMatches(names, rounds));
+        long matcherBytes = allocatedBytes(() -> matcherCount[0] = matcherMatches(matcher, names, rounds));
+
+        // Then
+        assertThat(matcherCount[0]).isEqualTo(regexCount[0]).isEqualTo(17L * rounds);
+        assertThat(matcherBytes).isLessThan(regexBytes / 4);
+    }
+
+    /**
+     * Previous filter: lowercase and regex normalization of every result.
+     */
+    private static long regexMatches(List<String> names, int rounds) {
+        long matched = 0;
+        for (int r = 0; r < rounds; r++) {
+            for (String name : names) {
+                if ("rammstein".equals(name.toLowerCase().replaceAll("[+\\s]+", " ").trim())) {
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+
+    private static long matcherMatches(ArtistMatcher matcher, List<String> names, int rounds) {
+        long matched = 0;
+        for (int r = 0; r < rounds; r++) {
+            for (String name : names) {
+                if (matcher.matches(name)) {
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+
+    private static long allocatedBytes(Runnable work) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        work.run();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+}
@@ -2,6 +2,9 @@ package org.example;
 
 import org.example.entity.Artist;
 import org.example.repo.ArtistRepositoryImpl;
+import org.example.repo.LongHashSet;
+import org.example.repo.MenuEntry;
+import org.example.repo.Slice;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -25,6 +28,16 @@ public class ArtistRepoTest extends RepoTest {
         assertThat(artistExists).isTrue();
     }
 
+    @Test
+    @DisplayName("Should return only the ids of stored artists")
+    void findExistingIds_shouldReturnStoredSubset() {
+        // Given, When
+        LongHashSet existing = artistRepo.findExistingIds(List.of(1L, 3L, 2L, 4L));
+
+        // Then
+        assertThat(existing.toSortedArray()).containsExactly(1L, 2L);
+    }
+
     @Test
     @DisplayName("Should return correct count of artists in database")
     void count_shouldReturnNumberOfArtists() {
@@ -49,6 +62,20 @@ public class ArtistRepoTest extends RepoTest {
         assertThat(artists).contains(newArtist);
     }
 
+    @Test
+    @DisplayName("Should save multiple new artists at once")
+    void saveAll_shouldSaveAllArtists() {
+        // Given
+        Artist artist1 = new Artist(12L, "A Tribe Called Test", "USA");
+        Artist artist2 = new Artist(13L, "Test Rage", "Sweden");
+
+        // When
+        artistRepo.saveAll(List.of(artist1, artist2));
+
+        // Then
+        assertThat(artistRepo.findAll()).contains(artist1, artist2);
+    }
+
     @Test
     @DisplayName("Should retrieve all artists from database")
     void findAll_shouldFindAllArtists() {
@@ -71,4 +98,31 @@ public class ArtistRepoTest extends RepoTest {
         // Then
         assertThat(exists).isFalse();
     }
+
+    @Test
+    @DisplayName("Should page through artists in name order, breaking ties by id")
+    void findPage_shouldWalkArtistsInNameOrder() {
+        // Given
+        artistRepo.save(new Artist(3L, "T.E.S.T", "Testistan"));
+
+        // When
+        Slice<Artist> first = artistRepo.findPage(null, 2);
+        Slice<Artist> second = artistRepo.findPage(first.next(), 2);
+
+        // Then
+        assertThat(first.items()).extracting(Artist::getId).containsExactly(2L, 3L);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.items()).extracting(Artist::getId).containsExactly(1L);
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should list artists as id and name entries in name order")
+    void findMenuEntries_shouldListArtistsInNameOrder() {
+        // When
+        List<MenuEntry> entries = artistRepo.findMenuEntries();
+
+        // Then
+        assertThat(entries).containsExactly(new MenuEntry(2L, "T.E.S.T"), new MenuEntry(1L, "Test and Test"));
+    }
 }
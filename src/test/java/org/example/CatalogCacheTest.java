@@ -0,0 +1,130 @@
+package org.example;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.Album;
+import org.example.entity.Song;
+import org.example.repo.CatalogCache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.Caching;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the second-level cache holding the catalog.
+ */
+@DisplayName("Catalog Cache Tests")
+public class CatalogCacheTest extends RepoTest {
+
+    @Test
+    @DisplayName("Should serve repeated navigation from memory without touching the database")
+    void navigation_shouldBeServedFromCacheWhenRepeated() {
+        // Given
+        EntityManagerFactory emf = TestPersistenceManager.get();
+        List<Song> tracks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tracks.add(new Song(1_000L + i, "Track " + i, 180_000L, "", testAlbum1));
+        }
+        songRepo.saveAll(tracks);
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        emf.getCache().evictAll();
+
+        // When
+        navigate();
+        CatalogCache.Stats before = CatalogCache.stats(emf);
+        long statements = statistics.getPrepareStatementCount();
+        navigate();
+        List<Song> songs = navigate();
+
+        // Then
+        CatalogCache.Stats after = CatalogCache.stats(emf);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(after.queryHits()).isGreaterThan(before.queryHits());
+        assertThat(after.hits()).isGreaterThan(before.hits());
+        assertThat(after.queryMisses()).isEqualTo(before.queryMisses());
+        assertThat(after.queryHitRatio()).isGreaterThan(0.5);
+        assertThat(songs).hasSize(203)
+            .allMatch(s -> s.getAlbum().getArtist().getName().equals("Test and Test"));
+    }
+
+    @Test
+    @DisplayName("Should evict stale entries after native upserts and stateless inserts")
+    void nativeWrites_shouldInvalidateCachedEntries() {
+        // Given
+        EntityManagerFactory emf = TestPersistenceManager.get();
+        assertThat(songRepo.findByAlbum(testAlbum1)).hasSize(3);
+        assertThat(albumSongIds(11L)).hasSize(3);
+        assertThat(emf.getCache().contains(Song.class, 111L)).isTrue();
+
+        // When
+        songRepo.upsertAll(List.of(new Song(111L, "Test Me Tenderly", 185000L, "", testAlbum1)));
+        songRepo.saveAll(List.of(new Song(114L, "Test Test Radio", 200000L, "", testAlbum1)));
+
+        // Then
+        assertThat(songRepo.findByAlbum(testAlbum1)).extracting(Song::getName)
+            .contains("Test Me Tenderly", "Test Test Radio")
+            .doesNotContain("Test Me Tender");
+        assertThat(albumSongIds(11L)).hasSize(4);
+        String name = emf.callInTransaction(em -> em.find(Song.class, 111L).getName());
+        assertThat(name).isEqualTo("Test Me Tenderly");
+    }
+
+    @Test
+    @DisplayName("Should refresh cached albums and song lists after managed updates and deletes")
+    void managedWrites_shouldInvalidateCachedCollections() {
+        // Given
+        EntityManagerFactory emf = TestPersistenceManager.get();
+        assertThat(songRepo.findByAlbum(testAlbum2)).hasSize(2);
+        assertThat(albumSongIds(11L)).hasSize(3);
+        assertThat(albumSongIds(22L)).hasSize(2);
+
+        // When
+        songRepo.updateAll(List.of(new Song(113L, "Crazy Little Thing Called Test", 180000L, "", testAlbum2)));
+        songRepo.deleteAll(List.of(221L));
+
+        // Then
+        assertThat(songRepo.findByAlbum(testAlbum2)).extracting(Song::getId).containsExactlyInAnyOrder(113L, 222L);
+        assertThat(albumSongIds(11L)).containsExactlyInAnyOrder(111L, 112L);
+        assertThat(albumSongIds(22L)).containsExactlyInAnyOrder(113L, 222L);
+    }
+
+    @Test
+    @DisplayName("Should bound every catalog region by entry count")
+    void regions_shouldBeSizeBounded() {
+        // Given
+        songRepo.findByAlbum(testAlbum1);
+        var cacheManager = Caching.getCachingProvider("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider")
+            .getCacheManager();
+
+        // When, Then
+        for (String region : List.of("artist", "artist-albums", "album", "album-songs", "song",
+            "default-query-results-region", "default-update-timestamps-region")) {
+            Cache<Object, Object> cache = cacheManager.getCache(region);
+            assertThat(cache).as(region).isNotNull();
+            assertThat(cache.getConfiguration(CaffeineConfiguration.class).getMaximumSize()).as(region).isPresent();
+        }
+    }
+
+    /**
+     * Opens the albums of the first artist and the songs of its first album, as MyPod does.
+     */
+    private List<Song> navigate() {
+        Album album = albumRepo.findByArtist(testArtist1).getFirst();
+        return songRepo.findByAlbum(album);
+    }
+
+    /**
+     * Reads the ids in the song list of an album, which is cached with the album.
+     */
+    private List<Long> albumSongIds(long albumId) {
+        return TestPersistenceManager.get().callInTransaction(em ->
+            em.find(Album.class, albumId).getSong().stream().map(Song::getId).toList());
+    }
+}
@@ -0,0 +1,218 @@
+package org.example;
+
+import org.example.entity.Album;
+import org.example.entity.Artist;
+import org.example.entity.ArtistSync;
+import org.example.entity.CatalogVersion;
+import org.example.entity.Song;
+import org.example.ingest.CatalogSync;
+import org.example.repo.CatalogSyncRepositoryImpl;
+import org.example.repo.DeadLetterRepositoryImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for {@link CatalogSync} and the warm start of {@link DatabaseInitializer}.
+ */
+@DisplayName("Catalog Sync Tests")
+public class CatalogSyncTest extends RepoTest {
+
+    private static final List<String> TERMS = List.of("alpha", "beta");
+
+    private ItunesApiClient apiClient;
+    private CatalogSyncRepositoryImpl syncRepo;
+    private CatalogSync catalogSync;
+
+    @BeforeEach
+    void setupSync() throws Exception {
+        apiClient = mock(ItunesApiClient.class);
+        when(apiClient.searchSongs("alpha")).thenReturn(IngestPipelineTest.dtos(500L, "Alpha", 6));
+        when(apiClient.searchSongs("beta")).thenReturn(IngestPipelineTest.dtos(600L, "Beta", 4));
+        syncRepo = new CatalogSyncRepositoryImpl(TestPersistenceManager.get());
+        catalogSync = new CatalogSync(apiClient, artistRepo, albumRepo, songRepo, syncRepo,
+            new DeadLetterRepositoryImpl(TestPersistenceManager.get()));
+    }
+
+    private DatabaseInitializer initializer(URI baseUri) {
+        ItunesApiClient client = new ItunesApiClient(baseUri, null, RateLimiter.unlimited(),
+            new ItunesApiClient.Retry(1, Duration.ofMillis(5), Duration.ofMillis(20)));
+        return new DatabaseInitializer(client, songRepo, albumRepo, artistRepo, playlistRepo, syncRepo,
+            new DeadLetterRepositoryImpl(TestPersistenceManager.get()));
+    }
+
+    private static Statistics statistics() {
+        Statistics stats = TestPersistenceManager.get().unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        return stats;
+    }
+
+    /**
+     * Counts updated artist, album and song rows, ignoring sync bookkeeping.
+     */
+    private static long catalogUpdates(Statistics stats) {
+        return Stream.of(Artist.class, Album.class, Song.class)
+            .mapToLong(type -> stats.getEntityStatistics(type.getName()).getUpdateCount())
+            .sum();
+    }
+
+    @Test
+    @DisplayName("Should write every term and record the catalog version on first sync")
+    void sync_shouldWriteAllTermsOnFirstSync() {
+        // Given, When
+        CatalogSync.Result result = catalogSync.sync(TERMS, Duration.ofDays(7));
+
+        // Then
+        assertThat(result.refreshed()).containsExactlyElementsOf(TERMS);
+        assertThat(result.changed()).containsExactlyInAnyOrderElementsOf(TERMS);
+        assertThat(result.version().getVersion()).isEqualTo(1L);
+        assertThat(result.insertedSongIds()).hasSize(10);
+        assertThat(songRepo.count()).isEqualTo(5L + 10L);
+        assertThat(syncRepo.findArtistSyncs()).containsOnlyKeys(TERMS);
+        assertThat(catalogSync.isCurrent(TERMS, Duration.ofDays(7))).isTrue();
+        assertThat(catalogSync.isCurrent(List.of("alpha"), Duration.ofDays(7))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should skip all population checks on a warm start with one lookup")
+    void init_shouldSkipPopulationOnWarmStart() throws Exception {
+        // Given
+        DatabaseInitializer initializer = new DatabaseInitializer(apiClient, songRepo, albumRepo, artistRepo, playlistRepo, syncRepo,
+            new DeadLetterRepositoryImpl(TestPersistenceManager.get()));
+        initializer.init();
+        clearInvocations(apiClient);
+        Statistics stats = statistics();
+
+        // When
+        initializer.init();
+
+        // Then
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1L);
+        verify(apiClient, never()).searchSongs(anyString());
+        assertThat(playlistRepo.existsByUniqueId(1L)).isTrue();
+        assertThat(playlistRepo.existsByUniqueId(2L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should add only the songs inserted by a sync to the Library")
+    void sync_shouldAddInsertedSongsToLibraryById() throws Exception {
+        // Given
+        DatabaseInitializer initializer = new DatabaseInitializer(apiClient, songRepo, albumRepo, artistRepo, playlistRepo, syncRepo,
+            new DeadLetterRepositoryImpl(TestPersistenceManager.get()));
+        initializer.init();
+        when(apiClient.searchSongs(DatabaseInitializer.SEARCHES.getFirst())).thenReturn(IngestPipelineTest.dtos(500L, "Alpha", 6));
+        Statistics stats = statistics();
+
+        // When
+        initializer.sync(Duration.ZERO);
+
+        // Then
+        assertThat(stats.getEntityStatistics(Song.class.getName()).getLoadCount()).isZero();
+        assertThat(playlistRepo.findById(1L).getSongs()).hasSize(5 + 6);
+    }
+
+    @Test
+    @DisplayName("Should keep a stale catalog and start offline when the API is unreachable")
+    void init_shouldKeepStaleCatalogWhenApiIsUnreachable() throws Exception {
+        // Given
+        DatabaseInitializer initializer;
+        try (ItunesApiSimulator simulator = ItunesApiSimulator.start(ItunesApiSimulator.Options.defaults().withTracksPerArtist(3))) {
+            initializer = initializer(simulator.baseUri());
+            initializer.init();
+        }
+        Instant stale = Instant.now().minus(DatabaseInitializer.DEFAULT_MAX_AGE).minus(Duration.ofDays(1));
+        syncRepo.saveArtistSyncs(syncRepo.findArtistSyncs().values().stream()
+            .map(sync -> new ArtistSync(sync.getTerm(), sync.getContentHash(), sync.getTrackCount(), stale))
+            .toList());
+        CatalogVersion version = syncRepo.findCatalogVersion();
+        syncRepo.saveCatalogVersion(new CatalogVersion(version.getVersion(), version.getSeedHash(), stale));
+        long songs = songRepo.count();
+
+        // When, Then
+        assertThatCode(initializer::init).doesNotThrowAnyException();
+        assertThat(songRepo.count()).isEqualTo(songs).isGreaterThan(5L);
+        assertThat(playlistRepo.findById(1L).getSongs()).hasSize((int) songs);
+        assertThat(syncRepo.findCatalogVersion().getSyncedAt()).isBefore(Instant.now().minus(DatabaseInitializer.DEFAULT_MAX_AGE));
+    }
+
+    @Test
+    @DisplayName("Should fail the initialization when the catalog is empty and the API is unreachable")
+    void init_shouldFailWhenCatalogIsEmptyAndApiIsUnreachable() throws Exception {
+        // Given
+        songRepo.deleteAll(List.of(111L, 112L, 113L, 221L, 222L));
+        URI unreachable;
+        try (ItunesApiSimulator simulator = ItunesApiSimulator.start(ItunesApiSimulator.Options.defaults())) {
+            unreachable = simulator.baseUri();
+        }
+        DatabaseInitializer initializer = initializer(unreachable);
+
+        // When, Then
+        assertThatThrownBy(initializer::init).isInstanceOf(RuntimeException.class);
+        assertThat(playlistRepo.existsByUniqueId(1L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not write anything when stale terms are unchanged")
+    void sync_shouldSkipWritesForUnchangedContent() {
+        // Given
+        catalogSync.sync(TERMS, Duration.ofDays(7));
+        Statistics stats = statistics();
+
+        // When
+        CatalogSync.Result result = catalogSync.sync(TERMS, Duration.ZERO);
+
+        // Then
+        assertThat(result.refreshed()).containsExactlyElementsOf(TERMS);
+        assertThat(result.changed()).isEmpty();
+        assertThat(result.insertedSongIds()).isEmpty();
+        assertThat(result.version().getVersion()).isEqualTo(1L);
+        assertThat(catalogUpdates(stats)).isZero();
+        assertThat(stats.getEntityStatistics(Song.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should update only the rows that changed")
+    void sync_shouldUpdateOnlyChangedRows() throws Exception {
+        // Given
+        catalogSync.sync(TERMS, Duration.ofDays(7));
+        List<ItunesDTO> renamed = new ArrayList<>(IngestPipelineTest.dtos(500L, "Alpha", 6));
+        ItunesDTO first = renamed.getFirst();
+        renamed.set(0, new ItunesDTO(first.artistId(), first.collectionId(), first.trackId(), "Track 0 (Remastered)",
+            first.artistName(), first.collectionName(), first.country(), first.primaryGenreName(), first.releaseDate(),
+            first.trackCount(), first.trackTimeMillis(), first.artworkUrl100(), first.previewUrl()));
+        when(apiClient.searchSongs("alpha")).thenReturn(renamed);
+        Statistics stats = statistics();
+
+        // When
+        CatalogSync.Result result = catalogSync.sync(TERMS, Duration.ZERO);
+
+        // Then
+        assertThat(result.changed()).containsExactly("alpha");
+        assertThat(result.version().getVersion()).isEqualTo(2L);
+        assertThat(catalogUpdates(stats)).isEqualTo(1L);
+        assertThat(stats.getEntityStatistics(Song.class.getName()).getUpdateCount()).isEqualTo(1L);
+        assertThat(songRepo.findAll())
+            .filteredOn(s -> s.getId().equals(first.trackId()))
+            .extracting(Song::getName)
+            .containsExactly("Track 0 (Remastered)");
+    }
+}
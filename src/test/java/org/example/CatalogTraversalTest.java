@@ -0,0 +1,128 @@
+package org.example;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.Song;
+import org.example.repo.SongRepositoryImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for whole-catalog traversals with {@link SongRepositoryImpl#streamAll()}.
+ *
+ * <p>The traversal runs in a separate JVM with a small fixed heap, so the
+ * test fails with an {@link OutOfMemoryError} if the stream holds on to
+ * the rows it has passed. It takes about a minute and is tagged
+ * {@code benchmark}, so it is skipped by a plain {@code mvn test}.</p>
+ */
+@Tag("benchmark")
+@DisplayName("Catalog Traversal Tests")
+public class CatalogTraversalTest {
+
+    private static final int SONGS = 1_000_000;
+    private static final String HEAP = "-Xmx64m";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should stream a million-song catalog within a 64 MB heap")
+    void streamAll_shouldTraverseMillionSongsInConstantMemory() throws Exception {
+        // Given
+        String url = "jdbc:h2:file:" + dir.resolve("catalog").toAbsolutePath();
+        try (EntityManagerFactory emf = factory(url, "create")) {
+            emf.runInTransaction(em -> {
+                em.createNativeQuery("insert into artist (artist_id, name, country) values (1, 'Synthetic Artist', 'Testistan')")
+                    .executeUpdate();
+                em.createNativeQuery("""
+                        insert into album (album_id, name, genre, release_year, trackCount, artist_id)
+                        select x, 'Album ' || x, 'Test Rock', 2000, 1000, 1 from system_range(1, 1000)
+                        """)
+                    .executeUpdate();
+                em.createNativeQuery("""
+                        insert into song (song_id, title, length, previewUrl, album_id)
+                        select x, 'Track ' || x, 180000, 'https://example.com/' || x, mod(x, 1000) + 1
+                        from system_range(1, %d)
+                        """.formatted(SONGS))
+                    .executeUpdate();
+            });
+        }
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        Path log = dir.resolve("traversal.log");
+        Process traversal = new ProcessBuilder(java, HEAP, "-cp", classPath, Traversal.class.getName(), url)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+
+        // When
+        boolean finished = traversal.waitFor(5, TimeUnit.MINUTES);
+        if (!finished) {
+            traversal.destroyForcibly().waitFor();
+        }
+
+        // Then
+        String output = Files.readString(log);
+        String result = output.lines().filter(l -> l.startsWith("traversal:")).findFirst().orElse(output);
+        assertThat(finished).as(result).isTrue();
+        assertThat(traversal.exitValue()).as(result).isZero();
+        assertThat(result).contains("songs=" + SONGS, "albums=1000");
+    }
+
+    /**
+     * Entry point of the child JVM: streams every song and reports the
+     * count, the number of distinct albums seen with their artist and the
+     * peak heap usage.
+     */
+    public static final class Traversal {
+
+        public static void main(String[] args) {
+            long start = System.nanoTime();
+            try (EntityManagerFactory emf = factory(args[0], "none");
+                 Stream<Song> songs = new SongRepositoryImpl(emf).streamAll()) {
+                long[] totals = new long[2];
+                boolean[] albums = new boolean[1001];
+                songs.forEach(song -> {
+                    totals[0]++;
+                    totals[1] += song.getLength();
+                    if (song.getAlbum().getArtist() != null) {
+                        albums[song.getAlbum().getId().intValue()] = true;
+                    }
+                });
+                int albumCount = 0;
+                for (boolean seen : albums) {
+                    albumCount += seen ? 1 : 0;
+                }
+                long peak = 0;
+                for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                    if (pool.getType() == MemoryType.HEAP) {
+                        peak += pool.getPeakUsage().getUsed();
+                    }
+                }
+                System.out.printf("traversal: songs=%d albums=%d in %d ms, peak heap %d MB of %d MB%n",
+                    totals[0], albumCount, (System.nanoTime() - start) / 1_000_000,
+                    peak >> 20, Runtime.getRuntime().maxMemory() >> 20);
+            }
+        }
+    }
+
+    private static EntityManagerFactory factory(String url, String schema) {
+        return EntityManagerFactoryProvider.create(url, "sa", "", Map.of(
+            "hibernate.hbm2ddl.auto", schema,
+            "hibernate.show_sql", "false",
+            "hibernate.cache.use_second_level_cache", "false"
+        ));
+    }
+}
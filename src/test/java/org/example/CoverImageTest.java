@@ -0,0 +1,129 @@
+package org.example;
+
+import org.example.ingest.CoverImage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CoverImage}.
+ */
+@DisplayName("Cover Image Tests")
+public class CoverImageTest {
+
+    /**
+     * Encodes a noisy test image, so JPEG compression has real work to do.
+     */
+    static byte[] image(String format, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8 | random.nextInt(64));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(ImageIO.write(image, format, out)).as("writer for %s", format).isTrue();
+        return out.toByteArray();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"jpg", "png", "gif", "bmp"})
+    @DisplayName("Should read format and dimensions from the header")
+    void sniff_shouldReadFormatAndDimensions(String format) throws IOException {
+        // Given
+        byte[] bytes = image(format, 120, 80);
+
+        // When
+        CoverImage.Header header = CoverImage.sniff(bytes);
+
+        // Then
+        assertThat(header).isNotNull();
+        assertThat(header.format().name()).startsWith(format.toUpperCase(Locale.ROOT).substring(0, 2));
+        assertThat(header.width()).isEqualTo(120);
+        assertThat(header.height()).isEqualTo(80);
+    }
+
+    @Test
+    @DisplayName("Should store displayable images verbatim")
+    void toStorable_shouldPassThroughJpeg() throws IOException {
+        // Given
+        byte[] jpeg = image("jpg", 100, 100);
+
+        // When
+        byte[] stored = CoverImage.toStorable(jpeg);
+
+        // Then
+        assertThat(stored).isSameAs(jpeg);
+    }
+
+    @Test
+    @DisplayName("Should transcode formats the UI cannot display to JPEG")
+    void toStorable_shouldTranscodeOtherFormats() throws IOException {
+        // Given
+        byte[] tiff = image("tiff", 100, 100);
+
+        // When
+        byte[] stored = CoverImage.toStorable(tiff);
+
+        // Then
+        assertThat(CoverImage.sniff(stored)).isEqualTo(new CoverImage.Header(CoverImage.Format.JPEG, 100, 100));
+        assertThat(ImageIO.read(new ByteArrayInputStream(stored)).getWidth()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should reject data that is not an image")
+    void toStorable_shouldRejectGarbage() throws IOException {
+        // Given
+        byte[] truncated = Arrays.copyOf(image("jpg", 100, 100), 12);
+        byte[] html = "<html>Not found</html>".getBytes();
+
+        // When, Then
+        assertThat(CoverImage.toStorable(truncated)).isNull();
+        assertThat(CoverImage.toStorable(html)).isNull();
+        assertThat(CoverImage.toStorable(new byte[0])).isNull();
+    }
+
+    @Test
+    @DisplayName("Should spend less CPU per cover than decoding and re-encoding")
+    void toStorable_shouldUseLessCpuThanTranscoding() throws IOException {
+        // Given
+        byte[] cover = image("jpg", 600, 600); // iTunes serves up to 600x600 artwork
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int rounds = 30;
+        for (int i = 0; i < 5; i++) { // warm-up
+            CoverImage.transcode(cover);
+            CoverImage.toStorable(cover);
+        }
+
+        // When
+        long t0 = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < rounds; i++) {
+            CoverImage.transcode(cover);
+        }
+        long transcodeNanos = (threads.getCurrentThreadCpuTime() - t0) / rounds;
+
+        t0 = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < rounds; i++) {
+            CoverImage.toStorable(cover);
+        }
+        long passThroughNanos = (threads.getCurrentThreadCpuTime() - t0) / rounds;
+
+        // Then
+        assertThat(passThroughNanos).isLessThan(transcodeNanos / 10);
+    }
+}
@@ -0,0 +1,185 @@
+package org.example;
+
+import org.example.entity.CrawlCheckpoint;
+import org.example.entity.DeadLetter;
+import org.example.entity.Playlist;
+import org.example.entity.Song;
+import org.example.ingest.AlbumCoverFetcher;
+import org.example.ingest.DiscographyCrawler;
+import org.example.repo.CrawlCheckpointRepositoryImpl;
+import org.example.repo.DeadLetterRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for {@link DiscographyCrawler}.
+ */
+@DisplayName("Discography Crawler Tests")
+public class DiscographyCrawlerTest extends RepoTest {
+
+    private static final List<ItunesDTO> DISCOGRAPHY = IngestPipelineTest.dtos(700L, "Delta", 10);
+
+    private ItunesApiClient apiClient;
+    private CrawlCheckpointRepositoryImpl checkpointRepo;
+    private DeadLetterRepositoryImpl deadLetters;
+    private DiscographyCrawler crawler;
+
+    @BeforeEach
+    void setupCrawler() {
+        apiClient = mock(ItunesApiClient.class);
+        checkpointRepo = new CrawlCheckpointRepositoryImpl(TestPersistenceManager.get());
+        deadLetters = new DeadLetterRepositoryImpl(TestPersistenceManager.get());
+        crawler = new DiscographyCrawler(apiClient, artistRepo, albumRepo, songRepo, playlistRepo, checkpointRepo,
+            deadLetters, new AlbumCoverFetcher(), new DiscographyCrawler.Options(4, 2));
+    }
+
+    /**
+     * Answers page requests for "delta" from {@link #DISCOGRAPHY}, failing
+     * the page at {@code failAt} while {@code failing} is set.
+     */
+    private void servePages(int failAt, AtomicBoolean failing) {
+        when(apiClient.searchPageAsync(eq("delta"), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int offset = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            if (offset == failAt && failing.get()) {
+                return CompletableFuture.failedFuture(new UncheckedIOException(new IOException("connection reset")));
+            }
+            List<ItunesDTO> songs = DISCOGRAPHY.subList(Math.min(offset, DISCOGRAPHY.size()),
+                Math.min(offset + limit, DISCOGRAPHY.size()));
+            return CompletableFuture.completedFuture(new ItunesApiClient.SearchPage(songs, songs.size(), offset, limit));
+        });
+    }
+
+    @Test
+    @DisplayName("Should page through the search until a short page is returned")
+    void crawl_shouldFetchEveryPage() {
+        // Given
+        servePages(-1, new AtomicBoolean());
+
+        // When
+        DiscographyCrawler.Result result = crawler.crawl(List.of("delta"));
+
+        // Then
+        assertThat(result.pages()).isEqualTo(3);
+        assertThat(result.tracks()).isEqualTo(10);
+        assertThat(result.completed()).containsExactly("delta");
+        assertThat(songRepo.count()).isEqualTo(5L + 10L);
+        assertThat(albumRepo.count()).isEqualTo(2L + 2L);
+        CrawlCheckpoint checkpoint = checkpointRepo.findByTerm("delta");
+        assertThat(checkpoint.isComplete()).isTrue();
+        assertThat(checkpoint.getNextOffset()).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("Should resume an interrupted crawl from its checkpoint")
+    void crawl_shouldResumeFromCheckpoint() {
+        // Given
+        AtomicBoolean failing = new AtomicBoolean(true);
+        servePages(8, failing);
+
+        // When
+        assertThatThrownBy(() -> crawler.crawl(List.of("delta")))
+            .hasMessageContaining("delta")
+            .hasRootCauseInstanceOf(IOException.class);
+        CrawlCheckpoint interrupted = checkpointRepo.findByTerm("delta");
+        long songsAfterFailure = songRepo.count();
+
+        failing.set(false);
+        clearInvocations(apiClient);
+        DiscographyCrawler.Result resumed = crawler.crawl(List.of("delta"));
+
+        // Then
+        assertThat(interrupted.getNextOffset()).isEqualTo(8);
+        assertThat(interrupted.isComplete()).isFalse();
+        assertThat(songsAfterFailure).isEqualTo(5L + 8L);
+        verify(apiClient, never()).searchPageAsync("delta", 0, 4);
+        verify(apiClient, never()).searchPageAsync("delta", 4, 4);
+        assertThat(resumed.pages()).isEqualTo(1);
+        assertThat(resumed.tracks()).isEqualTo(2);
+        assertThat(songRepo.count()).isEqualTo(5L + 10L);
+    }
+
+    @Test
+    @DisplayName("Should add crawled songs to the Library, also when the crawl fails part way")
+    void crawl_shouldAddInsertedSongsToLibrary() {
+        // Given
+        Playlist library = playlistRepo.createPlaylist("Library");
+        playlistRepo.addSongs(library, List.of(testSong1));
+        AtomicBoolean failing = new AtomicBoolean(true);
+        servePages(8, failing);
+
+        // When
+        assertThatThrownBy(() -> crawler.crawl(List.of("delta"))).hasMessageContaining("delta");
+        int afterFailure = playlistRepo.findById(library.getId()).getSongs().size();
+        failing.set(false);
+        crawler.crawl(List.of("delta"));
+
+        // Then
+        assertThat(library.getId()).isEqualTo(1L);
+        assertThat(afterFailure).isEqualTo(1 + 8);
+        assertThat(playlistRepo.findById(library.getId()).getSongs())
+            .extracting(Song::getId)
+            .containsExactlyInAnyOrderElementsOf(Stream.concat(Stream.of(testSong1.getId()),
+                DISCOGRAPHY.stream().map(ItunesDTO::trackId)).toList());
+    }
+
+    @Test
+    @DisplayName("Should store invalid tracks as dead letters and write the valid ones")
+    void crawl_shouldDeadLetterInvalidTracks() {
+        // Given
+        ItunesDTO valid = DISCOGRAPHY.getFirst();
+        ItunesDTO broken = new ItunesDTO(700L, null, 7_999_999L, "Orphan", "Delta", null, "SE", "Rock",
+            LocalDate.of(2001, 1, 1), 10L, 180_000L, null, "");
+        when(apiClient.searchPageAsync(eq("delta"), anyInt(), anyInt())).thenReturn(
+            CompletableFuture.completedFuture(new ItunesApiClient.SearchPage(List.of(valid, broken), 2, 0, 4)));
+
+        // When
+        DiscographyCrawler.Result result = crawler.crawl(List.of("delta"));
+
+        // Then
+        assertThat(result.completed()).containsExactly("delta");
+        assertThat(songRepo.findExistingIds(List.of(valid.trackId())).contains(valid.trackId())).isTrue();
+        assertThat(deadLetters.findAll()).singleElement().satisfies(letter -> {
+            assertThat(letter.getTerm()).isEqualTo("delta");
+            assertThat(letter.getRecordId()).isEqualTo(7_999_999L);
+            assertThat(letter.getStage()).isEqualTo(DeadLetter.Stage.TRANSFORM);
+        });
+    }
+
+    @Test
+    @DisplayName("Should skip terms whose crawl has completed")
+    void crawl_shouldSkipCompletedTerms() {
+        // Given
+        servePages(-1, new AtomicBoolean());
+        crawler.crawl(List.of("delta"));
+        clearInvocations(apiClient);
+
+        // When
+        DiscographyCrawler.Result result = crawler.crawl(List.of("delta"));
+
+        // Then
+        verify(apiClient, never()).searchPageAsync(anyString(), anyInt(), anyInt());
+        assertThat(result.pages()).isZero();
+        assertThat(result.completed()).containsExactly("delta");
+    }
+}
@@ -0,0 +1,222 @@
+package org.example;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import org.example.entity.Album;
+import org.example.entity.AlbumCover;
+import org.example.entity.Artist;
+import org.example.entity.Playlist;
+import org.example.entity.Song;
+import org.hibernate.annotations.Mutability;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.jpa.HibernatePersistenceConfiguration;
+import org.hibernate.type.descriptor.java.Immutability;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the build-time bytecode enhancement of the entities.
+ */
+@DisplayName("Entity Enhancement Tests")
+public class EntityEnhancementTest extends RepoTest {
+
+    /**
+     * Copy of the columns of {@link Song} in a class that is not enhanced,
+     * so Hibernate has to compare every attribute with its snapshot on flush.
+     */
+    @Entity(name = "UnenhancedSong")
+    static class UnenhancedSong {
+        @Id
+        Long id;
+        String name;
+        Long length;
+        String previewUrl;
+        @ManyToOne
+        @JoinColumn(name = "album_id")
+        Album album;
+
+        protected UnenhancedSong() {
+        }
+
+        UnenhancedSong(Long id, String name, Long length, String previewUrl, Album album) {
+            this.id = id;
+            this.name = name;
+            this.length = length;
+            this.previewUrl = previewUrl;
+            this.album = album;
+        }
+    }
+
+    /**
+     * Copy of the mapping of {@link AlbumCover} in a class that is not
+     * enhanced, so Hibernate has to compare every attribute with its
+     * snapshot on flush.
+     */
+    @Entity(name = "UnenhancedCover")
+    static class UnenhancedCover {
+        @Id
+        Long albumId;
+        @MapsId
+        @OneToOne(fetch = FetchType.LAZY, optional = false)
+        @JoinColumn(name = "album_id")
+        Album album;
+        @Lob
+        @Mutability(Immutability.class)
+        @Column(nullable = false)
+        byte[] image;
+
+        protected UnenhancedCover() {
+        }
+
+        UnenhancedCover(Album album, byte[] image) {
+            this.album = album;
+            this.image = image;
+        }
+    }
+
+    @Test
+    @DisplayName("Should enhance the entities for dirty tracking and lazy loading")
+    void entities_shouldBeEnhanced() {
+        // Given, When, Then
+        for (Class<?> entity : List.of(Album.class, AlbumCover.class, Artist.class, Playlist.class, Song.class)) {
+            assertThat(entity)
+                .isAssignableTo(ManagedEntity.class)
+                .isAssignableTo(SelfDirtinessTracker.class)
+                .isAssignableTo(PersistentAttributeInterceptable.class);
+        }
+        assertThat(SelfDirtinessTracker.class.isAssignableFrom(UnenhancedSong.class)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should record changed attributes as they are set")
+    void setters_shouldTrackDirtyAttributes() {
+        // Given
+        Song song = songRepo.findAll().getFirst();
+
+        // When
+        song.setName("Renamed");
+        song.setLength(1L);
+
+        // Then
+        assertThat(((SelfDirtinessTracker) song).$$_hibernate_getDirtyAttributes())
+            .containsExactlyInAnyOrder("name", "length");
+    }
+
+    @Test
+    @DisplayName("Should keep both sides of the album association in sync")
+    void constructor_shouldManageAlbumAssociation() {
+        // Given
+        Album album = new Album(33L, "New Album", "Test Rock", 2000, 1L, testArtist1);
+
+        // When
+        Song song = new Song(331L, "New Song", 1000L, "", album);
+
+        // Then
+        assertThat(album.getSong()).containsExactly(song);
+    }
+
+    /**
+     * Compares flushes of enhanced entities with unenhanced copies of the
+     * same mappings. Wall-clock timings are not reliable on a loaded
+     * machine, so the test is tagged {@code benchmark} and skipped by a
+     * plain {@code mvn test}.
+     */
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Should flush enhanced entities no slower than unenhanced copies of the same mappings")
+    void flush_shouldNotBeSlowerForEnhancedEntities() {
+        // Given
+        int count = 2_000;
+        byte[] image = new byte[32 * 1024];
+        try (EntityManagerFactory emf = benchmarkFactory()) {
+            emf.runInTransaction(em -> {
+                Artist artist = new Artist(1L, "Artist", "Testistan");
+                em.persist(artist);
+                for (int i = 0; i < count; i++) {
+                    Album album = new Album((long) i, "Album " + i, "Test Rock", 2000, 1L, artist);
+                    em.persist(album);
+                    em.persist(new AlbumCover(album, image.clone()));
+                    em.persist(new UnenhancedCover(album, image.clone()));
+                    em.persist(new Song((long) i, "Song " + i, 180_000L + i, "https://example.com/" + i, album));
+                    em.persist(new UnenhancedSong((long) i, "Song " + i, 180_000L + i, "https://example.com/" + i, album));
+                }
+            });
+
+            // When
+            long unenhancedSongs = bestFlushNanos(emf, UnenhancedSong.class, (s, r) -> s.name = "Renamed " + r);
+            long enhancedSongs = bestFlushNanos(emf, Song.class, (s, r) -> s.setName("Renamed " + r));
+            long unenhancedCovers = bestFlushNanos(emf, UnenhancedCover.class, (c, r) -> c.image = new byte[]{r.byteValue()});
+            long enhancedCovers = bestFlushNanos(emf, AlbumCover.class, (c, r) -> c.setImage(new byte[]{r.byteValue()}));
+
+            // Then
+            assertThat(enhancedSongs).isLessThan(unenhancedSongs * 3 / 2);
+            assertThat(enhancedCovers).isLessThan(unenhancedCovers * 3 / 2);
+        }
+    }
+
+    /**
+     * Returns the lowest of several median flush times, the first of which
+     * warms up the path.
+     */
+    private static <T> long bestFlushNanos(EntityManagerFactory emf, Class<T> type, BiConsumer<T, Integer> change) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            best = Math.min(best, medianFlushNanos(emf, type, change));
+        }
+        return best;
+    }
+
+    /**
+     * Loads every row of {@code type} into one persistence context, then
+     * repeatedly changes one entity and times the flush.
+     */
+    private static <T> long medianFlushNanos(EntityManagerFactory emf, Class<T> type, BiConsumer<T, Integer> change) {
+        int rounds = 21;
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            List<T> managed = em.createQuery("select s from " + type.getSimpleName() + " s", type).getResultList();
+            long[] nanos = new long[rounds];
+            for (int r = 0; r < rounds; r++) {
+                change.accept(managed.get(r), r);
+                long t0 = System.nanoTime();
+                em.flush();
+                nanos[r] = System.nanoTime() - t0;
+            }
+            em.getTransaction().rollback();
+            Arrays.sort(nanos);
+            return nanos[rounds / 2];
+        }
+    }
+
+    private static EntityManagerFactory benchmarkFactory() {
+        List<Class<?>> entities = List.of(Album.class, AlbumCover.class, Artist.class, Playlist.class, Song.class,
+            UnenhancedSong.class, UnenhancedCover.class);
+        return new HibernatePersistenceConfiguration("flush-benchmark")
+            .jdbcUrl("jdbc:h2:mem:flushbench;DB_CLOSE_DELAY=-1")
+            .jdbcUsername("sa")
+            .jdbcPassword("")
+            .managedClasses(entities)
+            .property("hibernate.hbm2ddl.auto", "create-drop")
+            .property("hibernate.jdbc.batch_size", "50")
+            .property("hibernate.cache.use_second_level_cache", "false")
+            .createEntityManagerFactory();
+    }
+}
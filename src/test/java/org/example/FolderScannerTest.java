@@ -0,0 +1,180 @@
+package org.example;
+
+import org.example.entity.Playlist;
+import org.example.entity.Song;
+import org.example.ingest.AudioTags;
+import org.example.ingest.FolderScanner;
+import org.example.repo.LocalFileRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link FolderScanner} and {@link AudioTags}.
+ */
+@DisplayName("Folder Scanner Tests")
+public class FolderScannerTest extends RepoTest {
+
+    @TempDir
+    Path music;
+
+    private FolderScanner scanner;
+
+    @BeforeEach
+    void setupScanner() {
+        scanner = new FolderScanner(artistRepo, albumRepo, songRepo, new LocalFileRepositoryImpl(TestPersistenceManager.get()),
+            new FolderScanner.Options(4, 2, Duration.ofMillis(100)));
+    }
+
+    /**
+     * Creates an MP3 file with an ID3v2.3 tag holding the given UTF-16 text frames.
+     */
+    private static Path mp3(Path file, Map<String, String> frames) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (Map.Entry<String, String> frame : frames.entrySet()) {
+            byte[] text = frame.getValue().getBytes(StandardCharsets.UTF_16);
+            int size = text.length + 1;
+            body.writeBytes(frame.getKey().getBytes(StandardCharsets.ISO_8859_1));
+            body.writeBytes(new byte[]{(byte) (size >>> 24), (byte) (size >>> 16), (byte) (size >>> 8), (byte) size, 0, 0});
+            body.write(1);
+            body.writeBytes(text);
+        }
+        int size = body.size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{'I', 'D', '3', 3, 0, 0,
+            (byte) ((size >>> 21) & 0x7F), (byte) ((size >>> 14) & 0x7F), (byte) ((size >>> 7) & 0x7F), (byte) (size & 0x7F)});
+        body.writeTo(out);
+        out.writeBytes(new byte[512]);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, out.toByteArray());
+    }
+
+    private static Map<String, String> tags(String artist, String album, String title, String track) {
+        Map<String, String> frames = new LinkedHashMap<>();
+        frames.put("TPE1", artist);
+        frames.put("TALB", album);
+        frames.put("TIT2", title);
+        frames.put("TRCK", track);
+        frames.put("TYER", "2003");
+        return frames;
+    }
+
+    private List<Song> localSongs() {
+        return songRepo.findAll().stream().filter(s -> s.getId() < 0).toList();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    @DisplayName("Should read ID3v2 frames and fall back to the path for missing values")
+    void read_shouldCombineTagsAndPath() throws Exception {
+        // Given
+        Path tagged = mp3(music.resolve("x/y/file.mp3"), tags("Sigur Rós", "Takk...", "Glósóli", "2/11"));
+        Path untagged = Files.createDirectories(music.resolve("Thrice/Vheissu")).resolve("03 - Image of the Invisible.m4a");
+        Files.write(untagged, new byte[64]);
+
+        // When
+        AudioTags fromTags = AudioTags.read(tagged);
+        AudioTags fromPath = AudioTags.read(untagged);
+
+        // Then
+        assertThat(fromTags).isEqualTo(new AudioTags("Sigur Rós", "Takk...", "Glósóli", 2, 11, 2003, null, null));
+        assertThat(fromPath).isEqualTo(new AudioTags("Thrice", "Vheissu", "Image of the Invisible", 3, null, null, null, null));
+    }
+
+    @Test
+    @DisplayName("Should import every audio file below the folder with negative ids")
+    void scan_shouldImportAudioFiles() throws Exception {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            mp3(music.resolve("Artist/Album/0" + i + ".mp3"), tags("Local Artist", "Local Album", "Song " + i, i + "/5"));
+        }
+        mp3(music.resolve("Other/Demo/01.mp3"), tags("Other Artist", "Demo", "Intro", "1"));
+        Files.writeString(music.resolve("Artist/Album/cover.txt"), "not audio");
+
+        // When
+        FolderScanner.Result result = scanner.scan(music);
+
+        // Then
+        assertThat(result).usingRecursiveComparison().ignoringFields("songIds").isEqualTo(new FolderScanner.Result(6, 6, 0, 0, List.of()));
+        assertThat(result.songIds()).containsExactlyInAnyOrderElementsOf(localSongs().stream().map(Song::getId).toList());
+        assertThat(localSongs()).hasSize(6)
+            .allMatch(s -> s.getPreviewUrl().startsWith("file:"))
+            .extracting(Song::getName).contains("Song 1", "Intro");
+        assertThat(albumRepo.findAll()).filteredOn(a -> a.getId() < 0).hasSize(2);
+        assertThat(artistRepo.findAll()).filteredOn(a -> a.getId() < 0).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should only re-read changed files and apply moves and deletes on rescan")
+    void scan_shouldApplyChangesIncrementally() throws Exception {
+        // Given
+        Path kept = mp3(music.resolve("A/B/01.mp3"), tags("A", "B", "Kept", "1"));
+        Path moved = mp3(music.resolve("A/B/02.mp3"), tags("A", "B", "Moved", "2"));
+        Path deleted = mp3(music.resolve("A/B/03.mp3"), tags("A", "B", "Deleted", "3"));
+        Path retagged = mp3(music.resolve("A/B/04.mp3"), tags("A", "B", "Old Title", "4"));
+        scanner.scan(music);
+        Song movedSong = localSongs().stream().filter(s -> s.getName().equals("Moved")).findFirst().orElseThrow();
+        Playlist favorites = playlistRepo.createPlaylist("Favorites");
+        playlistRepo.addSong(favorites, movedSong);
+
+        // When
+        FolderScanner.Result unchanged = scanner.scan(music);
+        Files.move(moved, Files.createDirectories(music.resolve("Sorted")).resolve("moved.mp3"));
+        Files.delete(deleted);
+        mp3(retagged, tags("A", "B", "New Title", "4"));
+        Files.setLastModifiedTime(retagged, FileTime.fromMillis(Files.getLastModifiedTime(kept).toMillis() + 5_000));
+        FolderScanner.Result rescan = scanner.scan(music);
+
+        // Then
+        assertThat(unchanged).isEqualTo(new FolderScanner.Result(4, 0, 0, 0, List.of()));
+        assertThat(rescan).usingRecursiveComparison().ignoringFields("songIds").isEqualTo(new FolderScanner.Result(3, 2, 2, 0, List.of()));
+        assertThat(rescan.songIds()).containsExactlyInAnyOrder(movedSong.getId(),
+            localSongs().stream().filter(s -> s.getName().equals("New Title")).findFirst().orElseThrow().getId());
+        assertThat(localSongs()).extracting(Song::getName).containsExactlyInAnyOrder("Kept", "Moved", "New Title");
+        assertThat(localSongs()).filteredOn(s -> s.getName().equals("Moved"))
+            .singleElement()
+            .matches(s -> s.getId().equals(movedSong.getId()) && s.getPreviewUrl().endsWith("/Sorted/moved.mp3"));
+        assertThat(playlistRepo.findById(favorites.getId()).getSongs()).extracting(Song::getId).contains(movedSong.getId());
+    }
+
+    @Test
+    @DisplayName("Should apply added and deleted files while watching the folder")
+    void watch_shouldApplyAddsAndDeletes() throws Exception {
+        // Given
+        mp3(music.resolve("A/B/01.mp3"), tags("A", "B", "First", "1"));
+        scanner.scan(music);
+
+        // When, Then
+        try (FolderScanner.Watch ignored = scanner.watch(music, result -> {
+        })) {
+            mp3(music.resolve("A/C/01.mp3"), tags("A", "C", "Added", "1"));
+            await(() -> localSongs().size() == 2);
+
+            Files.delete(music.resolve("A/B/01.mp3"));
+            await(() -> localSongs().size() == 1);
+        }
+        assertThat(localSongs()).extracting(Song::getName).containsExactly("Added");
+    }
+}
@@ -0,0 +1,265 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import org.example.entity.DeadLetter;
+import org.example.ingest.AlbumCoverFetcher;
+import org.example.ingest.IngestPipeline;
+import org.example.ingest.IngestStats;
+import org.example.repo.DeadLetterRepositoryImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for {@link IngestPipeline}.
+ */
+@DisplayName("Ingest Pipeline Tests")
+public class IngestPipelineTest extends RepoTest {
+
+    /**
+     * Creates {@code tracks} DTOs spread over two albums by the given artist.
+     */
+    static List<ItunesDTO> dtos(long artistId, String artistName, int tracks) {
+        return dtos(artistId, artistName, tracks, null);
+    }
+
+    /**
+     * Creates {@code tracks} DTOs spread over two albums, all pointing to the given artwork.
+     */
+    static List<ItunesDTO> dtos(long artistId, String artistName, int tracks, URL artwork) {
+        List<ItunesDTO> result = new ArrayList<>();
+        for (int i = 0; i < tracks; i++) {
+            long albumId = artistId * 100 + i % 2;
+            result.add(new ItunesDTO(artistId, albumId, artistId * 10_000 + i, "Track " + i, artistName,
+                "Album " + albumId, "SE", "Rock", LocalDate.of(2001, 1, 1), 10L, 180_000L, artwork, ""));
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("Should persist every artist, album and song from all search terms")
+    void run_shouldPersistAllSearchTerms() throws Exception {
+        // Given
+        ItunesApiClient apiClient = mock(ItunesApiClient.class);
+        when(apiClient.searchSongs("alpha")).thenReturn(dtos(500L, "Alpha", 12));
+        when(apiClient.searchSongs("beta")).thenReturn(dtos(600L, "Beta", 7));
+        when(apiClient.searchSongs("gamma")).thenReturn(List.of());
+
+        // When
+        IngestStats stats = new IngestPipeline(apiClient, artistRepo, albumRepo, songRepo,
+            new IngestPipeline.Options(2, 1, 5)).run(List.of("alpha", "beta", "gamma"));
+
+        // Then
+        assertThat(songRepo.count()).isEqualTo(5L + 19L);
+        assertThat(albumRepo.count()).isEqualTo(2L + 4L);
+        assertThat(artistRepo.count()).isEqualTo(2L + 2L);
+        assertThat(stats.fetch().getItems()).isEqualTo(19L);
+        assertThat(stats.write().getItems()).isEqualTo(19L);
+    }
+
+    @Test
+    @DisplayName("Should attach each album cover once after the album is written")
+    void run_shouldAttachCoversOncePerAlbum() throws Exception {
+        // Given
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB), "png", png);
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, png.size());
+            try (var out = exchange.getResponseBody()) {
+                out.write(png.toByteArray());
+            }
+        });
+        server.start();
+        URL artwork = URI.create("http://localhost:" + server.getAddress().getPort() + "/cover.png").toURL();
+
+        ItunesApiClient apiClient = mock(ItunesApiClient.class);
+        when(apiClient.searchSongs("alpha")).thenReturn(dtos(500L, "Alpha", 12, artwork));
+
+        // When
+        IngestStats stats;
+        try {
+            stats = new IngestPipeline(apiClient, artistRepo, albumRepo, songRepo,
+                new AlbumCoverFetcher(2, Duration.ofSeconds(5)), IngestPipeline.Options.defaults()).run(List.of("alpha"));
+        } finally {
+            server.stop(0);
+        }
+
+        // Then
+        assertThat(requests).hasValue(2);
+        assertThat(stats.cover().getItems()).isEqualTo(2L);
+        assertThat(albumRepo.findAll())
+            .filteredOn(a -> a.getId() == 50_000L || a.getId() == 50_001L)
+            .hasSize(2)
+            .allMatch(a -> albumRepo.findCover(a.getId()) != null && albumRepo.findCover(a.getId()).length > 0);
+    }
+
+    @Test
+    @DisplayName("Should let two ingesters load overlapping artists at the same time")
+    void run_shouldAllowConcurrentIngestersWithOverlappingArtists() throws Exception {
+        // Given
+        // Both ingesters receive the shared artists at the same moment, so both
+        // see them as missing before either has written them
+        CyclicBarrier together = new CyclicBarrier(2);
+        ItunesApiClient apiClient = mock(ItunesApiClient.class);
+        for (long artist = 1; artist <= 6; artist++) {
+            List<ItunesDTO> result = dtos(700L + artist, "Artist " + artist, 40);
+            boolean shared = artist == 3 || artist == 4;
+            when(apiClient.searchSongs("artist" + artist)).thenAnswer(inv -> {
+                if (shared) {
+                    together.await(5, TimeUnit.SECONDS);
+                }
+                return result;
+            });
+        }
+        List<String> first = List.of("artist3", "artist1", "artist2", "artist4");
+        List<String> second = List.of("artist3", "artist5", "artist6", "artist4");
+        IngestPipeline.Options options = new IngestPipeline.Options(1, 2, 10);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        try (ExecutorService ingesters = Executors.newFixedThreadPool(2)) {
+            Future<IngestStats> a = ingesters.submit(() -> {
+                start.await();
+                return new IngestPipeline(apiClient, artistRepo, albumRepo, songRepo, options).run(first);
+            });
+            Future<IngestStats> b = ingesters.submit(() -> {
+                start.await();
+                return new IngestPipeline(apiClient, artistRepo, albumRepo, songRepo, options).run(second);
+            });
+            start.countDown();
+            a.get();
+            b.get();
+        }
+
+        // Then
+        assertThat(artistRepo.count()).isEqualTo(2L + 6L);
+        assertThat(albumRepo.count()).isEqualTo(2L + 12L);
+        assertThat(songRepo.count()).isEqualTo(5L + 6L * 40L);
+    }
+
+    @Test
+    @DisplayName("Should keep ingesting other terms and report failures at the end")
+    void run_shouldReportFailedTermsAfterOthersComplete() throws Exception {
+        // Given
+        ItunesApiClient apiClient = mock(ItunesApiClient.class);
+        when(apiClient.searchSongs("alpha")).thenReturn(dtos(500L, "Alpha", 4));
+        when(apiClient.searchSongs("broken")).thenThrow(new ItunesApiException(500, null));
+
+        IngestPipeline pipeline = new IngestPipeline(apiClient, artistRepo, albumRepo, songRepo,
+            IngestPipeline.Options.defaults());
+
+        // When, Then
+        assertThatThrownBy(() -> pipeline.run(List.of("alpha", "broken")))
+            .hasMessageContaining("broken");
+        assertThat(songRepo.count()).isEqualTo(5L + 4L);
+    }
+
+    @Test
+    @DisplayName("Should dead-letter an invalid record and ingest everything else")
+    void run_shouldDeadLetterInvalidRecords() throws Exception {
+        // Given
+        List<ItunesDTO> alpha = new ArrayList<>(dtos(500L, "Alpha", 6));
+        alpha.add(3, new ItunesDTO(500L, null, 5_999_999L, "Orphan", "Alpha", null, "SE", "Rock",
+            LocalDate.of(2001, 1, 1), 10L, 180_000L, null, ""));
+        ItunesApiClient apiClient = mock(ItunesApiClient.class);
+        when(apiClient.searchSongs("alpha")).thenReturn(alpha);
+        when(apiClient.searchSongs("beta")).thenReturn(dtos(600L, "Beta", 4));
+        DeadLetterRepositoryImpl deadLetters = new DeadLetterRepositoryImpl(TestPersistenceManager.get());
+
+        // When
+        new IngestPipeline(apiClient, artistRepo, albumRepo, songRepo, deadLetters, new IngestPipeline.Options(2, 1, 5))
+            .run(List.of("alpha", "beta"));
+
+        // Then
+        assertThat(songRepo.count()).isEqualTo(5L + 6L + 4L);
+        assertThat(deadLetters.findAll()).singleElement().satisfies(letter -> {
+            assertThat(letter.getTerm()).isEqualTo("alpha");
+            assertThat(letter.getRecordId()).isEqualTo(5_999_999L);
+            assertThat(letter.getStage()).isEqualTo(DeadLetter.Stage.TRANSFORM);
+            assertThat(letter.getReason()).contains("albumId");
+            assertThat(letter.getPayload()).contains("\"trackName\":\"Orphan\"");
+        });
+    }
+
+    @Test
+    @DisplayName("Should dead-letter only the record whose row cannot be written")
+    void run_shouldDeadLetterRecordsThatFailToPersist() throws Exception {
+        // Given
+        List<ItunesDTO> alpha = new ArrayList<>(dtos(500L, "Alpha", 6));
+        alpha.add(new ItunesDTO(500L, 50_000L, 5_999_999L, "x".repeat(300), "Alpha", "Album 50000", "SE", "Rock",
+            LocalDate.of(2001, 1, 1), 10L, 180_000L, null, ""));
+        ItunesApiClient apiClient = mock(ItunesApiClient.class);
+        when(apiClient.searchSongs("alpha")).thenReturn(alpha);
+        DeadLetterRepositoryImpl deadLetters = new DeadLetterRepositoryImpl(TestPersistenceManager.get());
+
+        // When
+        new IngestPipeline(apiClient, artistRepo, albumRepo, songRepo, deadLetters, IngestPipeline.Options.defaults())
+            .run(List.of("alpha"));
+
+        // Then
+        assertThat(songRepo.count()).isEqualTo(5L + 6L);
+        assertThat(deadLetters.findAll()).singleElement().satisfies(letter -> {
+            assertThat(letter.getRecordId()).isEqualTo(5_999_999L);
+            assertThat(letter.getStage()).isEqualTo(DeadLetter.Stage.PERSIST);
+        });
+    }
+
+    @Test
+    @DisplayName("Should replay fixed dead letters and keep the ones that fail again")
+    void replayDeadLetters_shouldIngestFixedRecords() throws Exception {
+        // Given
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        ItunesDTO fixed = dtos(700L, "Gamma", 1).getFirst();
+        ItunesDTO broken = new ItunesDTO(700L, null, 7_999_999L, "Orphan", "Gamma", null, "SE", "Rock",
+            LocalDate.of(2001, 1, 1), 10L, 180_000L, null, "");
+        DeadLetterRepositoryImpl deadLetters = new DeadLetterRepositoryImpl(TestPersistenceManager.get());
+        deadLetters.saveAll(List.of(
+            new DeadLetter("gamma", fixed.trackId(), DeadLetter.Stage.PERSIST, "lock timeout",
+                mapper.writeValueAsString(fixed), Instant.now()),
+            new DeadLetter("gamma", broken.trackId(), DeadLetter.Stage.TRANSFORM, "missing album",
+                mapper.writeValueAsString(broken), Instant.now())));
+        IngestPipeline pipeline = new IngestPipeline(mock(ItunesApiClient.class), artistRepo, albumRepo, songRepo,
+            deadLetters, IngestPipeline.Options.defaults());
+
+        // When
+        IngestPipeline.ReplayResult result = pipeline.replayDeadLetters();
+
+        // Then
+        assertThat(result).isEqualTo(new IngestPipeline.ReplayResult(1, 1, List.of(fixed.trackId())));
+        assertThat(songRepo.findExistingIds(List.of(fixed.trackId())).contains(fixed.trackId())).isTrue();
+        assertThat(deadLetters.findAll()).singleElement().satisfies(letter -> {
+            assertThat(letter.getRecordId()).isEqualTo(7_999_999L);
+            assertThat(letter.getAttempts()).isEqualTo(2);
+            assertThat(letter.getReason()).contains("albumId");
+        });
+    }
+}
@@ -0,0 +1,555 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link ItunesApiClient}, using recorded search responses from
+ * {@code src/test/resources/fixtures} served by a local HTTP server.
+ */
+@DisplayName("iTunes API Client Tests")
+public class ItunesApiClientTest {
+
+    private final ItunesApiClient client = new ItunesApiClient();
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicReference<String> lastQuery = new AtomicReference<>();
+
+    @TempDir
+    Path cacheDir;
+
+    /** Number of ids in each lookup request, see {@link #startServer()}. */
+    private final List<Integer> lookupBatches = new CopyOnWriteArrayList<>();
+
+    /** Requests the local server answered within its quota, see {@link #startServer()}. */
+    private final AtomicInteger accepted = new AtomicInteger();
+    private long quotaWindow;
+    private int quotaUsed;
+
+    /**
+     * Starts a local stand-in for the search endpoint. Terms starting with
+     * {@code slow} are answered after two seconds; every other term gets
+     * the gzip-compressed Rammstein fixture with a constant {@code ETag}.
+     *
+     * <p>The server also throttles like the real API: {@code forbidden}
+     * always gets {@code 403}, {@code throttled} gets {@code 429} with
+     * {@code Retry-After: 1} on its first request, and {@code quota}
+     * terms are limited to {@value #QUOTA_PER_SECOND} requests per second,
+     * answered with {@code 429} above that. {@code broken} gets {@code 500}
+     * with a gzip {@code Content-Encoding} but an uncompressed HTML body,
+     * like an error page from a proxy.</p>
+     *
+     * <p>{@code /lookup} answers each requested id with a collection
+     * record followed by a track record of the same id.</p>
+     */
+    @BeforeEach
+    void startServer() throws IOException {
+        byte[] compressed = gzip(fixture("search-rammstein.json"));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/search", exchange -> {
+            if (exchange.getRequestURI().getQuery().startsWith("term=slow")) {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            int count = requests.incrementAndGet();
+            String query = exchange.getRequestURI().getQuery();
+            lastQuery.set(query);
+            if (query.startsWith("term=forbidden")
+                || query.startsWith("term=throttled") && count == 1
+                || query.startsWith("term=quota") && !withinQuota()) {
+                if (query.startsWith("term=throttled")) {
+                    exchange.getResponseHeaders().add("Retry-After", "1");
+                }
+                exchange.sendResponseHeaders(query.startsWith("term=forbidden") ? 403 : 429, -1);
+                exchange.close();
+                return;
+            }
+            if (query.startsWith("term=broken")) {
+                byte[] page = "<html><body>Internal Server Error</body></html>".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.sendResponseHeaders(500, page.length);
+                try (var out = exchange.getResponseBody()) {
+                    out.write(page);
+                }
+                return;
+            }
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.length);
+            try (var out = exchange.getResponseBody()) {
+                out.write(compressed);
+            } catch (IOException ignored) {
+                // client went away
+            }
+        });
+        server.createContext("/lookup", exchange -> {
+            String ids = exchange.getRequestURI().getQuery().replaceFirst("^id=([0-9,]*).*$", "$1");
+            lookupBatches.add(ids.split(",").length);
+            StringBuilder json = new StringBuilder("{\"resultCount\":0,\"results\":[");
+            for (String id : ids.split(",")) {
+                json.append("{\"wrapperType\":\"collection\",\"collectionId\":").append(id).append("},")
+                    .append("{\"wrapperType\":\"track\",\"trackId\":").append(id)
+                    .append(",\"artistName\":\"Lookup\",\"trackName\":\"Track ").append(id).append("\"},");
+            }
+            json.setLength(json.length() - 1);
+            byte[] body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (var out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private static final int QUOTA_PER_SECOND = 20;
+
+    /**
+     * Counts a request against a quota of {@value #QUOTA_PER_SECOND} requests
+     * per second, enforced as a tenth of that per 100 ms window.
+     */
+    private synchronized boolean withinQuota() {
+        long window = System.nanoTime() / 100_000_000L;
+        if (window != quotaWindow) {
+            quotaWindow = window;
+            quotaUsed = 0;
+        }
+        if (quotaUsed == QUOTA_PER_SECOND / 10) {
+            return false;
+        }
+        quotaUsed++;
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    private ItunesApiClient localClient() {
+        return new ItunesApiClient(URI.create("http://localhost:" + server.getAddress().getPort()));
+    }
+
+    static byte[] fixture(String name) throws IOException {
+        try (InputStream in = ItunesApiClientTest.class.getResourceAsStream("/fixtures/" + name)) {
+            assertThat(in).as("fixture %s", name).isNotNull();
+            return in.readAllBytes();
+        }
+    }
+
+    static byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(raw);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    @DisplayName("Should keep only songs by the searched artist")
+    void parseSongs_shouldFilterByArtistName() throws Exception {
+        // Given
+        byte[] body = fixture("search-rammstein.json");
+
+        // When
+        List<ItunesDTO> songs = client.parseSongs(new ByteArrayInputStream(body), "rammstein");
+
+        // Then
+        assertThat(songs).hasSize(17);
+        assertThat(songs).allMatch(s -> s.artistName().equals("Rammstein"));
+        ItunesDTO first = songs.getFirst();
+        assertThat(first.trackName()).isEqualTo("Du hast");
+        assertThat(first.collectionId()).isEqualTo(408029L);
+        assertThat(first.releaseDate()).isEqualTo(LocalDate.of(1997, 6, 12));
+        assertThat(first.artworkUrl100()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should decode gzip and deflate encoded bodies")
+    void decode_shouldHandleCompressedBodies() throws Exception {
+        // Given
+        byte[] body = fixture("search-rammstein.json");
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflated)) {
+            out.write(body);
+        }
+
+        // When
+        List<ItunesDTO> fromGzip = client.parseSongs(
+            ItunesApiClient.decode(new ByteArrayInputStream(gzip(body)), "gzip"), "rammstein");
+        List<ItunesDTO> fromDeflate = client.parseSongs(
+            ItunesApiClient.decode(new ByteArrayInputStream(deflated.toByteArray()), "deflate"), "rammstein");
+
+        // Then
+        assertThat(fromGzip).hasSize(17).isEqualTo(fromDeflate);
+    }
+
+    @Test
+    @DisplayName("Should produce the same songs as tree-based parsing with fewer allocations")
+    void parseSongs_shouldAllocateLessThanTreeParsing() throws Exception {
+        // Given
+        byte[] body = fixture("search-rammstein.json");
+        byte[] compressed = gzip(body);
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        int rounds = 200;
+
+        // When
+        for (int i = 0; i < rounds; i++) { // warm-up
+            treeParse(mapper, body);
+            client.parseSongs(ItunesApiClient.decode(new ByteArrayInputStream(compressed), "gzip"), "rammstein");
+        }
+        long treeBytes = allocatedBytes(() -> {
+            for (int i = 0; i < rounds; i++) {
+                treeParse(mapper, body);
+            }
+        });
+        long streamBytes = allocatedBytes(() -> {
+            for (int i = 0; i < rounds; i++) {
+                client.parseSongs(ItunesApiClient.decode(new ByteArrayInputStream(compressed), "gzip"), "rammstein");
+            }
+        });
+
+        // Then
+        assertThat(client.parseSongs(new ByteArrayInputStream(body), "rammstein")).isEqualTo(treeParse(mapper, body));
+        assertThat(streamBytes).isLessThan(treeBytes);
+    }
+
+    @Test
+    @DisplayName("Should report the status of an error response rather than failing to decompress its body")
+    void searchSongs_shouldCheckStatusBeforeDecoding() {
+        // When, Then
+        assertThatThrownBy(() -> localClient().searchSongs("broken"))
+            .isInstanceOfSatisfying(ItunesApiException.class, e -> assertThat(e.getStatusCode()).isEqualTo(500));
+    }
+
+    @Test
+    @DisplayName("Should complete an async search with the filtered songs")
+    void searchSongsAsync_shouldReturnFilteredSongs() {
+        // Given, When
+        List<ItunesDTO> songs = localClient().searchSongsAsync("rammstein").join();
+
+        // Then
+        assertThat(songs).hasSize(17);
+    }
+
+    @Test
+    @DisplayName("Should deliver every term of a batch search as it completes")
+    void searchSongsAsync_shouldDeliverEachTermOfBatch() {
+        // Given
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            terms.add("rammstein");
+        }
+        Map<String, Integer> delivered = new ConcurrentHashMap<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        localClient().searchSongsAsync(terms, (term, songs) -> {
+            calls.incrementAndGet();
+            delivered.merge(term, songs.size(), Integer::sum);
+        }).join();
+
+        // Then
+        assertThat(calls).hasValue(24);
+        assertThat(delivered).containsEntry("rammstein", 24 * 17);
+    }
+
+    @Test
+    @DisplayName("Should time out a slow async search")
+    void searchSongsAsync_shouldTimeOut() {
+        // Given
+        CompletableFuture<List<ItunesDTO>> search =
+            localClient().searchSongsAsync("slow", Duration.ofMillis(200));
+
+        // When, Then
+        assertThatThrownBy(search::join).hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    @DisplayName("Should abort the HTTP exchange when an async search is cancelled")
+    void searchSongsAsync_shouldBeCancellable() throws Exception {
+        // Given
+        try (ServerSocket silent = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            CompletableFuture<Void> received = new CompletableFuture<>();
+            CompletableFuture<Boolean> closedByClient = CompletableFuture.supplyAsync(() -> awaitClose(silent, received));
+            var client = new ItunesApiClient(URI.create("http://localhost:" + silent.getLocalPort()));
+            CompletableFuture<List<ItunesDTO>> search = client.searchSongsAsync("slow");
+            received.get(5, TimeUnit.SECONDS);
+
+            // When
+            boolean cancelled = search.cancel(true);
+
+            // Then
+            assertThat(cancelled).isTrue();
+            assertThat(search).isCancelled();
+            assertThat(closedByClient.get(10, TimeUnit.SECONDS))
+                .as("connection closed by the client before any response")
+                .isTrue();
+        }
+    }
+
+    /**
+     * Accepts one connection, reads the request head without ever answering
+     * and waits for the client to close the connection.
+     *
+     * @return {@code true} if the client closed or reset the connection,
+     *         {@code false} if it stayed open for five seconds
+     */
+    private static boolean awaitClose(ServerSocket server, CompletableFuture<Void> received) {
+        try (Socket socket = server.accept()) {
+            socket.setSoTimeout(5000);
+            var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String line;
+            while ((line = in.readLine()) != null && !line.isEmpty()) {
+                // skip the request line and headers
+            }
+            received.complete(null);
+            return in.read() == -1;
+        } catch (SocketTimeoutException e) {
+            return false;
+        } catch (IOException e) {
+            // reset by the client
+            return true;
+        }
+    }
+
+    @Test
+    @DisplayName("Should request a page by offset and limit and count unfiltered results")
+    void searchPageAsync_shouldRequestOffsetAndCountResults() throws Exception {
+        // Given
+        int rawResults = new ObjectMapper().readTree(fixture("search-rammstein.json")).get("results").size();
+
+        // When
+        ItunesApiClient.SearchPage page = localClient().searchPageAsync("rammstein", 400, 200).join();
+
+        // Then
+        assertThat(lastQuery.get()).contains("limit=200").contains("offset=400");
+        assertThat(page.songs()).hasSize(17);
+        assertThat(page.resultCount()).isEqualTo(rawResults);
+        assertThat(page.isLast()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject a page larger than the API allows")
+    void searchPageAsync_shouldRejectOversizedPage() {
+        // When, Then
+        assertThatThrownBy(() -> localClient().searchPageAsync("rammstein", 0, ItunesApiClient.MAX_PAGE_SIZE + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should wait for Retry-After and retry a throttled search")
+    void searchSongsAsync_shouldHonourRetryAfter() {
+        // Given
+        long start = System.nanoTime();
+
+        // When
+        localClient().searchSongsAsync("throttled").join();
+
+        // Then
+        assertThat(requests).hasValue(2);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Should throw an ItunesApiException once retries are exhausted")
+    void searchSongs_shouldFailAfterRetries() {
+        // Given
+        ItunesApiClient retrying = new ItunesApiClient(URI.create("http://localhost:" + server.getAddress().getPort()),
+            null, RateLimiter.unlimited(), new ItunesApiClient.Retry(2, Duration.ofMillis(1), Duration.ofMillis(5)));
+
+        // When, Then
+        assertThatThrownBy(() -> retrying.searchSongs("forbidden"))
+            .isInstanceOfSatisfying(ItunesApiException.class, e -> assertThat(e.getStatusCode()).isEqualTo(403));
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Should complete every search when requests exceed the server's quota")
+    void searchSongsAsync_shouldCompleteEverySearchAboveQuota() {
+        // Given
+        RateLimiter limiter = new RateLimiter(2 * QUOTA_PER_SECOND, 1);
+        int total = 60;
+
+        // When
+        searchAll(limiter, total);
+
+        // Then
+        assertThat(accepted).hasValue(total);
+        assertThat(limiter.throttledCount()).isPositive();
+    }
+
+    /**
+     * Measures throughput against the quota. Wall-clock rates are not
+     * reliable on a loaded machine, so the test is tagged {@code benchmark}
+     * and skipped by a plain {@code mvn test}.
+     */
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Should complete searches at close to the server's quota")
+    void searchSongsAsync_shouldSustainQuota() {
+        // Given
+        RateLimiter limiter = new RateLimiter(2 * QUOTA_PER_SECOND, 1);
+        int total = 60;
+
+        // When
+        long start = System.nanoTime();
+        searchAll(limiter, total);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Then
+        assertThat(accepted).hasValue(total);
+        assertThat(total / seconds).isGreaterThan(QUOTA_PER_SECOND * 0.6);
+    }
+
+    /**
+     * Runs {@code total} concurrent searches through the given limiter and
+     * waits for all of them.
+     */
+    private void searchAll(RateLimiter limiter, int total) {
+        ItunesApiClient limited = new ItunesApiClient(URI.create("http://localhost:" + server.getAddress().getPort()),
+            null, limiter, new ItunesApiClient.Retry(10, Duration.ofMillis(10), Duration.ofMillis(200)));
+        List<CompletableFuture<List<ItunesDTO>>> searches = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            searches.add(limited.searchSongsAsync("quota+" + i));
+        }
+        CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @Test
+    @DisplayName("Should look up ids in maximal batches and deliver every track once")
+    void lookup_shouldBatchIds() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 450; id++) {
+            ids.add(id);
+        }
+        ids.addAll(ids.subList(0, 50));
+        Map<Long, Integer> delivered = new ConcurrentHashMap<>();
+
+        // When
+        localClient().lookup(ids, "song", song -> delivered.merge(song.trackId(), 1, Integer::sum)).join();
+
+        // Then
+        assertThat(lookupBatches).containsExactlyInAnyOrder(200, 200, 50);
+        assertThat(delivered).hasSize(450).allSatisfy((id, count) -> assertThat(count).isEqualTo(1));
+    }
+
+    @Test
+    @DisplayName("Should serve a repeated search from the response cache")
+    void searchSongs_shouldServeRepeatedSearchFromCache() throws Exception {
+        // Given
+        ItunesResponseCache cache = new ItunesResponseCache(cacheDir, Duration.ofHours(1), 1024 * 1024);
+        ItunesApiClient cachedClient = new ItunesApiClient(
+            URI.create("http://localhost:" + server.getAddress().getPort()), cache);
+
+        // When
+        List<ItunesDTO> first = cachedClient.searchSongs("rammstein");
+        List<ItunesDTO> second = new ItunesApiClient(
+            URI.create("http://localhost:" + server.getAddress().getPort()),
+            new ItunesResponseCache(cacheDir, Duration.ofHours(1), 1024 * 1024)).searchSongs("rammstein");
+
+        // Then
+        assertThat(second).hasSize(17).isEqualTo(first);
+        assertThat(requests).hasValue(1);
+        assertThat(cache.stats()).isEqualTo(new ItunesResponseCache.Stats(0, 1, 0));
+    }
+
+    @Test
+    @DisplayName("Should revalidate a stale cache entry with its ETag")
+    void searchSongs_shouldRevalidateStaleEntry() throws Exception {
+        // Given
+        ItunesResponseCache cache = new ItunesResponseCache(cacheDir, Duration.ZERO, 1024 * 1024);
+        ItunesApiClient cachedClient = new ItunesApiClient(
+            URI.create("http://localhost:" + server.getAddress().getPort()), cache);
+
+        // When
+        cachedClient.searchSongs("rammstein");
+        List<ItunesDTO> revalidated = cachedClient.searchSongs("rammstein");
+
+        // Then
+        assertThat(revalidated).hasSize(17);
+        assertThat(requests).hasValue(2);
+        assertThat(cache.stats()).isEqualTo(new ItunesResponseCache.Stats(0, 1, 1));
+    }
+
+    /**
+     * Previous parsing approach: the body as a string, a full JSON tree,
+     * and one {@code treeToValue} per result before filtering.
+     */
+    private List<ItunesDTO> treeParse(ObjectMapper mapper, byte[] body) throws IOException {
+        JsonNode results = mapper.readTree(new String(body, StandardCharsets.UTF_8)).get("results");
+        String term = client.normalize("rammstein");
+        List<ItunesDTO> songs = new ArrayList<>();
+        for (JsonNode node : results) {
+            ItunesDTO song = mapper.treeToValue(node, ItunesDTO.class);
+            if (song.artistName() != null && term.equals(client.normalize(song.artistName()))) {
+                songs.add(song);
+            }
+        }
+        return songs;
+    }
+
+    private interface IoRunnable {
+        void run() throws IOException;
+    }
+
+    private static long allocatedBytes(IoRunnable work) throws IOException {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        work.run();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+}
@@ -0,0 +1,399 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the iTunes Search API, for reproducible end-to-end
+ * and performance tests without network access.
+ *
+ * <p>The simulator serves three endpoints on a loopback port:</p>
+ * <ul>
+ *   <li>{@code /search} – a generated discography for every artist term,
+ *   honouring {@code limit} and {@code offset}. If a recorded response
+ *   {@code fixtures/search-<term>.json} exists on the classpath, it is
+ *   served instead.</li>
+ *   <li>{@code /lookup} – the generated tracks of the requested ids</li>
+ *   <li>{@code /artwork/<albumId>.png} – a generated cover image</li>
+ * </ul>
+ *
+ * <p>Responses can be slowed down by a {@link Latency} distribution, fail
+ * with {@code 503} at a given error rate, be throttled with {@code 429}
+ * above a request quota, and be padded to a given size per result. All
+ * random decisions come from one seeded generator, so a run with the same
+ * options and request order behaves the same way every time.</p>
+ */
+final class ItunesApiSimulator implements AutoCloseable {
+
+    /**
+     * Distribution of the delay added before each response.
+     */
+    @FunctionalInterface
+    interface Latency {
+
+        Duration next(Random random);
+
+        static Latency none() {
+            return random -> Duration.ZERO;
+        }
+
+        static Latency fixed(Duration delay) {
+            return random -> delay;
+        }
+
+        static Latency uniform(Duration min, Duration max) {
+            long spread = max.toNanos() - min.toNanos();
+            return random -> min.plusNanos(spread == 0 ? 0 : random.nextLong(spread + 1));
+        }
+
+        /**
+         * Log-normal delays, a common model for request latencies with a
+         * long tail.
+         *
+         * @param median median delay
+         * @param sigma  standard deviation of the logarithm; larger values give a longer tail
+         */
+        static Latency logNormal(Duration median, double sigma) {
+            return random -> Duration.ofNanos((long) (median.toNanos() * Math.exp(sigma * random.nextGaussian())));
+        }
+    }
+
+    /**
+     * Simulator options.
+     *
+     * @param seed              seed of the random generator
+     * @param latency           delay added before each response
+     * @param errorRate         fraction of requests answered with {@code 503}
+     * @param quotaPerSecond    requests accepted per second before answering
+     *                          {@code 429}, or {@code 0} for no quota
+     * @param retryAfterSeconds {@code Retry-After} sent with {@code 429}, or {@code 0} for none
+     * @param tracksPerArtist   size of each generated discography, at most {@value ItunesApiSimulator#MAX_TRACKS_PER_ARTIST}
+     * @param paddingBytes      filler added to every result to simulate larger payloads
+     */
+    record Options(long seed, Latency latency, double errorRate, int quotaPerSecond, int retryAfterSeconds,
+                   int tracksPerArtist, int paddingBytes) {
+
+        Options {
+            if (tracksPerArtist < 0 || tracksPerArtist > MAX_TRACKS_PER_ARTIST) {
+                throw new IllegalArgumentException(
+                    "tracksPerArtist must be between 0 and " + MAX_TRACKS_PER_ARTIST + ": " + tracksPerArtist);
+            }
+        }
+
+        static Options defaults() {
+            return new Options(42L, Latency.none(), 0, 0, 0, 25, 0);
+        }
+
+        Options withLatency(Latency latency) {
+            return new Options(seed, latency, errorRate, quotaPerSecond, retryAfterSeconds, tracksPerArtist, paddingBytes);
+        }
+
+        Options withErrorRate(double errorRate) {
+            return new Options(seed, latency, errorRate, quotaPerSecond, retryAfterSeconds, tracksPerArtist, paddingBytes);
+        }
+
+        Options withQuota(int quotaPerSecond, int retryAfterSeconds) {
+            return new Options(seed, latency, errorRate, quotaPerSecond, retryAfterSeconds, tracksPerArtist, paddingBytes);
+        }
+
+        Options withTracksPerArtist(int tracksPerArtist) {
+            return new Options(seed, latency, errorRate, quotaPerSecond, retryAfterSeconds, tracksPerArtist, paddingBytes);
+        }
+
+        Options withPaddingBytes(int paddingBytes) {
+            return new Options(seed, latency, errorRate, quotaPerSecond, retryAfterSeconds, tracksPerArtist, paddingBytes);
+        }
+    }
+
+    /**
+     * Request counters.
+     *
+     * @param requests  requests received
+     * @param errors    requests answered with an injected {@code 503}
+     * @param throttled requests answered with {@code 429}
+     */
+    record Stats(long requests, long errors, long throttled) {
+    }
+
+    private static final int TRACKS_PER_ALBUM = 10;
+
+    /** Album ids of an artist are {@code artistId * ALBUMS_PER_ARTIST + album}. */
+    private static final int ALBUMS_PER_ARTIST = 100;
+
+    /** Track ids of an artist are {@code artistId * TRACK_IDS_PER_ARTIST + index}. */
+    private static final int TRACK_IDS_PER_ARTIST = 10_000;
+
+    /** Largest discography whose album ids do not run into the next artist's. */
+    static final int MAX_TRACKS_PER_ARTIST = ALBUMS_PER_ARTIST * TRACKS_PER_ALBUM;
+
+    private final Options options;
+    private final HttpServer server;
+    private final Random random;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Long, String> artists = new ConcurrentHashMap<>();
+    private final byte[] artwork;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private long quotaSecond;
+    private int quotaUsed;
+
+    private ItunesApiSimulator(Options options) throws IOException {
+        this.options = options;
+        this.random = new Random(options.seed());
+        this.artwork = generateArtwork();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/search", exchange -> handle(exchange, this::search));
+        server.createContext("/lookup", exchange -> handle(exchange, this::lookup));
+        server.createContext("/artwork", exchange -> handle(exchange, e -> new Response(artwork, "image/png")));
+    }
+
+    /**
+     * Starts a simulator on a free loopback port.
+     *
+     * @param options simulator options
+     * @return the running simulator
+     * @throws IOException if the server cannot be started
+     */
+    static ItunesApiSimulator start(Options options) throws IOException {
+        ItunesApiSimulator simulator = new ItunesApiSimulator(options);
+        simulator.server.start();
+        return simulator;
+    }
+
+    /**
+     * Returns the address to pass to {@link ItunesApiClient} instead of
+     * {@link ItunesApiClient#DEFAULT_BASE_URI}.
+     */
+    URI baseUri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    Stats stats() {
+        return new Stats(requests.get(), errors.get(), throttled.get());
+    }
+
+    /**
+     * Returns the artist id generated for a search term.
+     */
+    static long artistId(String term) {
+        return 1_000_000L + Math.floorMod(normalize(term).hashCode(), 1_000_000);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private record Response(byte[] body, String contentType) {
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Applies latency and fault injection, then answers with the handler's response.
+     */
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            Duration delay;
+            boolean fail;
+            synchronized (random) {
+                delay = options.latency().next(random);
+                fail = options.errorRate() > 0 && random.nextDouble() < options.errorRate();
+            }
+            if (delay.isPositive()) {
+                Thread.sleep(delay);
+            }
+            if (!withinQuota()) {
+                throttled.incrementAndGet();
+                if (options.retryAfterSeconds() > 0) {
+                    exchange.getResponseHeaders().add("Retry-After", String.valueOf(options.retryAfterSeconds()));
+                }
+                exchange.sendResponseHeaders(429, -1);
+                return;
+            }
+            if (fail) {
+                errors.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            Response response = handler.handle(exchange);
+            byte[] body = response.body();
+            String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (accept != null && accept.contains("gzip") && response.contentType().startsWith("application/json")) {
+                body = gzip(body);
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", response.contentType());
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+            // client went away
+        }
+    }
+
+    private synchronized boolean withinQuota() {
+        if (options.quotaPerSecond() <= 0) {
+            return true;
+        }
+        long second = System.nanoTime() / 1_000_000_000L;
+        if (second != quotaSecond) {
+            quotaSecond = second;
+            quotaUsed = 0;
+        }
+        return ++quotaUsed <= options.quotaPerSecond();
+    }
+
+    private Response search(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI());
+        String term = query.getOrDefault("term", "");
+        try (InputStream recorded = getClass().getResourceAsStream("/fixtures/search-" + normalize(term).replace(" ", "") + ".json")) {
+            if (recorded != null) {
+                return new Response(recorded.readAllBytes(), "application/json");
+            }
+        }
+
+        int limit = Integer.parseInt(query.getOrDefault("limit", "50"));
+        int offset = Integer.parseInt(query.getOrDefault("offset", "0"));
+        long artistId = artistId(term);
+        artists.put(artistId, term);
+
+        ArrayNode results = mapper.createArrayNode();
+        for (int i = offset; i < Math.min(offset + limit, options.tracksPerArtist()); i++) {
+            results.add(track(artistId, term, i));
+        }
+        return json(results);
+    }
+
+    private Response lookup(HttpExchange exchange) {
+        Map<String, String> query = query(exchange.getRequestURI());
+        ArrayNode results = mapper.createArrayNode();
+        for (String id : query.getOrDefault("id", "").split(",")) {
+            if (id.isBlank()) {
+                continue;
+            }
+            long trackId = Long.parseLong(id.trim());
+            long artistId = trackId / TRACK_IDS_PER_ARTIST;
+            int index = (int) (trackId % TRACK_IDS_PER_ARTIST);
+            String term = artists.get(artistId);
+            if (term != null && index < options.tracksPerArtist()) {
+                results.add(track(artistId, term, index));
+            }
+        }
+        return json(results);
+    }
+
+    private Response json(ArrayNode results) {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("resultCount", results.size());
+        root.set("results", results);
+        try {
+            return new Response(mapper.writeValueAsBytes(root), "application/json; charset=utf-8");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Generates track {@code index} of an artist's discography.
+     */
+    private ObjectNode track(long artistId, String term, int index) {
+        long collectionId = artistId * ALBUMS_PER_ARTIST + index / TRACKS_PER_ALBUM;
+        ObjectNode track = mapper.createObjectNode();
+        track.put("wrapperType", "track");
+        track.put("kind", "song");
+        track.put("artistId", artistId);
+        track.put("collectionId", collectionId);
+        track.put("trackId", artistId * TRACK_IDS_PER_ARTIST + index);
+        track.put("artistName", normalize(term));
+        track.put("collectionName", "Album " + (index / TRACKS_PER_ALBUM + 1));
+        track.put("trackName", "Track " + (index + 1));
+        track.put("previewUrl", baseUri() + "/preview/" + (artistId * TRACK_IDS_PER_ARTIST + index) + ".m4a");
+        track.put("artworkUrl100", baseUri() + "/artwork/" + collectionId + ".png");
+        track.put("country", "USA");
+        track.put("primaryGenreName", "Rock");
+        track.put("releaseDate", (2000 + index / TRACKS_PER_ALBUM) + "-01-01T08:00:00Z");
+        track.put("trackCount", TRACKS_PER_ALBUM);
+        track.put("trackTimeMillis", 180_000 + index * 1_000);
+        if (options.paddingBytes() > 0) {
+            track.put("longDescription", "x".repeat(options.paddingBytes()));
+        }
+        return track;
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static String normalize(String term) {
+        return term.toLowerCase(Locale.ROOT).replaceAll("[+\\s]+", " ").trim();
+    }
+
+    private static byte[] generateArtwork() throws IOException {
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.DARK_GRAY);
+        g.fillRect(0, 0, 100, 100);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(raw);
+        }
+        return out.toByteArray();
+    }
+}
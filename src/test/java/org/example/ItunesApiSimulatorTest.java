@@ -0,0 +1,132 @@
+package org.example;
+
+import org.example.repo.CatalogSyncRepositoryImpl;
+import org.example.repo.DeadLetterRepositoryImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * End-to-end tests of {@link ItunesApiClient} and the ingestion against an {@link ItunesApiSimulator}.
+ */
+@DisplayName("iTunes API Simulator Tests")
+public class ItunesApiSimulatorTest extends RepoTest {
+
+    /**
+     * Retries quickly, so injected faults do not slow the tests down.
+     */
+    private static final ItunesApiClient.Retry FAST_RETRY =
+        new ItunesApiClient.Retry(12, Duration.ofMillis(5), Duration.ofMillis(200));
+
+    private static ItunesApiClient client(ItunesApiSimulator simulator) {
+        return new ItunesApiClient(simulator.baseUri(), null, RateLimiter.unlimited(), FAST_RETRY);
+    }
+
+    @Test
+    @DisplayName("Should page through a generated discography")
+    void searchPageAsync_shouldPageGeneratedDiscography() throws Exception {
+        // Given
+        try (ItunesApiSimulator simulator = ItunesApiSimulator.start(
+            ItunesApiSimulator.Options.defaults().withTracksPerArtist(45).withPaddingBytes(2_000))) {
+            ItunesApiClient apiClient = client(simulator);
+
+            // When
+            ItunesApiClient.SearchPage first = apiClient.searchPageAsync("some+artist", 0, 20).get(10, TimeUnit.SECONDS);
+            ItunesApiClient.SearchPage last = apiClient.searchPageAsync("some+artist", 40, 20).get(10, TimeUnit.SECONDS);
+
+            // Then
+            assertThat(first.songs()).hasSize(20);
+            assertThat(first.isLast()).isFalse();
+            assertThat(last.songs()).hasSize(5);
+            assertThat(last.isLast()).isTrue();
+            assertThat(last.songs()).allMatch(dto -> dto.artistId() == ItunesApiSimulator.artistId("some artist"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should look up tracks that were generated by a search")
+    void lookup_shouldReturnGeneratedTracks() throws Exception {
+        // Given
+        try (ItunesApiSimulator simulator = ItunesApiSimulator.start(ItunesApiSimulator.Options.defaults())) {
+            ItunesApiClient apiClient = client(simulator);
+            List<ItunesDTO> found = apiClient.searchSongsAsync("some+artist").get(10, TimeUnit.SECONDS);
+
+            // When
+            List<ItunesDTO> looked = new ArrayList<>();
+            apiClient.lookup(found.stream().map(ItunesDTO::trackId).toList(), "song", dto -> {
+                synchronized (looked) {
+                    looked.add(dto);
+                }
+            }).get(10, TimeUnit.SECONDS);
+
+            // Then
+            assertThat(looked).containsExactlyInAnyOrderElementsOf(found);
+        }
+    }
+
+    @Test
+    @DisplayName("Should complete every search when the simulator throttles above its quota")
+    void searchSongsAsync_shouldRecoverFromThrottling() throws Exception {
+        // Given
+        try (ItunesApiSimulator simulator = ItunesApiSimulator.start(
+            ItunesApiSimulator.Options.defaults().withQuota(20, 0))) {
+            ItunesApiClient apiClient = new ItunesApiClient(simulator.baseUri(), null, RateLimiter.unlimited(),
+                new ItunesApiClient.Retry(20, Duration.ofMillis(50), Duration.ofMillis(500)));
+
+            // When
+            List<CompletableFuture<List<ItunesDTO>>> searches = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                searches.add(apiClient.searchSongsAsync("artist+" + i));
+            }
+            CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+            // Then
+            assertThat(searches).allMatch(search -> search.join().size() == 20);
+            assertThat(simulator.stats().throttled()).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("Should ingest every seeded artist through a slow and unreliable API")
+    void init_shouldIngestAgainstUnreliableApi() throws Exception {
+        // Given
+        ItunesApiSimulator.Options options = ItunesApiSimulator.Options.defaults()
+            .withLatency(ItunesApiSimulator.Latency.logNormal(Duration.ofMillis(5), 0.8))
+            .withErrorRate(0.2);
+        try (ItunesApiSimulator simulator = ItunesApiSimulator.start(options)) {
+            DeadLetterRepositoryImpl deadLetterRepo = new DeadLetterRepositoryImpl(TestPersistenceManager.get());
+            DatabaseInitializer initializer = new DatabaseInitializer(client(simulator), songRepo, albumRepo, artistRepo,
+                playlistRepo, new CatalogSyncRepositoryImpl(TestPersistenceManager.get()), deadLetterRepo);
+
+            // When
+            initializer.init();
+
+            // Then
+            List<Long> generated = DatabaseInitializer.SEARCHES.stream()
+                .filter(term -> !term.equals("rammstein"))
+                .map(ItunesApiSimulator::artistId)
+                .toList();
+            assertThat(artistRepo.findExistingIds(generated).size()).isEqualTo(generated.size());
+            assertThat(songRepo.count()).isGreaterThanOrEqualTo(5L + 20L * generated.size());
+            assertThat(deadLetterRepo.count()).isZero();
+            assertThat(simulator.stats().errors()).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject discographies too large for distinct album and track ids")
+    void options_shouldRejectOversizedDiscography() {
+        // When, Then
+        assertThatThrownBy(() -> ItunesApiSimulator.Options.defaults()
+            .withTracksPerArtist(ItunesApiSimulator.MAX_TRACKS_PER_ARTIST + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
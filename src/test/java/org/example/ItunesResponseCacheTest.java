@@ -0,0 +1,107 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ItunesResponseCache}.
+ */
+@DisplayName("iTunes Response Cache Tests")
+public class ItunesResponseCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    /**
+     * Clock advancing one second on every read, so entries get distinct timestamps.
+     */
+    private static final class TickingClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public synchronized Instant instant() {
+            now = now.plusSeconds(1);
+            return now;
+        }
+    }
+
+    private static byte[] body(int size) {
+        return "x".repeat(size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should map equivalent URLs to the same key")
+    void normalize_shouldIgnoreCaseDefaultPortAndParameterOrder() {
+        // Given, When
+        String a = ItunesResponseCache.normalize(URI.create("HTTPS://iTunes.Apple.com:443/search?term=geese&entity=song"));
+        String b = ItunesResponseCache.normalize(URI.create("https://itunes.apple.com/search?entity=song&term=geese"));
+
+        // Then
+        assertThat(a).isEqualTo(b);
+    }
+
+    @Test
+    @DisplayName("Should round-trip stored responses with their validators")
+    void store_shouldBeReadableAfterRestart() {
+        // Given
+        URI uri = URI.create("https://itunes.apple.com/search?term=ghost");
+        new ItunesResponseCache(cacheDir, Duration.ofHours(1), 1024 * 1024)
+            .store(uri, body(100), "", "\"abc\"", "Tue, 01 Jan 2026 00:00:00 GMT");
+
+        // When
+        ItunesResponseCache reopened = new ItunesResponseCache(cacheDir, Duration.ofHours(1), 1024 * 1024);
+        ItunesResponseCache.Entry entry = reopened.get(uri);
+
+        // Then
+        assertThat(entry).isNotNull();
+        assertThat(entry.etag()).isEqualTo("\"abc\"");
+        assertThat(entry.lastModified()).isEqualTo("Tue, 01 Jan 2026 00:00:00 GMT");
+        assertThat(reopened.isFresh(entry)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when over the size limit")
+    void store_shouldEvictLeastRecentlyUsedEntry() {
+        // Given
+        URI first = URI.create("https://itunes.apple.com/search?term=first");
+        URI second = URI.create("https://itunes.apple.com/search?term=second");
+        URI third = URI.create("https://itunes.apple.com/search?term=third");
+        TickingClock clock = new TickingClock();
+        ItunesResponseCache cache = new ItunesResponseCache(cacheDir, Duration.ofHours(1), 400, clock);
+        cache.store(first, body(10), "", null, null);
+        cache.store(second, body(10), "", null, null);
+        long entrySize = cacheDir.toFile().listFiles()[0].length();
+        cache = new ItunesResponseCache(cacheDir, Duration.ofHours(1), entrySize * 2, clock);
+
+        // When
+        cache.hit(first);
+        cache.store(third, body(10), "", null, null);
+
+        // Then
+        assertThat(cache.get(first)).isNotNull();
+        assertThat(cache.get(second)).isNull();
+        assertThat(cache.get(third)).isNotNull();
+    }
+}
@@ -0,0 +1,159 @@
+package org.example;
+
+import org.example.entity.Playlist;
+import org.example.entity.Song;
+import org.example.ingest.LibraryXmlImporter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link LibraryXmlImporter}.
+ */
+@DisplayName("Library XML Importer Tests")
+public class LibraryXmlImporterTest extends RepoTest {
+
+    private static final int TRACKS = 1_200;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Writes a library export with {@link #TRACKS} songs on 12 albums, one
+     * podcast episode, one music video, the master playlist and two user playlists.
+     */
+    private Path export() throws IOException {
+        Path xml = dir.resolve("Library.xml");
+        try (Writer out = Files.newBufferedWriter(xml, StandardCharsets.UTF_8)) {
+            out.write("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <!DOCTYPE plist PUBLIC "-//Apple Computer//DTD PLIST 1.0//EN" "http://www.apple.com/DTDs/PropertyList-1.0.dtd">
+                <plist version="1.0">
+                <dict>
+                	<key>Major Version</key><integer>1</integer>
+                	<key>Application Version</key><string>1.4.5</string>
+                	<key>Features</key><integer>5</integer>
+                	<key>Tracks</key>
+                	<dict>
+                """);
+            for (int i = 1; i <= TRACKS; i++) {
+                int album = (i - 1) / 100;
+                out.write("""
+                    		<key>%d</key>
+                    		<dict>
+                    			<key>Track ID</key><integer>%d</integer>
+                    			<key>Name</key><string>Song %d &amp; more</string>
+                    			<key>Artist</key><string>Artist %d</string>
+                    			<key>Album</key><string>Album %d</string>
+                    			<key>Genre</key><string>Rock</string>
+                    			<key>Total Time</key><integer>%d</integer>
+                    			<key>Track Number</key><integer>%d</integer>
+                    			<key>Year</key><integer>1999</integer>
+                    			<key>Explicit</key><true/>
+                    			<key>Location</key><string>file://localhost/Users/me/Music/%d.mp3</string>
+                    		</dict>
+                    """.formatted(i, i, i, album % 3, album, 180_000 + i, (i - 1) % 100 + 1, i));
+            }
+            out.write("""
+                		<key>9001</key>
+                		<dict><key>Track ID</key><integer>9001</integer><key>Name</key><string>Episode</string><key>Podcast</key><true/></dict>
+                		<key>9002</key>
+                		<dict><key>Track ID</key><integer>9002</integer><key>Name</key><string>Video</string><key>Has Video</key><true/></dict>
+                	</dict>
+                	<key>Playlists</key>
+                	<array>
+                		<dict>
+                			<key>Name</key><string>Library</string><key>Master</key><true/>
+                			<key>Playlist Items</key><array><dict><key>Track ID</key><integer>1</integer></dict></array>
+                		</dict>
+                		<dict>
+                			<key>Name</key><string>Road Trip</string>
+                			<key>Smart Info</key><data>AQEAAwAAAAIAAAAZAAAAAAAAAAcAAAABAAAAAAAAAAAAAAAAAAAAAAAAAA==</data>
+                			<key>Playlist Items</key>
+                			<array>
+                				<dict><key>Track ID</key><integer>5</integer></dict>
+                				<dict><key>Track ID</key><integer>500</integer></dict>
+                				<dict><key>Track ID</key><integer>9001</integer></dict>
+                			</array>
+                		</dict>
+                		<dict><key>Name</key><string>Empty</string></dict>
+                	</array>
+                </dict>
+                </plist>
+                """);
+        }
+        return xml;
+    }
+
+    private Playlist playlistNamed(String name) {
+        return playlistRepo.findAll().stream().filter(p -> p.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Should import tracks and user playlists and add the songs to the Library")
+    void importFile_shouldImportTracksAndPlaylists() throws Exception {
+        // Given
+        Playlist library = playlistRepo.createPlaylist("Library");
+        LibraryXmlImporter importer = new LibraryXmlImporter(artistRepo, albumRepo, songRepo, playlistRepo,
+            new LibraryXmlImporter.Options(250, 2));
+
+        // When
+        LibraryXmlImporter.Result result = importer.importFile(export());
+
+        // Then
+        assertThat(result.write().getItems()).isEqualTo(TRACKS);
+        assertThat(result.skipped()).isEqualTo(2);
+        assertThat(result.playlists()).isEqualTo(2);
+        assertThat(result.rowsPerSecond()).isPositive();
+        assertThat(songRepo.count()).isEqualTo(5L + TRACKS);
+        assertThat(albumRepo.findAll()).filteredOn(a -> a.getId() < 0).hasSize(12);
+        assertThat(artistRepo.findAll()).filteredOn(a -> a.getId() < 0).hasSize(3);
+        assertThat(songRepo.findAll()).filteredOn(s -> s.getName().equals("Song 7 & more"))
+            .singleElement()
+            .matches(s -> s.getPreviewUrl().equals("file:///Users/me/Music/7.mp3") && s.getLength() == 180_007L);
+        assertThat(playlistNamed("Road Trip").getSongs()).extracting(Song::getName)
+            .containsExactlyInAnyOrder("Song 5 & more", "Song 500 & more");
+        assertThat(playlistNamed("Empty").getSongs()).isEmpty();
+        assertThat(playlistRepo.findById(library.getId()).getSongs()).hasSize(TRACKS);
+    }
+
+    @Test
+    @DisplayName("Should not duplicate songs or playlists when the same export is imported again")
+    void importFile_shouldBeRepeatable() throws Exception {
+        // Given
+        Path xml = export();
+        playlistRepo.createPlaylist("Library");
+        LibraryXmlImporter importer = new LibraryXmlImporter(artistRepo, albumRepo, songRepo, playlistRepo,
+            LibraryXmlImporter.Options.defaults());
+        importer.importFile(xml);
+
+        // When
+        importer.importFile(xml);
+
+        // Then
+        assertThat(songRepo.count()).isEqualTo(5L + TRACKS);
+        assertThat(playlistRepo.findAll()).extracting(Playlist::getName).containsExactlyInAnyOrder("Library", "Road Trip", "Empty");
+        assertThat(playlistNamed("Road Trip").getSongs()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should fail with an IOException for a file that is not a property list")
+    void importFile_shouldRejectInvalidFile() throws Exception {
+        // Given
+        Path xml = Files.writeString(dir.resolve("broken.xml"), "<plist><dict><key>Tracks</key><dict>");
+        LibraryXmlImporter importer = new LibraryXmlImporter(artistRepo, albumRepo, songRepo, playlistRepo,
+            LibraryXmlImporter.Options.defaults());
+
+        // When, Then
+        assertThatThrownBy(() -> importer.importFile(xml)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,198 @@
+package org.example;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.repo.AlbumRepositoryImpl;
+import org.example.repo.ArtistRepositoryImpl;
+import org.example.repo.MenuEntry;
+import org.example.repo.SongRepositoryImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the {@link MenuEntry} projections that feed the menu screens.
+ *
+ * <p>Compares loading the Songs, Artists and Albums screens as entities,
+ * as {@link MyPod} used to, with loading them as projections. Bytes are
+ * counted as they are read from the JDBC driver, so the comparison does
+ * not depend on the database running in memory.</p>
+ */
+@DisplayName("Menu Projection Tests")
+public class MenuProjectionTest {
+
+    private static final String URL = "jdbc:h2:mem:menus;DB_CLOSE_DELAY=-1";
+    private static final int SONGS = 20_000;
+
+    @Test
+    @DisplayName("Should read and retain far less for menu projections than for entities")
+    void menuEntries_shouldTransferAndRetainLessThanEntities() {
+        try (EntityManagerFactory emf = factory()) {
+            // Given
+            emf.runInTransaction(em -> {
+                em.createNativeQuery("""
+                        insert into artist (artist_id, name, country)
+                        select x, 'Artist ' || x, 'Testistan' from system_range(1, 40)
+                        """)
+                    .executeUpdate();
+                em.createNativeQuery("""
+                        insert into album (album_id, name, genre, release_year, trackCount, artist_id)
+                        select x, 'Album ' || x, 'Test Rock', 2000, 25, mod(x, 40) + 1 from system_range(1, 800)
+                        """)
+                    .executeUpdate();
+                em.createNativeQuery("""
+                        insert into song (song_id, title, length, previewUrl, album_id)
+                        select x, 'Track ' || x, 180000,
+                               'https://audio-ssl.itunes.apple.com/itunes-assets/AudioPreview/' || x || '/mzaf_' || x || '.plus.aac.p.m4a',
+                               mod(x, 800) + 1
+                        from system_range(1, %d)
+                        """.formatted(SONGS))
+                    .executeUpdate();
+            });
+            SongRepositoryImpl songRepo = new SongRepositoryImpl(emf);
+            AlbumRepositoryImpl albumRepo = new AlbumRepositoryImpl(emf);
+            ArtistRepositoryImpl artistRepo = new ArtistRepositoryImpl(emf);
+            Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+            // When
+            Load entities = load(statistics, () -> List.of(songRepo.findAll(), artistRepo.findAll(), albumRepo.findAll()));
+            Load entries = load(statistics, () -> List.of(songRepo.findMenuEntries(), artistRepo.findMenuEntries(),
+                albumRepo.findMenuEntries()));
+
+            // Then
+            assertThat(entries.rows()).isEqualTo(entities.rows()).isEqualTo(SONGS + 40 + 800);
+            assertThat(entries.statements()).isEqualTo(3);
+            assertThat(entries.bytes()).isLessThan(entities.bytes() / 3);
+            assertThat(entries.retained()).isLessThan(entities.retained() / 2);
+        }
+    }
+
+    /**
+     * Rows, statements, bytes read from the driver and heap retained by one menu load.
+     */
+    private record Load(int rows, long statements, long bytes, long retained) {
+    }
+
+    /**
+     * Loads the menus once to warm up query plans and lazily built metadata,
+     * then measures a second load.
+     */
+    private static Load load(Statistics statistics, Supplier<List<List<?>>> menus) {
+        menus.get();
+        statistics.clear();
+        long heapBefore = usedHeap();
+        long bytesBefore = CountingConnections.BYTES.get();
+        List<List<?>> loaded = menus.get();
+        long bytes = CountingConnections.BYTES.get() - bytesBefore;
+        long retained = usedHeap() - heapBefore;
+        Reference.reachabilityFence(loaded);
+        int rows = loaded.stream().mapToInt(List::size).sum();
+        return new Load(rows, statistics.getPrepareStatementCount(), bytes, retained);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static EntityManagerFactory factory() {
+        return EntityManagerFactoryProvider.create(URL, "sa", "", Map.of(
+            "hibernate.connection.provider_class", CountingConnections.class.getName(),
+            "hibernate.hbm2ddl.auto", "create-drop",
+            "hibernate.show_sql", "false",
+            "hibernate.generate_statistics", "true",
+            "hibernate.cache.use_second_level_cache", "false"
+        ));
+    }
+
+    /**
+     * Hands out H2 connections whose result sets add the size of every
+     * value read to {@link #BYTES}.
+     */
+    public static final class CountingConnections implements ConnectionProvider {
+
+        static final AtomicLong BYTES = new AtomicLong();
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(DriverManager.getConnection(URL, "sa", ""), Connection.class);
+        }
+
+        @Override
+        public void closeConnection(Connection connection) throws SQLException {
+            connection.close();
+        }
+
+        @Override
+        public boolean supportsAggressiveRelease() {
+            return false;
+        }
+
+        @Override
+        public boolean isUnwrappableAs(Class<?> type) {
+            return false;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) {
+            throw new IllegalArgumentException("Cannot unwrap " + type);
+        }
+
+        private static <T> T counting(T target, Class<T> type) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                Object value;
+                try {
+                    value = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                Class<?> returned = method.getReturnType();
+                if (value != null && (returned == Statement.class || returned == PreparedStatement.class
+                    || returned == ResultSet.class)) {
+                    return countingAs(value, returned);
+                }
+                if (type == ResultSet.class && method.getName().startsWith("get") && args != null && args.length > 0) {
+                    BYTES.addAndGet(size(value));
+                }
+                return value;
+            }));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T countingAs(Object target, Class<?> type) {
+            return counting((T) target, (Class<T>) type);
+        }
+
+        private static long size(Object value) throws SQLException {
+            return switch (value) {
+                case null -> 0;
+                case String s -> s.getBytes(StandardCharsets.UTF_8).length;
+                case byte[] b -> b.length;
+                case Blob b -> b.length();
+                default -> Long.BYTES;
+            };
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.example;
+
+import org.example.entity.Album;
+import org.example.entity.Artist;
+import org.example.entity.Song;
+import org.example.ingest.PlaylistImporter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link PlaylistImporter}.
+ */
+@DisplayName("Playlist Importer Tests")
+public class PlaylistImporterTest extends RepoTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should match M3U lines by location, exact name and similarity and report the rest")
+    void importFile_shouldMatchM3uLines() throws Exception {
+        // Given
+        Path local = dir.resolve("music/01 Local Song.mp3");
+        songRepo.save(new Song(-5L, "Local Song", 200_000L, local.toUri().toString(), testAlbum1));
+        Path m3u = Files.writeString(dir.resolve("Road Trip.m3u8"), """
+            #EXTM3U
+            #EXTINF:185,Test and Test - Test Me Tender
+            /somewhere/else/tender.mp3
+            #EXTINF:185,TEST - Another One Bites The Test
+            https://example.com/stream/221
+            #EXTINF:190,Test & Test - Testing Aint Easy
+            easy.mp3
+            #EXTINF:999,Test and Test - Crazy Little Thing Called Tset
+            crazy.mp3
+
+            music/01 Local Song.mp3
+            Nobody - Nothing.mp3
+            """);
+
+        // When
+        PlaylistImporter.Result result = new PlaylistImporter(songRepo, playlistRepo).importFile(m3u);
+
+        // Then
+        assertThat(result.lines()).isEqualTo(6);
+        assertThat(result.exact()).isEqualTo(3);
+        assertThat(result.fuzzy()).isEqualTo(1);
+        assertThat(result.unmatched()).extracting(PlaylistImporter.Line::number).containsExactly(9, 12);
+        assertThat(result.playlist().name()).isEqualTo("Road Trip");
+        assertThat(playlistRepo.findById(result.playlist().id()).getSongs()).extracting(Song::getId)
+            .containsExactlyInAnyOrder(111L, 221L, 112L, -5L);
+    }
+
+    @Test
+    @DisplayName("Should read CSV exports with a header and extend an existing playlist without duplicates")
+    void importFile_shouldReadCsvWithHeader() throws Exception {
+        // Given
+        Path csv = Files.writeString(dir.resolve("export.csv"), """
+            "Track Name","Artist Name(s)","Album Name","Duration (ms)"
+            "Here Comes the Test","T.E.S.T","Test volume 2","190000"
+            "Crazy Little Thing Called Test","Test and Test","Best of Test","180000"
+            "Testing, Testing","Somebody ""Else""\","Demo","120000"
+            """);
+        PlaylistImporter importer = new PlaylistImporter(songRepo, playlistRepo);
+        var favorites = playlistRepo.createPlaylist("Favorites");
+        playlistRepo.addSong(favorites, testSong1);
+
+        // When
+        importer.importFile(csv, "Favorites");
+        PlaylistImporter.Result again = importer.importFile(csv, "Favorites");
+
+        // Then
+        assertThat(again.matched()).isEqualTo(2);
+        assertThat(again.indexNanos()).isZero();
+        assertThat(again.unmatched()).singleElement()
+            .matches(line -> line.title().equals("Testing, Testing") && line.artist().equals("Somebody \"Else\""));
+        assertThat(playlistRepo.findAll()).filteredOn(p -> p.getName().equals("Favorites")).hasSize(1);
+        assertThat(playlistRepo.findById(favorites.getId()).getSongs()).extracting(Song::getId)
+            .containsExactlyInAnyOrder(111L, 113L, 222L);
+    }
+
+    @Test
+    @DisplayName("Should match thousands of lines in one pass, using the duration to disambiguate fuzzy matches")
+    void importFile_shouldMatchLargePlaylist() throws Exception {
+        // Given
+        int count = 5_000;
+        List<Artist> artists = new ArrayList<>();
+        List<Album> albums = new ArrayList<>();
+        for (int a = 0; a < 50; a++) {
+            Artist artist = new Artist(1_000L + a, "Synthetic Artist " + a, "Testistan");
+            artists.add(artist);
+            albums.add(new Album(2_000L + a, "Synthetic Album " + a, "Test Rock", 2000, 100L, artist));
+        }
+        List<Song> songs = new ArrayList<>();
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            long length = 60_000L + i * 4_000L;
+            Album album = albums.get(i % albums.size());
+            songs.add(new Song(10_000L + i, "Track Number " + i, length, "", album));
+            String title = i % 10 == 0 ? "Track Number " + i + " (Remastered)" : "Track Number " + i;
+            csv.append(album.getArtist().getName()).append(';').append(title).append(';').append(length / 1000).append('\n');
+        }
+        csv.append("Nobody;Nothing;100\n");
+        artistRepo.saveAll(artists);
+        albumRepo.saveAll(albums);
+        songRepo.saveAll(songs);
+        Path file = Files.writeString(dir.resolve("big.txt"), csv);
+
+        // When
+        PlaylistImporter.Result result = new PlaylistImporter(songRepo, playlistRepo).importFile(file);
+
+        // Then
+        assertThat(result.lines()).isEqualTo(count + 1);
+        assertThat(result.exact()).isEqualTo(count - count / 10);
+        assertThat(result.fuzzy()).isEqualTo(count / 10);
+        assertThat(result.unmatched()).extracting(PlaylistImporter.Line::title).containsExactly("Nothing");
+        assertThat(playlistRepo.findById(result.playlist().id()).getSongs())
+            .hasSize(count)
+            .allMatch(s -> s.getName().equals("Track Number " + (s.getId() - 10_000L)));
+    }
+
+    @Test
+    @DisplayName("Should reject files that are neither M3U nor CSV")
+    void importFile_shouldRejectUnknownFormat() throws Exception {
+        // Given
+        Path file = Files.writeString(dir.resolve("playlist.pls"), "[playlist]");
+
+        // When, Then
+        assertThatThrownBy(() -> new PlaylistImporter(songRepo, playlistRepo).importFile(file))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
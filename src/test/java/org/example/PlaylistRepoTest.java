@@ -3,7 +3,10 @@ package org.example;
 import org.example.entity.Playlist;
 import org.example.entity.Song;
 import org.example.repo.AlbumRepositoryImpl;
+import org.example.repo.MenuEntry;
 import org.example.repo.PlaylistRepositoryImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -44,6 +47,25 @@ public class PlaylistRepoTest extends RepoTest {
         assertThat(playlists).contains(playlist1, playlist2);
     }
 
+    @Test
+    @DisplayName("Should list playlist ids and names without loading their songs")
+    void findMenuEntries_shouldNotLoadSongs() {
+        // Given
+        Playlist mix = playlistRepo.createPlaylist("Mix");
+        Playlist anthems = playlistRepo.createPlaylist("Anthems");
+        playlistRepo.addSongs(mix, List.of(testSong1, testSong2));
+        Statistics statistics = TestPersistenceManager.get().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<MenuEntry> entries = playlistRepo.findMenuEntries();
+
+        // Then
+        assertThat(entries).containsExactly(new MenuEntry(anthems.getId(), "Anthems"), new MenuEntry(mix.getId(), "Mix"));
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
     @Test
     @DisplayName("Should confirm song is in playlist")
     void isSongInPlaylist_shouldConfirmSongInPlaylist() {
@@ -131,6 +153,25 @@ public class PlaylistRepoTest extends RepoTest {
             .contains(testSong1, testSong2, testSong3);
     }
 
+    @Test
+    @DisplayName("Should add songs by id without loading songs or the playlist's contents")
+    void addSongsById_shouldWriteJoinRowsOnly() {
+        // Given
+        Playlist playlist = playlistRepo.createPlaylist("Playlist");
+        playlistRepo.addSong(playlist, testSong1);
+        Statistics statistics = TestPersistenceManager.get().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        playlistRepo.addSongsById(playlist.getId(), List.of(111L, 112L, 112L, 221L, 999L));
+
+        // Then
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        assertThat(playlistRepo.findById(playlist.getId()).getSongs())
+            .containsExactlyInAnyOrder(testSong1, testSong2, testSong4);
+    }
+
     @Test
     @DisplayName("Should remove song from playlist")
     void removeSong_shouldRemoveSongFromPlaylist() {
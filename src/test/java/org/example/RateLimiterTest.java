@@ -0,0 +1,109 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link RateLimiter}, driven by a manual clock.
+ */
+@DisplayName("Rate Limiter Tests")
+public class RateLimiterTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("Should allow a burst and then space permits at the rate")
+    void reserve_shouldSpacePermitsAfterBurst() {
+        // Given
+        RateLimiter limiter = new RateLimiter(10, 2, now::get);
+
+        // When, Then
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isEqualTo(100 * MILLI);
+        assertThat(limiter.reserve()).isEqualTo(200 * MILLI);
+
+        now.set(1000 * MILLI);
+        assertThat(limiter.reserve()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should halve the rate and pause for Retry-After when throttled")
+    void throttled_shouldSlowDownAndPause() {
+        // Given
+        RateLimiter limiter = new RateLimiter(10, 1, now::get);
+        limiter.reserve();
+
+        // When
+        limiter.throttled(Duration.ofSeconds(1));
+
+        // Then
+        assertThat(limiter.currentRate()).isEqualTo(5.0);
+        assertThat(limiter.throttledCount()).isEqualTo(1);
+        assertThat(limiter.reserve()).isEqualTo(1200 * MILLI);
+        assertThat(limiter.reserve()).isEqualTo(1400 * MILLI);
+    }
+
+    @Test
+    @DisplayName("Should slow down only once for calls reserved at the old rate")
+    void throttled_shouldHoldRateForEarlierReservations() {
+        // Given
+        RateLimiter limiter = new RateLimiter(10, 1, now::get);
+        for (int i = 0; i < 5; i++) {
+            limiter.reserve();
+        }
+
+        // When
+        limiter.throttled(null);
+        limiter.throttled(null);
+        now.set(400 * MILLI);
+        limiter.throttled(null);
+
+        // Then
+        assertThat(limiter.currentRate()).isEqualTo(2.5);
+        assertThat(limiter.throttledCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should recover the configured rate after successes")
+    void succeeded_shouldRestoreRate() {
+        // Given
+        RateLimiter limiter = new RateLimiter(20, 1, now::get);
+        limiter.throttled(null);
+
+        // When
+        for (int i = 0; i < 60; i++) {
+            limiter.succeeded();
+        }
+
+        // Then
+        assertThat(limiter.currentRate()).isEqualTo(20.0);
+    }
+
+    @Test
+    @DisplayName("Should only delay an unlimited limiter while paused")
+    void unlimited_shouldOnlyHonourPauses() {
+        // Given
+        RateLimiter limiter = RateLimiter.unlimited();
+
+        // When, Then
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isZero();
+        limiter.throttled(Duration.ofSeconds(5));
+        assertThat(limiter.reserve()).isGreaterThan(4000 * MILLI);
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive rate")
+    void constructor_shouldRejectInvalidRate() {
+        assertThatThrownBy(() -> new RateLimiter(0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
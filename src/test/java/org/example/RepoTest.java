@@ -78,8 +78,8 @@ public class RepoTest {
         artistRepo.save(testArtist1);
         artistRepo.save(testArtist2);
 
-        testAlbum1 = new Album(11L, "Best of Test", "Test Rock", 1993, 3L, null, testArtist1);
-        testAlbum2 = new Album(22L, "Test volume 2", "Prog Test", 1980, 2L, null, testArtist2);
+        testAlbum1 = new Album(11L, "Best of Test", "Test Rock", 1993, 3L, testArtist1);
+        testAlbum2 = new Album(22L, "Test volume 2", "Prog Test", 1980, 2L, testArtist2);
         albumRepo.save(testAlbum1);
         albumRepo.save(testAlbum2);
 
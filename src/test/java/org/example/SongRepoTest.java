@@ -1,14 +1,28 @@
 package org.example;
 
+import jakarta.persistence.EntityNotFoundException;
+import org.example.entity.Album;
 import org.example.entity.Artist;
+import org.example.entity.Playlist;
 import org.example.entity.Song;
+import org.example.repo.KnownIdFilter;
+import org.example.repo.LongHashSet;
+import org.example.repo.MenuEntry;
+import org.example.repo.Slice;
 import org.example.repo.SongRepositoryImpl;
 import org.junit.jupiter.api.DisplayName;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Integration tests for {@link SongRepositoryImpl}.
@@ -36,6 +50,38 @@ public class SongRepoTest extends RepoTest {
         assertThat(songExists).isTrue();
     }
 
+    @Test
+    @DisplayName("Should return only the ids of stored songs")
+    void findExistingIds_shouldReturnStoredSubset() {
+        // Given
+        List<Long> ids = List.of(111L, 222L, 999L, 1234L);
+
+        // When
+        LongHashSet existing = songRepo.findExistingIds(ids);
+
+        // Then
+        assertThat(existing.toSortedArray()).containsExactly(111L, 222L);
+    }
+
+    @Test
+    @DisplayName("Should answer existence checks from a warmed known-id filter without querying")
+    void existsByUniqueId_shouldUseWarmedKnownIdFilter() {
+        // Given
+        SongRepositoryImpl filteredRepo = new SongRepositoryImpl(TestPersistenceManager.get(), new KnownIdFilter());
+        filteredRepo.warmKnownIds();
+        Statistics statistics = TestPersistenceManager.get().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        boolean exists = filteredRepo.existsByUniqueId(testSong3);
+        LongHashSet existing = filteredRepo.findExistingIds(List.of(111L, 112L, 221L));
+
+        // Then
+        assertThat(exists).isTrue();
+        assertThat(existing.size()).isEqualTo(3);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
     @Test
     @DisplayName("Should save new song and make it findable")
     void saveSong_shouldSaveSong() {
@@ -50,6 +96,44 @@ public class SongRepoTest extends RepoTest {
         assertThat(testSongs).contains(testSong);
     }
 
+    @Test
+    @DisplayName("Should save many songs in batch-sized round trips")
+    void saveAll_shouldUseBatchedStatements() {
+        // Given
+        List<Song> newSongs = new ArrayList<>();
+        for (long id = 1000; id < 2000; id++) {
+            newSongs.add(new Song(id, "Test Track " + id, 200000L, "", testAlbum2));
+        }
+        Statistics statistics = TestPersistenceManager.get().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        songRepo.saveAll(newSongs);
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1000L / 50);
+        assertThat(songRepo.count()).isEqualTo(1005L);
+    }
+
+    @Test
+    @DisplayName("Should insert new songs and overwrite existing ones in one upsert")
+    void upsertAll_shouldInsertAndOverwrite() {
+        // Given
+        Song renamed = new Song(testSong1.getId(), "Test Me Tender (Live)", 200000L, "", testAlbum1);
+        Song added = new Song(114L, "Bohemian Testsody", 355000L, "", testAlbum1);
+
+        // When
+        songRepo.upsertAll(List.of(renamed, added));
+        songRepo.upsertAll(List.of(renamed, added));
+
+        // Then
+        assertThat(songRepo.count()).isEqualTo(6L);
+        assertThat(songRepo.findByAlbum(testAlbum1))
+            .extracting(Song::getName)
+            .contains("Test Me Tender (Live)", "Bohemian Testsody")
+            .doesNotContain("Test Me Tender");
+    }
+
     @Test
     @DisplayName("Should retrieve all songs from database")
     void findAll_shouldFindAllSongs() {
@@ -83,4 +167,152 @@ public class SongRepoTest extends RepoTest {
         // Then
         assertThat(songs).isEmpty();
     }
+
+    @Test
+    @DisplayName("Should delete songs, remove them from playlists and forget their ids")
+    void deleteAll_shouldDeleteSongsAndPlaylistEntries() {
+        // Given
+        KnownIdFilter knownIds = new KnownIdFilter();
+        SongRepositoryImpl filteredRepo = new SongRepositoryImpl(TestPersistenceManager.get(), knownIds);
+        filteredRepo.warmKnownIds();
+        Playlist playlist = playlistRepo.createPlaylist("Mix");
+        playlistRepo.addSongs(playlist, List.of(testSong1, testSong2));
+        Statistics statistics = TestPersistenceManager.get().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        filteredRepo.deleteAll(List.of(testSong1.getId(), testSong1.getId(), 999L));
+
+        // Then
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        assertThat(songRepo.count()).isEqualTo(4L);
+        assertThat(knownIds.contains(testSong1.getId())).isFalse();
+        assertThat(knownIds.contains(testSong2.getId())).isTrue();
+        assertThat(playlistRepo.findById(playlist.getId()).getSongs()).containsExactly(testSong2);
+    }
+
+    @Test
+    @DisplayName("Should page through songs in title order without skipping or repeating equal titles")
+    void findPage_shouldWalkSongsInTitleOrder() {
+        // Given
+        songRepo.save(new Song(223L, "Test Me Tender", 185000L, "", testAlbum2));
+        List<Long> ids = new ArrayList<>();
+
+        // When
+        Slice<Song> page = songRepo.findPage(null, 2);
+        ids.addAll(page.items().stream().map(Song::getId).toList());
+        int pages = 1;
+        while (page.hasNext()) {
+            page = songRepo.findPage(page.next(), 2);
+            ids.addAll(page.items().stream().map(Song::getId).toList());
+            pages++;
+        }
+
+        // Then
+        assertThat(pages).isEqualTo(3);
+        assertThat(ids).containsExactly(221L, 113L, 222L, 111L, 223L, 112L);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed page tokens and out-of-range page sizes")
+    void findPage_shouldRejectInvalidArguments() {
+        // Given, When, Then
+        assertThatThrownBy(() -> songRepo.findPage("not a token", 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> songRepo.findPage(null, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should list album songs as menu entries and load only the selected song in full")
+    void findMenuEntriesByAlbum_shouldListSongsAndLoadSelection() {
+        // When
+        List<MenuEntry> entries = songRepo.findMenuEntriesByAlbum(testAlbum1.getId());
+        Song selected = songRepo.findById(entries.getLast().id());
+
+        // Then
+        assertThat(entries).extracting(MenuEntry::id).containsExactly(111L, 112L, 113L);
+        assertThat(entries.getLast().name()).isEqualTo("Crazy Little Thing Called Test");
+        assertThat(selected.getAlbum().getArtist().getName()).isEqualTo("Test and Test");
+        assertThat(songRepo.findMenuEntries()).hasSize(5).first()
+            .isEqualTo(new MenuEntry(221L, "Another One Bites the Test"));
+        assertThatThrownBy(() -> songRepo.findById(999L)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should stream every song once in id order with one query and without filling the cache")
+    void streamAll_shouldVisitEverySongOnce() {
+        // Given
+        List<Song> tracks = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            tracks.add(new Song(1_000L + i, "Track " + i, 180_000L, "", i % 2 == 0 ? testAlbum1 : testAlbum2));
+        }
+        songRepo.saveAll(tracks);
+        TestPersistenceManager.get().getCache().evictAll();
+        Statistics statistics = TestPersistenceManager.get().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        List<Song> streamed;
+        try (Stream<Song> songs = songRepo.streamAll()) {
+            streamed = songs.toList();
+        }
+
+        // Then
+        assertThat(streamed).extracting(Song::getId).hasSize(1_205).isSorted().doesNotHaveDuplicates();
+        assertThat(streamed).allMatch(s -> s.getAlbum().getArtist().getName() != null);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1L);
+        assertThat(statistics.getSecondLevelCachePutCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should read only the rows of a page, however deep it is in a large catalog")
+    void findPage_shouldCostTheSameDeepInCatalog() {
+        // Given
+        int count = 50_000;
+        int size = 50;
+        List<Album> albums = new ArrayList<>();
+        List<Song> songs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (i % 100 == 0) {
+                albums.add(new Album(100_000L + i, "Album " + i, "Test Rock", 2000, 100L, testArtist1));
+            }
+            songs.add(new Song(10_000L + i, String.format("Track %06d", i), 180_000L, "", albums.getLast()));
+        }
+        albumRepo.saveAll(albums);
+        songRepo.saveAll(songs);
+        int offset = count - 1_000;
+        String deep = null;
+        for (int i = 0; i < offset / 1_000; i++) {
+            deep = songRepo.findPage(deep, 1_000).next();
+        }
+
+        // When
+        Slice<Song> deepPage = songRepo.findPage(deep, size);
+        long firstScanned = scannedSongRows(
+            "select song_id from song where title is not null order by title, song_id limit 51");
+        long deepScanned = scannedSongRows("select song_id from song"
+            + " where title >= 'Track 048994' and (title > 'Track 048994' or song_id > 58994)"
+            + " order by title, song_id limit 51");
+        long offsetScanned = scannedSongRows(
+            "select song_id from song order by title, song_id offset " + offset + " rows fetch next 51 rows only");
+
+        // Then
+        assertThat(deepPage.items()).hasSize(size).extracting(Song::getName).first().isEqualTo("Track 048995");
+        assertThat(firstScanned).isBetween(size + 1L, size + 2L);
+        assertThat(deepScanned).isBetween(size + 1L, size + 2L);
+        assertThat(offsetScanned).isGreaterThan(offset);
+    }
+
+    /**
+     * Runs the query with {@code explain analyze} and returns how many rows
+     * H2 read from the song table, asserting that the title index was used.
+     */
+    private static long scannedSongRows(String sql) {
+        String plan = TestPersistenceManager.get().callInTransaction(em ->
+            (String) em.createNativeQuery("explain analyze " + sql).getSingleResult());
+        assertThat(plan).containsIgnoringCase("idx_song_title_id");
+        Matcher scanCount = Pattern.compile("scanCount: (\\d+)").matcher(plan);
+        assertThat(scanCount.find()).isTrue();
+        return Long.parseLong(scanCount.group(1));
+    }
 }
@@ -43,10 +43,18 @@ public final class TestPersistenceManager {
                 "jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
                 "sa",
                 "",
-                Map.of(
-                    "hibernate.hbm2ddl.auto", "create-drop",
-                    "hibernate.dialect", "org.hibernate.dialect.H2Dialect",
-                    "hibernate.show_sql", "false"
+                Map.ofEntries(
+                    Map.entry("hibernate.hbm2ddl.auto", "create-drop"),
+                    Map.entry("hibernate.dialect", "org.hibernate.dialect.H2Dialect"),
+                    Map.entry("hibernate.show_sql", "false"),
+                    Map.entry("hibernate.jdbc.batch_size", "50"),
+                    Map.entry("hibernate.order_inserts", "true"),
+                    Map.entry("hibernate.generate_statistics", "true"),
+                    Map.entry("hibernate.cache.use_second_level_cache", "true"),
+                    Map.entry("hibernate.cache.use_query_cache", "true"),
+                    Map.entry("hibernate.cache.region.factory_class", "jcache"),
+                    Map.entry("hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"),
+                    Map.entry("hibernate.cache.auto_evict_collection_cache", "true")
                 )
             );
         }
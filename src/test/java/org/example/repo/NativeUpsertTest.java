@@ -0,0 +1,66 @@
+package org.example.repo;
+
+import org.hibernate.dialect.DatabaseVersion;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MariaDBDialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the statements generated by {@link NativeUpsert}.
+ *
+ * <p>The repository tests run against H2 and only execute the {@code MERGE}
+ * form, so the MySQL and MariaDB forms are checked here as text.</p>
+ */
+@DisplayName("Native Upsert Tests")
+public class NativeUpsertTest {
+
+    private static final List<String> COLUMNS = List.of("song_id", "title", "album_id");
+
+    @Test
+    @DisplayName("Should use the row alias instead of the deprecated VALUES() on MySQL")
+    void sql_shouldUseRowAliasOnMySql() {
+        // When
+        String sql = NativeUpsert.sql(new MySQLDialect(DatabaseVersion.make(9, 5)), "song", COLUMNS);
+
+        // Then
+        assertThat(sql).isEqualTo("insert into song (song_id, title, album_id) values (?, ?, ?) as new"
+            + " on duplicate key update title = new.title, album_id = new.album_id");
+    }
+
+    @Test
+    @DisplayName("Should use VALUES() on MariaDB, which has no row alias")
+    void sql_shouldUseValuesOnMariaDb() {
+        // When
+        String sql = NativeUpsert.sql(new MariaDBDialect(), "song", COLUMNS);
+
+        // Then
+        assertThat(sql).isEqualTo("insert into song (song_id, title, album_id) values (?, ?, ?)"
+            + " on duplicate key update title = values(title), album_id = values(album_id)");
+    }
+
+    @Test
+    @DisplayName("Should merge on the primary key on H2")
+    void sql_shouldMergeOnH2() {
+        // When
+        String sql = NativeUpsert.sql(new H2Dialect(), "song", COLUMNS);
+
+        // Then
+        assertThat(sql).isEqualTo("merge into song (song_id, title, album_id) key (song_id) values (?, ?, ?)");
+    }
+
+    @Test
+    @DisplayName("Should reject dialects without a supported upsert form")
+    void sql_shouldRejectOtherDialects() {
+        assertThatThrownBy(() -> NativeUpsert.sql(new PostgreSQLDialect(), "song", COLUMNS))
+            .isInstanceOf(UnsupportedOperationException.class)
+            .hasMessageContaining("PostgreSQLDialect");
+    }
+}